@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.test.binrpc;
+
+import java.io.ByteArrayInputStream;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcRequest;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.common.HomematicContext;
+import org.openhab.binding.homematic.internal.communicator.HomematicCallbackReceiver;
+import org.openhab.binding.homematic.internal.communicator.client.BinRpcConnectionPool;
+import org.openhab.binding.homematic.internal.communicator.server.BinRpcNetworkService;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * Testcases for the BIN-RPC communication with a {@link FakeCcu}.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class BinRpcLoadTest {
+	private static final String LISTENER_THREAD = "BIN-RPC listener";
+
+	private FakeCcu ccu;
+	private BinRpcConnectionPool connectionPool;
+	private Hashtable<String, String> previousConfig;
+	private BinRpcNetworkService networkService;
+	private Thread networkServiceThread;
+
+	@Before
+	public void setUp() throws Exception {
+		ccu = new FakeCcu();
+		connectionPool = new BinRpcConnectionPool();
+		previousConfig = saveConfig();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (networkService != null) {
+			networkService.shutdown();
+			networkServiceThread.join(5000);
+		}
+		connectionPool.close();
+		ccu.shutdown();
+		restoreConfig(previousConfig);
+	}
+
+	@Test
+	public void testEncoding() throws Exception {
+		Map<String, Object> struct = new HashMap<String, Object>();
+		struct.put("LEVEL", 0.5);
+		struct.put("WORKING", Boolean.FALSE);
+
+		BinRpcRequest request = new BinRpcRequest("setValue");
+		request.addArg("KEQ0000001:1");
+		request.addArg(Integer.valueOf(-42));
+		request.addArg(Boolean.TRUE);
+		request.addArg(Double.valueOf(-12.25));
+		request.addArg(struct);
+		byte[] message = request.createMessage();
+
+		// a following smaller message must not contain data of the larger one
+		for (int i = 0; i < 2; i++) {
+			BinRpcResponse response = new BinRpcResponse(new ByteArrayInputStream(message), true);
+			Assert.assertEquals("setValue", response.getMethodName());
+			Object[] data = response.getResponseData();
+			Assert.assertEquals(5, data.length);
+			Assert.assertEquals("KEQ0000001:1", data[0]);
+			Assert.assertEquals(-42, data[1]);
+			Assert.assertEquals(Boolean.TRUE, data[2]);
+			Assert.assertEquals(-12.25, data[3]);
+			Assert.assertEquals(struct, data[4]);
+
+			BinRpcRequest small = new BinRpcRequest("init");
+			small.addArg("binary://localhost:9123");
+			response = new BinRpcResponse(new ByteArrayInputStream(small.createMessage()), true);
+			Assert.assertEquals("init", response.getMethodName());
+			Assert.assertEquals(1, response.getResponseData().length);
+			Assert.assertEquals("binary://localhost:9123", response.getResponseData()[0]);
+		}
+	}
+
+	@Test
+	public void testMalformedLength() throws Exception {
+		BinRpcRequest large = new BinRpcRequest("event");
+		large.addArg("a string which stays in the buffer of the thread");
+		new BinRpcResponse(new ByteArrayInputStream(large.createMessage()), true);
+
+		// a string of 16 bytes in a message with 8 bytes of data
+		byte[] malformed = new byte[] { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 16 };
+		try {
+			new BinRpcResponse(new ByteArrayInputStream(malformed), false);
+			Assert.fail("Decoded a string past the end of the message");
+		} catch (ParseException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testKeepAlive() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			BinRpcRequest request = new BinRpcRequest("setValue");
+			request.addArg("KEQ0000001:1");
+			request.addArg("STATE");
+			request.addArg(Boolean.valueOf(i % 2 == 0));
+			BinRpcResponse response = connectionPool.send("localhost", ccu.getPort(), 5000, request.createMessage());
+			Assert.assertEquals("", response.getResponseData()[0]);
+		}
+		Assert.assertEquals(100, ccu.getRequestCount());
+		Assert.assertEquals(1, ccu.getConnectionCount());
+	}
+
+	@Test
+	public void testReconnect() throws Exception {
+		byte[] message = new BinRpcRequest("listBidcosInterfaces").createMessage();
+		connectionPool.send("localhost", ccu.getPort(), 5000, message);
+		ccu.closeConnections();
+
+		BinRpcResponse response = connectionPool.send("localhost", ccu.getPort(), 5000, message);
+		Assert.assertEquals("", response.getResponseData()[0]);
+		Assert.assertEquals(2, ccu.getRequestCount());
+		Assert.assertEquals(2, ccu.getConnectionCount());
+	}
+
+	@Test
+	public void testEventStorm() throws Exception {
+		final AtomicInteger events = new AtomicInteger();
+		int port = startNetworkService(new EventReceiver() {
+			@Override
+			public void event(String interfaceId, String address, String parameterKey, Object value) {
+				events.incrementAndGet();
+			}
+		});
+
+		FakeCcu.sendEvents("localhost", port, 2000, 50);
+		Assert.assertEquals(2000, events.get());
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		final CountDownLatch saturated = new CountDownLatch(1);
+		final AtomicInteger events = new AtomicInteger();
+		final AtomicInteger listenerEvents = new AtomicInteger();
+		int port = startNetworkService(new EventReceiver() {
+			@Override
+			public void event(String interfaceId, String address, String parameterKey, Object value) {
+				events.incrementAndGet();
+				if (LISTENER_THREAD.equals(Thread.currentThread().getName())) {
+					// all workers are busy and the queue is full
+					listenerEvents.incrementAndGet();
+					saturated.countDown();
+				} else {
+					try {
+						saturated.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+
+		// one event more than the workers and the queue can take
+		int count = BinRpcNetworkService.WORKER_THREADS + BinRpcNetworkService.MAX_QUEUED_MESSAGES + 1;
+		FakeCcu.sendEvents("localhost", port, count, count);
+
+		Assert.assertEquals(0, saturated.getCount());
+		Assert.assertTrue(listenerEvents.get() >= 1);
+		Assert.assertEquals(count, events.get());
+	}
+
+	/**
+	 * Starts a BinRpcNetworkService on a free port and returns the port.
+	 */
+	private int startNetworkService(HomematicCallbackReceiver receiver) throws Exception {
+		Hashtable<String, String> config = new Hashtable<String, String>();
+		config.put("host", "localhost");
+		config.put("callback.host", "localhost");
+		config.put("callback.port", "0");
+		HomematicContext.getInstance().getConfig().parse(config);
+
+		networkService = new BinRpcNetworkService(receiver);
+		networkServiceThread = new Thread(networkService, LISTENER_THREAD);
+		networkServiceThread.start();
+		return networkService.getPort();
+	}
+
+	/**
+	 * Returns the properties of the current config or null, if the binding
+	 * isn't configured.
+	 */
+	private static Hashtable<String, String> saveConfig() {
+		HomematicConfig config = HomematicContext.getInstance().getConfig();
+		if (!config.isValid()) {
+			return null;
+		}
+		Hashtable<String, String> properties = new Hashtable<String, String>();
+		properties.put("host", config.getHost());
+		properties.put("host.timeout", String.valueOf(config.getTimeout()));
+		properties.put("callback.host", config.getCallbackHost());
+		properties.put("callback.port", String.valueOf(config.getCallbackPort()));
+		properties.put("alive.interval", String.valueOf(config.getAliveInterval()));
+		if (config.getReconnectInterval() != null) {
+			properties.put("reconnect.interval", String.valueOf(config.getReconnectInterval()));
+		}
+		return properties;
+	}
+
+	/**
+	 * Restores the saved config, an unconfigured binding stays invalid.
+	 */
+	private static void restoreConfig(Hashtable<String, String> properties) throws ConfigurationException {
+		HomematicConfig config = HomematicContext.getInstance().getConfig();
+		if (properties != null) {
+			config.parse(properties);
+		} else {
+			try {
+				config.parse(new Hashtable<String, String>());
+			} catch (ConfigurationException ex) {
+				// expected, the missing host invalidates the config
+			}
+		}
+	}
+
+	/**
+	 * A callback receiver which is only interested in events.
+	 */
+	private static abstract class EventReceiver implements HomematicCallbackReceiver {
+		@Override
+		public void newDevices(String interfaceId, Object[] deviceDescriptions) {
+		}
+	}
+}
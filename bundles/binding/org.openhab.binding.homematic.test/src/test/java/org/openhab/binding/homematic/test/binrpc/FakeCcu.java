@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.test.binrpc;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openhab.binding.homematic.internal.binrpc.BinRpcRequest;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+
+/**
+ * Local stand-in for the BIN-RPC interface of a CCU for load tests. It
+ * answers every call with an empty string and keeps the connections open
+ * like the CCU does. Like the CCU after a restart, it can send a storm of
+ * events to a callback server, each event on a new connection.
+ *
+ * Start it with <code>FakeCcu &lt;callbackHost&gt; &lt;callbackPort&gt; &lt;events&gt; &lt;threads&gt;</code>
+ * to send events to a running binding.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class FakeCcu implements Runnable {
+	private static final byte[] EMPTY_RESULT;
+
+	static {
+		BinRpcRequest result = new BinRpcRequest(null);
+		result.addArg("");
+		EMPTY_RESULT = result.createMessage();
+	}
+
+	private ServerSocket serverSocket;
+	private ExecutorService connectionHandlers = Executors.newCachedThreadPool();
+	private Set<Socket> openConnections = Collections.synchronizedSet(new HashSet<Socket>());
+	private AtomicInteger connectionCount = new AtomicInteger();
+	private AtomicInteger requestCount = new AtomicInteger();
+	private volatile boolean running = true;
+
+	/**
+	 * Starts the BIN-RPC server at a free port.
+	 */
+	public FakeCcu() throws IOException {
+		serverSocket = new ServerSocket(0);
+		new Thread(this, "FakeCcu").start();
+	}
+
+	/**
+	 * Returns the port of the BIN-RPC server.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Returns the number of connections accepted so far.
+	 */
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	/**
+	 * Returns the number of calls received so far.
+	 */
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Accepts the connections of the clients.
+	 */
+	@Override
+	public void run() {
+		while (running) {
+			try {
+				final Socket socket = serverSocket.accept();
+				connectionCount.incrementAndGet();
+				openConnections.add(socket);
+				connectionHandlers.execute(new Runnable() {
+					@Override
+					public void run() {
+						handle(socket);
+					}
+				});
+			} catch (IOException ex) {
+				// closed
+			}
+		}
+	}
+
+	/**
+	 * Answers the calls of a client until the connection is closed.
+	 */
+	private void handle(Socket socket) {
+		try {
+			while (running) {
+				new BinRpcResponse(socket.getInputStream(), true);
+				requestCount.incrementAndGet();
+				socket.getOutputStream().write(EMPTY_RESULT);
+			}
+		} catch (Exception ex) {
+			// closed
+		} finally {
+			closeSocket(socket);
+		}
+	}
+
+	/**
+	 * Closes the open connections, like the CCU does after a while.
+	 */
+	public void closeConnections() {
+		synchronized (openConnections) {
+			for (Socket socket : openConnections) {
+				closeSocket(socket);
+			}
+		}
+	}
+
+	/**
+	 * Sends events to a callback server from several threads and waits until
+	 * all events are answered.
+	 */
+	public static void sendEvents(final String host, final int port, int events, int threads) throws Exception {
+		ExecutorService senders = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>();
+			for (int i = 0; i < events; i++) {
+				final byte[] event = createEvent("FAKE" + (i % 300) + ":1", "RSSI_DEVICE", -(i % 100));
+				results.add(senders.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						Socket socket = new Socket(host, port);
+						try {
+							socket.getOutputStream().write(event);
+							return new BinRpcResponse(socket.getInputStream(), false);
+						} finally {
+							closeSocket(socket);
+						}
+					}
+				}));
+			}
+			for (Future<Object> result : results) {
+				result.get();
+			}
+		} finally {
+			senders.shutdown();
+		}
+	}
+
+	/**
+	 * Creates the BIN-RPC message of an event.
+	 */
+	public static byte[] createEvent(String addressWithChannel, String parameter, Object value) {
+		BinRpcRequest request = new BinRpcRequest("event");
+		request.addArg("openHAB");
+		request.addArg(addressWithChannel);
+		request.addArg(parameter);
+		request.addArg(value);
+		return request.createMessage();
+	}
+
+	/**
+	 * Stops the server and closes all connections.
+	 */
+	public void shutdown() {
+		running = false;
+		closeSocket(serverSocket);
+		closeConnections();
+		connectionHandlers.shutdownNow();
+	}
+
+	private static void closeSocket(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException ex) {
+			// ignore
+		}
+	}
+
+	private static void closeSocket(ServerSocket socket) {
+		try {
+			socket.close();
+		} catch (IOException ex) {
+			// ignore
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("Usage: FakeCcu <callbackHost> <callbackPort> [<events> [<threads>]]");
+			return;
+		}
+		int events = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+		long start = System.currentTimeMillis();
+		sendEvents(args[0], Integer.parseInt(args[1]), events, threads);
+		System.out.println("Sent " + events + " events in " + (System.currentTimeMillis() - start) + "ms");
+	}
+}
@@ -26,6 +26,16 @@ import org.apache.commons.lang.builder.ToStringStyle;
  * @since 1.5.0
  */
 public class BinRpcRequest {
+	/** buffers up to this size are kept for the next message of the thread */
+	private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+	private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[256];
+		}
+	};
+
 	private byte data[];
 	private int dataoffset;
 	private String methodName;
@@ -53,7 +63,9 @@ public class BinRpcRequest {
 	 * Generates the binrpc data.
 	 */
 	public byte[] createMessage() {
-		data = new byte[256];
+		data = buffers.get();
+		// the header is written when the length is known
+		dataoffset = 8;
 		if (methodName != null) {
 			addInt(methodName.length());
 			addString(methodName);
@@ -62,13 +74,20 @@ public class BinRpcRequest {
 
 		addList(args);
 
-		byte fullreq[] = new byte[dataoffset + 8];
-		System.arraycopy(data, 0, fullreq, 8, dataoffset);
-		fullreq[0] = 'B';
-		fullreq[1] = 'i';
-		fullreq[2] = 'n';
-		addInt(dataoffset);
-		System.arraycopy(data, dataoffset - 4, fullreq, 4, 4);
+		int length = dataoffset;
+		data[0] = 'B';
+		data[1] = 'i';
+		data[2] = 'n';
+		data[3] = 0;
+		dataoffset = 4;
+		addInt(length - 8);
+
+		byte fullreq[] = new byte[length];
+		System.arraycopy(data, 0, fullreq, 0, length);
+		if (data.length <= MAX_REUSED_BUFFER_SIZE) {
+			buffers.set(data);
+		}
+		data = null;
 		return fullreq;
 	}
 
@@ -82,13 +101,10 @@ public class BinRpcRequest {
 	}
 
 	private void addInt(int n) {
-		byte d[] = BigInteger.valueOf(n).toByteArray();
-		for (int c = 0; c < 4 - d.length; c++) {
-			addByte(n < 0 ? (byte) 0xFF : (byte) 0);
-		}
-		for (byte s : d) {
-			addByte(s);
-		}
+		addByte((byte) (n >> 24));
+		addByte((byte) (n >> 16));
+		addByte((byte) (n >> 8));
+		addByte((byte) n);
 	}
 
 	private void addDouble(double v) {
@@ -13,7 +13,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -35,7 +34,18 @@ import org.slf4j.LoggerFactory;
 public class BinRpcResponse {
 	private final static Logger logger = LoggerFactory.getLogger(BinRpcResponse.class);
 
+	/** buffers up to this size are kept for the next message of the thread */
+	private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+	private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[1024];
+		}
+	};
+
 	private byte data[];
+	private int datalength;
 	private int dataoffset = 0;
 	private String methodName;
 	private Object[] responseData;
@@ -44,39 +54,45 @@ public class BinRpcResponse {
 	 * Decodes a BIN-RPC message from the given InputStream.
 	 */
 	public BinRpcResponse(InputStream is, boolean methodHeader) throws IOException, ParseException {
-		byte sig[] = new byte[4];
-		int l = is.read(sig);
-		if (l != sig.length) {
+		data = buffers.get();
+		int l = read(is, 4);
+		if (l != 4) {
 			throw new EOFException("Only " + l + " bytes received reading signature");
 		}
-		if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
+		if (data[0] != 'B' || data[1] != 'i' || data[2] != 'n') {
 			throw new UnsupportedEncodingException("No BinX signature");
 		}
-		l = is.read(sig);
-		if (l != sig.length) {
+		l = read(is, 4);
+		if (l != 4) {
 			throw new EOFException("Only " + l + " bytes received reading length");
 		}
-		int datasize = (new BigInteger(sig)).intValue();
-		data = new byte[datasize];
-		int offset = 0;
-		while (datasize > 0) {
-			int r = is.read(data, offset, datasize);
-			if (r < 1) {
-				throw new EOFException("EOF while reading data");
+		datalength = l;
+		int datasize = readInt();
+		if (datasize < 0) {
+			throw new UnsupportedEncodingException("Invalid data length " + datasize);
+		}
+		if (datasize > data.length) {
+			data = new byte[datasize];
+			if (datasize <= MAX_REUSED_BUFFER_SIZE) {
+				buffers.set(data);
 			}
-			datasize -= r;
-			offset += r;
 		}
+		if (read(is, datasize) != datasize) {
+			throw new EOFException("EOF while reading data");
+		}
+		datalength = datasize;
+		dataoffset = 0;
 
 		if (methodHeader) {
 			int slen = readInt();
+			checkLength(slen);
 			methodName = new String(data, dataoffset, slen, "ISO-8859-1");
 			dataoffset += slen;
 			readInt();
 		}
 
 		List<Object> values = new ArrayList<Object>();
-		while (dataoffset < data.length) {
+		while (dataoffset < datalength) {
 			values.add(readRpcValue());
 		}
 		responseData = values.toArray();
@@ -98,11 +114,40 @@ public class BinRpcResponse {
 		return responseData;
 	}
 
-	private int readInt() {
-		byte bi[] = new byte[4];
-		System.arraycopy(data, dataoffset, bi, 0, 4);
+	/**
+	 * Reads the given number of bytes to the start of the buffer and returns
+	 * the number of bytes read.
+	 */
+	private int read(InputStream is, int length) throws IOException {
+		int offset = 0;
+		while (offset < length) {
+			int r = is.read(data, offset, length - offset);
+			if (r < 0) {
+				break;
+			}
+			offset += r;
+		}
+		dataoffset = 0;
+		return offset;
+	}
+
+	/**
+	 * Checks that the next bytes belong to the current message, the buffer may
+	 * contain the remainder of a previous message after them.
+	 */
+	private void checkLength(int length) throws ParseException {
+		if (length < 0 || dataoffset + length > datalength) {
+			throw new ParseException("Invalid length " + length + " at offset " + dataoffset + " of "
+					+ datalength + " bytes", dataoffset);
+		}
+	}
+
+	private int readInt() throws ParseException {
+		checkLength(4);
+		int value = ((data[dataoffset] & 0xFF) << 24) | ((data[dataoffset + 1] & 0xFF) << 16)
+				| ((data[dataoffset + 2] & 0xFF) << 8) | (data[dataoffset + 3] & 0xFF);
 		dataoffset += 4;
-		return (new BigInteger(bi)).intValue();
+		return value;
 	}
 
 	private Object readRpcValue() throws UnsupportedEncodingException, ParseException {
@@ -111,9 +156,11 @@ public class BinRpcResponse {
 		case 1:
 			return new Integer(readInt());
 		case 2:
+			checkLength(1);
 			return data[dataoffset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
 		case 3:
 			int len = readInt();
+			checkLength(len);
 			dataoffset += len;
 			return new String(data, dataoffset - len, len, "ISO-8859-1");
 		case 4:
@@ -137,6 +184,7 @@ public class BinRpcResponse {
 			Map<String, Object> struct = new TreeMap<String, Object>();
 			while (numElements-- > 0) {
 				int slen = readInt();
+				checkLength(slen);
 				String name = new String(data, dataoffset, slen, "ISO-8859-1");
 				dataoffset += slen;
 				struct.put(name, readRpcValue());
@@ -144,7 +192,7 @@ public class BinRpcResponse {
 			return struct;
 
 		default:
-			for (int x = 0; x < data.length; x++) {
+			for (int x = 0; x < datalength; x++) {
 				logger.info(Integer.toHexString(data[x]) + " " + (char) data[x]);
 			}
 			throw new ParseException("Unknown data type " + type, type);
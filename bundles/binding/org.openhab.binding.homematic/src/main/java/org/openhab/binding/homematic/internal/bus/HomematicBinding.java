@@ -110,6 +110,7 @@ public class HomematicBinding extends AbstractActiveBinding<HomematicBindingProv
 	@Override
 	public void allBindingsChanged(BindingProvider provider) {
 		super.allBindingsChanged(provider);
+		context.getProviderItemIndex().invalidate();
 		if (isProperlyConfigured()) {
 			if (provider instanceof HomematicBindingProvider) {
 				HomematicBindingProvider hmProvider = (HomematicBindingProvider) provider;
@@ -126,6 +127,7 @@ public class HomematicBinding extends AbstractActiveBinding<HomematicBindingProv
 	@Override
 	public void bindingChanged(BindingProvider provider, String itemName) {
 		super.bindingChanged(provider, itemName);
+		context.getProviderItemIndex().invalidate();
 		if (isProperlyConfigured()) {
 			if (provider instanceof HomematicBindingProvider) {
 				HomematicBindingProvider hmProvider = (HomematicBindingProvider) provider;
@@ -134,6 +136,15 @@ public class HomematicBinding extends AbstractActiveBinding<HomematicBindingProv
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeBindingProvider(HomematicBindingProvider provider) {
+		super.removeBindingProvider(provider);
+		context.getProviderItemIndex().invalidate();
+	}
+
 	/**
 	 * Schedules a job with a short delay to populate changed items to openHAB
 	 * after startup or an item reload.
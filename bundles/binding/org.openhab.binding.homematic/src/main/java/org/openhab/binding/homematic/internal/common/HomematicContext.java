@@ -11,6 +11,7 @@ package org.openhab.binding.homematic.internal.common;
 import java.util.Collection;
 
 import org.openhab.binding.homematic.HomematicBindingProvider;
+import org.openhab.binding.homematic.internal.communicator.ProviderItemIndex;
 import org.openhab.binding.homematic.internal.communicator.StateHolder;
 import org.openhab.binding.homematic.internal.communicator.client.ServerId;
 import org.openhab.binding.homematic.internal.communicator.client.interfaces.HomematicClient;
@@ -28,6 +29,7 @@ public class HomematicContext {
 	private Collection<HomematicBindingProvider> providers;
 	private HomematicConfig config = new HomematicConfig();
 	private ConverterFactory converterFactory = new ConverterFactory();
+	private ProviderItemIndex providerItemIndex = new ProviderItemIndex(converterFactory);
 	private HomematicClient homematicClient;
 	private StateHolder stateHolder;
 	private ServerId serverId;
@@ -81,6 +83,7 @@ public class HomematicContext {
 	 */
 	public void setProviders(Collection<HomematicBindingProvider> providers) {
 		this.providers = providers;
+		providerItemIndex.setProviders(providers);
 	}
 
 	/**
@@ -90,6 +93,13 @@ public class HomematicContext {
 		return converterFactory;
 	}
 
+	/**
+	 * Returns the index of all provider items.
+	 */
+	public ProviderItemIndex getProviderItemIndex() {
+		return providerItemIndex;
+	}
+
 	/**
 	 * Returns the HomematicClient.
 	 */
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openhab.binding.homematic.HomematicBindingProvider;
+import org.openhab.binding.homematic.internal.config.binding.HomematicBindingConfig;
+import org.openhab.binding.homematic.internal.converter.ConverterFactory;
+import org.openhab.binding.homematic.internal.converter.state.Converter;
+import org.openhab.core.items.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of all provider items by their binding, a datapoint
+ * (address, channel, parameter), a variable, a program or an action. The
+ * converter of each item is created once when the index is built. The index
+ * is rebuilt on the first lookup after a binding has changed.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class ProviderItemIndex {
+	private static final Logger logger = LoggerFactory.getLogger(ProviderItemIndex.class);
+
+	private Collection<HomematicBindingProvider> providers;
+	private ConverterFactory converterFactory;
+
+	private volatile Map<HomematicBindingConfig, List<Entry>> index;
+
+	/**
+	 * Creates the index for the providers, using the converterFactory for the
+	 * items.
+	 */
+	public ProviderItemIndex(ConverterFactory converterFactory) {
+		this.converterFactory = converterFactory;
+	}
+
+	/**
+	 * Sets the providers to index.
+	 */
+	public void setProviders(Collection<HomematicBindingProvider> providers) {
+		this.providers = providers;
+		invalidate();
+	}
+
+	/**
+	 * Marks the index as outdated, it is rebuilt on the next lookup.
+	 */
+	public synchronized void invalidate() {
+		index = null;
+	}
+
+	/**
+	 * Returns the items with their binding and converter for the specified
+	 * bindingConfig.
+	 */
+	public List<Entry> get(HomematicBindingConfig bindingConfig) {
+		Map<HomematicBindingConfig, List<Entry>> currentIndex = index;
+		if (currentIndex == null) {
+			currentIndex = build();
+		}
+		List<Entry> entries = currentIndex.get(bindingConfig);
+		return entries == null ? Collections.<Entry> emptyList() : entries;
+	}
+
+	/**
+	 * Builds the index from all providers and their items.
+	 */
+	private synchronized Map<HomematicBindingConfig, List<Entry>> build() {
+		if (index != null) {
+			return index;
+		}
+
+		Map<HomematicBindingConfig, List<Entry>> newIndex = new HashMap<HomematicBindingConfig, List<Entry>>();
+		if (providers != null) {
+			for (HomematicBindingProvider provider : providers) {
+				for (String itemName : provider.getItemNames()) {
+					Item item = provider.getItem(itemName);
+					HomematicBindingConfig bindingConfig = provider.getBindingFor(itemName);
+					if (item == null || bindingConfig == null) {
+						continue;
+					}
+					Converter<?> converter = converterFactory.createConverter(item, bindingConfig);
+					if (converter != null) {
+						List<Entry> entries = newIndex.get(bindingConfig);
+						if (entries == null) {
+							entries = new ArrayList<Entry>(1);
+							newIndex.put(bindingConfig, entries);
+						}
+						entries.add(new Entry(bindingConfig, item, converter));
+					}
+				}
+			}
+		}
+		logger.debug("Indexed {} Homematic bindings", newIndex.size());
+		index = newIndex;
+		return newIndex;
+	}
+
+	/**
+	 * A provider item with its binding and converter.
+	 */
+	public static class Entry {
+		private HomematicBindingConfig bindingConfig;
+		private Item item;
+		private Converter<?> converter;
+
+		private Entry(HomematicBindingConfig bindingConfig, Item item, Converter<?> converter) {
+			this.bindingConfig = bindingConfig;
+			this.item = item;
+			this.converter = converter;
+		}
+
+		/**
+		 * Returns the binding of the item.
+		 */
+		public HomematicBindingConfig getBindingConfig() {
+			return bindingConfig;
+		}
+
+		/**
+		 * Returns the item.
+		 */
+		public Item getItem() {
+			return item;
+		}
+
+		/**
+		 * Returns the converter of the item.
+		 */
+		public Converter<?> getConverter() {
+			return converter;
+		}
+	}
+}
@@ -8,9 +8,6 @@
  */
 package org.openhab.binding.homematic.internal.communicator;
 
-import java.util.List;
-
-import org.openhab.binding.homematic.HomematicBindingProvider;
 import org.openhab.binding.homematic.internal.common.HomematicContext;
 import org.openhab.binding.homematic.internal.config.binding.HomematicBindingConfig;
 import org.openhab.binding.homematic.internal.converter.state.Converter;
@@ -26,19 +23,14 @@ public class ProviderItemIterator {
 	protected HomematicContext context = HomematicContext.getInstance();
 
 	/**
-	 * Iterate through all providers and their items, creates a converter and
-	 * calls the callback.
+	 * Iterate through all provider items with the bindingConfig and calls the
+	 * callback with the converter of the item.
+	 * 
+	 * @see ProviderItemIndex
 	 */
 	public void iterate(HomematicBindingConfig bindingConfig, ProviderItemIteratorCallback callback) {
-		for (HomematicBindingProvider provider : context.getProviders()) {
-			List<Item> items = provider.getItemsFor(bindingConfig);
-			for (Item item : items) {
-				HomematicBindingConfig providerBindingConfig = provider.getBindingFor(item.getName());
-				Converter<?> converter = context.getConverterFactory().createConverter(item, providerBindingConfig);
-				if (converter != null) {
-					callback.next(providerBindingConfig, item, converter);
-				}
-			}
+		for (ProviderItemIndex.Entry entry : context.getProviderItemIndex().get(bindingConfig)) {
+			callback.next(entry.getBindingConfig(), entry.getItem(), entry.getConverter());
 		}
 	}
 
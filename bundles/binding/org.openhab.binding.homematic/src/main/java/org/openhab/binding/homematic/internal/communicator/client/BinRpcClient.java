@@ -10,7 +10,6 @@ package org.openhab.binding.homematic.internal.communicator.client;
 
 import java.io.IOException;
 import java.net.ConnectException;
-import java.net.Socket;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,6 +34,7 @@ public class BinRpcClient implements RpcClient {
 	private final static boolean TRACE_ENABLED = logger.isTraceEnabled();
 
 	private HomematicContext context = HomematicContext.getInstance();
+	private BinRpcConnectionPool connectionPool = new BinRpcConnectionPool();
 
 	/**
 	 * {@inheritDoc}
@@ -49,7 +49,7 @@ public class BinRpcClient implements RpcClient {
 	 */
 	@Override
 	public void shutdown() throws HomematicClientException {
-		// nothing todo
+		connectionPool.close();
 	}
 
 	/**
@@ -183,17 +183,13 @@ public class BinRpcClient implements RpcClient {
 	 * Sends a BIN-RPC message and parses the response to see if there was an
 	 * error.
 	 */
-	private synchronized Object[] sendMessage(HmInterface hmInterface, BinRpcRequest request)
-			throws HomematicClientException {
-		Socket socket = null;
+	private Object[] sendMessage(HmInterface hmInterface, BinRpcRequest request) throws HomematicClientException {
 		try {
 			if (TRACE_ENABLED) {
 				logger.trace("Client BinRpcRequest {}", request);
 			}
-			socket = new Socket(context.getConfig().getHost(), hmInterface.getPort());
-			socket.setSoTimeout(context.getConfig().getTimeout() * 1000);
-			socket.getOutputStream().write(request.createMessage());
-			BinRpcResponse resp = new BinRpcResponse(socket.getInputStream(), false);
+			BinRpcResponse resp = connectionPool.send(context.getConfig().getHost(), hmInterface.getPort(), context
+					.getConfig().getTimeout() * 1000, request.createMessage());
 
 			if (TRACE_ENABLED) {
 				logger.trace("Client BinRpcResponse: {}", resp.toString());
@@ -222,14 +218,6 @@ public class BinRpcClient implements RpcClient {
 					cex);
 		} catch (Exception ex) {
 			throw new HomematicClientException(ex.getMessage() + " (sending " + request + ")", ex);
-		} finally {
-			try {
-				if (socket != null) {
-					socket.close();
-				}
-			} catch (IOException ex) {
-				// ignore
-			}
 		}
 	}
 
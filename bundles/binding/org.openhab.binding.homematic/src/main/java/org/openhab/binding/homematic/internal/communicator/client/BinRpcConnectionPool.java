@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the connections to the BIN-RPC servers of the Homematic server open
+ * between the calls. Up to {@link #MAX_IDLE_CONNECTIONS} idle connections
+ * are kept per server port, a connection which is idle longer than
+ * {@link #MAX_IDLE_TIME} is closed. If the server has closed a kept
+ * connection in the meantime, the call is sent again with a new connection.
+ * This is only done if the server can't have received the call, i.e. the
+ * call couldn't be written or the connection was closed before any byte of
+ * the response has been received.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class BinRpcConnectionPool {
+	private final static Logger logger = LoggerFactory.getLogger(BinRpcConnectionPool.class);
+
+	public static final int MAX_IDLE_CONNECTIONS = 2;
+	public static final long MAX_IDLE_TIME = 30000;
+
+	private Map<String, LinkedList<IdleConnection>> idleConnections = new HashMap<String, LinkedList<IdleConnection>>();
+	private boolean closed = false;
+
+	/**
+	 * Sends a BIN-RPC message to the server and returns the decoded response.
+	 *
+	 * @param timeout
+	 *            the socket timeout in milliseconds
+	 */
+	public BinRpcResponse send(String host, int port, int timeout, byte[] message) throws Exception {
+		String key = host + ":" + port;
+		Socket socket = getIdleConnection(key);
+		if (socket != null) {
+			BinRpcResponse response = send(key, socket, message, true);
+			if (response != null) {
+				return response;
+			}
+		}
+
+		socket = new Socket(host, port);
+		socket.setSoTimeout(timeout);
+		return send(key, socket, message, false);
+	}
+
+	/**
+	 * Closes all idle connections, connections in use are closed when they
+	 * are released.
+	 */
+	public synchronized void close() {
+		closed = true;
+		for (LinkedList<IdleConnection> connections : idleConnections.values()) {
+			for (IdleConnection connection : connections) {
+				closeSocket(connection.socket);
+			}
+		}
+		idleConnections.clear();
+	}
+
+	/**
+	 * Sends the message over the socket and keeps the socket open for the
+	 * next call, if the response has been received. Otherwise the socket is
+	 * closed. Returns null if the kept connection has been closed by the
+	 * server before the call was received.
+	 */
+	private BinRpcResponse send(String key, Socket socket, byte[] message, boolean kept) throws Exception {
+		boolean keep = false;
+		try {
+			PushbackInputStream is;
+			try {
+				socket.getOutputStream().write(message);
+				is = new PushbackInputStream(socket.getInputStream());
+				int first = is.read();
+				if (first == -1) {
+					throw new EOFException("Connection closed by the server");
+				}
+				is.unread(first);
+			} catch (SocketTimeoutException ex) {
+				throw ex;
+			} catch (IOException ex) {
+				if (!kept) {
+					throw ex;
+				}
+				logger.debug("Kept BIN-RPC connection to {} is no longer usable, reconnecting: {}", key,
+						ex.getMessage());
+				return null;
+			}
+			BinRpcResponse response = new BinRpcResponse(is, false);
+			keep = true;
+			return response;
+		} finally {
+			if (keep) {
+				release(key, socket);
+			} else {
+				closeSocket(socket);
+			}
+		}
+	}
+
+	/**
+	 * Returns a kept connection or null, if there is none.
+	 */
+	private synchronized Socket getIdleConnection(String key) {
+		LinkedList<IdleConnection> connections = idleConnections.get(key);
+		if (connections == null) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		Iterator<IdleConnection> iterator = connections.iterator();
+		while (iterator.hasNext()) {
+			IdleConnection connection = iterator.next();
+			if (now - connection.since > MAX_IDLE_TIME || connection.socket.isClosed()) {
+				iterator.remove();
+				closeSocket(connection.socket);
+			}
+		}
+		// the most recently used connection is the least likely to be closed by the server
+		IdleConnection connection = connections.pollLast();
+		return connection == null ? null : connection.socket;
+	}
+
+	/**
+	 * Keeps the connection for the next call or closes it, if enough
+	 * connections are kept already.
+	 */
+	private synchronized void release(String key, Socket socket) {
+		LinkedList<IdleConnection> connections = idleConnections.get(key);
+		if (connections == null) {
+			connections = new LinkedList<IdleConnection>();
+			idleConnections.put(key, connections);
+		}
+		if (closed || connections.size() >= MAX_IDLE_CONNECTIONS) {
+			closeSocket(socket);
+		} else {
+			connections.addLast(new IdleConnection(socket));
+		}
+	}
+
+	private static void closeSocket(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException ex) {
+			// ignore
+		}
+	}
+
+	/**
+	 * A connection which is kept for the next call.
+	 */
+	private static class IdleConnection {
+		private Socket socket;
+		private long since = System.currentTimeMillis();
+
+		private IdleConnection(Socket socket) {
+			this.socket = socket;
+		}
+	}
+}
@@ -11,8 +11,9 @@ package org.openhab.binding.homematic.internal.communicator.server;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.common.HomematicContext;
@@ -30,8 +31,22 @@ import org.slf4j.LoggerFactory;
 public class BinRpcNetworkService implements Runnable {
 	private static final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
 
+	/** the number of threads handling the messages from the Homematic server */
+	public static final int WORKER_THREADS = 4;
+
+	/** the number of received messages waiting for a free worker thread */
+	public static final int MAX_QUEUED_MESSAGES = 100;
+
 	private ServerSocket serverSocket;
-	private final ExecutorService pool = Executors.newCachedThreadPool();
+
+	/**
+	 * If all workers are busy and the queue is full, the listening thread
+	 * handles the message itself and does not accept new connections in the
+	 * meantime, which slows down the Homematic server.
+	 */
+	private final ThreadPoolExecutor pool = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L,
+			TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(MAX_QUEUED_MESSAGES),
+			new ThreadPoolExecutor.CallerRunsPolicy());
 	private boolean accept = true;
 	private HomematicCallbackReceiver callbackReceiver;
 
@@ -46,6 +61,13 @@ public class BinRpcNetworkService implements Runnable {
 		serverSocket.setReuseAddress(true);
 	}
 
+	/**
+	 * Returns the port the service is listening on.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
 	/**
 	 * Listening for events and starts the callbackHandler if a event received.
 	 */
@@ -54,6 +76,8 @@ public class BinRpcNetworkService implements Runnable {
 		while (accept) {
 			try {
 				Socket cs = serverSocket.accept();
+				// a stalled connection must not block a worker or this thread for good
+				cs.setSoTimeout(HomematicContext.getInstance().getConfig().getTimeout() * 1000);
 				BinRpcCallbackHandler rpcHandler = new BinRpcCallbackHandler(cs, callbackReceiver);
 				pool.execute(rpcHandler);
 			} catch (IOException ex) {
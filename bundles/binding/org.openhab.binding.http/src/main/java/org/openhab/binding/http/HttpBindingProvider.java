@@ -13,6 +13,7 @@ import java.util.Properties;
 
 import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.items.Item;
+import org.openhab.core.transform.TransformationDescriptor;
 import org.openhab.core.types.Command;
 
 
@@ -117,6 +118,18 @@ public interface HttpBindingProvider extends BindingProvider {
 	 */
 	String getTransformation(String itemName);
 	
+	/**
+	 * Returns the transformation rule to use according to <code>itemName</code>,
+	 * split into the transformation type and function when the binding
+	 * configuration was parsed. Is used by HTTP-In-Binding.
+	 * 
+	 * @param itemName the item for which to find a transformation rule
+	 * 
+	 * @return the matching transformation or <code>null</code> if no matching
+	 * transformation rule could be found.
+	 */
+	TransformationDescriptor getTransformationDescriptor(String itemName);
+	
 	/**
 	 * Returns all items which are mapped to a HTTP-In-Binding
 	 * @return item which are mapped to a HTTP-In-Binding
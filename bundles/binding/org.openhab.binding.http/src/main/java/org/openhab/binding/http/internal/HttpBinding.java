@@ -35,9 +35,9 @@ import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.transform.TransformationDescriptor;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationHelper;
-import org.openhab.core.transform.TransformationService;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.Type;
@@ -73,10 +73,6 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
 	
 	private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
 	
-	/** RegEx to extract a parse a function String <code>'(.*?)\((.*)\)'</code> */
-	private static final Pattern EXTRACT_FUNCTION_PATTERN = 
-			Pattern.compile("(.*?)\\((.*)\\)");
-
 	/** RegEx to validate a cache config <code>'^(.*?)\\.(url|updateInterval)$'</code> */
 	private static final Pattern EXTRACT_CACHE_CONFIG_PATTERN = 
 			Pattern.compile("^(.*?)\\.(url|updateInterval)$");
@@ -140,7 +136,7 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
 
 				Properties headers = provider.getHttpHeaders(itemName);
 				int refreshInterval = provider.getRefreshInterval(itemName);
-				String transformation = provider.getTransformation(itemName);
+				TransformationDescriptor transformation = provider.getTransformationDescriptor(itemName);
 				
 				Long lastUpdateTimeStamp = lastUpdateMap.get(itemName);
 				if (lastUpdateTimeStamp == null) {
@@ -172,18 +168,7 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
 					} else {
 						String transformedResponse;
 						try {
-							String[] parts = splitTransformationConfig(transformation);
-							String transformationType = parts[0];
-							String transformationFunction = parts[1];
-							
-							TransformationService transformationService = 
-								TransformationHelper.getTransformationService(HttpActivator.getContext(), transformationType);
-							if (transformationService != null) {
-								transformedResponse = transformationService.transform(transformationFunction, response);
-							} else {
-								transformedResponse = response;
-								logger.warn("couldn't transform response because transformationService of type '{}' is unavailable", transformationType);
-							}
+							transformedResponse = TransformationHelper.transform(transformation, response);
 						}
 						catch (TransformationException te) {
 							logger.error("transformation throws exception [transformation="
@@ -210,28 +195,6 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
 		}
 	}
 	
-	/**
-	 * Splits a transformation configuration string into its two parts - the
-	 * transformation type and the function/pattern to apply.
-	 * 
-	 * @param transformation the string to split
-	 * @return a string array with exactly two entries for the type and the function
-	 */
-	protected String[] splitTransformationConfig(String transformation) {
-		Matcher matcher = EXTRACT_FUNCTION_PATTERN.matcher(transformation);
-		
-		if (!matcher.matches()) {
-			throw new IllegalArgumentException("given transformation function '" + transformation + "' does not follow the expected pattern '<function>(<pattern>)'");
-		}
-		matcher.reset();
-		
-		matcher.find();			
-		String type = matcher.group(1);
-		String pattern = matcher.group(2);
-	
-		return new String[] { type, pattern };
-	}
-
 	/**
 	 * Returns a {@link State} which is inherited from the {@link Item}s
 	 * accepted DataTypes. The call is delegated to the  {@link TypeParser}. If
@@ -19,6 +19,7 @@ import org.openhab.binding.http.HttpBindingProvider;
 import org.openhab.core.binding.BindingConfig;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.transform.TransformationDescriptor;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.TypeParser;
 import org.openhab.model.item.binding.AbstractGenericBindingProvider;
@@ -180,6 +181,11 @@ public class HttpGenericBindingProvider extends AbstractGenericBindingProvider i
 			configElement.headers = parseHttpHeaders(matcher.group(2));
 			configElement.refreshInterval = Integer.valueOf(matcher.group(3)).intValue();
 			configElement.transformation = matcher.group(4).replaceAll("\\\\\"", "\"");
+			try {
+				configElement.transformationDescriptor = TransformationDescriptor.parse(configElement.transformation);
+			} catch (IllegalArgumentException iae) {
+				throw new BindingConfigParseException(iae.getMessage());
+			}
 			config.put(IN_BINDING_KEY, configElement);
 		}
 		
@@ -358,6 +364,14 @@ public class HttpGenericBindingProvider extends AbstractGenericBindingProvider i
 		return config != null && config.get(IN_BINDING_KEY) != null ? config.get(IN_BINDING_KEY).transformation : null;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	public TransformationDescriptor getTransformationDescriptor(String itemName) {
+		HttpBindingConfig config = (HttpBindingConfig) bindingConfigs.get(itemName);
+		return config != null && config.get(IN_BINDING_KEY) != null ? config.get(IN_BINDING_KEY).transformationDescriptor : null;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -409,6 +423,7 @@ public class HttpGenericBindingProvider extends AbstractGenericBindingProvider i
 		public Properties headers;
 		public int refreshInterval;
 		public String transformation;
+		public TransformationDescriptor transformationDescriptor;
 		
 		@Override
 		public String toString() {
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.bus;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 1.8.0
+ */
+public class KNXIgnoreEventListTest {
+
+	@Test
+	public void testAddAndRemove() {
+		KNXIgnoreEventList list = new KNXIgnoreEventList(10000);
+		list.add("item1ON");
+		list.add("item1ON");
+		list.add("item2OFF");
+		assertEquals(3, list.size());
+
+		assertTrue(list.remove("item1ON"));
+		assertTrue(list.remove("item1ON"));
+		assertFalse(list.remove("item1ON"));
+		assertTrue(list.remove("item2OFF"));
+		assertEquals(0, list.size());
+	}
+
+	@Test
+	public void testRemoveUnknown() {
+		KNXIgnoreEventList list = new KNXIgnoreEventList(10000);
+		list.add("item1ON");
+		assertFalse(list.remove("item1OFF"));
+		assertEquals(1, list.size());
+	}
+
+	@Test
+	public void testExpiry() throws InterruptedException {
+		KNXIgnoreEventList list = new KNXIgnoreEventList(50);
+		list.add("item1ON");
+		list.add("item2ON");
+		Thread.sleep(100);
+		assertFalse(list.remove("item1ON"));
+
+		// adding purges the expired events
+		list.add("item3ON");
+		assertEquals(1, list.size());
+		assertTrue(list.remove("item3ON"));
+	}
+}
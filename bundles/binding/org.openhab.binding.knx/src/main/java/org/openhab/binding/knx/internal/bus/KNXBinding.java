@@ -10,10 +10,12 @@ package org.openhab.binding.knx.internal.bus;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.IllegalClassException;
 import org.openhab.binding.knx.config.KNXBindingProvider;
@@ -58,10 +60,19 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 	/** to keep track of all KNX type mappers */
 	protected Collection<KNXTypeMapper> typeMappers = new HashSet<KNXTypeMapper>();
 
+	/** the time in milliseconds an event received from KNX is expected to come back from the openHAB event bus */
+	private static final long ECHO_TIMEOUT = 10000;
+
 	/**
 	 * used to store events that we have sent ourselves; we need to remember them for not reacting to them
 	 */
-	private List<String> ignoreEventList = Collections.synchronizedList(new ArrayList<String>());
+	private KNXIgnoreEventList ignoreEventList = new KNXIgnoreEventList(ECHO_TIMEOUT);
+
+	/**
+	 * the items and datapoints listening to a group address, looked up on the first telegram
+	 * for the group address and dropped when the bindings change
+	 */
+	private volatile Map<GroupAddress, GroupAddressTargets> groupAddressIndex = new ConcurrentHashMap<GroupAddress, GroupAddressTargets>();
 
 	private KNXBusReaderScheduler mKNXBusReaderScheduler = new KNXBusReaderScheduler();
 
@@ -196,44 +207,41 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 			if (asdu.length==0) {
 				return;
 			}
-			String [] itemList = getItemNames(destination);
-			if (itemList.length == 0) {
+			GroupAddressTargets targets = getTargets(destination);
+			if (targets.itemNames.isEmpty()) {
 				logger.debug("Received telegram for unknown group address {}", destination.toString());
 			}
-			for (String itemName : itemList) {
-				Iterable<Datapoint> datapoints = getDatapoints(itemName, destination);
-				if (datapoints != null) {
-					for (Datapoint datapoint : datapoints) {
-						Type type = getType(datapoint, asdu);					
-						if (type!=null) {
-							// we need to make sure that we won't send out this event to
-							// the knx bus again, when receiving it on the openHAB bus
-							ignoreEventList.add(itemName + type.toString());
-							logger.trace("Added event (item='{}', type='{}') to the ignore event list", itemName, type.toString());
-
-							if (type instanceof Command && isCommandGA(destination)) {
-								eventPublisher.postCommand(itemName, (Command) type);
-							} else if (type instanceof State) {
-								eventPublisher.postUpdate(itemName, (State) type);
-							} else {
-								throw new IllegalClassException("Cannot process datapoint of type " + type.toString());
-							}								
-
-							logger.trace("Processed event (item='{}', type='{}', destination='{}')", itemName, type.toString(), destination.toString());
-						}
-						else {
-							final char[] hexCode = "0123456789ABCDEF".toCharArray();
-							StringBuilder sb = new StringBuilder(2+asdu.length * 2);
-							sb.append("0x");
-							for (byte b : asdu) {
-								sb.append(hexCode[(b >> 4) & 0xF]);
-								sb.append(hexCode[(b & 0xF)]);
-							}
-
-							logger.debug("Ignoring KNX bus data: couldn't transform to an openHAB type (not supported). Destination='{}', datapoint='{}', data='{}'",
-									new Object[] {destination.toString(), datapoint.toString(), sb.toString() });
-						}
+			for (int i = 0; i < targets.itemNames.size(); i++) {
+				String itemName = targets.itemNames.get(i);
+				Datapoint datapoint = targets.datapoints.get(i);
+				Type type = getType(datapoint, asdu);					
+				if (type!=null) {
+					// we need to make sure that we won't send out this event to
+					// the knx bus again, when receiving it on the openHAB bus
+					ignoreEventList.add(itemName + type.toString());
+					logger.trace("Added event (item='{}', type='{}') to the ignore event list", itemName, type.toString());
+
+					if (type instanceof Command && targets.commandGA) {
+						eventPublisher.postCommand(itemName, (Command) type);
+					} else if (type instanceof State) {
+						eventPublisher.postUpdate(itemName, (State) type);
+					} else {
+						throw new IllegalClassException("Cannot process datapoint of type " + type.toString());
+					}								
+
+					logger.trace("Processed event (item='{}', type='{}', destination='{}')", itemName, type.toString(), destination.toString());
+				}
+				else {
+					final char[] hexCode = "0123456789ABCDEF".toCharArray();
+					StringBuilder sb = new StringBuilder(2+asdu.length * 2);
+					sb.append("0x");
+					for (byte b : asdu) {
+						sb.append(hexCode[(b >> 4) & 0xF]);
+						sb.append(hexCode[(b & 0xF)]);
 					}
+
+					logger.debug("Ignoring KNX bus data: couldn't transform to an openHAB type (not supported). Destination='{}', datapoint='{}', data='{}'",
+							new Object[] {destination.toString(), datapoint.toString(), sb.toString() });
 				}
 			}
 		} catch(RuntimeException re) {
@@ -248,6 +256,7 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 	@Override
 	public void bindingChanged(BindingProvider provider, String itemName) {
 		logger.trace("bindingChanged() for item {} msg received.", itemName);
+		clearGroupAddressIndex();
 		if  (mKNXConnectionEstablished) {
 			if (provider instanceof KNXBindingProvider) {
 				KNXBindingProvider knxProvider = (KNXBindingProvider) provider;
@@ -270,6 +279,7 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 	@Override
 	public void allBindingsChanged(BindingProvider provider) {
 		logger.trace("allBindingsChanged() msg received.");
+		clearGroupAddressIndex();
 		if  (mKNXConnectionEstablished) {
 			logger.debug("Initializing readable DPs.");
 			if (provider instanceof KNXBindingProvider) {
@@ -290,6 +300,15 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 	}
 
 
+	/* (non-Javadoc)
+	 * @see org.openhab.core.binding.AbstractBinding#removeBindingProvider(org.openhab.core.binding.BindingProvider)
+	 */
+	@Override
+	public void removeBindingProvider(KNXBindingProvider provider) {
+		super.removeBindingProvider(provider);
+		clearGroupAddressIndex();
+	}
+
 	/* (non-Javadoc)
 	 * @see org.openhab.binding.knx.internal.connection.KNXConnectionListener#connectionEstablished()
 	 */
@@ -338,22 +357,53 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 		return true;
 	}
 
+	/**
+	 * Returns the items and datapoints listening to the given group address. The result is
+	 * determined once per group address and kept until the bindings change.
+	 * 
+	 * @param groupAddress
+	 *            the group address of a telegram
+	 * @return the listening items and their datapoints
+	 */
+	private GroupAddressTargets getTargets(GroupAddress groupAddress) {
+		Map<GroupAddress, GroupAddressTargets> index = groupAddressIndex;
+		GroupAddressTargets targets = index.get(groupAddress);
+		if (targets == null) {
+			targets = new GroupAddressTargets(isCommandGA(groupAddress));
+			for (String itemName : getItemNames(groupAddress)) {
+				Iterable<Datapoint> datapoints = getDatapoints(itemName, groupAddress);
+				if (datapoints != null) {
+					for (Datapoint datapoint : datapoints) {
+						targets.itemNames.add(itemName);
+						targets.datapoints.add(datapoint);
+					}
+				}
+			}
+			index.put(groupAddress, targets);
+		}
+		return targets;
+	}
+
+	private void clearGroupAddressIndex() {
+		groupAddressIndex = new ConcurrentHashMap<GroupAddress, GroupAddressTargets>();
+	}
+
 	/**
 	 * Returns all listening item names. This method iterates over all registered KNX binding providers and aggregates
-	 * the result.
+	 * the result. Each item is returned once.
 	 * 
 	 * @param groupAddress
 	 *            the group address that the items are listening to
 	 * @return an array of all listening items
 	 */
-	private String[] getItemNames(GroupAddress groupAddress) {
-		List<String> itemNames = new ArrayList<String>();
+	private Set<String> getItemNames(GroupAddress groupAddress) {
+		Set<String> itemNames = new LinkedHashSet<String>();
 		for (KNXBindingProvider provider : providers) {
 			for (String itemName : provider.getListeningItemNames(groupAddress)) {
 				itemNames.add(itemName);
 			}
 		}
-		return itemNames.toArray(new String[itemNames.size()]);
+		return itemNames;
 	}
 
 	/**
@@ -431,4 +481,17 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements
 		}
 		return null;
 	}
+
+	/**
+	 * The items listening to a group address, with one entry per item and datapoint.
+	 */
+	private static class GroupAddressTargets {
+		final List<String> itemNames = new ArrayList<String>();
+		final List<Datapoint> datapoints = new ArrayList<Datapoint>();
+		final boolean commandGA;
+
+		GroupAddressTargets(boolean commandGA) {
+			this.commandGA = commandGA;
+		}
+	}
 }
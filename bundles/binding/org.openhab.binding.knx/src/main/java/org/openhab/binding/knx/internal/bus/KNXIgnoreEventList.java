@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.bus;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Remembers the events which have been received from KNX and posted to the openHAB
+ * event bus, so that they are not sent back to KNX when they come back from the
+ * event bus.
+ *
+ * An event can be added several times and is then ignored as often. Events expire
+ * after a timeout, so events which never come back don't pile up.
+ *
+ * @author agent
+ * @since 1.8.0
+ *
+ */
+public class KNXIgnoreEventList {
+
+	/** the expiry times of the events, the oldest first */
+	private final Map<String, LinkedList<Long>> events = new HashMap<String, LinkedList<Long>>();
+
+	private final long timeout;
+
+	private long nextPurge = 0;
+
+	/**
+	 * @param timeout the time in milliseconds an event is remembered
+	 */
+	public KNXIgnoreEventList(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Adds an event to ignore once.
+	 *
+	 * @param event the key of the event
+	 */
+	public synchronized void add(String event) {
+		long now = System.currentTimeMillis();
+		if (now >= nextPurge) {
+			purge(now);
+		}
+
+		LinkedList<Long> expiryTimes = events.get(event);
+		if (expiryTimes == null) {
+			expiryTimes = new LinkedList<Long>();
+			events.put(event, expiryTimes);
+		}
+		expiryTimes.addLast(now + timeout);
+	}
+
+	/**
+	 * Removes an event, if it has been added and hasn't expired yet.
+	 *
+	 * @param event the key of the event
+	 * @return <code>true</code> if the event is to be ignored
+	 */
+	public synchronized boolean remove(String event) {
+		LinkedList<Long> expiryTimes = events.get(event);
+		if (expiryTimes == null) {
+			return false;
+		}
+
+		removeExpired(expiryTimes, System.currentTimeMillis());
+		boolean removed = expiryTimes.poll() != null;
+		if (expiryTimes.isEmpty()) {
+			events.remove(event);
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the number of remembered events, including expired ones which haven't been purged yet
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (LinkedList<Long> expiryTimes : events.values()) {
+			size += expiryTimes.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all expired events.
+	 */
+	private void purge(long now) {
+		Iterator<LinkedList<Long>> iterator = events.values().iterator();
+		while (iterator.hasNext()) {
+			LinkedList<Long> expiryTimes = iterator.next();
+			removeExpired(expiryTimes, now);
+			if (expiryTimes.isEmpty()) {
+				iterator.remove();
+			}
+		}
+		nextPurge = now + timeout;
+	}
+
+	private static void removeExpired(LinkedList<Long> expiryTimes, long now) {
+		while (!expiryTimes.isEmpty() && expiryTimes.getFirst() <= now) {
+			expiryTimes.removeFirst();
+		}
+	}
+}
@@ -17,6 +17,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.awt.Color;
 
 import org.openhab.binding.knx.config.KNXTypeMapper;
@@ -79,6 +80,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 	/** stores the default KNX DPT to use for each openHAB type */
 	static private Map<Class<? extends Type>, String> defaultDptMap;
 
+	/** caches the translators by main number and datapoint type id, a translator is used by one caller at a time */
+	private final Map<String, DPTXlator> translators = new ConcurrentHashMap<String, DPTXlator>();
+
 	static {
 		dptTypeMap = new HashMap<String, Class<? extends Type>>();
 
@@ -238,7 +242,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 		}
 
 		try {
-			DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+			DPTXlator translator = getTranslator(mainNumber, dptID);
 			dpt=translator.getType();
 
 		} catch (KNXException e) {
@@ -302,7 +306,43 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 	 */
 	public Type toType(Datapoint datapoint, byte[] data) {
 		try {
-			DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+			DPTXlator translator = getTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+			synchronized (translator) {
+				return toType(translator, datapoint, data);
+			}
+		}
+		catch (KNXException e) {
+			logger.warn("Failed creating a translator for datapoint type ‘{}‘.", datapoint.getDPT(), e);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the translator for a datapoint type. The translators are created once
+	 * and reused for all telegrams of the datapoint type.
+	 * 
+	 * @param mainNumber the main number of the datapoint type
+	 * @param dptID the datapoint type id
+	 * @return the translator
+	 * @throws KNXException if there is no translator for the datapoint type
+	 */
+	private DPTXlator getTranslator(int mainNumber, String dptID) throws KNXException {
+		String key = mainNumber + ":" + dptID;
+		DPTXlator translator = translators.get(key);
+		if (translator == null) {
+			translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+			translators.put(key, translator);
+		}
+		return translator;
+	}
+
+	/**
+	 * Transforms the data of a datapoint into an openHAB type using the given translator.
+	 * The caller must hold the lock of the translator.
+	 */
+	private Type toType(DPTXlator translator, Datapoint datapoint, byte[] data) {
+		try {
 			translator.setData(data);
 			String value = translator.getValue();
 
@@ -474,9 +514,6 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 		catch (KNXIllegalArgumentException kiae) {
 			logger.info("Translator couldn't parse data for datapoint type ‘{}‘ (KNXIllegalArgumentException).", datapoint.getDPT());
 		}
-		catch (KNXException e) {
-			logger.warn("Failed creating a translator for datapoint type ‘{}‘.", datapoint.getDPT(), e);
-		}
 
 		return null;
 	}
@@ -8,12 +8,22 @@
  */
 package org.openhab.binding.modbus.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.nio.Buffer;
@@ -66,11 +76,27 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 	/** slaves update interval in milliseconds, defaults to 200ms */
 	public static int pollInterval = 200;
 
+	/** maximum number of connections which are polled in parallel */
+	private static final int MAX_POLL_THREADS = 8;
+
+	/** the configurations of the items by slave name, <code>null</code> if they have to be collected again */
+	private volatile Map<String, List<ModbusBindingConfig>> slaveItemConfigs = null;
+
+	/** polls the slaves of different connections in parallel */
+	private ExecutorService pollExecutor = null;
+
 	
 	public void activate() {
 	}
 
 	public void deactivate() {
+		synchronized (this) {
+			if (pollExecutor != null) {
+				pollExecutor.shutdown();
+				pollExecutor = null;
+			}
+		}
+		ModbusSlave.getConnectionPool().close();
 	}
 	
 	
@@ -115,24 +141,35 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 			if ( !config.slaveName.equals(slaveName)) {
 				continue;
 			}
+			internalUpdateItem(slaveName, registers, config);
+		}
+	}
 
-			String slaveValueType = modbusSlaves.get(slaveName).getValueType();
-			double rawDataMultiplier = modbusSlaves.get(slaveName).getRawDataMultiplier();
+	/**
+	 * Posts update event to OpenHAB bus for an item of a "holding" or "input" type slave
+	 * @param slaveName the name of the slave the registers were read from
+	 * @param registers data received from slave device in the last pollInterval
+	 * @param config configuration of the item to update
+	 */
+	void internalUpdateItem(String slaveName, InputRegister[] registers,
+			ModbusBindingConfig config) {
+		String itemName = config.getItem().getName();
+		String slaveValueType = modbusSlaves.get(slaveName).getValueType();
+		double rawDataMultiplier = modbusSlaves.get(slaveName).getRawDataMultiplier();
 
-			State newState = extractStateFromRegisters(registers, config.readRegister, slaveValueType);
-			/* receive data manipulation */
-			if (config.getItem() instanceof SwitchItem) {
-				newState = newState.equals(DecimalType.ZERO) ? OnOffType.OFF : OnOffType.ON;
-			}
-			if (( rawDataMultiplier != 1 ) && (config.getItem() instanceof NumberItem)) {
-				double tmpValue = (double)((DecimalType)newState).doubleValue() * rawDataMultiplier;
-				newState =  new DecimalType( String.valueOf(tmpValue) );
-			}
+		State newState = extractStateFromRegisters(registers, config.readRegister, slaveValueType);
+		/* receive data manipulation */
+		if (config.getItem() instanceof SwitchItem) {
+			newState = newState.equals(DecimalType.ZERO) ? OnOffType.OFF : OnOffType.ON;
+		}
+		if (( rawDataMultiplier != 1 ) && (config.getItem() instanceof NumberItem)) {
+			double tmpValue = (double)((DecimalType)newState).doubleValue() * rawDataMultiplier;
+			newState =  new DecimalType( String.valueOf(tmpValue) );
+		}
 
-			State currentState = config.getItemState();
-			if (! newState.equals(currentState)) {
-				eventPublisher.postUpdate(itemName, newState);
-			}
+		State currentState = config.getItemState();
+		if (! newState.equals(currentState)) {
+			eventPublisher.postUpdate(itemName, newState);
 		}
 	}
 
@@ -190,16 +227,27 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 			if (provider.providesBindingFor(itemName)) {
 				ModbusBindingConfig config = provider.getConfig(itemName);
 				if (config.slaveName.equals(slaveName)) {
-					boolean state = coils.getBit(config.readRegister);
-					State currentState = provider.getConfig(itemName).getItemState();
-					State newState = provider.getConfig(itemName).translateBoolean2State(state);
-					if (!newState.equals(currentState)) {
-						eventPublisher.postUpdate(itemName, newState);
-					}
+					internalUpdateItem(slaveName, coils, config);
 				}
 			}
 		}
 	}
+
+	/**
+	 * Posts update event to OpenHAB bus for an item of a "coil" or "discrete" type slave
+	 * @param slaveName the name of the slave the coils were read from
+	 * @param coils data received from slave device in the last pollInterval
+	 * @param config configuration of the item to update
+	 */
+	void internalUpdateItem(String slaveName, BitVector coils,
+			ModbusBindingConfig config) {
+		boolean state = coils.getBit(config.readRegister);
+		State currentState = config.getItemState();
+		State newState = config.translateBoolean2State(state);
+		if (!newState.equals(currentState)) {
+			eventPublisher.postUpdate(config.getItem().getName(), newState);
+		}
+	}
 	
 
 	/**
@@ -216,20 +264,143 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 		}
 		return items;
 	}
+
+	/**
+	 * Returns the configurations of the items bound to a slave. The configurations
+	 * are collected once and then kept until the bindings change.
+	 * @param slaveName the name of the slave
+	 * @return the configurations of the items bound to the slave
+	 */
+	Collection<ModbusBindingConfig> getSlaveItemConfigs(String slaveName) {
+		Map<String, List<ModbusBindingConfig>> configs = slaveItemConfigs;
+		if (configs == null) {
+			configs = new HashMap<String, List<ModbusBindingConfig>>();
+			for (ModbusBindingProvider provider : providers) {
+				for (String itemName : provider.getItemNames()) {
+					ModbusBindingConfig config = provider.getConfig(itemName);
+					if (config == null) {
+						continue;
+					}
+					List<ModbusBindingConfig> slaveConfigs = configs.get(config.slaveName);
+					if (slaveConfigs == null) {
+						slaveConfigs = new ArrayList<ModbusBindingConfig>();
+						configs.put(config.slaveName, slaveConfigs);
+					}
+					slaveConfigs.add(config);
+				}
+			}
+			slaveItemConfigs = configs;
+		}
+		List<ModbusBindingConfig> slaveConfigs = configs.get(slaveName);
+		return slaveConfigs != null ? slaveConfigs : Collections.<ModbusBindingConfig>emptyList();
+	}
+
+	@Override
+	public void addBindingProvider(ModbusBindingProvider provider) {
+		super.addBindingProvider(provider);
+		slaveItemConfigs = null;
+	}
+
+	@Override
+	public void removeBindingProvider(ModbusBindingProvider provider) {
+		super.removeBindingProvider(provider);
+		slaveItemConfigs = null;
+	}
+
+	@Override
+	public void bindingChanged(BindingProvider provider, String itemName) {
+		slaveItemConfigs = null;
+		super.bindingChanged(provider, itemName);
+	}
+
+	@Override
+	public void allBindingsChanged(BindingProvider provider) {
+		slaveItemConfigs = null;
+		super.allBindingsChanged(provider);
+	}
 	
 	
 	/**
-	 * updates all slaves from the modbusSlaves
+	 * updates all slaves from the modbusSlaves. Slaves sharing a connection (e.g. all
+	 * slaves on the serial port) are polled one after the other, different connections
+	 * are polled in parallel.
 	 */
 	@Override
 	protected void execute() {
-		Collection<ModbusSlave> slaves = new HashSet<ModbusSlave>();
-		synchronized (slaves) {
-			slaves.addAll(modbusSlaves.values());
+		Map<String, List<ModbusSlave>> slavesByConnection = new LinkedHashMap<String, List<ModbusSlave>>();
+		for (ModbusSlave slave : modbusSlaves.values()) {
+			List<ModbusSlave> slaves = slavesByConnection.get(slave.getConnectionKey());
+			if (slaves == null) {
+				slaves = new ArrayList<ModbusSlave>();
+				slavesByConnection.put(slave.getConnectionKey(), slaves);
+			}
+			slaves.add(slave);
+		}
+
+		if (slavesByConnection.size() <= 1) {
+			for (List<ModbusSlave> slaves : slavesByConnection.values()) {
+				updateSlaves(slaves);
+			}
+			return;
+		}
+
+		ExecutorService executor = getPollExecutor();
+		List<Future<?>> updates = new ArrayList<Future<?>>();
+		for (final List<ModbusSlave> slaves : slavesByConnection.values()) {
+			updates.add(executor.submit(new Runnable() {
+				public void run() {
+					updateSlaves(slaves);
+				}
+			}));
 		}
-		for (ModbusSlave slave : slaves) {
-			slave.update(this);
+		// wait for all connections, so that a slow device delays the next cycle
+		// instead of piling up polls
+		for (Future<?> update : updates) {
+			try {
+				update.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				logger.warn("Error polling modbus slaves", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Updates the slaves of a connection. Slaves reading adjacent or overlapping
+	 * ranges of the same unit are served by a single read.
+	 * @param slaves the slaves sharing a connection
+	 */
+	private void updateSlaves(List<ModbusSlave> slaves) {
+		for (ModbusReadPlanner.Read read : ModbusReadPlanner.plan(slaves)) {
+			if (read.slaves.size() == 1) {
+				read.slaves.get(0).update(this);
+				continue;
+			}
+			logger.trace("Merged read {}", read);
+			Object data = read.slaves.get(0).read(read.type, read.start, read.length);
+			if (data == null) {
+				continue;
+			}
+			for (ModbusSlave slave : read.slaves) {
+				slave.update(this, ModbusReadPlanner.slice(data, slave.getStart() - read.start, slave.getLength()));
+			}
+		}
+	}
+
+	private synchronized ExecutorService getPollExecutor() {
+		if (pollExecutor == null) {
+			pollExecutor = Executors.newFixedThreadPool(MAX_POLL_THREADS, new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Modbus Polling " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
 		}
+		return pollExecutor;
 	}
 	
 
@@ -237,6 +408,7 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 	public void updated(Dictionary<String, ?> config) throws ConfigurationException {
 		// remove all known items if configuration changed
 		modbusSlaves.clear();
+		ModbusSlave.getConnectionPool().close();
 		if (config != null) {
 			Enumeration<String> keys = config.keys();
 			while (keys.hasMoreElements()) {
@@ -344,7 +516,9 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 			logger.debug("config looked good, proceeding with slave-connections");
 			// connect instances to modbus slaves
 			for (ModbusSlave slave : modbusSlaves.values()) {
-				slave.connect();
+				if (slave.connect()) {
+					slave.releaseConnection();
+				}
 			}
 
 			setProperlyConfigured(true);
@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the connections to the Modbus devices between all slaves configured for
+ * the same endpoint (host and port or serial port), so that a gateway sees a
+ * single client regardless of the number of slaves.
+ *
+ * A slave borrows the connection for a transaction and returns it afterwards; in
+ * the meantime other slaves of the endpoint wait. When a connection is borrowed,
+ * it is checked and reconnected if needed. Failed connects are retried with an
+ * increasing delay. For serial (RTU) connections the silent interval between two
+ * frames is kept.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class ModbusConnectionPool {
+
+	private static final Logger logger = LoggerFactory.getLogger(ModbusConnectionPool.class);
+
+	/** maximum time to wait for a connection used by another slave */
+	private static final long MAX_WAIT_TIME = 10000;
+
+	/** delay before the first reconnect after a failure */
+	private static final long MIN_RECONNECT_DELAY = 1000;
+
+	/** maximum delay between reconnects, the delay doubles with each failure */
+	private static final long MAX_RECONNECT_DELAY = 60000;
+
+	/**
+	 * The physical connection to an endpoint. Implementations are provided by the
+	 * slave types.
+	 */
+	static abstract class Endpoint {
+
+		/**
+		 * Opens the connection
+		 * @throws Exception if the connection can't be established
+		 */
+		abstract void connect() throws Exception;
+
+		/**
+		 * @return true, if the connection is open
+		 */
+		abstract boolean isConnected();
+
+		/**
+		 * Closes the connection
+		 */
+		abstract void close();
+
+		/**
+		 * @return the minimum time in milliseconds between the end of a transaction
+		 *         and the start of the next one
+		 */
+		long getInterTransactionDelay() {
+			return 0;
+		}
+	}
+
+	/**
+	 * The shared connection of an endpoint and its state
+	 */
+	static class PooledConnection {
+
+		final Endpoint endpoint;
+
+		final ReentrantLock lock = new ReentrantLock(true);
+
+		/** end of the last transaction */
+		long lastTransaction = 0;
+
+		/** earliest time of the next connect after a failure */
+		long nextConnect = 0;
+
+		long reconnectDelay = 0;
+
+		long borrowCount = 0;
+
+		long reuseCount = 0;
+
+		long connectCount = 0;
+
+		long failureCount = 0;
+
+		long waitTime = 0;
+
+		long maxWaitTime = 0;
+
+		PooledConnection(Endpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		Endpoint getEndpoint() {
+			return endpoint;
+		}
+	}
+
+	private final Map<String, PooledConnection> connections = new HashMap<String, PooledConnection>();
+
+	/**
+	 * Borrows the connection of the endpoint of a slave and opens it, if necessary.
+	 * The caller has to return the connection by {@link #release(PooledConnection)},
+	 * if this method returned a connection.
+	 *
+	 * @param slave the slave to borrow the connection for
+	 * @return the connected connection or <code>null</code>, if there is no connection
+	 */
+	PooledConnection borrow(ModbusSlave slave) {
+		PooledConnection connection = getConnection(slave);
+		long start = System.currentTimeMillis();
+		try {
+			if (!connection.lock.tryLock(MAX_WAIT_TIME, TimeUnit.MILLISECONDS)) {
+				logger.info("ModbusSlave '{}': timeout waiting for connection '{}'", slave.getName(), slave.getConnectionKey());
+				return null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+
+		boolean connected = false;
+		try {
+			long waited = System.currentTimeMillis() - start;
+			connection.borrowCount++;
+			connection.waitTime += waited;
+			connection.maxWaitTime = Math.max(connection.maxWaitTime, waited);
+
+			if (connection.endpoint.isConnected()) {
+				connection.reuseCount++;
+			} else if (!connect(slave, connection)) {
+				return null;
+			}
+
+			long delay = connection.lastTransaction + connection.endpoint.getInterTransactionDelay() - System.currentTimeMillis();
+			if (delay > 0) {
+				Thread.sleep(delay);
+			}
+			connected = true;
+			return connection;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			if (!connected) {
+				connection.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns a borrowed connection.
+	 *
+	 * @param connection the borrowed connection
+	 */
+	void release(PooledConnection connection) {
+		if (connection.lock.isHeldByCurrentThread()) {
+			connection.lastTransaction = System.currentTimeMillis();
+			connection.lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes a borrowed connection after a failed transaction, so that it is opened
+	 * again with the next transaction. The connection still has to be returned by
+	 * {@link #release(PooledConnection)}.
+	 *
+	 * @param connection the borrowed connection
+	 */
+	void invalidate(PooledConnection connection) {
+		connection.lock.lock();
+		try {
+			connection.failureCount++;
+			connection.endpoint.close();
+		} finally {
+			connection.lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes all connections. Used when the slaves are configured again.
+	 */
+	void close() {
+		Map<String, PooledConnection> closedConnections;
+		synchronized (this) {
+			closedConnections = new HashMap<String, PooledConnection>(connections);
+			connections.clear();
+		}
+		// running transactions are finished first
+		for (Map.Entry<String, PooledConnection> entry : closedConnections.entrySet()) {
+			PooledConnection connection = entry.getValue();
+			connection.lock.lock();
+			try {
+				logger.debug("Closing modbus connection '{}': {}", entry.getKey(), getStatistics(connection));
+				connection.endpoint.close();
+			} finally {
+				connection.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * @return a human readable summary of the usage of all connections
+	 */
+	synchronized String getStatistics() {
+		List<String> statistics = new ArrayList<String>();
+		for (Map.Entry<String, PooledConnection> entry : connections.entrySet()) {
+			statistics.add(entry.getKey() + " [" + getStatistics(entry.getValue()) + "]");
+		}
+		return statistics.toString();
+	}
+
+	private synchronized PooledConnection getConnection(ModbusSlave slave) {
+		String key = slave.getConnectionKey();
+		PooledConnection connection = connections.get(key);
+		if (connection == null) {
+			connection = new PooledConnection(slave.createEndpoint());
+			connections.put(key, connection);
+		}
+		return connection;
+	}
+
+	/*
+	 * opens the connection of an endpoint, unless the last attempt failed recently.
+	 * Must be called while holding the lock of the connection.
+	 */
+	private boolean connect(ModbusSlave slave, PooledConnection connection) {
+		long now = System.currentTimeMillis();
+		if (now < connection.nextConnect) {
+			logger.debug("ModbusSlave '{}': waiting {}ms before reconnecting", slave.getName(), connection.nextConnect - now);
+			return false;
+		}
+		try {
+			connection.endpoint.close();
+			connection.endpoint.connect();
+			connection.connectCount++;
+			connection.reconnectDelay = 0;
+			connection.nextConnect = 0;
+			logger.debug("Connected to modbus endpoint '{}': {}", slave.getConnectionKey(), getStatistics(connection));
+			return true;
+		} catch (Exception e) {
+			connection.failureCount++;
+			connection.endpoint.close();
+			connection.reconnectDelay = Math.min(Math.max(connection.reconnectDelay * 2, MIN_RECONNECT_DELAY), MAX_RECONNECT_DELAY);
+			connection.nextConnect = now + connection.reconnectDelay;
+			logger.error("ModbusSlave '{}': Error connecting to '{}', retrying in {}ms: {}",
+					new Object[] { slave.getName(), slave.getConnectionKey(), connection.reconnectDelay, e.getMessage() });
+			return false;
+		}
+	}
+
+	private static String getStatistics(PooledConnection connection) {
+		return "borrowed=" + connection.borrowCount + ", reused=" + connection.reuseCount
+				+ ", connects=" + connection.connectCount + ", failures=" + connection.failureCount
+				+ ", wait time=" + connection.waitTime + "ms (max " + connection.maxWaitTime + "ms)";
+	}
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.util.BitVector;
+
+import org.openhab.binding.modbus.ModbusBindingProvider;
+
+/**
+ * Plans the reads of the slaves sharing a connection. Slaves which read the same
+ * data type from the same unit with overlapping or adjacent ranges are served by a
+ * single read, as long as it doesn't exceed the maximum number of registers or
+ * coils a Modbus request can return. The data of a merged read is then sliced
+ * into the ranges of the slaves.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class ModbusReadPlanner {
+
+	/** maximum number of registers of a read request (FC03, FC04) */
+	static final int MAX_REGISTERS = 125;
+
+	/** maximum number of coils or discrete inputs of a read request (FC01, FC02) */
+	static final int MAX_BITS = 2000;
+
+	/**
+	 * A single read from the device serving one or more slaves
+	 */
+	static class Read {
+
+		final String type;
+		final int id;
+		final int start;
+		int length;
+		final List<ModbusSlave> slaves = new ArrayList<ModbusSlave>();
+
+		Read(ModbusSlave slave) {
+			type = slave.getType();
+			id = slave.getId();
+			start = slave.getStart();
+			length = slave.getLength();
+			slaves.add(slave);
+		}
+
+		/**
+		 * Adds a slave to this read, if its range overlaps or adjoins the range of
+		 * this read and the merged read doesn't exceed the maximum size.
+		 * @return true, if the slave has been added
+		 */
+		boolean add(ModbusSlave slave) {
+			if (slave.getStart() > start + length) {
+				return false;
+			}
+			int end = Math.max(start + length, slave.getStart() + slave.getLength());
+			if (end - start > getMaximumLength(type)) {
+				return false;
+			}
+			length = end - start;
+			slaves.add(slave);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Read [type=" + type + ", id=" + id + ", start=" + start + ", length=" + length
+					+ ", slaves=" + slaves.size() + "]";
+		}
+	}
+
+	private static final Comparator<ModbusSlave> START_COMPARATOR = new Comparator<ModbusSlave>() {
+		public int compare(ModbusSlave slave1, ModbusSlave slave2) {
+			if (slave1.getStart() != slave2.getStart()) {
+				return slave1.getStart() < slave2.getStart() ? -1 : 1;
+			}
+			return slave1.getLength() < slave2.getLength() ? 1 : (slave1.getLength() == slave2.getLength() ? 0 : -1);
+		}
+	};
+
+	/**
+	 * Plans the reads of slaves sharing a connection.
+	 *
+	 * @param slaves the slaves of one connection
+	 * @return the reads which serve all slaves
+	 */
+	static List<Read> plan(Collection<ModbusSlave> slaves) {
+		Map<String, List<ModbusSlave>> slavesByUnit = new LinkedHashMap<String, List<ModbusSlave>>();
+		List<Read> reads = new ArrayList<Read>();
+		for (ModbusSlave slave : slaves) {
+			if (slave.getType() == null || slave.getLength() <= 0
+					|| slave.getLength() > getMaximumLength(slave.getType())) {
+				// let the device report the invalid request
+				reads.add(new Read(slave));
+				continue;
+			}
+			String key = slave.getId() + ":" + slave.getType();
+			List<ModbusSlave> unitSlaves = slavesByUnit.get(key);
+			if (unitSlaves == null) {
+				unitSlaves = new ArrayList<ModbusSlave>();
+				slavesByUnit.put(key, unitSlaves);
+			}
+			unitSlaves.add(slave);
+		}
+
+		for (List<ModbusSlave> unitSlaves : slavesByUnit.values()) {
+			Collections.sort(unitSlaves, START_COMPARATOR);
+			Read read = null;
+			for (ModbusSlave slave : unitSlaves) {
+				if (read == null || !read.add(slave)) {
+					read = new Read(slave);
+					reads.add(read);
+				}
+			}
+		}
+		return reads;
+	}
+
+	/**
+	 * Returns the part of the data of a merged read which belongs to a slave.
+	 *
+	 * @param data the coils or registers of the merged read
+	 * @param offset the offset of the range of the slave in the merged read
+	 * @param length the number of coils or registers of the slave
+	 * @return the coils or registers of the slave
+	 */
+	static Object slice(Object data, int offset, int length) {
+		if (data instanceof BitVector) {
+			BitVector coils = (BitVector) data;
+			// like the vector of a response, the slice is padded to full bytes
+			BitVector slice = new BitVector((length + 7) / 8 * 8);
+			for (int i = 0; i < length && offset + i < coils.size(); i++) {
+				slice.setBit(i, coils.getBit(offset + i));
+			}
+			return slice;
+		}
+		InputRegister[] registers = (InputRegister[]) data;
+		InputRegister[] slice = new InputRegister[length];
+		System.arraycopy(registers, offset, slice, 0, length);
+		return slice;
+	}
+
+	private static int getMaximumLength(String type) {
+		if (ModbusBindingProvider.TYPE_COIL.equals(type) || ModbusBindingProvider.TYPE_DISCRETE.equals(type)) {
+			return MAX_BITS;
+		}
+		return MAX_REGISTERS;
+	}
+
+}
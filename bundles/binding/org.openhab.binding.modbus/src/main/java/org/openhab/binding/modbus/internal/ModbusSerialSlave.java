@@ -85,62 +85,75 @@ public class ModbusSerialSlave extends ModbusSlave {
 		}
 	}
 
-	private static SerialConnection connection = null;
+	/**
+	 * The serial port, shared by all serial slaves
+	 */
+	static class SerialEndpoint extends ModbusConnectionPool.Endpoint {
+
+		private final SerialParameters params;
+		private SerialConnection connection = null;
+
+		SerialEndpoint(SerialParameters params) {
+			this.params = params;
+		}
+
+		void connect() throws Exception {
+			logger.debug("opening serial port '{}'", params.getPortName());
+			connection = new SerialConnection(params);
+			connection.open();
+		}
+
+		boolean isConnected() {
+			return connection != null && connection.isOpen();
+		}
+
+		void close() {
+			if (connection != null) {
+				connection.close();
+				connection = null;
+			}
+		}
+
+		/**
+		 * RTU frames have to be separated by a silent interval of 3.5 characters,
+		 * which is fixed to 1.75ms above 19200 baud
+		 */
+		long getInterTransactionDelay() {
+			if (!Modbus.SERIAL_ENCODING_RTU.equals(params.getEncoding())) {
+				return 0;
+			}
+			if (params.getBaudRate() > 19200) {
+				return 2;
+			}
+			// 11 bits per character
+			return (long) Math.ceil(3.5 * 11 * 1000 / params.getBaudRate());
+		}
+	}
 
 	public ModbusSerialSlave(String slave) {
 		super(slave);
 		transaction = new ModbusSerialTransaction();
 	}
 
-	/**
-	 * Performs physical write to device when slave type is "holding" using Modbus FC06 function
-	 * @param command command received from OpenHAB
-	 * @param readRegister reference to the register that stores current value
-	 * @param writeRegister register reference to write data to
-	 */
-
-	public boolean isConnected() {
-		return connection != null;
+	String getConnectionKey() {
+		// all serial slaves share the same port
+		return "serial:" + port;
 	}
 
-	/**
-	 * Establishes connection to the device
-	 */
-	public boolean connect() {
-		try {
-			//			Enumeration<CommPortIdentifier> portlist =  CommPortIdentifier.getPortIdentifiers();
-			//			while (portlist.hasMoreElements()) {
-			//				logger.debug(portlist.nextElement().toString());
-			//			}
-
-			if (connection == null) {
-				logger.debug("connection was null, going to create a new one");
-				SerialParameters params = new SerialParameters();
-				params.setPortName(port);
-				params.setBaudRate(baud);
-				params.setDatabits(dataBits);
-				params.setParity(parity);
-				params.setStopbits(stopBits);
-				params.setEncoding(serialEncoding);
-				params.setEcho(false);
-				connection = new SerialConnection(params);
-			}
-			if (!connection.isOpen()) {
-				connection.open();
-			}
-			((ModbusSerialTransaction)transaction).setSerialConnection(connection);
-		} catch (Exception e) {
-			logger.error("ModbusSlave: Error connecting to master: {}", e.getMessage());
-			return false;
-		}
-		return true;
+	ModbusConnectionPool.Endpoint createEndpoint() {
+		SerialParameters params = new SerialParameters();
+		params.setPortName(port);
+		params.setBaudRate(baud);
+		params.setDatabits(dataBits);
+		params.setParity(parity);
+		params.setStopbits(stopBits);
+		params.setEncoding(serialEncoding);
+		params.setEcho(false);
+		return new SerialEndpoint(params);
 	}
 
-	public void resetConnection() {
-		if (connection != null) {
-			connection.close();
-		}
-		connection = null;
+	void bindTransaction(ModbusConnectionPool.Endpoint endpoint) {
+		((ModbusSerialTransaction)transaction).setSerialConnection(((SerialEndpoint) endpoint).connection);
 	}
 
 }
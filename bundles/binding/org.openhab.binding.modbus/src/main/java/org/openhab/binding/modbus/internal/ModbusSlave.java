@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.modbus.internal;
 
-import java.util.Collection;
-
 import net.wimpi.modbus.io.ModbusTransaction;
 import net.wimpi.modbus.msg.ModbusRequest;
 import net.wimpi.modbus.msg.ModbusResponse;
@@ -29,6 +27,7 @@ import net.wimpi.modbus.procimg.Register;
 import net.wimpi.modbus.util.BitVector;
 
 import org.openhab.binding.modbus.ModbusBindingProvider;
+import org.openhab.binding.modbus.internal.ModbusGenericBindingProvider.ModbusBindingConfig;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.IncreaseDecreaseType;
 import org.openhab.core.library.types.OnOffType;
@@ -55,6 +54,9 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 	protected String name = null;
 	
 	private static boolean writeMultipleRegisters = false;
+
+	/** the connections shared by all slaves */
+	private static final ModbusConnectionPool connectionPool = new ModbusConnectionPool();
 	
 	public static void setWriteMultipleRegisters(boolean setwmr) {
 		writeMultipleRegisters = setwmr;
@@ -93,10 +95,20 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 	 * - data/100 ... rawDataMultiplier=0.01
 	 */
 	private double rawDataMultiplier = 1.0;
-
+
 	private Object storage;
 	protected ModbusTransaction transaction = null; 
 
+	/**
+	 * Raw register values or coil bits (as 0/1) of the last poll. Only items whose
+	 * raw values differ from the last poll are updated. <code>null</code> forces an
+	 * update of all items with the next poll.
+	 */
+	private volatile int[] previousValues = null;
+
+	/** the connection borrowed from the pool for the current transaction */
+	private volatile ModbusConnectionPool.PooledConnection pooledConnection = null;
+
 
 
 	/**
@@ -116,6 +128,9 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 	 */
 	void executeCommand(Command command, int readRegister,
 			int writeRegister) {
+		// the item state may have been changed by the command, so the next poll
+		// has to update the items even if the device didn't change its values
+		previousValues = null;
 		if (ModbusBindingProvider.TYPE_COIL.equals(getType()) || ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
 			setCoil(command, readRegister, writeRegister);
 		}
@@ -172,10 +187,18 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 	 */
 	protected void setRegister(Command command, int readRegister, int writeRegister) {
 		
-		if (!isConnected()) { 
+		if (!connect()) { 
+			logger.info("ModbusSlave not connected");
 			return;
 		}
+		try {
+			writeRegister(command, readRegister, writeRegister);
+		} finally {
+			releaseConnection();
+		}
+	}
 
+	private void writeRegister(Command command, int readRegister, int writeRegister) {
 		Register newValue = null;
 		synchronized (storage) {
 			newValue = (Register) ((InputRegister[])storage)[readRegister];
@@ -229,6 +252,82 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 		return name;
 	}
 
+	/**
+	 * Identifies the connection of the slave. Slaves with the same key share the
+	 * connection to the device and must not be polled in parallel.
+	 * 
+	 * @return the key of the connection
+	 */
+	abstract String getConnectionKey();
+
+	/**
+	 * Creates the connection to the endpoint of this slave. Only called for the
+	 * first slave of an endpoint, the other slaves share the connection.
+	 * 
+	 * @return the connection to the endpoint
+	 */
+	abstract ModbusConnectionPool.Endpoint createEndpoint();
+
+	/**
+	 * Makes the transaction of this slave use the connection of an endpoint
+	 * 
+	 * @param endpoint the connected endpoint
+	 */
+	abstract void bindTransaction(ModbusConnectionPool.Endpoint endpoint);
+
+	/**
+	 * @return the pool of the connections shared by the slaves
+	 */
+	static ModbusConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+
+	/**
+	 * Borrows the connection of the endpoint of this slave from the pool. The
+	 * connection has to be returned by {@link #releaseConnection()} after the
+	 * transaction.
+	 * 
+	 * @return true, if the connection is established
+	 */
+	public boolean connect() {
+		ModbusConnectionPool.PooledConnection borrowed = connectionPool.borrow(this);
+		if (borrowed == null) {
+			return false;
+		}
+		pooledConnection = borrowed;
+		bindTransaction(borrowed.getEndpoint());
+		return true;
+	}
+
+	/**
+	 * Returns the borrowed connection to the pool
+	 */
+	public void releaseConnection() {
+		ModbusConnectionPool.PooledConnection borrowed = pooledConnection;
+		if (borrowed != null) {
+			pooledConnection = null;
+			connectionPool.release(borrowed);
+		}
+	}
+
+	/**
+	 * Closes the borrowed connection after an error, it is opened again with the
+	 * next transaction
+	 */
+	public void resetConnection() {
+		ModbusConnectionPool.PooledConnection borrowed = pooledConnection;
+		if (borrowed != null) {
+			connectionPool.invalidate(borrowed);
+		}
+	}
+
+	/**
+	 * @return true, if this slave has borrowed a connection
+	 */
+	public boolean isConnected() {
+		return pooledConnection != null;
+	}
+
 	/**
 	 * Sends boolean (bit) data to the device using Modbus FC05 function
 	 * @param writeRegister
@@ -248,6 +347,8 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 		} catch (Exception e) {
 			logger.debug("ModbusSlave:{}", e.getMessage());
 			return;
+		} finally {
+			releaseConnection();
 		}
 	}
 
@@ -257,10 +358,27 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 	 * @param binding ModbusBindig that stores providers information
 	 */
 	public void update(ModbusBinding binding) {
+		Object local = read(getType(), getStart(), getLength());
+		if (local != null) {
+			update(binding, local);
+		}
+	}
+
+	/**
+	 * Reads coils or registers from the connected device. Besides the range of this
+	 * slave, this is used for the reads the {@link ModbusReadPlanner} merged for
+	 * several slaves of the same connection.
+	 * 
+	 * @param type the slave data type
+	 * @param start the first coil or register to read
+	 * @param length the number of coils or registers to read
+	 * @return a {@link BitVector} for coils or an array of {@link InputRegister}s,
+	 * <code>null</code> if the data couldn't be read
+	 */
+	Object read(String type, int start, int length) {
 		if (!connect()) {
-			resetConnection();
 			logger.info("ModbusSlave not connected");
-			return;
+			return null;
 		}
 		
 		try {
@@ -268,27 +386,46 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 		Object local = null;
 
 
-			if (ModbusBindingProvider.TYPE_COIL.equals(getType())) {
-				ModbusRequest request = new ReadCoilsRequest(getStart(), getLength());
+			if (ModbusBindingProvider.TYPE_COIL.equals(type)) {
+				ModbusRequest request = new ReadCoilsRequest(start, length);
 				if (this instanceof ModbusSerialSlave) {
 					request.setHeadless();
 				}
 				request.setUnitID(id);
 				ReadCoilsResponse responce = (ReadCoilsResponse) getModbusData(request);
 				local = responce.getCoils();
-			} else if (ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
-				ModbusRequest request = new ReadInputDiscretesRequest(getStart(), getLength());
+			} else if (ModbusBindingProvider.TYPE_DISCRETE.equals(type)) {
+				ModbusRequest request = new ReadInputDiscretesRequest(start, length);
 				ReadInputDiscretesResponse responce = (ReadInputDiscretesResponse) getModbusData(request);
 				local = responce.getDiscretes();
-			} else if (ModbusBindingProvider.TYPE_HOLDING.equals(getType())) {
-				ModbusRequest request = new ReadMultipleRegistersRequest(getStart(), getLength());
+			} else if (ModbusBindingProvider.TYPE_HOLDING.equals(type)) {
+				ModbusRequest request = new ReadMultipleRegistersRequest(start, length);
 				ReadMultipleRegistersResponse responce = (ReadMultipleRegistersResponse) getModbusData(request);
 				local = responce.getRegisters();
-			} else if (ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
-				ModbusRequest request = new ReadInputRegistersRequest(getStart(), getLength());
+			} else if (ModbusBindingProvider.TYPE_INPUT.equals(type)) {
+				ModbusRequest request = new ReadInputRegistersRequest(start, length);
 				ReadInputRegistersResponse responce = (ReadInputRegistersResponse) getModbusData(request);
 				local = responce.getRegisters();
 			}
+			return local;
+		} catch (Exception e) {
+			previousValues = null;
+			resetConnection();
+			logger.info("ModbusSlave error getting responce from slave");
+			return null;
+		} finally {
+			releaseConnection();
+		}
+	}
+
+	/**
+	 * Updates the items of this slave with data read from the device
+	 * 
+	 * @param binding ModbusBindig that stores providers information
+	 * @param local the coils or registers of this slave
+	 */
+	void update(ModbusBinding binding, Object local) {
+		try {
 			if (storage == null) 
 				storage = local;
 			else {
@@ -296,30 +433,88 @@ public abstract class ModbusSlave implements ModbusSlaveConnection {
 					storage = local;
 				}
 			}
-			Collection<String> items = binding.getItemNames();
-			for (String item : items) {
-				updateItem(binding, item);
+			int[] values = getRawValues(local);
+			int[] previous = previousValues;
+			for (ModbusBindingConfig config : binding.getSlaveItemConfigs(name)) {
+				if (previous == null || hasChanged(previous, values, config.readRegister)) {
+					updateItem(binding, config);
+				}
 			}
+			previousValues = values;
 		} catch (Exception e) {
-			resetConnection();
-			logger.info("ModbusSlave error getting responce from slave");
+			previousValues = null;
+			logger.info("ModbusSlave error updating items of slave '{}': {}", name, e.toString());
 		}
-
 	}
 
 	/**
 	 * Updates OpenHAB item with data read from slave device
 	 * works only for type "coil" and "holding"
 	 * @param binding ModbusBinding
-	 * @param item item to update
+	 * @param config configuration of the item to update
 	 */
-	private void updateItem(ModbusBinding binding, String item) {
+	private void updateItem(ModbusBinding binding, ModbusBindingConfig config) {
 		if (ModbusBindingProvider.TYPE_COIL.equals(getType()) || ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
-			binding.internalUpdateItem(name, (BitVector)storage,	item);
+			binding.internalUpdateItem(name, (BitVector)storage, config);
+		}
+		if (ModbusBindingProvider.TYPE_HOLDING.equals(getType()) || ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
+			binding.internalUpdateItem(name, (InputRegister[])storage, config);
+		}
+	}
+
+	/**
+	 * Copies the values of a response, so that they can be compared with the next poll
+	 * @param data coils or registers read from the device
+	 * @return the register values or the coil bits as 0/1
+	 */
+	private static int[] getRawValues(Object data) {
+		if (data instanceof BitVector) {
+			BitVector coils = (BitVector) data;
+			int[] values = new int[coils.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = coils.getBit(i) ? 1 : 0;
+			}
+			return values;
+		}
+		InputRegister[] registers = (InputRegister[]) data;
+		int[] values = new int[registers.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = registers[i].toUnsignedShort();
 		}
+		return values;
+	}
+
+	/**
+	 * Checks whether any of the raw values an item is read from changed since the last poll
+	 * @param previous raw values of the last poll
+	 * @param current raw values of this poll
+	 * @param readRegister the register (or bit/byte, depending on the value type) of the item
+	 * @return true, if the item has to be updated
+	 */
+	private boolean hasChanged(int[] previous, int[] current, int readRegister) {
+		int first = readRegister;
+		int count = 1;
 		if (ModbusBindingProvider.TYPE_HOLDING.equals(getType()) || ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
-			binding.internalUpdateItem(name, (InputRegister[])storage, item);
+			if (ModbusBindingProvider.VALUE_TYPE_BIT.equals(valueType)) {
+				first = readRegister / 16;
+			} else if (ModbusBindingProvider.VALUE_TYPE_INT8.equals(valueType) || ModbusBindingProvider.VALUE_TYPE_UINT8.equals(valueType)) {
+				first = readRegister / 2;
+			} else if (ModbusBindingProvider.VALUE_TYPE_INT32.equals(valueType) || ModbusBindingProvider.VALUE_TYPE_UINT32.equals(valueType)
+					|| ModbusBindingProvider.VALUE_TYPE_FLOAT32.equals(valueType)) {
+				first = readRegister * 2;
+				count = 2;
+			}
+		}
+		if (previous.length != current.length || first < 0 || first + count > current.length) {
+			// let the update report the invalid configuration
+			return true;
+		}
+		for (int i = first; i < first + count; i++) {
+			if (previous[i] != current[i]) {
+				return true;
+			}
 		}
+		return false;
 	}
 
 	/**
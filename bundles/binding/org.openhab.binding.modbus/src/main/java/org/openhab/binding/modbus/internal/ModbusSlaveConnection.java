@@ -11,6 +11,7 @@ package org.openhab.binding.modbus.internal;
 public interface ModbusSlaveConnection {
 	public boolean connect();
 	public void resetConnection();
+	public void releaseConnection();
 	public boolean isConnected();
 
 }
@@ -9,11 +9,8 @@
 package org.openhab.binding.modbus.internal;
 
 import java.net.InetAddress;
-import java.net.UnknownHostException;
 import net.wimpi.modbus.io.ModbusTCPTransaction;
 import net.wimpi.modbus.net.TCPMasterConnection;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * ModbusSlave class instantiates physical Modbus slave. 
@@ -25,54 +22,54 @@ import org.slf4j.LoggerFactory;
  */
 public class ModbusTcpSlave extends ModbusIPSlave {
 
-	private static final Logger logger = LoggerFactory.getLogger(ModbusTcpSlave.class);
+	/**
+	 * The TCP connection to a device, shared by all slaves with the same host and port
+	 */
+	static class TcpEndpoint extends ModbusConnectionPool.Endpoint {
+
+		private final String host;
+		private final int port;
+		private TCPMasterConnection connection = null;
+
+		TcpEndpoint(String host, int port) {
+			this.host = host;
+			this.port = port;
+		}
 
+		void connect() throws Exception {
+			connection = new TCPMasterConnection(InetAddress.getByName(host));
+			connection.setPort(port);
+			connection.connect();
+		}
 
-	private TCPMasterConnection connection = null;
+		boolean isConnected() {
+			return connection != null && connection.isConnected();
+		}
+
+		void close() {
+			if (connection != null) {
+				connection.close();
+				connection = null;
+			}
+		}
+	}
 
 	public ModbusTcpSlave(String slave) {
 		super(slave);
 		transaction = new ModbusTCPTransaction();
 	}
 
-	/**
-	 * Performs physical write to device when slave type is "holding" using Modbus FC06 function
-	 * @param command command received from OpenHAB
-	 * @param readRegister reference to the register that stores current value
-	 * @param writeRegister register reference to write data to
-	 */
-
-	public boolean isConnected() {
-		return connection != null;
+	String getConnectionKey() {
+		return "tcp:" + getHost() + ":" + getPort();
 	}
 
-	/**
-	 * Establishes connection to the device
-	 */
-	public boolean connect() {
-		try {
-			if (connection == null)
-				connection = new TCPMasterConnection(InetAddress.getByName(getHost()));
-		} catch (UnknownHostException e) {
-			logger.debug("ModbusSlave: Error connecting to master: {}", e.getMessage());
-			connection = null;
-			return false;
-		}
-		if (!connection.isConnected())
-			try {
-				connection.setPort(getPort());
-				connection.connect();
-				((ModbusTCPTransaction)transaction).setConnection(connection);
-				((ModbusTCPTransaction)transaction).setReconnecting(false);
-			} catch (Exception e) {
-				logger.debug("ModbusSlave: Error connecting to master: {}", e.getMessage());
-				return false;
-			}
-		return true;
+	ModbusConnectionPool.Endpoint createEndpoint() {
+		return new TcpEndpoint(getHost(), getPort());
 	}
-	
-	public void resetConnection() {
-		connection = null;
+
+	void bindTransaction(ModbusConnectionPool.Endpoint endpoint) {
+		((ModbusTCPTransaction)transaction).setConnection(((TcpEndpoint) endpoint).connection);
+		((ModbusTCPTransaction)transaction).setReconnecting(false);
 	}
 
 
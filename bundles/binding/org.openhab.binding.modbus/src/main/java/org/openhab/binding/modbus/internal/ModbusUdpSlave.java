@@ -9,11 +9,8 @@
 package org.openhab.binding.modbus.internal;
 
 import java.net.InetAddress;
-import java.net.UnknownHostException;
 import net.wimpi.modbus.io.ModbusUDPTransaction;
 import net.wimpi.modbus.net.UDPMasterConnection;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * ModbusSlave class instantiates physical Modbus slave. 
@@ -25,44 +22,52 @@ import org.slf4j.LoggerFactory;
  */
 public class ModbusUdpSlave extends ModbusIPSlave {
 
-	private static final Logger logger = LoggerFactory.getLogger(ModbusUdpSlave.class);
+	/**
+	 * The UDP terminal of a device, shared by all slaves with the same host and port
+	 */
+	static class UdpEndpoint extends ModbusConnectionPool.Endpoint {
 
-	private UDPMasterConnection connection = null;
+		private final String host;
+		private final int port;
+		private UDPMasterConnection connection = null;
+
+		UdpEndpoint(String host, int port) {
+			this.host = host;
+			this.port = port;
+		}
+
+		void connect() throws Exception {
+			connection = new UDPMasterConnection(InetAddress.getByName(host));
+			connection.setPort(port);
+			connection.connect();
+		}
+
+		boolean isConnected() {
+			return connection != null && connection.isConnected();
+		}
+
+		void close() {
+			if (connection != null) {
+				connection.close();
+				connection = null;
+			}
+		}
+	}
 
 	public ModbusUdpSlave(String slave) {
 		super(slave);
 		transaction = new ModbusUDPTransaction();
 	}
 
-	public boolean isConnected() {
-		return true;
+	String getConnectionKey() {
+		return "udp:" + getHost() + ":" + getPort();
 	}
 
-	/**
-	 * Establishes connection to the device
-	 */
-	public boolean connect() {
-		try {
-			if (connection == null)
-				connection = new UDPMasterConnection(InetAddress.getByName(getHost()));
-		} catch (UnknownHostException e) {
-			logger.debug("ModbusSlave: Error connecting to master: {}", e.getMessage());
-			connection = null;
-			return false;
-		}
-		if (!connection.isConnected())
-			try {
-				connection.setPort(getPort());
-				connection.connect();
-                                ((ModbusUDPTransaction)transaction).setTerminal(connection.getTerminal());
-			} catch (Exception e) {
-				logger.debug("ModbusSlave: Error connecting to master: {}", e.getMessage());
-				return false;
-			}
-		return true;
+	ModbusConnectionPool.Endpoint createEndpoint() {
+		return new UdpEndpoint(getHost(), getPort());
 	}
-	
-	public void resetConnection() {
-		connection = null;
+
+	void bindTransaction(ModbusConnectionPool.Endpoint endpoint) {
+		((ModbusUDPTransaction)transaction).setTerminal(((UdpEndpoint) endpoint).connection.getTerminal());
 	}
 }
@@ -10,6 +10,8 @@ package org.openhab.binding.mqtt.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.events.EventPublisher;
@@ -48,6 +50,8 @@ public class MqttMessageSubscriber extends AbstractMqttMessagePubSub implements
 
 	private String msgFilter = null;
 
+	private Pattern msgFilterPattern = null;
+
 	/**
 	 * Create new MqttMessageSubscriber from config string.
 	 * 
@@ -99,7 +103,12 @@ public class MqttMessageSubscriber extends AbstractMqttMessagePubSub implements
 				initTransformService();
 			}
 			if (config.length > 4) {
-				setMsgFilter(config[4].trim());
+				try {
+					setMsgFilter(config[4].trim());
+				} catch (PatternSyntaxException e) {
+					throw new BindingConfigParseException(
+							"Invalid message filter.");
+				}
 			}
 
 		} catch (BindingConfigParseException e) {
@@ -175,6 +184,8 @@ public class MqttMessageSubscriber extends AbstractMqttMessagePubSub implements
 	 */
 	public void setMsgFilter(String filter) {
 		this.msgFilter = filter;
+		this.msgFilterPattern = (filter == null) ? null : Pattern
+				.compile(filter);
 	}
 
 	public String getMsgFilter() {
@@ -192,10 +203,10 @@ public class MqttMessageSubscriber extends AbstractMqttMessagePubSub implements
 	private boolean msgFilterApplies(String msg) {
 		if (msg == null) {
 			return false;
-		} else if (msgFilter == null) {
+		} else if (msgFilterPattern == null) {
 			return true;
 		} else {
-			return msg.matches(msgFilter);
+			return msgFilterPattern.matcher(msg).matches();
 		}
 	}
 
@@ -10,12 +10,12 @@ package org.openhab.binding.zwave.internal;
 
 import java.util.ArrayList;
 import java.util.Dictionary;
-import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.zwave.ZWaveBindingConfig;
 import org.openhab.binding.zwave.ZWaveBindingProvider;
+import org.openhab.binding.zwave.internal.ZWavePollScheduler.ZWavePollItem;
 import org.openhab.binding.zwave.internal.config.ZWaveConfiguration;
 import org.openhab.binding.zwave.internal.converter.ZWaveConverterHandler;
 import org.openhab.binding.zwave.internal.protocol.SerialInterfaceException;
@@ -63,8 +63,7 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 	private volatile ZWaveController zController;
 	private volatile ZWaveConverterHandler converterHandler;
 
-	private Iterator<ZWavePollItem> pollingIterator = null;
-	private List<ZWavePollItem> pollingList = new ArrayList<ZWavePollItem>();
+	private volatile ZWavePollScheduler pollScheduler;
 	
 	// Configuration Service
 	ZWaveConfiguration zConfigurationService;
@@ -91,7 +90,8 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 
 	/**
 	 * Working method that executes refreshing of the bound items. The method is executed
-	 * at every refresh interval. The nodes are polled only every 6 refreshes.
+	 * at every refresh interval. The items are polled when their own refresh interval
+	 * has passed.
 	 */
 	@Override
 	protected void execute() {
@@ -100,26 +100,14 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 			networkMonitor.execute();
 		}
 
-		// If we're not currently in a poll cycle, restart the polling table
-		if(pollingIterator == null) {
-			pollingIterator = pollingList.iterator();
-		}
-		
-		// Loop through the polling list. We only allow a certain number of messages
+		// Poll the items which are due. We only allow a certain number of messages
 		// into the send queue at a time to avoid congestion within the system.
 		// Basically, we don't want the polling to slow down 'important' stuff.
-		// The queue ensures all nodes get a chance - if we always started at the top
-		// then the last items might never get polled.
-		while(pollingIterator.hasNext()) {
-			if(zController.getSendQueueLength() >= pollingQueue) {
-				logger.trace("Polling queue full!");
-				break;
-			}
-			ZWavePollItem poll = pollingIterator.next();
-			converterHandler.executeRefresh(poll.provider, poll.item, false);
-		}
-		if(pollingIterator.hasNext() == false) {
-			pollingIterator = null;
+		// The items are polled by due time, so items which don't fit into the
+		// queue now are first in line next time.
+		ZWavePollScheduler scheduler = pollScheduler;
+		if(scheduler != null) {
+			scheduler.execute(pollingQueue);
 		}
 	}
 	
@@ -169,9 +157,10 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 	 */
 	private void rebuildPollingTable() {
 		// Rebuild the polling table
-		pollingList.clear();
+		List<ZWavePollItem> pollingList = new ArrayList<ZWavePollItem>();
+		ZWavePollScheduler scheduler = pollScheduler;
 		
-		if(converterHandler == null) {
+		if(converterHandler == null || scheduler == null) {
 			logger.debug("ConverterHandler not initialised. Polling disabled.");
 			
 			return;
@@ -196,16 +185,16 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 				logger.trace("Polling list: Checking {} == {}", name, converterHandler.getRefreshInterval(eachProvider, name));
 
 				// If this binding is configured to poll - add it to the list
-				if (converterHandler.getRefreshInterval(eachProvider, name) > 0) {
-					ZWavePollItem item = new ZWavePollItem();
-					item.item = name;
-					item.provider = eachProvider;
+				Integer interval = converterHandler.getRefreshInterval(eachProvider, name);
+				if (interval != null && interval > 0) {
+					ZWavePollItem item = new ZWavePollItem(eachProvider, name, cfg.getNodeId(), cfg.getEndpoint(),
+							cfg.getArguments(), interval);
 					pollingList.add(item);
 					logger.trace("Polling list added {}", name);
 				}
 			}
 		}
-		pollingIterator = null;
+		scheduler.setPollItems(pollingList);
 	}
 	
 	/**
@@ -255,6 +244,8 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 	 */
 	@Override
 	public void deactivate() {
+		this.pollScheduler = null;
+
 		if (this.converterHandler != null) {
 			this.converterHandler = null;
 		}
@@ -284,6 +275,7 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 			this.deactivate();
 			this.zController = new ZWaveController(masterController, isSUC, port, timeout, softReset);
 			this.converterHandler = new ZWaveConverterHandler(this.zController, this.eventPublisher);
+			this.pollScheduler = new ZWavePollScheduler(this.zController, this.converterHandler, refreshInterval);
 			zController.addEventListener(this);
 
 			// The network monitor service needs to know the controller...
@@ -299,7 +291,7 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 			}
 
 			// The config service needs to know the controller and the network monitor...
-			this.zConfigurationService = new ZWaveConfiguration(this.zController, this.networkMonitor);
+			this.zConfigurationService = new ZWaveConfiguration(this.zController, this.networkMonitor, this.pollScheduler);
 			zController.addEventListener(this.zConfigurationService);
 			return;
 		} catch (SerialInterfaceException ex) {
@@ -434,6 +426,10 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 
 		// handle command class value events.
 		if (event instanceof ZWaveCommandClassValueEvent) {
+			ZWavePollScheduler scheduler = pollScheduler;
+			if (scheduler != null) {
+				scheduler.valueReceived((ZWaveCommandClassValueEvent)event);
+			}
 			handleZWaveCommandClassValueEvent((ZWaveCommandClassValueEvent)event);
 			return;
 		}
@@ -468,9 +464,4 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
 					new Object[] { event.getNodeId(), event.getEndpoint(), event.getCommandClass().getLabel(), event.getValue() } );
 		}
 	}
-	
-	class ZWavePollItem {
-		ZWaveBindingProvider provider;
-		String item;
-	}
 }
@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.zwave.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.openhab.binding.zwave.ZWaveBindingProvider;
+import org.openhab.binding.zwave.internal.converter.ZWaveConverterHandler;
+import org.openhab.binding.zwave.internal.protocol.ZWaveController;
+import org.openhab.binding.zwave.internal.protocol.ZWaveNode;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass.CommandClass;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveMeterCommandClass.MeterScale;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveMeterCommandClass.ZWaveMeterValueEvent;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveMultiLevelSensorCommandClass.SensorType;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveMultiLevelSensorCommandClass.ZWaveMultiLevelSensorValueEvent;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveNoOperationCommandClass;
+import org.openhab.binding.zwave.internal.protocol.event.ZWaveCommandClassValueEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poll scheduler class. Polls the items with a refresh interval in the
+ * order their next poll is due, so that every item gets polled even if
+ * the polling queue is full most of the time.
+ * An item is not polled if its value has been reported by the node on its
+ * own within the refresh interval. This is only known for items bound to a
+ * command class. Instead of polling the items of a dead node, the node is
+ * pinged with an increasing delay until it is alive again.
+ * The scheduler keeps statistics per node about the number of polls, the
+ * time until a polled value is reported, and the polls that were late.
+ * @author agent
+ * @since 1.8.0
+ */
+public class ZWavePollScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(ZWavePollScheduler.class);
+
+	private static final long MIN_DEAD_NODE_DELAY = 60000;		// 1 minute
+	private static final long MAX_DEAD_NODE_DELAY = 3600000;	// 1 hour
+
+	private final ZWaveController controller;
+	private final ZWaveConverterHandler converterHandler;
+	private final long tolerance;
+
+	private final PriorityQueue<ZWavePollItem> pollQueue = new PriorityQueue<ZWavePollItem>();
+	private final Map<Integer, List<ZWavePollItem>> nodeItems = new HashMap<Integer, List<ZWavePollItem>>();
+	private final Map<Integer, NodeStatistics> nodeStatistics = new HashMap<Integer, NodeStatistics>();
+
+	/**
+	 * Constructor. Creates a new instance of the poll scheduler.
+	 * @param controller the controller to poll the nodes of
+	 * @param converterHandler the converter handler which polls the items
+	 * @param tolerance the time in milliseconds a poll can be late without
+	 *        counting as missed. This is normally the refresh interval of the binding.
+	 */
+	public ZWavePollScheduler(ZWaveController controller, ZWaveConverterHandler converterHandler, long tolerance) {
+		this.controller = controller;
+		this.converterHandler = converterHandler;
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Sets the items to poll. Items which have been polled before keep their
+	 * next poll time, new items are polled as soon as possible.
+	 * @param items the items with a refresh interval
+	 */
+	public synchronized void setPollItems(List<ZWavePollItem> items) {
+		Map<String, ZWavePollItem> previousItems = new HashMap<String, ZWavePollItem>();
+		for (ZWavePollItem item : pollQueue) {
+			previousItems.put(item.item, item);
+		}
+
+		pollQueue.clear();
+		nodeItems.clear();
+		long now = System.currentTimeMillis();
+		for (ZWavePollItem item : items) {
+			ZWavePollItem previous = previousItems.get(item.item);
+			if (previous != null) {
+				item.nextPoll = Math.min(previous.nextPoll, previous.lastPoll + item.interval);
+				item.lastPoll = previous.lastPoll;
+				item.lastReport = previous.lastReport;
+			} else {
+				item.nextPoll = now;
+			}
+			pollQueue.add(item);
+
+			List<ZWavePollItem> list = nodeItems.get(item.nodeId);
+			if (list == null) {
+				list = new ArrayList<ZWavePollItem>();
+				nodeItems.put(item.nodeId, list);
+			}
+			list.add(item);
+		}
+	}
+
+	/**
+	 * Polls the items which are due. Stops when the send queue holds the
+	 * given number of messages, the remaining items are polled first next time.
+	 * @param pollingQueue the maximum length of the send queue
+	 */
+	public synchronized void execute(int pollingQueue) {
+		long now = System.currentTimeMillis();
+		while (!pollQueue.isEmpty() && pollQueue.peek().nextPoll <= now) {
+			if (controller.getSendQueueLength() >= pollingQueue) {
+				logger.trace("Polling queue full!");
+				break;
+			}
+
+			ZWavePollItem item = pollQueue.poll();
+			item.nextPoll = getNextPoll(item, now);
+			pollQueue.add(item);
+		}
+	}
+
+	/**
+	 * Handles a value reported by a node. The value is used instead of polling
+	 * the items it belongs to, and completes an outstanding poll.
+	 * @param event the value event
+	 */
+	public synchronized void valueReceived(ZWaveCommandClassValueEvent event) {
+		List<ZWavePollItem> items = nodeItems.get(event.getNodeId());
+		if (items == null) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		for (ZWavePollItem item : items) {
+			if (!item.matches(event)) {
+				continue;
+			}
+
+			if (item.pending) {
+				// the answer to our own poll
+				item.pending = false;
+				getStatistics(item.nodeId).addLatency(now - item.lastPoll);
+			} else {
+				item.lastReport = now;
+			}
+		}
+	}
+
+	/**
+	 * Returns the polling statistics of a node.
+	 * @param nodeId the node id
+	 * @return the statistics or null if the node hasn't been polled
+	 */
+	public synchronized String getNodeStatistics(int nodeId) {
+		NodeStatistics statistics = nodeStatistics.get(nodeId);
+		if (statistics == null) {
+			return null;
+		}
+		return statistics.toString();
+	}
+
+	/**
+	 * Polls an item if needed and returns the time of its next poll.
+	 */
+	private long getNextPoll(ZWavePollItem item, long now) {
+		// a poll which hasn't been answered until the next one is due is lost,
+		// later reports of the value don't belong to it
+		item.pending = false;
+
+		ZWaveNode node = controller.getNode(item.nodeId);
+		if (node == null) {
+			return now + item.interval;
+		}
+
+		NodeStatistics statistics = getStatistics(item.nodeId);
+		if (node.isDead()) {
+			// The items of a dead node aren't polled, the node is pinged once per delay instead
+			if (now >= statistics.nextDeadPoll) {
+				statistics.deadDelay = Math.min(Math.max(statistics.deadDelay * 2, MIN_DEAD_NODE_DELAY), MAX_DEAD_NODE_DELAY);
+				statistics.nextDeadPoll = now + statistics.deadDelay;
+				ZWaveNoOperationCommandClass noOpCommandClass = (ZWaveNoOperationCommandClass) node
+						.getCommandClass(CommandClass.NO_OPERATION);
+				if (noOpCommandClass != null) {
+					controller.sendData(noOpCommandClass.getNoOperationMessage());
+					statistics.pings++;
+				}
+				logger.debug("NODE {}: Node is dead, next ping in {}ms", item.nodeId, statistics.deadDelay);
+			}
+			// the items are looked at in their interval, so they are polled as soon as the node is alive again
+			return Math.min(statistics.nextDeadPoll, now + item.interval);
+		}
+		statistics.deadDelay = 0;
+		statistics.nextDeadPoll = 0;
+
+		// The value has been reported recently - no need to ask for it
+		if (item.lastReport + item.interval > now) {
+			statistics.skipped++;
+			logger.trace("NODE {}: Skipping poll of {}, value reported {}ms ago",
+					new Object[] { item.nodeId, item.item, now - item.lastReport });
+			return item.lastReport + item.interval;
+		}
+
+		if (now - item.nextPoll > tolerance) {
+			statistics.missed++;
+			logger.debug("NODE {}: Poll of {} is {}ms late", new Object[] { item.nodeId, item.item, now - item.nextPoll });
+		}
+
+		converterHandler.executeRefresh(item.provider, item.item, false);
+		statistics.polls++;
+		item.lastPoll = now;
+		item.pending = true;
+
+		return now + item.interval;
+	}
+
+	private NodeStatistics getStatistics(int nodeId) {
+		NodeStatistics statistics = nodeStatistics.get(nodeId);
+		if (statistics == null) {
+			statistics = new NodeStatistics();
+			nodeStatistics.put(nodeId, statistics);
+		}
+		return statistics;
+	}
+
+	/**
+	 * An item to poll
+	 */
+	static class ZWavePollItem implements Comparable<ZWavePollItem> {
+		final ZWaveBindingProvider provider;
+		final String item;
+		final int nodeId;
+		final int endpoint;
+		// The command class of the item, or null if it's resolved by the item type
+		final CommandClass commandClass;
+		final Map<String, String> arguments;
+		final long interval;
+
+		long nextPoll = 0;
+		long lastPoll = 0;
+		long lastReport = 0;
+		boolean pending = false;
+
+		/**
+		 * Constructor. Creates a new poll item.
+		 * @param provider the binding provider of the item
+		 * @param item the item name
+		 * @param nodeId the node of the item
+		 * @param endpoint the endpoint of the item
+		 * @param arguments the arguments of the binding
+		 * @param interval the refresh interval in seconds
+		 */
+		ZWavePollItem(ZWaveBindingProvider provider, String item, int nodeId, int endpoint, Map<String, String> arguments, int interval) {
+			this.provider = provider;
+			this.item = item;
+			this.nodeId = nodeId;
+			this.endpoint = endpoint;
+			this.arguments = arguments == null ? Collections.<String, String>emptyMap() : arguments;
+			String commandName = this.arguments.get("command");
+			// "info" items and items without a command aren't matched with the reports of the node
+			this.commandClass = commandName == null ? null : CommandClass.getCommandClass(commandName);
+			this.interval = interval * 1000L;
+		}
+
+		/**
+		 * Checks whether a value reported by the node is the value of this item,
+		 * the same way the converters decide which items to update.
+		 */
+		boolean matches(ZWaveCommandClassValueEvent event) {
+			if (commandClass == null || commandClass != event.getCommandClass() || endpoint != event.getEndpoint()) {
+				return false;
+			}
+			try {
+				if (event instanceof ZWaveMultiLevelSensorValueEvent) {
+					String sensorType = arguments.get("sensor_type");
+					return sensorType == null || SensorType.getSensorType(Integer.parseInt(sensorType))
+							== ((ZWaveMultiLevelSensorValueEvent) event).getSensorType();
+				}
+				if (event instanceof ZWaveMeterValueEvent) {
+					String meterScale = arguments.get("meter_scale");
+					return meterScale == null || MeterScale.getMeterScale(meterScale)
+							== ((ZWaveMeterValueEvent) event).getMeterScale();
+				}
+			} catch (NumberFormatException e) {
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int compareTo(ZWavePollItem other) {
+			return nextPoll < other.nextPoll ? -1 : (nextPoll == other.nextPoll ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Polling statistics of a node
+	 */
+	private static class NodeStatistics {
+		long polls = 0;
+		long pings = 0;
+		long skipped = 0;
+		long missed = 0;
+		long responses = 0;
+		long totalLatency = 0;
+		long maxLatency = 0;
+
+		long deadDelay = 0;
+		long nextDeadPoll = 0;
+
+		void addLatency(long latency) {
+			responses++;
+			totalLatency += latency;
+			maxLatency = Math.max(maxLatency, latency);
+		}
+
+		@Override
+		public String toString() {
+			return polls + " polls, " + skipped + " skipped, " + pings + " pings, " + missed + " late, latency "
+					+ (responses == 0 ? 0 : totalLatency / responses) + "ms / " + maxLatency + "ms";
+		}
+	}
+}
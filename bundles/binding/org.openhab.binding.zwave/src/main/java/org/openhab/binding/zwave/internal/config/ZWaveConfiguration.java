@@ -19,6 +19,7 @@ import java.util.Timer;
 import java.util.TimerTask;
 
 import org.openhab.binding.zwave.internal.ZWaveNetworkMonitor;
+import org.openhab.binding.zwave.internal.ZWavePollScheduler;
 import org.openhab.binding.zwave.internal.protocol.ConfigurationParameter;
 import org.openhab.binding.zwave.internal.protocol.ZWaveController;
 import org.openhab.binding.zwave.internal.protocol.ZWaveDeviceClass;
@@ -56,6 +57,7 @@ public class ZWaveConfiguration implements OpenHABConfigurationService, ZWaveEve
 
 	private ZWaveController zController = null;
 	private ZWaveNetworkMonitor networkMonitor = null;
+	private ZWavePollScheduler pollScheduler = null;
 	
 	private boolean inclusion = false;
 	private boolean exclusion = false;
@@ -74,13 +76,16 @@ public class ZWaveConfiguration implements OpenHABConfigurationService, ZWaveEve
 	 * Constructor for the configuration class. Sets the zwave controller
 	 * which is required in order to allow the class to retrieve the configuration.
 	 * @param controller The zWave controller
+	 * @param monitor The network monitor
+	 * @param scheduler The poll scheduler providing the polling statistics
 	 */
-	public ZWaveConfiguration(ZWaveController controller, ZWaveNetworkMonitor monitor) {
+	public ZWaveConfiguration(ZWaveController controller, ZWaveNetworkMonitor monitor, ZWavePollScheduler scheduler) {
 		df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
 		df.setTimeZone(TimeZone.getTimeZone("UTC"));
 
 		this.zController = controller;
 		this.networkMonitor = monitor;
+		this.pollScheduler = scheduler;
 
 		// Register the service
 		FrameworkUtil.getBundle(getClass()).getBundleContext()
@@ -556,6 +561,13 @@ public class ZWaveConfiguration implements OpenHABConfigurationService, ZWaveEve
 				record.value = node.getRetryCount() + " / " + node.getSendCount();
 				records.add(record);
 
+				String pollStatistics = pollScheduler != null ? pollScheduler.getNodeStatistics(nodeId) : null;
+				if(pollStatistics != null) {
+					record = new OpenHABConfigurationRecord(domain, "Polling", "Poll Statistics", true);
+					record.value = pollStatistics;
+					records.add(record);
+				}
+
 				record = new OpenHABConfigurationRecord(domain, "Dead", "Dead", true);
 				if(node.getDeadCount() == 0) {
 					record.value = Boolean.toString(node.isDead());
@@ -12,7 +12,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.osgi.framework.FrameworkUtil;
 import org.slf4j.Logger;
@@ -27,6 +29,8 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
  * Implements the top level functions for the XML product database This class
  * includes helper functions to manipulate the database and facilitate access to
  * the database.
+ * The database and the product files are only parsed once and are shared by
+ * all instances. Manufacturers and products are indexed by their IDs.
  * 
  * @author Chris Jackson
  * @since 1.4.0
@@ -44,6 +48,15 @@ public class ZWaveProductDatabase {
 	ZWaveDbProductFile productFile = null;
 	String productVersion;
 
+	// The parsed database and its indexes, shared by all instances
+	private static ZWaveDbRoot sharedDatabase = null;
+	private static Map<Integer, ZWaveDbManufacturer> manufacturerIndex = null;
+	private static Map<Long, ZWaveDbProduct> productIndex = null;
+
+	// The parsed product files by file name
+	private static final Map<String, ZWaveDbProductFile> productFiles = new HashMap<String, ZWaveDbProductFile>();
+	private static XStream productFileStream = null;
+
 	public ZWaveProductDatabase() {
 		loadDatabase();
 	}
@@ -71,9 +84,21 @@ public class ZWaveProductDatabase {
 	}
 
 	private void loadDatabase() {
+		synchronized (ZWaveProductDatabase.class) {
+			if (sharedDatabase == null) {
+				parseDatabase();
+			}
+			database = sharedDatabase;
+		}
+	}
+
+	/**
+	 * Parses the product database and builds the indexes.
+	 * Must be called while holding the class lock.
+	 */
+	private static void parseDatabase() {
 		URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/products.xml");
 		if (entry == null) {
-			database = null;
 			logger.error("Unable to load ZWave product database!");
 			return;
 		}
@@ -86,16 +111,55 @@ public class ZWaveProductDatabase {
 
 		xstream.processAnnotations(ZWaveDbRoot.class);
 
+		ZWaveDbRoot root;
 		try {
 			// this.Manufacturer = (ZWaveDbManufacturer)
 			InputStream x = entry.openStream();
-			database = (ZWaveDbRoot) xstream.fromXML(x);
-			if (database == null) {
+			root = (ZWaveDbRoot) xstream.fromXML(x);
+			if (root == null || root.Manufacturer == null) {
 				return;
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
+			return;
 		}
+
+		// Index the manufacturers and their products. Like a search through
+		// the lists, the index returns the first entry with an ID.
+		Map<Integer, ZWaveDbManufacturer> manufacturers = new HashMap<Integer, ZWaveDbManufacturer>();
+		Map<Long, ZWaveDbProduct> products = new HashMap<Long, ZWaveDbProduct>();
+		for (ZWaveDbManufacturer manufacturer : root.Manufacturer) {
+			if (manufacturer.Id == null || manufacturers.containsKey(manufacturer.Id)) {
+				continue;
+			}
+			manufacturers.put(manufacturer.Id, manufacturer);
+
+			if (manufacturer.Product == null) {
+				continue;
+			}
+			for (ZWaveDbProduct product : manufacturer.Product) {
+				if (product.Reference == null) {
+					continue;
+				}
+				for (ZWaveDbProductReference reference : product.Reference) {
+					if (reference.Type == null || reference.Id == null) {
+						continue;
+					}
+					Long key = getProductKey(manufacturer.Id, reference.Type, reference.Id);
+					if (!products.containsKey(key)) {
+						products.put(key, product);
+					}
+				}
+			}
+		}
+
+		manufacturerIndex = manufacturers;
+		productIndex = products;
+		sharedDatabase = root;
+	}
+
+	private static Long getProductKey(int manufacturerId, int productType, int productId) {
+		return ((long) manufacturerId << 32) | ((long) (productType & 0xffff) << 16) | (productId & 0xffff);
 	}
 
 	/**
@@ -119,11 +183,42 @@ public class ZWaveProductDatabase {
 			return null;
 		}
 
-		URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/" + cfgFile);
-		if (entry == null) {
-			database = null;
-			logger.error("Unable to load ZWave product file: '{}'", cfgFile);
-			return null;
+		synchronized (ZWaveProductDatabase.class) {
+			productFile = productFiles.get(cfgFile);
+			if (productFile != null) {
+				return productFile;
+			}
+
+			URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/" + cfgFile);
+			if (entry == null) {
+				database = null;
+				logger.error("Unable to load ZWave product file: '{}'", cfgFile);
+				return null;
+			}
+
+			try {
+				// this.Manufacturer = (ZWaveDbManufacturer)
+				InputStream x = entry.openStream();
+				productFile = (ZWaveDbProductFile) getProductFileStream().fromXML(x);
+			} catch (IOException e) {
+				logger.error("Unable to load ZWave product file '{}' : {}", cfgFile, e.toString());
+			}
+
+			if (productFile != null) {
+				productFiles.put(cfgFile, productFile);
+			}
+		}
+
+		return productFile;
+	}
+
+	/**
+	 * Returns the stream to parse product files, creating it on first use.
+	 * Must be called while holding the class lock.
+	 */
+	private static XStream getProductFileStream() {
+		if (productFileStream != null) {
+			return productFileStream;
 		}
 
 		XStream xstream = new XStream(new StaxDriver());
@@ -138,15 +233,8 @@ public class ZWaveProductDatabase {
 
 		xstream.processAnnotations(ZWaveDbProductFile.class);
 
-		try {
-			// this.Manufacturer = (ZWaveDbManufacturer)
-			InputStream x = entry.openStream();
-			productFile = (ZWaveDbProductFile) xstream.fromXML(x);
-		} catch (IOException e) {
-			logger.error("Unable to load ZWave product file '{}' : {}", cfgFile, e.toString());
-		}
-
-		return productFile;
+		productFileStream = xstream;
+		return productFileStream;
 	}
 
 	public List<ZWaveDbManufacturer> GetManufacturers() {
@@ -172,17 +260,11 @@ public class ZWaveProductDatabase {
 			return false;
 		}
 
-		selManufacturer = null;
+		selManufacturer = manufacturerIndex.get(manufacturerId);
 		selProduct = null;
 		productFile = null;
 
-		for (ZWaveDbManufacturer manufacturer : database.Manufacturer) {
-			if (manufacturer.Id == manufacturerId) {
-				selManufacturer = manufacturer;
-				return true;
-			}
-		}
-		return false;
+		return selManufacturer != null;
 	}
 
 	/**
@@ -220,15 +302,12 @@ public class ZWaveProductDatabase {
 		}
 		productVersion = version;
 
-		for (ZWaveDbProduct product : selManufacturer.Product) {
-			for (ZWaveDbProductReference reference : product.Reference) {
-				if (reference.Type == productType && reference.Id == productId) {
-					selProduct = product;
-					return true;
-				}
-			}
+		ZWaveDbProduct product = productIndex.get(getProductKey(selManufacturer.Id, productType, productId));
+		if (product == null) {
+			return false;
 		}
-		return false;
+		selProduct = product;
+		return true;
 	}
 
 	/**
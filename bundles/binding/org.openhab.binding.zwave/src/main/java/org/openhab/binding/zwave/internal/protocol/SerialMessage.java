@@ -627,6 +627,23 @@ public class SerialMessage {
 		 */
 		@Override
 		public int compare(SerialMessage arg0, SerialMessage arg1) {
+			int res = compareUrgency(arg0, arg1);
+
+			if (res == 0 && arg0 != arg1) {
+			   res = (arg0.sequenceNumber < arg1.sequenceNumber ? -1 : 1);
+			}
+
+			return res;
+		}
+
+		/**
+		 * Compares two serial messages by node status and priority only.
+		 * Used by the send queue to choose between the messages of
+		 * different nodes, which are then served in turn.
+		 * @param arg0 the first serial message to compare the other to.
+		 * @param arg1 the other serial message to compare the first one to.
+		 */
+		public int compareUrgency(SerialMessage arg0, SerialMessage arg1) {
 
 			boolean arg0Awake = false;
 			boolean arg0Listening = true;
@@ -679,13 +696,7 @@ public class SerialMessage {
 				return 1;
 			}
 
-			int res = arg0.priority.compareTo(arg1.priority);
-
-			if (res == 0 && arg0 != arg1) {
-			   res = (arg0.sequenceNumber < arg1.sequenceNumber ? -1 : 1);
-			}
-
-			return res;
+			return arg0.priority.compareTo(arg1.priority);
 		}
 	}
 }
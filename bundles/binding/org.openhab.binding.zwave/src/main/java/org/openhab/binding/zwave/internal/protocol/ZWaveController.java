@@ -84,7 +84,6 @@ public class ZWaveController {
 
 	private static final int ZWAVE_RESPONSE_TIMEOUT = 5000;		// 5000 ms ZWAVE_RESPONSE TIMEOUT
 	private static final int ZWAVE_RECEIVE_TIMEOUT = 1000;		// 1000 ms ZWAVE_RECEIVE_TIMEOUT
-	private static final int INITIAL_TX_QUEUE_SIZE = 128; 
 	private static final int INITIAL_RX_QUEUE_SIZE = 8; 
 	private static final long WATCHDOG_TIMER_PERIOD = 10000;	// 10 seconds watchdog timer
 
@@ -94,7 +93,7 @@ public class ZWaveController {
 	
 	private final ConcurrentHashMap<Integer, ZWaveNode> zwaveNodes = new ConcurrentHashMap<Integer, ZWaveNode>();
 	private final ArrayList<ZWaveEventListener> zwaveEventListeners = new ArrayList<ZWaveEventListener>();
-	private final PriorityBlockingQueue<SerialMessage> sendQueue = new PriorityBlockingQueue<SerialMessage>(INITIAL_TX_QUEUE_SIZE, new SerialMessage.SerialMessageComparator(this));
+	private final ZWaveSendQueue sendQueue = new ZWaveSendQueue(this);
 	private final PriorityBlockingQueue<SerialMessage> recvQueue = new PriorityBlockingQueue<SerialMessage>(INITIAL_RX_QUEUE_SIZE, new SerialMessage.SerialMessageComparator(this));
 	private ZWaveSendThread sendThread;
 	private ZWaveReceiveThread receiveThread;
@@ -575,9 +574,10 @@ public class ZWaveController {
 			}
     	}
 
-		// Add the message to the queue
-		this.sendQueue.add(serialMessage);
-		logger.debug("Enqueueing message. Queue length = {}", this.sendQueue.size());
+		// Add the message to the queue of the node
+		if (this.sendQueue.add(serialMessage)) {
+			logger.debug("Enqueueing message. Queue length = {}", this.sendQueue.size());
+		}
 	}
 
 	/**
@@ -587,6 +587,14 @@ public class ZWaveController {
 		return this.sendQueue.size();
 	}
 
+	/**
+	 * Returns the number of messages in the send queue for a node.
+	 * @param nodeId the node id
+	 */
+	public int getSendQueueLength(int nodeId) {
+		return this.sendQueue.size(nodeId);
+	}
+
 	/**
 	 * Notify our own event listeners of a Z-Wave event.
 	 * @param event the event to send.
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.zwave.internal.protocol;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.openhab.binding.zwave.internal.protocol.SerialMessage.SerialMessagePriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Z-Wave send queue. Holds the outgoing messages in a queue per node and
+ * serves the nodes in turn, so that the retries to a slow or dead node
+ * don't hold up the messages to the other nodes.
+ * Within a node, messages are sent by priority. Between the nodes, the
+ * message with the highest priority goes first and nodes with messages
+ * of the same priority take turns.
+ * Poll and get requests which are already queued for a node are not
+ * queued a second time.
+ * @author agent
+ * @since 1.8.0
+ */
+public class ZWaveSendQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(ZWaveSendQueue.class);
+
+	private static final int INITIAL_NODE_QUEUE_SIZE = 8;
+
+	private final SerialMessage.SerialMessageComparator comparator;
+
+	private final Map<Integer, PriorityQueue<SerialMessage>> nodeQueues = new HashMap<Integer, PriorityQueue<SerialMessage>>();
+
+	// The nodes with queued messages in the order they are served
+	private final LinkedList<Integer> nodeOrder = new LinkedList<Integer>();
+
+	private int size = 0;
+
+	private long duplicateCount = 0;
+
+	/**
+	 * Constructor. Creates a new instance of the send queue.
+	 * @param controller the {@link ZWaveController} to use
+	 */
+	public ZWaveSendQueue(ZWaveController controller) {
+		this.comparator = new SerialMessage.SerialMessageComparator(controller);
+	}
+
+	/**
+	 * Adds a message to the queue of its node.
+	 * @param serialMessage the message to add
+	 * @return false if the message is a duplicate of a queued request and has been dropped
+	 */
+	public synchronized boolean add(SerialMessage serialMessage) {
+		Integer nodeId = serialMessage.getMessageNode();
+		PriorityQueue<SerialMessage> queue = nodeQueues.get(nodeId);
+		if (queue == null) {
+			queue = new PriorityQueue<SerialMessage>(INITIAL_NODE_QUEUE_SIZE, comparator);
+			nodeQueues.put(nodeId, queue);
+		}
+		boolean waiting = !queue.isEmpty();
+
+		if (isRequest(serialMessage)) {
+			SerialMessage duplicate = findDuplicate(queue, serialMessage);
+			if (duplicate != null) {
+				if (duplicate.getPriority().compareTo(serialMessage.getPriority()) <= 0) {
+					duplicateCount++;
+					logger.debug("NODE {}: Message already queued. Dropping duplicate ({} so far).", nodeId, duplicateCount);
+					return false;
+				}
+				// The new request is more urgent - it replaces the queued one
+				queue.remove(duplicate);
+				size--;
+			}
+		}
+
+		queue.add(serialMessage);
+		size++;
+		if (!waiting) {
+			nodeOrder.addLast(nodeId);
+		}
+		notifyAll();
+		return true;
+	}
+
+	/**
+	 * Takes the next message to send, waiting until there is one.
+	 * @return the message
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public synchronized SerialMessage take() throws InterruptedException {
+		while (size == 0) {
+			wait();
+		}
+
+		// The first node in turn with the most urgent message is served
+		Integer selectedNode = null;
+		SerialMessage selectedMessage = null;
+		for (Integer nodeId : nodeOrder) {
+			SerialMessage head = nodeQueues.get(nodeId).peek();
+			if (selectedMessage == null || comparator.compareUrgency(head, selectedMessage) < 0) {
+				selectedNode = nodeId;
+				selectedMessage = head;
+			}
+		}
+
+		PriorityQueue<SerialMessage> queue = nodeQueues.get(selectedNode);
+		queue.poll();
+		size--;
+
+		// Move the node to the end of the line
+		nodeOrder.remove(selectedNode);
+		if (!queue.isEmpty()) {
+			nodeOrder.addLast(selectedNode);
+		}
+		return selectedMessage;
+	}
+
+	/**
+	 * Removes all messages from the queue.
+	 */
+	public synchronized void clear() {
+		nodeQueues.clear();
+		nodeOrder.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of queued messages for all nodes.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of queued messages for a node.
+	 * @param nodeId the node id
+	 */
+	public synchronized int size(int nodeId) {
+		PriorityQueue<SerialMessage> queue = nodeQueues.get(nodeId);
+		return queue == null ? 0 : queue.size();
+	}
+
+	/**
+	 * Checks whether a message only requests data from a node.
+	 * Sending such a message twice in a row doesn't make a difference.
+	 */
+	private static boolean isRequest(SerialMessage serialMessage) {
+		return serialMessage.getPriority() == SerialMessagePriority.Poll
+				|| serialMessage.getPriority() == SerialMessagePriority.Get;
+	}
+
+	/**
+	 * Finds a queued message with the same command, endpoint and arguments.
+	 */
+	private static SerialMessage findDuplicate(PriorityQueue<SerialMessage> queue, SerialMessage serialMessage) {
+		for (SerialMessage queuedMessage : queue) {
+			if (queuedMessage != serialMessage && queuedMessage.equals(serialMessage)) {
+				return queuedMessage;
+			}
+		}
+		return null;
+	}
+}
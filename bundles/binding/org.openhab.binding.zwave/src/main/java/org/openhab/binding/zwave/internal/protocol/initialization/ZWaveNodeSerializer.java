@@ -8,14 +8,20 @@
  */
 package org.openhab.binding.zwave.internal.protocol.initialization;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.openhab.binding.zwave.internal.protocol.ZWaveDeviceClass;
 import org.openhab.binding.zwave.internal.protocol.ZWaveEndpoint;
@@ -27,11 +33,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.io.binary.BinaryStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamWriter;
 import com.thoughtworks.xstream.io.xml.StaxDriver;
 
 /**
- * ZWaveNodeSerializer class. Serializes nodes to XML and back again.
+ * ZWaveNodeSerializer class. Serializes nodes to a binary snapshot and back again.
+ * The snapshot starts with a format version, so that snapshots written by another
+ * version of the binding are ignored. Nodes from the XML files of earlier versions
+ * are still read, and converted when they are serialized the next time. The XML
+ * file is then kept as nodeN.xml.bak, so that it can be restored for an earlier
+ * version of the binding.
+ * A node is only written if it has changed since it was last read or written.
  * 
  * @author Jan-Willem Spuij
  * @since 1.4.0
@@ -39,7 +53,16 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
 public class ZWaveNodeSerializer {
 
 	private static final Logger logger = LoggerFactory.getLogger(ZWaveNodeSerializer.class);
-	private final XStream stream = new XStream(new StaxDriver());
+
+	private static final int SNAPSHOT_MAGIC = 0x5a574e53;	// "ZWNS"
+	private static final int SNAPSHOT_VERSION = 1;
+
+	// The stream is expensive to set up, so it is shared by all instances
+	private static XStream stream = null;
+
+	// The last snapshot read or written per node
+	private static final Map<Integer, byte[]> snapshots = new HashMap<Integer, byte[]>();
+
 	private String folderName = "etc/zwave";
 
 	/**
@@ -64,6 +87,19 @@ public class ZWaveNodeSerializer {
 			logger.debug("Creating directory {}", folderName);
 			folder.mkdirs();
 		}
+		logger.trace("Initialized ZWaveNodeSerializer.");
+	}
+
+	/**
+	 * Returns the stream shared by all instances, creating it on first use.
+	 * Callers synchronize on the class.
+	 */
+	private static XStream getStream() {
+		if (stream != null) {
+			return stream;
+		}
+
+		stream = new XStream(new StaxDriver());
 		stream.processAnnotations(ZWaveNode.class);
 		stream.processAnnotations(ZWaveEndpoint.class);
 		stream.processAnnotations(ZWaveDeviceClass.class);
@@ -82,17 +118,18 @@ public class ZWaveNodeSerializer {
 			}
 		}
 		stream.processAnnotations(MeterScale.class);
-		logger.trace("Initialized ZWaveNodeSerializer.");
+		return stream;
 	}
 
 	/**
-	 * Serializes an XML tree of a {@link ZWaveNode}
+	 * Serializes a {@link ZWaveNode} to its snapshot file, unless the node
+	 * hasn't changed since the snapshot was last read or written.
 	 * 
 	 * @param node
 	 *            the node to serialize
 	 */
 	public void SerializeNode(ZWaveNode node) {
-		synchronized (stream) {
+		synchronized (ZWaveNodeSerializer.class) {
 			// Don't serialise if the stage is not at least finished static
 			// If we do serialise when we haven't completed the static stages
 			// then when the binding starts it will have incomplete information!
@@ -101,21 +138,47 @@ public class ZWaveNodeSerializer {
 				return;
 			}
 
-			File file = new File(this.folderName, String.format("node%d.xml", node.getNodeId()));
-			BufferedWriter writer = null;
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			BinaryStreamWriter writer = new BinaryStreamWriter(data);
+			getStream().marshal(node, writer);
+			writer.flush();
+			byte[] snapshot = data.toByteArray();
+
+			if (Arrays.equals(snapshot, snapshots.get(node.getNodeId()))) {
+				logger.debug("NODE {}: Serialise skipped as node has not changed", node.getNodeId());
+				return;
+			}
+
+			File file = getSnapshotFile(node.getNodeId());
+			File tempFile = new File(this.folderName, file.getName() + ".tmp");
+			DataOutputStream out = null;
 
 			logger.debug("NODE {}: Serializing to file {}", node.getNodeId(), file.getPath());
 
 			try {
-				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
-				stream.marshal(node, new PrettyPrintWriter(writer));
-				writer.flush();
+				out = new DataOutputStream(new FileOutputStream(tempFile));
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeInt(snapshot.length);
+				out.write(snapshot);
+				out.close();
+				out = null;
+
+				// Replace the previous snapshot only once the new one is complete
+				if ((file.exists() && !file.delete()) || !tempFile.renameTo(file)) {
+					throw new IOException("unable to replace " + file.getPath());
+				}
+				snapshots.put(node.getNodeId(), snapshot);
+
+				// The XML file of earlier versions is superseded by the snapshot, but is
+				// kept as a backup for a downgrade
+				backupXmlFile(node.getNodeId());
 			} catch (IOException e) {
 				logger.error("NODE {}: Error serializing to file: {}", node.getNodeId(), e.getMessage());
 			} finally {
-				if (writer != null) {
+				if (out != null) {
 					try {
-						writer.close();
+						out.close();
 					} catch (IOException e) {
 					}
 				}
@@ -124,15 +187,24 @@ public class ZWaveNodeSerializer {
 	}
 
 	/**
-	 * Deserializes an XML tree of a {@link ZWaveNode}
+	 * Deserializes a {@link ZWaveNode} from its snapshot file, or from the
+	 * XML file written by earlier versions.
 	 * 
 	 * @param nodeId
 	 *            the number of the node to deserialize
 	 * @return returns the Node or null in case Serialization failed.
 	 */
 	public ZWaveNode DeserializeNode(int nodeId) {
-		synchronized (stream) {
-			File file = new File(this.folderName, String.format("node%d.xml", nodeId));
+		synchronized (ZWaveNodeSerializer.class) {
+			File file = getSnapshotFile(nodeId);
+			if (file.exists()) {
+				ZWaveNode node = readSnapshot(nodeId, file);
+				if (node != null) {
+					return node;
+				}
+			}
+
+			file = getXmlFile(nodeId);
 			BufferedReader reader = null;
 
 			logger.debug("NODE {}: Serializing from file {}", nodeId, file.getPath());
@@ -144,7 +216,7 @@ public class ZWaveNodeSerializer {
 
 			try {
 				reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-				return (ZWaveNode)stream.fromXML(reader);
+				return (ZWaveNode)getStream().fromXML(reader);
 			} catch (IOException e) {
 				logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
 			} finally {
@@ -165,10 +237,83 @@ public class ZWaveNodeSerializer {
 	 * @return true if the file was deleted
 	 */
 	public boolean DeleteNode(int nodeId) {
-		synchronized (stream) {
-			File file = new File(this.folderName, String.format("node%d.xml", nodeId));
+		synchronized (ZWaveNodeSerializer.class) {
+			snapshots.remove(nodeId);
+			boolean deleted = getXmlFile(nodeId).delete();
+			getXmlBackupFile(nodeId).delete();
+
+			return getSnapshotFile(nodeId).delete() || deleted;
+		}
+	}
+
+	/**
+	 * Reads a node from a snapshot file.
+	 * @return the node, or null if the file can't be read or has another version
+	 */
+	private ZWaveNode readSnapshot(int nodeId, File file) {
+		DataInputStream in = null;
+
+		logger.debug("NODE {}: Serializing from file {}", nodeId, file.getPath());
+
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != SNAPSHOT_MAGIC) {
+				logger.warn("NODE {}: Ignoring file {}: not a node snapshot", nodeId, file.getPath());
+				return null;
+			}
+			int version = in.readInt();
+			if (version != SNAPSHOT_VERSION) {
+				logger.info("NODE {}: Ignoring snapshot of version {}", nodeId, version);
+				return null;
+			}
+			byte[] snapshot = new byte[in.readInt()];
+			in.readFully(snapshot);
+
+			ZWaveNode node = (ZWaveNode)getStream().unmarshal(new BinaryStreamReader(new ByteArrayInputStream(snapshot)));
+			snapshots.put(nodeId, snapshot);
+			return node;
+		} catch (IOException e) {
+			logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
+		} catch (XStreamException e) {
+			logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
+		} finally {
+			if (in != null)
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+		}
+		return null;
+	}
+
+	private File getSnapshotFile(int nodeId) {
+		return new File(this.folderName, String.format("node%d.bin", nodeId));
+	}
+
+	private File getXmlFile(int nodeId) {
+		return new File(this.folderName, String.format("node%d.xml", nodeId));
+	}
+
+	private File getXmlBackupFile(int nodeId) {
+		return new File(this.folderName, String.format("node%d.xml.bak", nodeId));
+	}
+
+	/**
+	 * Renames the XML file of a node, if there is one, to its backup name.
+	 * An existing backup is replaced.
+	 */
+	private void backupXmlFile(int nodeId) {
+		File xmlFile = getXmlFile(nodeId);
+		if (!xmlFile.exists()) {
+			return;
+		}
 
-			return file.delete();
+		File backupFile = getXmlBackupFile(nodeId);
+		if ((backupFile.exists() && !backupFile.delete()) || !xmlFile.renameTo(backupFile)) {
+			logger.warn("NODE {}: Unable to rename {} to {}", new Object[] { nodeId, xmlFile.getPath(), backupFile.getName() });
+		} else {
+			logger.info("NODE {}: Converted {} to {}, the previous file is kept as {}",
+					new Object[] { nodeId, xmlFile.getName(), getSnapshotFile(nodeId).getName(), backupFile.getName() });
 		}
 	}
 }
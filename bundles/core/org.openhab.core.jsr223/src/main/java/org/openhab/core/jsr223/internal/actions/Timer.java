@@ -12,13 +12,13 @@ import static org.quartz.TriggerBuilder.newTrigger;
 
 import org.joda.time.DateTime;
 import org.joda.time.base.AbstractInstant;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.TriggerKey;
-import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +38,7 @@ public class Timer {
 
 	static {
 		try {
-			scheduler = StdSchedulerFactory.getDefaultScheduler();
+			scheduler = NamedSchedulerFactory.getScheduler(NamedSchedulerFactory.JSR223);
 		} catch (SchedulerException e) {
 			logger.error("initializing scheduler throws exception", e);
 		}
@@ -22,6 +22,7 @@ import org.openhab.core.items.StateChangeListener;
 import org.openhab.core.jsr223.internal.engine.scriptmanager.ScriptManager;
 import org.openhab.core.jsr223.internal.shared.Rule;
 import org.openhab.core.jsr223.internal.shared.TriggerType;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.EventType;
 import org.openhab.core.types.State;
@@ -29,7 +30,6 @@ import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
-import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +60,7 @@ public class Jsr223Engine implements EventHandler, ItemRegistryChangeListener, S
 		activated = true;
 
 		try {
-			scheduler = StdSchedulerFactory.getDefaultScheduler();
+			scheduler = NamedSchedulerFactory.getScheduler(NamedSchedulerFactory.JSR223);
 		} catch (SchedulerException e) {
 			logger.error("initializing scheduler throws exception", e);
 		}
@@ -36,6 +36,7 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.openhab.model.core.EventType;
@@ -56,7 +57,6 @@ import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,7 +95,7 @@ public class PersistenceManager extends AbstractEventSubscriber implements Model
 	public PersistenceManager() {
 		PersistenceManager.instance = this;
 		 try {
-			scheduler = StdSchedulerFactory.getDefaultScheduler();
+			scheduler = NamedSchedulerFactory.getScheduler(NamedSchedulerFactory.PERSISTENCE);
 		} catch (SchedulerException e) {
           logger.error("initializing scheduler throws exception", e);
 		}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.openhab.core.scheduler.internal.ResizableThreadPool;
+import org.openhab.core.scheduler.internal.SchedulerStatistics;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerKey;
+import org.quartz.impl.DirectSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.simpl.RAMJobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides separate Quartz schedulers for the subsystems of the runtime, so
+ * that slow jobs of one subsystem (e.g. a persistence service waiting for its
+ * database) cannot delay the jobs of another one (e.g. time triggered rules).
+ *
+ * <p>Every named scheduler has its own thread pool, whose size can be set in
+ * openhab.cfg by <code>scheduler:&lt;name&gt;.threads</code>. Schedulers are
+ * created and started on first access.</p>
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public final class NamedSchedulerFactory {
+
+	private static final Logger logger = LoggerFactory.getLogger(NamedSchedulerFactory.class);
+
+	/** scheduler for persistence strategies */
+	public static final String PERSISTENCE = "persistence";
+
+	/** scheduler for time triggered rules */
+	public static final String RULES = "rules";
+
+	/** scheduler for the rules and timers of the JSR223 script engine */
+	public static final String JSR223 = "jsr223";
+
+	/** timer wheel for the timers created by scripts and rules */
+	public static final String SCRIPT_TIMERS = "script-timers";
+
+	/** scheduler for housekeeping jobs of persistence services */
+	public static final String PERSISTENCE_SERVICES = "persistence-services";
+
+	/** default number of threads of a scheduler */
+	public static final int DEFAULT_THREADS = 2;
+
+	private static final Map<String, NamedScheduler> schedulers = new HashMap<String, NamedScheduler>();
+
+	private static final Map<String, Integer> configuredThreads = new HashMap<String, Integer>();
+
+	private NamedSchedulerFactory() {
+	}
+
+	/**
+	 * Returns the scheduler of the given name, creating and starting it if necessary.
+	 *
+	 * @param name the name of the scheduler, e.g. {@link #RULES}
+	 * @return the scheduler
+	 * @throws SchedulerException if the scheduler cannot be created
+	 */
+	public static Scheduler getScheduler(String name) throws SchedulerException {
+		synchronized (schedulers) {
+			NamedScheduler namedScheduler = schedulers.get(name);
+			if (namedScheduler == null || namedScheduler.scheduler.isShutdown()) {
+				namedScheduler = createScheduler(name);
+				schedulers.put(name, namedScheduler);
+			}
+			return namedScheduler.scheduler;
+		}
+	}
+
+	private static NamedScheduler createScheduler(String name) throws SchedulerException {
+		int threads = getThreadCount(name, DEFAULT_THREADS);
+		String schedulerName = "openHAB-" + name;
+		ResizableThreadPool threadPool = new ResizableThreadPool(name, threads);
+		DirectSchedulerFactory factory = DirectSchedulerFactory.getInstance();
+		factory.createScheduler(schedulerName, schedulerName, threadPool, new RAMJobStore());
+		Scheduler scheduler = factory.getScheduler(schedulerName);
+
+		SchedulerStatistics statistics = new SchedulerStatistics(name);
+		scheduler.getListenerManager().addJobListener(statistics);
+		scheduler.getListenerManager().addTriggerListener(statistics);
+		scheduler.start();
+
+		logger.debug("Started scheduler '{}' with {} thread(s)", name, threads);
+		return new NamedScheduler(scheduler, threadPool, statistics);
+	}
+
+	/**
+	 * Returns the configured number of threads for a scheduler or timer wheel.
+	 *
+	 * @param name the name of the scheduler or timer wheel
+	 * @param defaultThreads the number of threads if nothing has been configured
+	 * @return the number of threads
+	 */
+	public static int getThreadCount(String name, int defaultThreads) {
+		synchronized (schedulers) {
+			Integer threads = configuredThreads.get(name);
+			return threads != null ? threads : defaultThreads;
+		}
+	}
+
+	/**
+	 * Sets the number of threads of a scheduler or timer wheel. Running
+	 * schedulers and timer wheels are resized immediately.
+	 *
+	 * @param name the name of the scheduler or timer wheel
+	 * @param threads the number of threads
+	 */
+	public static void setThreadCount(String name, int threads) {
+		synchronized (schedulers) {
+			configuredThreads.put(name, threads);
+			NamedScheduler namedScheduler = schedulers.get(name);
+			if (namedScheduler != null) {
+				namedScheduler.threadPool.setPoolSize(threads);
+			}
+		}
+		for (TimerWheel wheel : TimerWheel.getInstances()) {
+			if (wheel.getName().equals(name)) {
+				wheel.setThreads(threads);
+			}
+		}
+		logger.debug("Set number of threads of scheduler '{}' to {}", name, threads);
+	}
+
+	/**
+	 * @return the names of all created schedulers
+	 */
+	public static Collection<String> getSchedulerNames() {
+		synchronized (schedulers) {
+			return new TreeSet<String>(schedulers.keySet());
+		}
+	}
+
+	/**
+	 * Returns a human readable summary of the state and statistics of a scheduler:
+	 * busy and available threads, the number of triggers which are due but wait
+	 * for a free thread, misfires and a histogram of the job execution times.
+	 *
+	 * @param name the name of the scheduler
+	 * @return the statistics or <code>null</code> if there is no such scheduler
+	 */
+	public static String getStatistics(String name) {
+		NamedScheduler namedScheduler;
+		synchronized (schedulers) {
+			namedScheduler = schedulers.get(name);
+		}
+		if (namedScheduler == null) {
+			return null;
+		}
+		ResizableThreadPool threadPool = namedScheduler.threadPool;
+		SchedulerStatistics statistics = namedScheduler.statistics;
+		return String.format("threads=%d/%d, due=%d, saturated=%d, misfires=%d, %s",
+				threadPool.getBusyCount(), threadPool.getPoolSize(),
+				getDueTriggerCount(namedScheduler.scheduler), threadPool.getSaturatedCount(),
+				statistics.getMisfireCount(), statistics.getExecutionTimes());
+	}
+
+	/**
+	 * Stops all named schedulers.
+	 */
+	public static void shutdown() {
+		Collection<NamedScheduler> toStop;
+		synchronized (schedulers) {
+			toStop = new ArrayList<NamedScheduler>(schedulers.values());
+			schedulers.clear();
+		}
+		for (NamedScheduler namedScheduler : toStop) {
+			try {
+				namedScheduler.scheduler.shutdown();
+			} catch (SchedulerException e) {
+				logger.error("shutting down scheduler throws exception", e);
+			}
+		}
+	}
+
+	/**
+	 * Counts the triggers which should have fired already, i.e. the jobs
+	 * which are queued because all threads are busy.
+	 */
+	private static int getDueTriggerCount(Scheduler scheduler) {
+		int count = 0;
+		Date now = new Date();
+		try {
+			for (String group : scheduler.getTriggerGroupNames()) {
+				for (TriggerKey key : scheduler.getTriggerKeys(GroupMatcher.triggerGroupEquals(group))) {
+					Trigger trigger = scheduler.getTrigger(key);
+					if (trigger != null && trigger.getNextFireTime() != null
+							&& !trigger.getNextFireTime().after(now)
+							&& scheduler.getTriggerState(key) == TriggerState.NORMAL) {
+						count++;
+					}
+				}
+			}
+		} catch (SchedulerException e) {
+			logger.debug("Could not determine the due triggers: {}", e.getMessage());
+		}
+		return count;
+	}
+
+	private static class NamedScheduler {
+
+		private final Scheduler scheduler;
+
+		private final ResizableThreadPool threadPool;
+
+		private final SchedulerStatistics statistics;
+
+		private NamedScheduler(Scheduler scheduler, ResizableThreadPool threadPool, SchedulerStatistics statistics) {
+			this.scheduler = scheduler;
+			this.threadPool = threadPool;
+			this.statistics = statistics;
+		}
+	}
+
+}
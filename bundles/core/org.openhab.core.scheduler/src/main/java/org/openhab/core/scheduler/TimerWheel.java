@@ -0,0 +1,499 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.scheduler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed wheel timer for large numbers of short-lived, frequently
+ * rescheduled timers (e.g. the timers created by rules and scripts).
+ *
+ * <p>Timers are kept in a ring of buckets, one bucket per tick, so scheduling
+ * and cancelling a timer are O(1) operations. Callers only add timers to a
+ * lock-free queue or flag them as cancelled; the buckets are exclusively
+ * maintained by the wheel's own tick thread. Expired timers are handed over to
+ * a dedicated thread pool, so that long running timer code does neither delay
+ * the wheel nor other schedulers of the runtime.</p>
+ *
+ * <p>The precision of a timer is one tick (100ms by default).</p>
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class TimerWheel {
+
+	private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+	/** default length of a tick in milliseconds */
+	public static final long DEFAULT_TICK_DURATION = 100;
+
+	/** default number of buckets of the wheel (must be a power of two) */
+	public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+	/** maximum number of newly scheduled timers moved into the wheel per tick */
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private static final Map<String, TimerWheel> instances = new ConcurrentHashMap<String, TimerWheel>();
+
+	private final String name;
+
+	private final long tickDuration;
+
+	private final Bucket[] wheel;
+
+	private final int mask;
+
+	private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+
+	private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+
+	private final ThreadPoolExecutor executor;
+
+	private final Thread worker;
+
+	private final long startTime;
+
+	private volatile boolean running = true;
+
+	/** the current tick, only accessed by the worker thread */
+	private long tick;
+
+	// statistics
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	private final AtomicLong firedCount = new AtomicLong();
+
+	private final AtomicLong totalLag = new AtomicLong();
+
+	private final AtomicLong maxLag = new AtomicLong();
+
+	private volatile long lastLag;
+
+	/**
+	 * Creates and starts a new timer wheel with the default tick duration.
+	 *
+	 * @param name the name of the wheel, used for its threads and statistics
+	 * @param threads the number of threads executing expired timers
+	 */
+	public TimerWheel(String name, int threads) {
+		this(name, threads, DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL);
+	}
+
+	/**
+	 * Creates and starts a new timer wheel.
+	 *
+	 * @param name the name of the wheel, used for its threads and statistics
+	 * @param threads the number of threads executing expired timers
+	 * @param tickDuration the length of a tick in milliseconds
+	 * @param ticksPerWheel the number of buckets, rounded up to a power of two
+	 */
+	public TimerWheel(String name, int threads, long tickDuration, int ticksPerWheel) {
+		if (tickDuration <= 0) {
+			throw new IllegalArgumentException("tickDuration must be greater than 0");
+		}
+		int size = 1;
+		while (size < ticksPerWheel) {
+			size <<= 1;
+		}
+		this.name = name;
+		this.tickDuration = tickDuration;
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+
+		int poolSize = Math.max(1, threads);
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory(name));
+
+		this.startTime = System.nanoTime();
+		this.worker = new Thread(new Worker(), name + "-wheel");
+		this.worker.setDaemon(true);
+		this.worker.start();
+
+		TimerWheel previous = instances.put(name, this);
+		if (previous != null) {
+			logger.debug("Timer wheel '{}' replaces a previous instance of the same name", name);
+		}
+	}
+
+	/**
+	 * Schedules a task for execution after the given delay.
+	 *
+	 * @param task the task to execute
+	 * @param delay the delay, a negative delay executes the task with the next tick
+	 * @param unit the unit of the delay
+	 * @return a handle to cancel the execution
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		if (task == null) {
+			throw new IllegalArgumentException("task must not be null");
+		}
+		if (!running) {
+			throw new IllegalStateException("Timer wheel '" + name + "' has been shut down");
+		}
+		long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay));
+		Timeout timeout = new Timeout(task, deadline);
+		pendingCount.incrementAndGet();
+		newTimeouts.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Stops the wheel. Pending timers are discarded, timers which are already
+	 * executing are allowed to finish.
+	 */
+	public void shutdown() {
+		running = false;
+		worker.interrupt();
+		executor.shutdown();
+		instances.remove(name);
+		logger.debug("Timer wheel '{}' has been shut down with {} pending timer(s)", name, pendingCount.get());
+	}
+
+	/**
+	 * Changes the number of threads executing expired timers.
+	 *
+	 * @param threads the new number of threads, at least 1
+	 */
+	public void setThreads(int threads) {
+		int poolSize = Math.max(1, threads);
+		synchronized (executor) {
+			if (poolSize > executor.getMaximumPoolSize()) {
+				executor.setMaximumPoolSize(poolSize);
+				executor.setCorePoolSize(poolSize);
+			} else {
+				executor.setCorePoolSize(poolSize);
+				executor.setMaximumPoolSize(poolSize);
+			}
+		}
+	}
+
+	/**
+	 * @return the name of this wheel
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of timers which are scheduled but have not been executed yet
+	 */
+	public int getPendingCount() {
+		return pendingCount.get();
+	}
+
+	/**
+	 * @return the number of timers which have been executed
+	 */
+	public long getFiredCount() {
+		return firedCount.get();
+	}
+
+	/**
+	 * @return the maximum delay in milliseconds between the scheduled and the actual
+	 * start of a timer
+	 */
+	public long getMaxLag() {
+		return maxLag.get();
+	}
+
+	/**
+	 * @return the average delay in milliseconds between the scheduled and the actual
+	 * start of a timer
+	 */
+	public long getAverageLag() {
+		long fired = firedCount.get();
+		return fired == 0 ? 0 : totalLag.get() / fired;
+	}
+
+	/**
+	 * @return human readable summary of the wheel statistics
+	 */
+	public String getStatistics() {
+		return String.format("pending=%d, fired=%d, queued=%d, active=%d/%d, lag(ms) last=%d avg=%d max=%d",
+				pendingCount.get(), firedCount.get(), executor.getQueue().size(),
+				executor.getActiveCount(), executor.getMaximumPoolSize(),
+				lastLag, getAverageLag(), maxLag.get());
+	}
+
+	/**
+	 * @return all timer wheels which have not been shut down
+	 */
+	public static Collection<TimerWheel> getInstances() {
+		return Collections.unmodifiableCollection(instances.values());
+	}
+
+	private void fire(final Timeout timeout) {
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					recordLag(timeout);
+					try {
+						timeout.task.run();
+					} catch (Throwable t) {
+						logger.error("Timer of wheel '" + name + "' failed: " + t.getMessage(), t);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			logger.debug("Timer wheel '{}' has been shut down, timer is discarded", name);
+		}
+	}
+
+	private void recordLag(Timeout timeout) {
+		long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime - timeout.deadline);
+		if (lag < 0) {
+			lag = 0;
+		}
+		lastLag = lag;
+		firedCount.incrementAndGet();
+		totalLag.addAndGet(lag);
+		long max = maxLag.get();
+		while (lag > max && !maxLag.compareAndSet(max, lag)) {
+			max = maxLag.get();
+		}
+	}
+
+	/**
+	 * The tick thread of the wheel, which is the only thread touching the buckets.
+	 */
+	private class Worker implements Runnable {
+
+		public void run() {
+			while (running) {
+				long deadline = waitForNextTick();
+				if (deadline < 0) {
+					break;
+				}
+				removeCancelledTimeouts();
+				transferNewTimeouts();
+				wheel[(int) (tick & mask)].expireTimeouts(deadline);
+				tick++;
+			}
+			newTimeouts.clear();
+			cancelledTimeouts.clear();
+		}
+
+		/**
+		 * @return the end of the current tick relative to the start time, or -1 if
+		 * the wheel has been shut down
+		 */
+		private long waitForNextTick() {
+			long deadline = TimeUnit.MILLISECONDS.toNanos(tickDuration) * (tick + 1);
+			while (true) {
+				long current = System.nanoTime() - startTime;
+				long sleepTime = TimeUnit.NANOSECONDS.toMillis(deadline - current + 999999);
+				if (sleepTime <= 0) {
+					return current;
+				}
+				try {
+					Thread.sleep(sleepTime);
+				} catch (InterruptedException e) {
+					if (!running) {
+						return -1;
+					}
+				}
+			}
+		}
+
+		private void transferNewTimeouts() {
+			long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+			for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+				Timeout timeout = newTimeouts.poll();
+				if (timeout == null) {
+					break;
+				}
+				if (timeout.isCancelled()) {
+					continue;
+				}
+				long calculated = timeout.deadline / tickNanos;
+				timeout.remainingRounds = (calculated - tick) / wheel.length;
+				long ticks = Math.max(calculated, tick);
+				wheel[(int) (ticks & mask)].add(timeout);
+			}
+		}
+
+		private void removeCancelledTimeouts() {
+			Timeout timeout;
+			while ((timeout = cancelledTimeouts.poll()) != null) {
+				if (timeout.bucket != null) {
+					timeout.bucket.remove(timeout);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A doubly linked list of timeouts, only accessed by the worker thread.
+	 */
+	private final class Bucket {
+
+		private Timeout head;
+
+		private Timeout tail;
+
+		private void add(Timeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+
+		private void expireTimeouts(long deadline) {
+			Timeout timeout = head;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				if (timeout.remainingRounds <= 0) {
+					remove(timeout);
+					if (timeout.deadline <= deadline) {
+						if (timeout.expire()) {
+							fire(timeout);
+						}
+					} else {
+						// should not happen, the timeout was put into the wrong bucket
+						logger.warn("Timer deadline ({}) is after the tick deadline ({}) of wheel '{}'",
+								new Object[] { timeout.deadline, deadline, name });
+					}
+				} else if (timeout.isCancelled()) {
+					remove(timeout);
+				} else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+
+		private void remove(Timeout timeout) {
+			if (timeout.bucket != this) {
+				return;
+			}
+			if (timeout.prev != null) {
+				timeout.prev.next = timeout.next;
+			}
+			if (timeout.next != null) {
+				timeout.next.prev = timeout.prev;
+			}
+			if (timeout == head) {
+				head = timeout.next;
+			}
+			if (timeout == tail) {
+				tail = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+	}
+
+	/**
+	 * Handle of a scheduled task.
+	 */
+	public final class Timeout {
+
+		private static final int ST_PENDING = 0;
+		private static final int ST_CANCELLED = 1;
+		private static final int ST_EXPIRED = 2;
+
+		private final AtomicInteger state = new AtomicInteger(ST_PENDING);
+
+		private final Runnable task;
+
+		/** deadline in nanoseconds relative to the start time of the wheel */
+		private final long deadline;
+
+		// only accessed by the worker thread
+		private long remainingRounds;
+		private Bucket bucket;
+		private Timeout prev;
+		private Timeout next;
+
+		private Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancels the execution of the task, if it has not been started yet.
+		 *
+		 * @return true, if the task has been cancelled by this call
+		 */
+		public boolean cancel() {
+			if (!state.compareAndSet(ST_PENDING, ST_CANCELLED)) {
+				return false;
+			}
+			pendingCount.decrementAndGet();
+			cancelledTimeouts.add(this);
+			return true;
+		}
+
+		/**
+		 * @return true, if the task has been cancelled
+		 */
+		public boolean isCancelled() {
+			return state.get() == ST_CANCELLED;
+		}
+
+		/**
+		 * @return true, if the task has been handed over for execution
+		 */
+		public boolean isExpired() {
+			return state.get() == ST_EXPIRED;
+		}
+
+		private boolean expire() {
+			if (!state.compareAndSet(ST_PENDING, ST_EXPIRED)) {
+				return false;
+			}
+			pendingCount.decrementAndGet();
+			return true;
+		}
+	}
+
+	/**
+	 * Creates named daemon threads for the execution of expired timers.
+	 */
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		private NamedThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.scheduler.internal;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Quartz {@link ThreadPool} whose size can be changed while the scheduler is
+ * running, so that a new thread count from the configuration takes effect
+ * without recreating the scheduler and its jobs.
+ * 
+ * @author agent
+ * @since 1.8.0
+ */
+public class ResizableThreadPool implements ThreadPool {
+
+	private final String name;
+
+	private final Object lock = new Object();
+
+	private int poolSize;
+
+	private int busyCount = 0;
+
+	private long saturatedCount = 0;
+
+	private boolean shutdown = false;
+
+	private ThreadPoolExecutor executor;
+
+	public ResizableThreadPool(String name, int poolSize) {
+		this.name = name;
+		this.poolSize = Math.max(1, poolSize);
+	}
+
+	public void initialize() {
+		executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "openHAB-" + name + "-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	public boolean runInThread(final Runnable runnable) {
+		if (runnable == null) {
+			return false;
+		}
+		synchronized (lock) {
+			if (busyCount >= poolSize && !shutdown) {
+				saturatedCount++;
+			}
+			while (busyCount >= poolSize && !shutdown) {
+				try {
+					lock.wait(500);
+				} catch (InterruptedException e) {
+					// ignore, check again
+				}
+			}
+			if (shutdown) {
+				return false;
+			}
+			busyCount++;
+		}
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						runnable.run();
+					} finally {
+						release();
+					}
+				}
+			});
+			return true;
+		} catch (RejectedExecutionException e) {
+			release();
+			return false;
+		}
+	}
+
+	public int blockForAvailableThreads() {
+		synchronized (lock) {
+			if (busyCount >= poolSize && !shutdown) {
+				saturatedCount++;
+			}
+			while (busyCount >= poolSize && !shutdown) {
+				try {
+					lock.wait(500);
+				} catch (InterruptedException e) {
+					// ignore, check again
+				}
+			}
+			return poolSize - busyCount;
+		}
+	}
+
+	private void release() {
+		synchronized (lock) {
+			busyCount--;
+			lock.notifyAll();
+		}
+	}
+
+	public void shutdown(boolean waitForJobsToComplete) {
+		synchronized (lock) {
+			shutdown = true;
+			lock.notifyAll();
+		}
+		executor.shutdown();
+		if (waitForJobsToComplete) {
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public int getPoolSize() {
+		synchronized (lock) {
+			return poolSize;
+		}
+	}
+
+	/**
+	 * Changes the number of jobs which may be executed at the same time.
+	 * 
+	 * @param poolSize the new size, at least 1
+	 */
+	public void setPoolSize(int poolSize) {
+		synchronized (lock) {
+			this.poolSize = Math.max(1, poolSize);
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * @return the number of threads currently executing a job
+	 */
+	public int getBusyCount() {
+		synchronized (lock) {
+			return busyCount;
+		}
+	}
+
+	/**
+	 * @return how often a job had to wait for a free thread
+	 */
+	public long getSaturatedCount() {
+		synchronized (lock) {
+			return saturatedCount;
+		}
+	}
+
+	public void setInstanceId(String schedInstId) {
+	}
+
+	public void setInstanceName(String schedName) {
+	}
+
+}
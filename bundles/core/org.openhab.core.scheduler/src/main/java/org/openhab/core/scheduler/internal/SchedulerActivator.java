@@ -8,8 +8,15 @@
  */
 package org.openhab.core.scheduler.internal;
 
+import java.util.Hashtable;
+
+import org.eclipse.osgi.framework.console.CommandProvider;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.cm.ManagedService;
 import org.quartz.SchedulerException;
 import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
@@ -28,6 +35,10 @@ public final class SchedulerActivator implements BundleActivator {
 	
 	private static BundleContext context;
 	
+	private ServiceRegistration commandProviderRegistration;
+	
+	private ServiceRegistration configurationRegistration;
+	
 	/**
 	 * Called whenever the OSGi framework starts our bundle
 	 */
@@ -41,6 +52,12 @@ public final class SchedulerActivator implements BundleActivator {
         catch (SchedulerException se) {
             logger.error("initializing scheduler throws exception", se);
         }
+        
+        commandProviderRegistration = bc.registerService(CommandProvider.class.getName(), new SchedulerCommandProvider(), null);
+        
+        Hashtable<String, Object> properties = new Hashtable<String, Object>();
+        properties.put(Constants.SERVICE_PID, SchedulerConfiguration.SERVICE_PID);
+        configurationRegistration = bc.registerService(ManagedService.class.getName(), new SchedulerConfiguration(), properties);
 	}
 
 	/**
@@ -50,6 +67,17 @@ public final class SchedulerActivator implements BundleActivator {
 		context = null;
 		logger.debug("Scheduler has been stopped.");
 		
+		if (commandProviderRegistration != null) {
+			commandProviderRegistration.unregister();
+			commandProviderRegistration = null;
+		}
+		if (configurationRegistration != null) {
+			configurationRegistration.unregister();
+			configurationRegistration = null;
+		}
+		
+		NamedSchedulerFactory.shutdown();
+		
         try {
         	StdSchedulerFactory.getDefaultScheduler().shutdown();
 		}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.scheduler.internal;
+
+import org.eclipse.osgi.framework.console.CommandInterpreter;
+import org.eclipse.osgi.framework.console.CommandProvider;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
+import org.openhab.core.scheduler.TimerWheel;
+
+/**
+ * Command provider. Shows the statistics of the schedulers on the osgi console.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class SchedulerCommandProvider implements CommandProvider {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getHelp() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("--- Scheduler Commands---\n");
+		buffer.append("\tscheduler pools - Show threads, due triggers, misfires and execution times of the schedulers\n");
+		buffer.append("\tscheduler timers - Show pending timers and firing lag of the timer wheels\n");
+		return buffer.toString();
+	}
+
+	/**
+	 * Scheduler command implementation.
+	 *
+	 * @param intp
+	 *            commandinterpreter
+	 *
+	 * @return null
+	 */
+	public Object _scheduler(CommandInterpreter intp) {
+
+		String cmd = intp.nextArgument();
+
+		if ("pools".equals(cmd)) {
+			if (NamedSchedulerFactory.getSchedulerNames().isEmpty()) {
+				intp.println("No schedulers running.");
+			}
+			for (String name : NamedSchedulerFactory.getSchedulerNames()) {
+				intp.println(name);
+				intp.println("\t" + NamedSchedulerFactory.getStatistics(name));
+			}
+		} else if ("timers".equals(cmd)) {
+			if (TimerWheel.getInstances().isEmpty()) {
+				intp.println("No timer wheels running.");
+			}
+			for (TimerWheel wheel : TimerWheel.getInstances()) {
+				intp.println(wheel.getName());
+				intp.println("\t" + wheel.getStatistics());
+			}
+		} else {
+			intp.print(getHelp());
+		}
+
+		return null;
+	}
+
+}
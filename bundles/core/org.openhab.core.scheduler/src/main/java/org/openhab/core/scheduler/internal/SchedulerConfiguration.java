@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.scheduler.internal;
+
+import java.util.Dictionary;
+import java.util.Enumeration;
+
+import org.openhab.core.scheduler.NamedSchedulerFactory;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies the thread counts of the named schedulers and timer wheels from
+ * openhab.cfg, e.g. <code>scheduler:persistence.threads=4</code>.
+ * 
+ * @author agent
+ * @since 1.8.0
+ */
+public class SchedulerConfiguration implements ManagedService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SchedulerConfiguration.class);
+
+	public static final String SERVICE_PID = "org.openhab.scheduler";
+
+	private static final String THREADS_SUFFIX = ".threads";
+
+	@SuppressWarnings("rawtypes")
+	public void updated(Dictionary config) throws ConfigurationException {
+		if (config == null) {
+			return;
+		}
+		Enumeration keys = config.keys();
+		while (keys.hasMoreElements()) {
+			String key = (String) keys.nextElement();
+			if (!key.endsWith(THREADS_SUFFIX)) {
+				if (!"service.pid".equals(key)) {
+					logger.debug("Ignoring unknown scheduler configuration key '{}'", key);
+				}
+				continue;
+			}
+			String name = key.substring(0, key.length() - THREADS_SUFFIX.length());
+			String value = String.valueOf(config.get(key)).trim();
+			try {
+				int threads = Integer.parseInt(value);
+				if (threads < 1) {
+					throw new ConfigurationException(key, "The number of threads must be at least 1");
+				}
+				NamedSchedulerFactory.setThreadCount(name, threads);
+			} catch (NumberFormatException e) {
+				throw new ConfigurationException(key, "Invalid number of threads '" + value + "'");
+			}
+		}
+	}
+
+}
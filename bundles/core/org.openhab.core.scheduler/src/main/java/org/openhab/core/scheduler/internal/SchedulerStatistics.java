@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.scheduler.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+
+/**
+ * Collects misfire counts and a histogram of the job execution times of a
+ * scheduler.
+ * 
+ * @author agent
+ * @since 1.8.0
+ */
+public class SchedulerStatistics implements JobListener, TriggerListener {
+
+	/** upper bounds (exclusive) of the execution time buckets in milliseconds */
+	private static final long[] BUCKET_BOUNDS = { 10, 100, 1000, 10000 };
+
+	private final String name;
+
+	private final AtomicLong misfireCount = new AtomicLong();
+
+	private final AtomicLong failureCount = new AtomicLong();
+
+	private final AtomicLong maxRunTime = new AtomicLong();
+
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+
+	public SchedulerStatistics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return "SchedulerStatistics-" + name;
+	}
+
+	public void triggerMisfired(Trigger trigger) {
+		misfireCount.incrementAndGet();
+	}
+
+	public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+		long runTime = context.getJobRunTime();
+		if (jobException != null) {
+			failureCount.incrementAndGet();
+		}
+		int bucket = 0;
+		while (bucket < BUCKET_BOUNDS.length && runTime >= BUCKET_BOUNDS[bucket]) {
+			bucket++;
+		}
+		histogram.incrementAndGet(bucket);
+		long max = maxRunTime.get();
+		while (runTime > max && !maxRunTime.compareAndSet(max, runTime)) {
+			max = maxRunTime.get();
+		}
+	}
+
+	public long getMisfireCount() {
+		return misfireCount.get();
+	}
+
+	/**
+	 * @return human readable execution time histogram
+	 */
+	public String getExecutionTimes() {
+		StringBuilder sb = new StringBuilder();
+		long total = 0;
+		for (int i = 0; i < histogram.length(); i++) {
+			long count = histogram.get(i);
+			total += count;
+			sb.append(i < BUCKET_BOUNDS.length ? "<" + BUCKET_BOUNDS[i] : ">=" + BUCKET_BOUNDS[i - 1]);
+			sb.append(':').append(count).append(' ');
+		}
+		sb.append("max=").append(maxRunTime.get());
+		return "executed=" + total + ", failed=" + failureCount.get() + ", exec time(ms) " + sb.toString();
+	}
+
+	public void jobToBeExecuted(JobExecutionContext context) {
+	}
+
+	public void jobExecutionVetoed(JobExecutionContext context) {
+	}
+
+	public void triggerFired(Trigger trigger, JobExecutionContext context) {
+	}
+
+	public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+		return false;
+	}
+
+	public void triggerComplete(Trigger trigger, JobExecutionContext context,
+			CompletedExecutionInstruction triggerInstructionCode) {
+	}
+
+}
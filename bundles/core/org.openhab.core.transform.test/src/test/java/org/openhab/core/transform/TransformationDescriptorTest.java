@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+/**
+ * @author agent
+ * @since 1.8.0
+ */
+public class TransformationDescriptorTest {
+
+	@Test
+	public void testParse() {
+		TransformationDescriptor descriptor = TransformationDescriptor.parse("MAP(en.map)");
+
+		Assert.assertEquals("MAP", descriptor.getType());
+		Assert.assertEquals("en.map", descriptor.getFunction());
+	}
+
+	@Test
+	public void testParse_functionWithBrackets() {
+		TransformationDescriptor descriptor = TransformationDescriptor.parse("REGEX(.*?<temp_c data=\"(.*?)\".*)");
+
+		Assert.assertEquals("REGEX", descriptor.getType());
+		Assert.assertEquals(".*?<temp_c data=\"(.*?)\".*", descriptor.getFunction());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParse_invalid() {
+		TransformationDescriptor.parse("en.map");
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A transformation configured as <code>TYPE(function)</code>, e.g.
+ * <code>REGEX(.*?temp="(.*?)".*)</code> or <code>MAP(en.map)</code>, split into
+ * its transformation type and the function to apply.
+ *
+ * Bindings should parse their transformations once when the binding
+ * configuration is read and pass the descriptor to
+ * {@link TransformationHelper#transform(TransformationDescriptor, String)}
+ * for every value.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public final class TransformationDescriptor {
+
+	private static final Pattern EXTRACT_FUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\)");
+
+	private final String type;
+
+	private final String function;
+
+	public TransformationDescriptor(String type, String function) {
+		this.type = type;
+		this.function = function;
+	}
+
+	/**
+	 * Splits a transformation configuration into the transformation type and
+	 * the function to apply.
+	 *
+	 * @param transformation the transformation in the form <code>TYPE(function)</code>
+	 * @return the descriptor of the transformation
+	 * @throws IllegalArgumentException if the transformation doesn't follow the
+	 *         pattern <code>TYPE(function)</code>
+	 */
+	public static TransformationDescriptor parse(String transformation) {
+		Matcher matcher = transformation != null ? EXTRACT_FUNCTION_PATTERN.matcher(transformation) : null;
+		if (matcher == null || !matcher.matches()) {
+			throw new IllegalArgumentException("given transformation function '" + transformation
+					+ "' does not follow the expected pattern '<function>(<pattern>)'");
+		}
+		return new TransformationDescriptor(matcher.group(1), matcher.group(2));
+	}
+
+	/**
+	 * @return the transformation type, e.g. REGEX or MAP
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return the function to apply, this value depends on the transformation type
+	 */
+	public String getFunction() {
+		return function;
+	}
+
+	@Override
+	public String toString() {
+		return type + "(" + function + ")";
+	}
+
+}
@@ -10,6 +10,8 @@ package org.openhab.core.transform;
 
 import java.util.Collection;
 
+import org.openhab.core.transform.internal.TransformationActivator;
+import org.openhab.core.transform.internal.TransformationServiceTracker;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
@@ -21,15 +23,24 @@ public class TransformationHelper {
 	private static Logger logger = LoggerFactory.getLogger(TransformationHelper.class);
 
 	/**
-	 * Queries the OSGi service registry for a service that provides a transformation service of
-	 * a given transformation type (e.g. REGEX, XSLT, etc.)
-	 * 
+	 * Returns the service that provides a transformation service of a given transformation
+	 * type (e.g. REGEX, XSLT, etc.). The services are tracked by this bundle, so the
+	 * OSGi service registry is only queried if this bundle hasn't been started yet.
+	 *
 	 * @param transformationType the desired transformation type
 	 * @return a service instance or null, if none could be found
 	 */
 	static public TransformationService getTransformationService(BundleContext context, String transformationType) {
+		TransformationServiceTracker tracker = TransformationActivator.getServiceTracker();
+		if(tracker!=null) {
+			TransformationService service = tracker.getTransformationService(transformationType);
+			if(service==null) {
+				logger.warn("Cannot get service reference for transformation service of type " + transformationType);
+			}
+			return service;
+		}
 		if(context!=null) {
-			String filter = "(openhab.transform=" + transformationType + ")";
+			String filter = "(" + TransformationServiceTracker.TRANSFORMATION_TYPE_PROPERTY + "=" + transformationType + ")";
 			try {
 				Collection<ServiceReference<TransformationService>> refs = context.getServiceReferences(TransformationService.class, filter);
 				if(refs!=null && refs.size() > 0) {
@@ -44,4 +55,35 @@ public class TransformationHelper {
 		return null;
 	}
 
+	/**
+	 * Applies a transformation to a value. If no service is available for the
+	 * transformation type, the value is returned untransformed.
+	 *
+	 * @param descriptor the transformation, usually parsed once from the binding configuration
+	 * @param source the value to transform
+	 * @return the transformed value or the source, if no service could be found
+	 * @throws TransformationException if the transformation fails
+	 */
+	static public String transform(TransformationDescriptor descriptor, String source) throws TransformationException {
+		return transform(descriptor.getType(), descriptor.getFunction(), source);
+	}
+
+	/**
+	 * Applies a transformation of a given type with some function to a value. If no
+	 * service is available for the transformation type, the value is returned untransformed.
+	 *
+	 * @param type the transformation type, e.g. REGEX or MAP
+	 * @param function the function to apply, this value depends on the transformation type
+	 * @param source the value to transform
+	 * @return the transformed value or the source, if no service could be found
+	 * @throws TransformationException if the transformation fails
+	 */
+	static public String transform(String type, String function, String source) throws TransformationException {
+		TransformationService service = getTransformationService(TransformationActivator.getContext(), type);
+		if(service!=null) {
+			return service.transform(function, source);
+		}
+		return source;
+	}
+
 }
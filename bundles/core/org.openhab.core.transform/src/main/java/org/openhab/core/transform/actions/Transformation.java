@@ -10,8 +10,6 @@ package org.openhab.core.transform.actions;
 
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationHelper;
-import org.openhab.core.transform.TransformationService;
-import org.openhab.core.transform.internal.TransformationActivator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,16 +37,10 @@ public class Transformation {
 	 */
 	public static String transform(String type, String function, String value) {
 		String result;
-		TransformationService service = TransformationHelper.getTransformationService(TransformationActivator.getContext(), type);
-		if(service!=null) {
-			try {
-				result = service.transform(function, value);
-			} catch (TransformationException e) {
-				logger.error("Error executing the transformation '" + type + "': " + e.getMessage());
-				result = value;
-			}			
-		} else {
-			logger.warn("No transformation service '" + type + "' could be found.");
+		try {
+			result = TransformationHelper.transform(type, function, value);
+		} catch (TransformationException e) {
+			logger.error("Error executing the transformation '" + type + "': " + e.getMessage());
 			result = value;
 		}
 		return result;
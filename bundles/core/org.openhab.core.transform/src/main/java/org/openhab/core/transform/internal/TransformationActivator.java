@@ -30,11 +30,16 @@ public final class TransformationActivator implements BundleActivator {
 	
 	private static BundleContext context;
 	
+	private static TransformationServiceTracker serviceTracker;
+	
 	/**
 	 * Called whenever the OSGi framework starts our bundle
 	 */
 	public void start(BundleContext bc) throws Exception {
 		context = bc;
+		TransformationServiceTracker tracker = new TransformationServiceTracker(bc);
+		tracker.open();
+		serviceTracker = tracker;
 		logger.debug("Transformation Service has been started.");
 	}
 
@@ -42,6 +47,10 @@ public final class TransformationActivator implements BundleActivator {
 	 * Called whenever the OSGi framework stops our bundle
 	 */
 	public void stop(BundleContext bc) throws Exception {
+		if (serviceTracker != null) {
+			serviceTracker.close();
+			serviceTracker = null;
+		}
 		context = null;
 		logger.debug("Transformation Service has been stopped.");
 	}
@@ -54,4 +63,12 @@ public final class TransformationActivator implements BundleActivator {
 		return context;
 	}	
 	
+	/**
+	 * Returns the tracker of the registered transformation services
+	 * @return the tracker or <code>null</code>, if the bundle isn't started
+	 */
+	public static TransformationServiceTracker getServiceTracker() {
+		return serviceTracker;
+	}
+	
 }
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.transform.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openhab.core.transform.TransformationService;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+
+/**
+ * Tracks all registered {@link TransformationService}s and keeps them in a map
+ * by their transformation type (the <code>openhab.transform</code> service
+ * property), so that looking up a service is a simple map access instead of a
+ * query of the OSGi service registry.
+ *
+ * If several services are registered for the same type, the one with the
+ * highest service ranking is used.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class TransformationServiceTracker extends ServiceTracker<TransformationService, TransformationService> {
+
+	public static final String TRANSFORMATION_TYPE_PROPERTY = "openhab.transform";
+
+	/** the services by transformation type; the map is replaced, never modified */
+	private volatile Map<String, TransformationService> services = Collections.emptyMap();
+
+	/** all services added to this tracker; guarded by <code>this</code> */
+	private final Map<ServiceReference<TransformationService>, TransformationService> trackedServices =
+		new HashMap<ServiceReference<TransformationService>, TransformationService>();
+
+	public TransformationServiceTracker(BundleContext context) {
+		super(context, TransformationService.class, null);
+	}
+
+	/**
+	 * Returns the service for a transformation type.
+	 *
+	 * @param transformationType the transformation type, e.g. REGEX or MAP
+	 * @return the service or <code>null</code>, if no service is registered for the type
+	 */
+	public TransformationService getTransformationService(String transformationType) {
+		return services.get(transformationType);
+	}
+
+	@Override
+	public TransformationService addingService(ServiceReference<TransformationService> reference) {
+		TransformationService service = super.addingService(reference);
+		if (service != null) {
+			synchronized (this) {
+				trackedServices.put(reference, service);
+				updateServices();
+			}
+		}
+		return service;
+	}
+
+	@Override
+	public void modifiedService(ServiceReference<TransformationService> reference, TransformationService service) {
+		synchronized (this) {
+			updateServices();
+		}
+	}
+
+	@Override
+	public void removedService(ServiceReference<TransformationService> reference, TransformationService service) {
+		synchronized (this) {
+			trackedServices.remove(reference);
+			updateServices();
+		}
+		super.removedService(reference, service);
+	}
+
+	/*
+	 * rebuilds the map of services from the services added to this tracker. The services
+	 * of the tracker itself aren't used, as a service which is being added concurrently
+	 * isn't contained there yet. Must be called while holding the lock on this tracker.
+	 */
+	private void updateServices() {
+		// references are ordered by ranking, so the service with the highest ranking is put last
+		List<ServiceReference<TransformationService>> sortedReferences =
+			new ArrayList<ServiceReference<TransformationService>>(trackedServices.keySet());
+		Collections.sort(sortedReferences);
+		Map<String, TransformationService> newServices = new HashMap<String, TransformationService>();
+		for (ServiceReference<TransformationService> reference : sortedReferences) {
+			Object type = reference.getProperty(TRANSFORMATION_TYPE_PROPERTY);
+			if (type != null) {
+				newServices.put(type.toString(), trackedServices.get(reference));
+			}
+		}
+		services = newServices;
+	}
+
+}
@@ -25,7 +25,7 @@ import org.openhab.core.items.ItemNotUniqueException;
 import org.openhab.core.items.ItemProvider;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.ItemRegistryChangeListener;
-import org.openhab.core.items.ItemsChangeListener;
+import org.openhab.core.items.ItemsUpdateListener;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +40,7 @@ import org.slf4j.LoggerFactory;
  * @since 0.1.0
  *
  */
-public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
+public class ItemRegistryImpl implements ItemRegistry, ItemsUpdateListener {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ItemRegistryImpl.class);
 
@@ -224,12 +224,34 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
         items = itemMap.get(provider);
 		if(items!=null) {
 			items.remove(item);
+			releaseItem(item);
 		}
 		for(ItemRegistryChangeListener listener : listeners) {
 			listener.itemRemoved(item);
 		}
 	}
 
+    @Override
+	public void itemUpdated(ItemProvider provider, Item oldItem, Item item) {
+        Collection<Item> items;
+        items = itemMap.get(provider);
+		if(items!=null) {
+			items.remove(oldItem);
+			releaseItem(oldItem);
+			if(initializeItem(item)) {
+				items.add(item);
+			} else {
+				item = null;
+			}
+		}
+		for(ItemRegistryChangeListener listener : listeners) {
+			listener.itemRemoved(oldItem);
+			if(item!=null) {
+				listener.itemAdded(item);
+			}
+		}
+	}
+
     @Override
 	public void addItemRegistryChangeListener(ItemRegistryChangeListener listener) {
 		listeners.add(listener);
@@ -240,6 +262,34 @@ public class ItemRegistryImpl implements ItemRegistry, ItemsChangeListener {
 		listeners.remove(listener);
 	}
 
+	/**
+	 * detaches an item which is no longer part of the registry from all groups
+	 * it is a member of and, if it is a group itself, from all of its members.
+	 * 
+	 * @param item the item to release
+	 */
+	private void releaseItem(Item item) {
+		for(String groupName : item.getGroupNames()) {
+			try {
+				Item groupItem = getItem(groupName);
+				if(groupItem instanceof GroupItem) {
+					((GroupItem)groupItem).removeMember(item);
+				}
+			} catch (ItemNotFoundException e) {
+				// the group has already been removed
+			}
+		}
+		if(item instanceof GroupItem) {
+			GroupItem groupItem = (GroupItem) item;
+			for(Item member : groupItem.getMembers()) {
+				groupItem.removeMember(member);
+			}
+		}
+		if(item instanceof GenericItem) {
+			((GenericItem) item).dispose();
+		}
+	}
+
 	/**
 	 * an item should be initialized, which means that the event publisher is
 	 * injected and its implementation is notified that it has just been created,
@@ -91,6 +91,9 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 	}
 
 	public void addMember(Item item) {
+		if (members.contains(item)) {
+			return;
+		}
 		members.add(item);
 		if (item instanceof GenericItem) {
 			GenericItem genericItem = (GenericItem) item;
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.core.items;
+
+/**
+ * An {@link ItemsChangeListener} which is also notified about the replacement of
+ * single items. Item providers which replace an item pass it to listeners which
+ * don't implement this interface as a removal of the old and an addition of the
+ * new item.
+ * 
+ * @author agent
+ * @since 1.8.0
+ *
+ */
+public interface ItemsUpdateListener extends ItemsChangeListener {
+
+	/**
+	 * Notifies the listener that a single item has been replaced by a new instance
+	 * with a different definition (e.g. type or group memberships)
+	 * 
+	 * @param provider the concerned item provider 
+	 * @param oldItem the item that has been replaced
+	 * @param item the item that replaces the old item
+	 */
+	public void itemUpdated(ItemProvider provider, Item oldItem, Item item);
+	
+}
@@ -14,6 +14,9 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import javax.servlet.ServletException;
 import javax.ws.rs.ApplicationPath;
@@ -35,6 +38,8 @@ import org.openhab.model.core.ModelRepository;
 import org.openhab.ui.items.ItemUIRegistry;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedService;
 import org.osgi.service.http.HttpContext;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
@@ -53,10 +58,13 @@ import com.sun.jersey.core.util.FeaturesAndProperties;
  * @since 1.4.0
  */
 @ApplicationPath(CVApplication.CV_SERVLET_ALIAS)
-public class CVApplication extends PackagesResourceConfig  {
+public class CVApplication extends PackagesResourceConfig implements ManagedService {
 
 	public static final String CV_SERVLET_ALIAS = "/services/cv";
 
+	/** default interval in milliseconds within which item changes are sent as one message */
+	public static final long DEFAULT_UPDATE_INTERVAL = 250;
+
 	private static final Logger logger = LoggerFactory.getLogger(CVApplication.class);
 	
 	private int httpSSLPort;
@@ -73,6 +81,10 @@ public class CVApplication extends PackagesResourceConfig  {
 
 	static public ModelRepository modelRepository;
 	
+	static private long updateInterval = DEFAULT_UPDATE_INTERVAL;
+
+	static private ScheduledExecutorService updateScheduler;
+
 	static protected Map<String, QueryablePersistenceService> persistenceServices = new HashMap<String, QueryablePersistenceService>();
 	
 	public CVApplication() {
@@ -123,6 +135,40 @@ public class CVApplication extends PackagesResourceConfig  {
 		return modelRepository;
 	}
 
+	/**
+	 * @return the interval in milliseconds within which item changes are
+	 * collected and sent as one message, 0 if every change is sent immediately
+	 */
+	static public long getUpdateInterval() {
+		return updateInterval;
+	}
+
+	/**
+	 * @return the scheduler which sends the collected item changes, null if
+	 * the application isn't active
+	 */
+	static public ScheduledExecutorService getUpdateScheduler() {
+		return updateScheduler;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("rawtypes")
+	public void updated(Dictionary config) throws ConfigurationException {
+		updateInterval = DEFAULT_UPDATE_INTERVAL;
+		if (config != null) {
+			String value = (String) config.get("updateInterval");
+			if (StringUtils.isNotBlank(value)) {
+				try {
+					updateInterval = Long.parseLong(value.trim());
+				} catch (NumberFormatException e) {
+					throw new ConfigurationException("updateInterval", "'" + value + "' is not a valid interval");
+				}
+			}
+		}
+	}
+
 	public void setDiscoveryService(DiscoveryService discoveryService) {
 		this.discoveryService = discoveryService;
 	}
@@ -146,6 +192,13 @@ public class CVApplication extends PackagesResourceConfig  {
 	}
 
 	public void activate() {			    
+		updateScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "CometVisu item updates");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
         try {
         	// we need to call the activator ourselves as this bundle is included in the lib folder
         	com.sun.jersey.core.osgi.Activator jerseyActivator = new com.sun.jersey.core.osgi.Activator();
@@ -186,6 +239,11 @@ public class CVApplication extends PackagesResourceConfig  {
  			discoveryService.unregisterService(getDefaultServiceDescription());
 			discoveryService.unregisterService(getSSLServiceDescription()); 			
  		}
+
+		if (updateScheduler != null) {
+			updateScheduler.shutdownNow();
+			updateScheduler = null;
+		}
 	}
 	
 	/**
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.cv.internal.listeners;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.core.items.Item;
+
+/**
+ * Collects the items which changed within an interval, so that a connection
+ * receives one message with the latest states of all changed items instead of
+ * one message for every single change. An item which changes several times
+ * within the interval is only sent once with its latest state. The collected
+ * items are sent by a scheduler shared by all coalescers.
+ *
+ * @author agent
+ * @since 1.8.0
+ *
+ */
+public class ItemUpdateCoalescer {
+
+	/**
+	 * Receives the items collected within an interval.
+	 */
+	public interface Receiver {
+		void itemsChanged(Collection<Item> items);
+	}
+
+	private final long interval;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Receiver receiver;
+
+	private Map<String, Item> pendingItems = new LinkedHashMap<String, Item>();
+
+	private ScheduledFuture<?> scheduledFlush;
+
+	private boolean closed = false;
+
+	private final long startTime = System.currentTimeMillis();
+
+	private long receivedCount = 0;
+
+	private long sentCount = 0;
+
+	private long messageCount = 0;
+
+	/**
+	 * @param interval the interval in milliseconds within which changes are collected
+	 * @param scheduler the scheduler which passes the collected items to the receiver
+	 * @param receiver the receiver of the collected items
+	 */
+	public ItemUpdateCoalescer(long interval, ScheduledExecutorService scheduler, Receiver receiver) {
+		this.interval = interval;
+		this.scheduler = scheduler;
+		this.receiver = receiver;
+	}
+
+	/**
+	 * Adds a changed item, which is passed to the receiver at the end of the
+	 * current interval.
+	 *
+	 * @param item the changed item
+	 */
+	public synchronized void add(Item item) {
+		if (closed || scheduler.isShutdown()) {
+			return;
+		}
+		receivedCount++;
+		pendingItems.put(item.getName(), item);
+		if (scheduledFlush == null) {
+			scheduledFlush = scheduler.schedule(new Runnable() {
+				public void run() {
+					flush();
+				}
+			}, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Passes all collected items to the receiver.
+	 */
+	public void flush() {
+		Map<String, Item> items;
+		synchronized (this) {
+			scheduledFlush = null;
+			if (pendingItems.isEmpty()) {
+				return;
+			}
+			items = pendingItems;
+			pendingItems = new LinkedHashMap<String, Item>();
+			sentCount += items.size();
+			messageCount++;
+		}
+		receiver.itemsChanged(items.values());
+	}
+
+	/**
+	 * Discards all collected items and cancels their pending delivery.
+	 */
+	public synchronized void close() {
+		closed = true;
+		pendingItems.clear();
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+	}
+
+	/**
+	 * @return a human readable summary of the rates of received changes and
+	 *         sent messages
+	 */
+	public synchronized String getStatistics() {
+		double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000.0;
+		return String.format("changes=%d (%.2f/s), sent states=%d (%.2f/s), messages=%d (%.2f/s)",
+				receivedCount, receivedCount / seconds, sentCount, sentCount / seconds,
+				messageCount, messageCount / seconds);
+	}
+}
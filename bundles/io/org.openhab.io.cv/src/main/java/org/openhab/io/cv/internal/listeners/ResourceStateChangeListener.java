@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -23,6 +24,7 @@ import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.StateChangeListener;
 import org.openhab.core.types.State;
+import org.openhab.io.cv.CVApplication;
 import org.openhab.io.cv.internal.ReturnType;
 import org.openhab.io.cv.internal.broadcaster.CometVisuBroadcaster;
 import org.openhab.io.cv.internal.cache.CVBroadcasterCache;
@@ -49,6 +51,7 @@ abstract public class ResourceStateChangeListener {
 	
 	private StateChangeListener stateChangeListener;
 	private CometVisuBroadcaster broadcaster;
+	private ItemUpdateCoalescer coalescer;
 
 	public ResourceStateChangeListener() {
 	}
@@ -106,10 +109,24 @@ abstract public class ResourceStateChangeListener {
 		broadcaster.getBroadcasterConfig()
 				.addFilter(new ResponseObjectFilter());
 
+		long updateInterval = CVApplication.getUpdateInterval();
+		ScheduledExecutorService updateScheduler = CVApplication.getUpdateScheduler();
+		if (coalescer == null && updateInterval > 0 && updateScheduler != null) {
+			coalescer = new ItemUpdateCoalescer(updateInterval, updateScheduler, new ItemUpdateCoalescer.Receiver() {
+				public void itemsChanged(Collection<Item> items) {
+					broadcastItems(items);
+				}
+			});
+		}
+
 		stateChangeListener = new StateChangeListener() {
 			public void stateUpdated(Item item, State state) {
 				// broadcast this update
 				if (item instanceof GroupItem && getRelevantItemNames().containsKey(item.getName())) {
+					if (coalescer != null) {
+						coalescer.add(item);
+						return;
+					}
 					Collection<ItemBean> beans = new LinkedList<ItemBean>();
 					for (ReturnType rt : getRelevantItemNames().get(
 							item.getName())) {
@@ -133,7 +150,11 @@ abstract public class ResourceStateChangeListener {
 					State newState) {
 				// broadcast the item, or cache it when there is no resource
 				// available at the moment
-				broadcaster.broadcast(item);
+				if (coalescer != null) {
+					coalescer.add(item);
+				} else {
+					broadcaster.broadcast(item);
+				}
 			}
 		};
 		registerStateChangeListenerOnRelevantItems(broadcaster.getID(),
@@ -142,6 +163,35 @@ abstract public class ResourceStateChangeListener {
 
 	public void unregisterItems() {
 		unregisterStateChangeListenerOnRelevantItems();
+		if (coalescer != null) {
+			coalescer.close();
+			logger.debug("Item updates of broadcaster '{}': {}", broadcaster.getID(), coalescer.getStatistics());
+			coalescer = null;
+		}
+	}
+
+	/**
+	 * Broadcasts the latest states of the items which changed within the
+	 * update interval as one message.
+	 * 
+	 * @param items
+	 *            the changed items
+	 */
+	protected void broadcastItems(Collection<Item> items) {
+		ItemListBean stateList = new ItemListBean();
+		for (Item item : items) {
+			// the message is the same for all requests
+			Object responseObject = getSingleResponseObject(item, null);
+			if (responseObject instanceof ItemStateListBean) {
+				stateList.entries.addAll(((ItemStateListBean) responseObject).stateList.entries);
+			}
+		}
+		if (stateList.entries.isEmpty()) {
+			return;
+		}
+		ItemStateListBean responseBean = new ItemStateListBean(stateList);
+		responseBean.index = System.currentTimeMillis();
+		broadcaster.broadcast(responseBean);
 	}
 
 	protected void registerStateChangeListenerOnRelevantItems(String pathInfo,
@@ -13,9 +13,13 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jetty.client.ContentExchange;
 import org.eclipse.jetty.client.HttpClient;
@@ -60,6 +64,30 @@ public class MyOHClient {
 	 * 30 seconds minimum to make it work for long polling requests
 	 */
 	private static final int HTTP_CLIENT_TIMEOUT = 30000;
+	/*
+	 * This constant defines the default number of requests which are proxied to
+	 * openHAB at the same time, further requests wait until a running one finishes
+	 */
+	public static final int DEFAULT_MAX_RUNNING_REQUESTS = 50;
+	/*
+	 * This constant defines the maximum number of requests waiting to be proxied,
+	 * further requests are answered with an error
+	 */
+	private static final int MAX_QUEUED_REQUESTS = 200;
+	/*
+	 * This constant defines the default number of response bytes a request may hand
+	 * over to Socket.IO before it has to wait for the transport to write them
+	 */
+	public static final int DEFAULT_RESPONSE_WINDOW = 128 * 1024;
+	/*
+	 * This constant defines the maximum size of a binary response content frame
+	 */
+	private static final int RESPONSE_CHUNK_SIZE = 32 * 1024;
+	/*
+	 * This constant defines the default interval in milliseconds within which item
+	 * updates are collected before they are sent to my.openHAB
+	 */
+	public static final long DEFAULT_UPDATE_INTERVAL = 500;
 	/*
 	 * This variable holds base URL for my.openHAB cloud connections, has a default
 	 * value but can be changed
@@ -85,11 +113,32 @@ public class MyOHClient {
 	/*
 	 * This hashmap holds HTTP requests to local openHAB which are currently running
 	 */
-	private HashMap<Integer, MyOHExchange> mRunningRequests;
+	private Map<Integer, MyOHExchange> mRunningRequests;
+	/*
+	 * This list holds requests which wait for a running request to finish
+	 */
+	private LinkedList<JSONObject> mQueuedRequests;
+	/*
+	 * This variable holds the number of requests which are currently proxied to openHAB,
+	 * guarded by mQueuedRequests
+	 */
+	private int mActiveRequests;
+	/*
+	 * This variable holds the maximum number of requests which are proxied at the same time
+	 */
+	private int mMaxRunningRequests = DEFAULT_MAX_RUNNING_REQUESTS;
+	/*
+	 * This variable holds the flow control for the response content
+	 */
+	private MyOHFlowControl mFlowControl;
+	/*
+	 * This variable holds the coalescer which collects item updates for this connection
+	 */
+	private MyOHUpdateCoalescer mUpdateCoalescer;
 	/*
 	 * This variable indicates if connection to my.openHAB cloud is currently in an established state
 	 */
-	private boolean mIsConnected;
+	private volatile boolean mIsConnected;
 	/*
 	 * This variable holds version of local openHAB
 	 */
@@ -116,7 +165,15 @@ public class MyOHClient {
 	public MyOHClient(String uuid, String secret) {
 		mUUID = uuid;
 		mSecret = secret;
-		mRunningRequests = new HashMap<Integer, MyOHExchange>();
+		mRunningRequests = new ConcurrentHashMap<Integer, MyOHExchange>();
+		mQueuedRequests = new LinkedList<JSONObject>();
+		mFlowControl = new MyOHFlowControl(DEFAULT_RESPONSE_WINDOW);
+		mUpdateCoalescer = new MyOHUpdateCoalescer(DEFAULT_UPDATE_INTERVAL, new MyOHUpdateCoalescer.UpdateSender() {
+			@Override
+			public void sendItemUpdates(Map<String, String> itemUpdates) {
+				emitItemUpdates(itemUpdates);
+			}
+		});
 		mJettyClient = new HttpClient();
 		mJettyClient.setConnectorType(HttpClient.CONNECTOR_SELECT_CHANNEL);
 		mJettyClient.setMaxConnectionsPerAddress(HTTP_CLIENT_MAX_CONNECTOPNS_PER_ADDRESS);
@@ -155,6 +212,13 @@ public class MyOHClient {
 							headers.put("myohversion", MyOpenHABServiceImpl.myohVersion);
 						}
 					});
+					transport.on(Transport.EVENT_DRAIN, new Emitter.Listener() {
+						@Override
+						public void call(Object... args) {
+							// the transport has written its buffer, responses may continue
+							mFlowControl.onDrain();
+						}
+					});
 				}
 			}
 		);
@@ -213,6 +277,17 @@ public class MyOHClient {
 	public void onDisconnect() {
 		logger.info("Disconnected from my.openHAB service (UUID = {}, base URL = {})", this.mUUID, this.mOHBaseUrl);		
 		mIsConnected = false;
+		// responses can't be delivered anymore, so stop all requests
+		synchronized (mQueuedRequests) {
+			mQueuedRequests.clear();
+		}
+		for (MyOHExchange exchange : mRunningRequests.values()) {
+			exchange.cancel();
+			exchange.finish();
+		}
+		mFlowControl.onDrain();
+		logger.debug("Response flow control: {}", mFlowControl.getStatistics());
+		logger.debug("Item updates: {}", mUpdateCoalescer.getStatistics());
 	}
 
 	/**
@@ -241,6 +316,62 @@ public class MyOHClient {
 	}
 	
 	private void handleRequestEvent(JSONObject data) {
+		// Limit the number of requests running at the same time, so that a burst of
+		// requests doesn't exhaust the http client and the memory for the responses
+		synchronized (mQueuedRequests) {
+			if (mActiveRequests >= mMaxRunningRequests) {
+				if (mQueuedRequests.size() < MAX_QUEUED_REQUESTS) {
+					logger.debug("Too many running requests, queueing request");
+					mQueuedRequests.add(data);
+				} else {
+					rejectRequest(data, "openHAB is busy, too many requests");
+				}
+				return;
+			}
+			mActiveRequests++;
+		}
+		if (!startRequest(data)) {
+			startNextRequest();
+		}
+	}
+
+	/**
+	 * Starts the next queued request in the slot of a finished request
+	 */
+
+	private void startNextRequest() {
+		JSONObject next;
+		synchronized (mQueuedRequests) {
+			next = mQueuedRequests.poll();
+			if (next == null) {
+				mActiveRequests--;
+				return;
+			}
+		}
+		if (!startRequest(next)) {
+			startNextRequest();
+		}
+	}
+
+	private void rejectRequest(JSONObject data, String reason) {
+		logger.warn("Rejected my.openHAB request: {}", reason);
+		JSONObject responseJson = new JSONObject();
+		try {
+			responseJson.put("id", data.getInt("id"));
+			responseJson.put("responseStatusText", reason);
+			mSocket.emit("responseError", responseJson);
+		} catch (JSONException e) {
+			logger.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Sends a request to openHAB
+	 * 
+	 * @return true if the request has been sent, false if it failed and its slot is free again
+	 */
+
+	private boolean startRequest(JSONObject data) {
 		try {
 			// Get myOH uniq request Id
 			int requestId = data.getInt("id");
@@ -293,12 +424,18 @@ public class MyOHClient {
 			} else {
 				// TODO: Reject unsupported methods
 				logger.error("Unsupported request method " + requestMethod);
-				return;
+				return false;
 			}
-			mJettyClient.send(exchange);
-			// If successfully submitted request to http client, add it to the list of currently
-			// running requests to be able to cancel it if needed
+			// Add the request to the list of currently running requests before it is sent,
+			// to be able to cancel it if needed and because it may finish immediately
 			mRunningRequests.put(requestId, exchange);
+			try {
+				mJettyClient.send(exchange);
+			} catch (IOException e) {
+				mRunningRequests.remove(requestId);
+				throw e;
+			}
+			return true;
 		} catch (JSONException e) {
 			logger.error(e.getMessage());
 		} catch (IOException e) {
@@ -306,6 +443,7 @@ public class MyOHClient {
 		} catch (URISyntaxException e) {
 			logger.error(e.getMessage());
 		}
+		return false;
 	}
 	
 	private void handleCancelEvent(JSONObject data) {
@@ -313,10 +451,20 @@ public class MyOHClient {
 			int requestId = data.getInt("id");
 			logger.debug("Received cancel for request {}", requestId);
 			// Find and cancel running request
-			if (mRunningRequests.containsKey(requestId)) {
-				MyOHExchange requestExchange = mRunningRequests.get(requestId);
+			MyOHExchange requestExchange = mRunningRequests.get(requestId);
+			if (requestExchange != null) {
 				requestExchange.cancel();
-				mRunningRequests.remove(requestId);
+				requestExchange.finish();
+			} else {
+				// or remove it from the queue if it hasn't been started yet
+				synchronized (mQueuedRequests) {
+					for (Iterator<JSONObject> it = mQueuedRequests.iterator(); it.hasNext();) {
+						if (it.next().optInt("id", -1) == requestId) {
+							it.remove();
+							break;
+						}
+					}
+				}
 			}
 		} catch (JSONException e) {
 			logger.error(e.getMessage());
@@ -384,7 +532,8 @@ public class MyOHClient {
 	}
 
 	/**
-	 * Send item update to my.openHAB
+	 * Send item update to my.openHAB. Updates are collected for the configured
+	 * update interval and only the latest status of an item is sent.
 	 * 
 	 * @param itemName the name of the item
 	 * @param itemStatus updated item status
@@ -393,16 +542,31 @@ public class MyOHClient {
 
 	public void sendItemUpdate(String itemName, String itemStatus) {
 		if (isConnected()) {
+			mUpdateCoalescer.add(itemName, itemStatus);
+		} else {
+			logger.debug("No connection, Item update is not sent");
+		}
+	}
+
+	/*
+	 * Sends the collected item updates one after another, so that they are
+	 * written to the connection together
+	 */
+
+	private void emitItemUpdates(Map<String, String> itemUpdates) {
+		if (!isConnected()) {
+			logger.debug("No connection, {} item updates are not sent", itemUpdates.size());
+			return;
+		}
+		for (Map.Entry<String, String> itemUpdate : itemUpdates.entrySet()) {
 			JSONObject itemUpdateMessage = new JSONObject();
 			try {
-				itemUpdateMessage.put("itemName", itemName);
-				itemUpdateMessage.put("itemStatus", itemStatus);
+				itemUpdateMessage.put("itemName", itemUpdate.getKey());
+				itemUpdateMessage.put("itemStatus", itemUpdate.getValue());
 				mSocket.emit("itemupdate", itemUpdateMessage);
 			} catch (JSONException e) {
 				logger.error(e.getMessage());
 			}
-		} else {
-			logger.debug("No connection, Item update is not sent");
 		}
 	}
 	
@@ -420,6 +584,7 @@ public class MyOHClient {
 
 	public void shutdown() {
 		logger.info("Shutting down my.openHAB service connection");
+		mUpdateCoalescer.shutdown();
 		try {
 			mJettyClient.stop();
 		} catch (Exception e) {
@@ -462,6 +627,43 @@ public class MyOHClient {
 		this.mListener = mListener;
 	}
 
+	/**
+	 * Set the maximum number of requests which are proxied to openHAB at the same time
+	 * 
+	 * @param maxRunningRequests maximum number of running requests
+	 * 
+	 */
+
+	public void setMaxRunningRequests(int maxRunningRequests) {
+		synchronized (mQueuedRequests) {
+			mMaxRunningRequests = maxRunningRequests;
+		}
+	}
+
+	/**
+	 * Set the number of response bytes a request may send before it waits for the
+	 * connection to my.openHAB to write them
+	 * 
+	 * @param responseWindow window size in bytes
+	 * 
+	 */
+
+	public void setResponseWindow(int responseWindow) {
+		mFlowControl.setWindowSize(responseWindow);
+	}
+
+	/**
+	 * Set the interval within which item updates are collected, 0 sends every
+	 * update immediately
+	 * 
+	 * @param updateInterval interval in milliseconds
+	 * 
+	 */
+
+	public void setUpdateInterval(long updateInterval) {
+		mUpdateCoalescer.setInterval(updateInterval);
+	}
+
 	/*
 	 * An internal class which extends ContentExchange and forwards response
 	 * headers and data back to my.openHAB
@@ -472,6 +674,7 @@ public class MyOHClient {
 		
 		private int mRequestId;
 		private HashMap<String, String> mResponseHeaders;
+		private final AtomicBoolean mFinished = new AtomicBoolean(false);
 
 		public MyOHExchange(int requestId) {
 			mRequestId = requestId;
@@ -508,6 +711,22 @@ public class MyOHClient {
 			return headersJSON;
 		}
 
+		/*
+		 * Removes this request from the running requests and frees its slot,
+		 * this is done only once however the request ends
+		 */
+		public void finish() {
+			if (mFinished.compareAndSet(false, true)) {
+				mRunningRequests.remove(mRequestId);
+				mFlowControl.release(mRequestId);
+				startNextRequest();
+			}
+		}
+
+		private boolean isCancelled() {
+			return this.getStatus() == STATUS_CANCELLING || this.getStatus() == STATUS_CANCELLED;
+		}
+
 		/*
 		 * This is old onResponseContent which used base64 encoding, keep it here commented for some time
 		 * The new onResponseContent uses 'responseContentBinary' to send response data
@@ -530,22 +749,44 @@ public class MyOHClient {
 		}*/
 		
 		/*
-		 * This is a new onResponseContent which uses binary encoding
+		 * This is a new onResponseContent which uses binary encoding. The content is
+		 * sent in chunks of limited size as soon as it is received from openHAB, and
+		 * the flow control keeps a single response from filling the Socket.IO buffers
 		 */
 
 		@Override
 		public void onResponseContent(Buffer content) {
 			logger.debug("Jetty received response content of size " + String.valueOf(content.length()));
-			JSONObject responseJson = new JSONObject();
+			if (isCancelled()) {
+				return;
+			}
+			if (!isConnected()) {
+				logger.debug("No connection, cancelling request {}", mRequestId);
+				cancel();
+				finish();
+				return;
+			}
+			byte[] body = content.asArray();
 			try {
-				responseJson.put("id", mRequestId);
-				responseJson.put("body", content.asArray());
-				if (this.getStatus() != STATUS_CANCELLING && this.getStatus() != STATUS_CANCELLED) {
+				for (int offset = 0; offset < body.length; offset += RESPONSE_CHUNK_SIZE) {
+					byte[] chunk = body;
+					if (body.length > RESPONSE_CHUNK_SIZE) {
+						chunk = Arrays.copyOfRange(body, offset, Math.min(offset + RESPONSE_CHUNK_SIZE, body.length));
+					}
+					mFlowControl.acquire(mRequestId, chunk.length);
+					if (isCancelled()) {
+						return;
+					}
+					JSONObject responseJson = new JSONObject();
+					responseJson.put("id", mRequestId);
+					responseJson.put("body", chunk);
 					mSocket.emit("responseContentBinary", responseJson);
 				}
 				logger.debug("Sent content to request {}", mRequestId);
 			} catch (JSONException e) {
 				logger.error(e.getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
 		}
 
@@ -578,7 +819,7 @@ public class MyOHClient {
 			int status = getResponseStatus();
 			logger.debug("Jetty request complete {} with status {}", mRequestId, status);
 			// Remove this request from list of running requests
-			mRunningRequests.remove(mRequestId);
+			finish();
 			JSONObject responseJson = new JSONObject();
 			try {
 				responseJson.put("id", mRequestId);
@@ -595,6 +836,7 @@ public class MyOHClient {
 		@Override
 		protected void onConnectionFailed(Throwable x) {
 			logger.error(x.getMessage());
+			finish();
 			JSONObject responseJson = new JSONObject();
 			try {
 				responseJson.put("id", mRequestId);
@@ -606,6 +848,18 @@ public class MyOHClient {
 				logger.error(e.getMessage());
 			}
 		}
+
+		@Override
+		protected void onException(Throwable x) {
+			logger.debug("Jetty request {} failed: {}", mRequestId, x.getMessage());
+			finish();
+		}
+
+		@Override
+		protected void onExpire() {
+			logger.debug("Jetty request {} expired", mRequestId);
+			finish();
+		}
 		
 	}
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.io.myopenhab.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class limits the amount of response data which is handed over to the
+ * Socket.IO connection for every request. Socket.IO buffers all emitted
+ * packets until the transport has written them, so without a limit a large
+ * response (e.g. a chart image) is read completely from openHAB into memory
+ * and delays the packets of all other requests. A request which has emitted
+ * its window of bytes waits until the transport reports that its buffer has
+ * been written (drained), which also slows down reading the response from the
+ * local openHAB instance.
+ *
+ * @author agent
+ * @since 1.8.0
+ *
+ */
+
+public class MyOHFlowControl {
+	/*
+	 * This constant defines the maximum time a response waits for the transport
+	 * before it continues to send anyway
+	 */
+	private static final long MAX_WAIT_TIME = 10000;
+	/*
+	 * This variable holds the number of bytes a request may emit before the transport
+	 * has to drain
+	 */
+	private int mWindowSize;
+	/*
+	 * This hashmap holds the number of bytes emitted per request id since the
+	 * transport last drained
+	 */
+	private final Map<Integer, Integer> mPendingBytes = new HashMap<Integer, Integer>();
+	/*
+	 * These variables hold the statistics of the flow control
+	 */
+	private long mSentBytes = 0;
+	private long mWaitCount = 0;
+	private long mWaitTime = 0;
+
+	public MyOHFlowControl(int windowSize) {
+		mWindowSize = windowSize;
+	}
+
+	public synchronized void setWindowSize(int windowSize) {
+		mWindowSize = windowSize;
+		notifyAll();
+	}
+
+	/**
+	 * Waits until the given request may emit the given number of bytes. A request
+	 * without pending bytes may always send, so that chunks larger than the window
+	 * don't block forever.
+	 *
+	 * @param requestId my.openHAB request id
+	 * @param length number of bytes to send
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 *
+	 */
+
+	public synchronized void acquire(int requestId, int length) throws InterruptedException {
+		Integer pending = mPendingBytes.get(requestId);
+		if (pending != null && pending + length > mWindowSize) {
+			long start = System.currentTimeMillis();
+			long remaining = MAX_WAIT_TIME;
+			mWaitCount++;
+			while (remaining > 0) {
+				wait(remaining);
+				pending = mPendingBytes.get(requestId);
+				if (pending == null || pending + length <= mWindowSize) {
+					break;
+				}
+				remaining = MAX_WAIT_TIME - (System.currentTimeMillis() - start);
+			}
+			mWaitTime += System.currentTimeMillis() - start;
+		}
+		mPendingBytes.put(requestId, (pending != null ? pending : 0) + length);
+		mSentBytes += length;
+	}
+
+	/**
+	 * Removes a finished or cancelled request
+	 *
+	 * @param requestId my.openHAB request id
+	 *
+	 */
+
+	public synchronized void release(int requestId) {
+		mPendingBytes.remove(requestId);
+	}
+
+	/**
+	 * Callback for the transport which is called when its buffer has been written
+	 */
+
+	public synchronized void onDrain() {
+		mPendingBytes.clear();
+		notifyAll();
+	}
+
+	/**
+	 * Returns a human readable summary of the flow control statistics
+	 */
+
+	public synchronized String getStatistics() {
+		return "sent=" + mSentBytes + " bytes, waits=" + mWaitCount + ", wait time=" + mWaitTime + "ms";
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.io.myopenhab.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class collects the item updates which are sent to my.openHAB within a
+ * configurable interval. If an item changes several times within the interval,
+ * only its latest state is sent, so that a quickly changing item (e.g. a power
+ * meter) doesn't flood the connection with updates. All collected updates are
+ * sent together at the end of the interval.
+ *
+ * @author agent
+ * @since 1.8.0
+ *
+ */
+
+public class MyOHUpdateCoalescer {
+	/*
+	 * This interface is implemented by the client which sends the collected updates
+	 */
+	public interface UpdateSender {
+		void sendItemUpdates(Map<String, String> itemUpdates);
+	}
+
+	private static final ThreadFactory threadFactory = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "my.openHAB item updates");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+	/*
+	 * This variable holds the interval in milliseconds within which updates are collected
+	 */
+	private long mInterval;
+	/*
+	 * This variable holds the client which sends the updates
+	 */
+	private final UpdateSender mSender;
+	/*
+	 * This map holds the latest state of every item updated within the current interval
+	 */
+	private Map<String, String> mPendingUpdates = new LinkedHashMap<String, String>();
+	/*
+	 * This variable holds the executor which sends the updates at the end of an interval
+	 */
+	private ScheduledExecutorService mScheduler;
+	private boolean mFlushScheduled = false;
+	/*
+	 * These variables hold the statistics of the connection
+	 */
+	private final long mStartTime = System.currentTimeMillis();
+	private long mReceivedCount = 0;
+	private long mSentCount = 0;
+	private long mFrameCount = 0;
+
+	public MyOHUpdateCoalescer(long interval, UpdateSender sender) {
+		mInterval = interval;
+		mSender = sender;
+	}
+
+	public synchronized void setInterval(long interval) {
+		mInterval = interval;
+	}
+
+	/**
+	 * Adds an item update, which is sent at the end of the current interval
+	 *
+	 * @param itemName the name of the item
+	 * @param itemStatus updated item status
+	 *
+	 */
+
+	public void add(String itemName, String itemStatus) {
+		boolean sendNow;
+		synchronized (this) {
+			mReceivedCount++;
+			mPendingUpdates.put(itemName, itemStatus);
+			sendNow = mInterval <= 0;
+			if (!sendNow && !mFlushScheduled) {
+				if (mScheduler == null) {
+					mScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+				}
+				mFlushScheduled = true;
+				mScheduler.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flush();
+					}
+				}, mInterval, TimeUnit.MILLISECONDS);
+			}
+		}
+		if (sendNow) {
+			flush();
+		}
+	}
+
+	/**
+	 * Sends all collected updates
+	 */
+
+	public void flush() {
+		Map<String, String> updates;
+		synchronized (this) {
+			mFlushScheduled = false;
+			if (mPendingUpdates.isEmpty()) {
+				return;
+			}
+			updates = mPendingUpdates;
+			mPendingUpdates = new LinkedHashMap<String, String>();
+			mSentCount += updates.size();
+			mFrameCount++;
+		}
+		mSender.sendItemUpdates(updates);
+	}
+
+	/**
+	 * Discards all collected updates and stops the executor
+	 */
+
+	public synchronized void shutdown() {
+		mPendingUpdates.clear();
+		mFlushScheduled = false;
+		if (mScheduler != null) {
+			mScheduler.shutdownNow();
+			mScheduler = null;
+		}
+	}
+
+	/**
+	 * Returns a human readable summary of the update rates of the connection
+	 */
+
+	public synchronized String getStatistics() {
+		double seconds = Math.max(1, System.currentTimeMillis() - mStartTime) / 1000.0;
+		return String.format("received=%d (%.2f/s), sent=%d (%.2f/s), frames=%d (%.2f/s), merged=%d",
+				mReceivedCount, mReceivedCount / seconds, mSentCount, mSentCount / seconds,
+				mFrameCount, mFrameCount / seconds, mReceivedCount - mSentCount - mPendingUpdates.size());
+	}
+}
@@ -62,6 +62,9 @@ public class MyOpenHABServiceImpl implements MyOpenHABService, PersistenceServic
 	
 	private String mMyOHBaseUrl;
 	private int mLocalPort = 8080;
+	private int mMaxRequests = MyOHClient.DEFAULT_MAX_RUNNING_REQUESTS;
+	private int mResponseWindow = MyOHClient.DEFAULT_RESPONSE_WINDOW;
+	private long mUpdateInterval = MyOHClient.DEFAULT_UPDATE_INTERVAL;
 	
 	protected ItemUIRegistry mItemUIRegistry = null;
 	protected EventPublisher mEventPublisher = null;
@@ -98,6 +101,18 @@ public class MyOpenHABServiceImpl implements MyOpenHABService, PersistenceServic
 			if (StringUtils.isNotBlank(localPortString)) {
 				mLocalPort = Integer.valueOf(localPortString);
 			}
+			String maxRequestsString = (String) config.get("maxRequests");
+			if (StringUtils.isNotBlank(maxRequestsString)) {
+				mMaxRequests = Integer.valueOf(maxRequestsString);
+			}
+			String responseWindowString = (String) config.get("responseWindow");
+			if (StringUtils.isNotBlank(responseWindowString)) {
+				mResponseWindow = Integer.valueOf(responseWindowString);
+			}
+			String updateIntervalString = (String) config.get("updateInterval");
+			if (StringUtils.isNotBlank(updateIntervalString)) {
+				mUpdateInterval = Long.valueOf(updateIntervalString);
+			}
 		} else {
 			logger.debug("config is null");
 		}
@@ -109,6 +124,9 @@ public class MyOpenHABServiceImpl implements MyOpenHABService, PersistenceServic
 		if (mLocalPort != 8080) {
 			myOHClient.setOHBaseUrl("http://localhost:" + String.valueOf(mLocalPort));
 		}
+		myOHClient.setMaxRunningRequests(mMaxRequests);
+		myOHClient.setResponseWindow(mResponseWindow);
+		myOHClient.setUpdateInterval(mUpdateInterval);
 		myOHClient.setOpenHABVersion(getVersion());
 		myOHClient.connect();
 		myOHClient.setListener(this);
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.StringItem;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.io.rest.internal.resources.beans.ItemBean;
+import org.openhab.io.rest.internal.resources.beans.ItemListBean;
+
+import com.sun.jersey.api.json.JSONConfiguration;
+import com.sun.jersey.api.json.JSONJAXBContext;
+
+/**
+ * Checks that the streamed item list is the same as the one marshalled by JAXB
+ * from an {@link ItemListBean}.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class ItemListWriterTest {
+
+	private static final String BASE_URI = "http://localhost:8080/rest/";
+
+	@Test
+	public void testEmptyList() throws Exception {
+		List<Item> items = new ArrayList<Item>();
+
+		Assert.assertFalse(ItemListWriter.isApplicable(items));
+		Assert.assertEquals(marshalXml(items), write(items, MediaType.APPLICATION_XML));
+	}
+
+	@Test
+	public void testSingleItem() throws Exception {
+		List<Item> items = new ArrayList<Item>();
+		items.add(createSwitchItem("Light", OnOffType.ON));
+
+		// the mapped JSON notation doesn't render a single item as an array
+		Assert.assertFalse(ItemListWriter.isApplicable(items));
+		Assert.assertEquals(marshalXml(items), write(items, MediaType.APPLICATION_XML));
+	}
+
+	@Test
+	public void testItems() throws Exception {
+		List<Item> items = new ArrayList<Item>();
+		items.add(createSwitchItem("Light", OnOffType.ON));
+		items.add(new SwitchItem("Heating"));
+		NumberItem temperature = new NumberItem("Temperature");
+		temperature.setState(new DecimalType("21.5"));
+		items.add(temperature);
+
+		Assert.assertTrue(ItemListWriter.isApplicable(items));
+		Assert.assertEquals(marshalJson(items), write(items, MediaType.APPLICATION_JSON));
+		Assert.assertEquals(marshalXml(items), write(items, MediaType.APPLICATION_XML));
+	}
+
+	@Test
+	public void testNestedGroups() throws Exception {
+		GroupItem all = new GroupItem("gAll");
+		GroupItem groundFloor = new GroupItem("gGF", new SwitchItem("gGF"));
+		SwitchItem light = createSwitchItem("GF_Light", OnOffType.OFF);
+		groundFloor.addMember(light);
+		all.addMember(groundFloor);
+
+		List<Item> items = new ArrayList<Item>();
+		items.add(all);
+		items.add(groundFloor);
+		items.add(light);
+
+		// the list only contains the groups themselves, not their members
+		Assert.assertEquals(marshalJson(items), write(items, MediaType.APPLICATION_JSON));
+		Assert.assertEquals(marshalXml(items), write(items, MediaType.APPLICATION_XML));
+	}
+
+	@Test
+	public void testEscaping() throws Exception {
+		List<Item> items = new ArrayList<Item>();
+		items.add(createStringItem("Quotes", "say \"hello\" \\ goodbye"));
+		items.add(createStringItem("Markup", "<b>A & B</b> 'single' > 0"));
+		items.add(createStringItem("Whitespace", "line 1\nline 2\ttabbed"));
+		items.add(createStringItem("Unicode", "Gr\u00fc\u00dfe \u20ac 1/2"));
+
+		Assert.assertEquals(marshalJson(items), write(items, MediaType.APPLICATION_JSON));
+		Assert.assertEquals(marshalXml(items), write(items, MediaType.APPLICATION_XML));
+	}
+
+	@Test
+	public void testJsonp() throws Exception {
+		List<Item> items = new ArrayList<Item>();
+		items.add(createSwitchItem("Light", OnOffType.ON));
+		items.add(createStringItem("Text", "(callback)"));
+
+		Assert.assertEquals("jsonp(" + marshalJson(items) + ")",
+			write(items, MediaTypeHelper.APPLICATION_X_JAVASCRIPT));
+	}
+
+	private SwitchItem createSwitchItem(String name, OnOffType state) {
+		SwitchItem item = new SwitchItem(name);
+		item.setState(state);
+		return item;
+	}
+
+	private StringItem createStringItem(String name, String state) {
+		StringItem item = new StringItem(name);
+		item.setState(new StringType(state));
+		return item;
+	}
+
+	private String write(Collection<Item> items, String responseType) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new ItemListWriter(items, responseType, "jsonp", BASE_URI).write(output);
+		return output.toString("UTF-8");
+	}
+
+	private ItemListBean createBean(Collection<Item> items) {
+		List<ItemBean> beans = new ArrayList<ItemBean>();
+		for (Item item : items) {
+			beans.add(ItemResource.createItemBean(item, false, BASE_URI));
+		}
+		return new ItemListBean(beans);
+	}
+
+	private String marshalJson(Collection<Item> items) throws Exception {
+		JSONJAXBContext context = new JSONJAXBContext(JSONConfiguration.DEFAULT, ItemListBean.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		context.createJSONMarshaller().marshallToJSON(createBean(items), output);
+		return output.toString("UTF-8");
+	}
+
+	private String marshalXml(Collection<Item> items) throws Exception {
+		Marshaller marshaller = JAXBContext.newInstance(ItemListBean.class).createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		marshaller.marshal(createBean(items), output);
+		return output.toString("UTF-8");
+	}
+
+}
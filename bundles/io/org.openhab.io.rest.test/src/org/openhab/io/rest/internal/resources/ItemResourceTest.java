@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.resources;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriInfo;
+
+import junit.framework.Assert;
+
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResource.TRANSPORT;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.io.rest.RESTApplication;
+import org.openhab.ui.items.ItemUIRegistry;
+
+/**
+ * Tests the entity tags of the item list, which let clients polling an
+ * unchanged list be answered with <code>304 Not Modified</code>.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class ItemResourceTest {
+
+	private RESTApplication application;
+
+	private ItemUIRegistry registry;
+
+	private SwitchItem light;
+
+	private ItemResource resource;
+
+	private EntityTag clientTag;
+
+	@Before
+	public void init() {
+		light = new SwitchItem("Light");
+		light.setState(OnOffType.OFF);
+		List<Item> items = new ArrayList<Item>();
+		items.add(light);
+		items.add(new SwitchItem("Heating"));
+
+		registry = mock(ItemUIRegistry.class);
+		when(registry.getItems()).thenReturn(items);
+		application = new RESTApplication();
+		application.setItemUIRegistry(registry);
+
+		resource = new ItemResource();
+		resource.uriInfo = mock(UriInfo.class);
+		when(resource.uriInfo.getBaseUri()).thenReturn(URI.create("http://localhost:8080/rest/"));
+		when(resource.uriInfo.getPath()).thenReturn(ItemResource.PATH_ITEMS);
+		resource.request = createRequest();
+	}
+
+	@After
+	public void cleanup() {
+		application.unsetItemUIRegistry(registry);
+	}
+
+	@Test
+	public void testResponseIsTagged() {
+		Response response = getItems(MediaType.APPLICATION_JSON_TYPE);
+
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertNotNull(getTag(response));
+		Assert.assertTrue(response.getEntity() instanceof ItemListWriter);
+	}
+
+	@Test
+	public void testUnchangedItemsAreNotModified() {
+		clientTag = getTag(getItems(MediaType.APPLICATION_JSON_TYPE));
+
+		Response response = getItems(MediaType.APPLICATION_JSON_TYPE);
+		Assert.assertEquals(304, response.getStatus());
+		Assert.assertEquals(clientTag, getTag(response));
+		Assert.assertNull(response.getEntity());
+	}
+
+	@Test
+	public void testStateChangeModifiesItems() {
+		clientTag = getTag(getItems(MediaType.APPLICATION_JSON_TYPE));
+
+		light.setState(OnOffType.ON);
+		Response response = getItems(MediaType.APPLICATION_JSON_TYPE);
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertFalse(clientTag.equals(getTag(response)));
+
+		// an update without a change keeps the tag
+		clientTag = getTag(response);
+		light.setState(OnOffType.ON);
+		Assert.assertEquals(304, getItems(MediaType.APPLICATION_JSON_TYPE).getStatus());
+	}
+
+	@Test
+	public void testTagDependsOnMediaType() {
+		clientTag = getTag(getItems(MediaType.APPLICATION_JSON_TYPE));
+
+		Response response = getItems(MediaType.APPLICATION_XML_TYPE);
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertFalse(clientTag.equals(getTag(response)));
+	}
+
+	private Response getItems(MediaType mediaType) {
+		HttpHeaders headers = mock(HttpHeaders.class);
+		when(headers.getAcceptableMediaTypes()).thenReturn(Collections.singletonList(mediaType));
+		AtmosphereResource atmosphereResource = mock(AtmosphereResource.class);
+		when(atmosphereResource.transport()).thenReturn(TRANSPORT.UNDEFINED);
+		try {
+			resource.getItems(headers, null, "callback", atmosphereResource);
+			Assert.fail("the response is expected to be thrown");
+			return null;
+		} catch (WebApplicationException e) {
+			return e.getResponse();
+		}
+	}
+
+	private EntityTag getTag(Response response) {
+		return (EntityTag) response.getMetadata().getFirst(HttpHeaders.ETAG);
+	}
+
+	/**
+	 * Creates a request which behaves as if it had an If-None-Match header
+	 * with {@link #clientTag}.
+	 */
+	private Request createRequest() {
+		Request request = mock(Request.class);
+		when(request.evaluatePreconditions(any(EntityTag.class))).thenAnswer(new Answer<ResponseBuilder>() {
+			public ResponseBuilder answer(InvocationOnMock invocation) {
+				EntityTag tag = (EntityTag) invocation.getArguments()[0];
+				return tag.equals(clientTag) ? Response.notModified() : null;
+			}
+		});
+		return request;
+	}
+
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.resources;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+
+import junit.framework.Assert;
+
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResource.TRANSPORT;
+import org.eclipse.emf.common.util.BasicEList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.io.rest.RESTApplication;
+import org.openhab.io.rest.internal.resources.beans.PageBean;
+import org.openhab.model.core.ModelRepository;
+import org.openhab.model.sitemap.Sitemap;
+import org.openhab.model.sitemap.Widget;
+import org.openhab.ui.items.ItemUIRegistry;
+
+/**
+ * Tests the entity tags of the sitemap pages, which let clients polling an
+ * unchanged page be answered with <code>304 Not Modified</code>.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class SitemapResourceTest {
+
+	private static final URI BASE_URI = URI.create("http://localhost:8080/rest/");
+
+	private RESTApplication application;
+
+	private ItemUIRegistry registry;
+
+	private ModelRepository repository;
+
+	private SwitchItem light;
+
+	private SitemapResource resource;
+
+	private EntityTag clientTag;
+
+	@Before
+	public void init() {
+		light = new SwitchItem("Light");
+		light.setState(OnOffType.OFF);
+		List<Item> items = new ArrayList<Item>();
+		items.add(light);
+
+		Sitemap sitemap = mock(Sitemap.class);
+		when(sitemap.getName()).thenReturn("demo");
+		when(sitemap.getLabel()).thenReturn("Demo");
+		when(sitemap.getChildren()).thenReturn(new BasicEList<Widget>());
+
+		registry = mock(ItemUIRegistry.class);
+		when(registry.getItems()).thenReturn(items);
+		repository = mock(ModelRepository.class);
+		when(repository.getModel("demo" + SitemapResource.SITEMAP_FILEEXT)).thenReturn(sitemap);
+		application = new RESTApplication();
+		application.setItemUIRegistry(registry);
+		application.setModelRepository(repository);
+
+		resource = new SitemapResource();
+		resource.uriInfo = mock(UriInfo.class);
+		when(resource.uriInfo.getBaseUri()).thenReturn(BASE_URI);
+		when(resource.uriInfo.getBaseUriBuilder()).thenAnswer(new Answer<UriBuilder>() {
+			public UriBuilder answer(InvocationOnMock invocation) {
+				return UriBuilder.fromUri(BASE_URI);
+			}
+		});
+		when(resource.uriInfo.getPath()).thenReturn("sitemaps/demo/demo");
+		resource.request = createRequest();
+	}
+
+	@After
+	public void cleanup() {
+		application.unsetModelRepository(repository);
+		application.unsetItemUIRegistry(registry);
+	}
+
+	@Test
+	public void testPageIsTagged() {
+		Response response = getPage(MediaType.APPLICATION_JSON_TYPE);
+
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertNotNull(getTag(response));
+		Assert.assertEquals("demo", ((PageBean) response.getEntity()).id);
+	}
+
+	@Test
+	public void testUnchangedPageIsNotModified() {
+		clientTag = getTag(getPage(MediaType.APPLICATION_JSON_TYPE));
+
+		Response response = getPage(MediaType.APPLICATION_JSON_TYPE);
+		Assert.assertEquals(304, response.getStatus());
+		Assert.assertEquals(clientTag, getTag(response));
+		Assert.assertNull(response.getEntity());
+	}
+
+	@Test
+	public void testStateChangeModifiesPage() {
+		clientTag = getTag(getPage(MediaType.APPLICATION_JSON_TYPE));
+
+		light.setState(OnOffType.ON);
+		Response response = getPage(MediaType.APPLICATION_JSON_TYPE);
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertFalse(clientTag.equals(getTag(response)));
+	}
+
+	@Test
+	public void testTagDependsOnMediaType() {
+		clientTag = getTag(getPage(MediaType.APPLICATION_JSON_TYPE));
+
+		Response response = getPage(MediaType.APPLICATION_XML_TYPE);
+		Assert.assertEquals(200, response.getStatus());
+		Assert.assertFalse(clientTag.equals(getTag(response)));
+	}
+
+	private Response getPage(MediaType mediaType) {
+		HttpHeaders headers = mock(HttpHeaders.class);
+		when(headers.getAcceptableMediaTypes()).thenReturn(Collections.singletonList(mediaType));
+		AtmosphereResource atmosphereResource = mock(AtmosphereResource.class);
+		when(atmosphereResource.transport()).thenReturn(TRANSPORT.UNDEFINED);
+		try {
+			resource.getPageData(headers, "demo", "demo", null, "callback", atmosphereResource);
+			Assert.fail("the response is expected to be thrown");
+			return null;
+		} catch (WebApplicationException e) {
+			return e.getResponse();
+		}
+	}
+
+	private EntityTag getTag(Response response) {
+		return (EntityTag) response.getMetadata().getFirst(HttpHeaders.ETAG);
+	}
+
+	/**
+	 * Creates a request which behaves as if it had an If-None-Match header
+	 * with {@link #clientTag}.
+	 */
+	private Request createRequest() {
+		Request request = mock(Request.class);
+		when(request.evaluatePreconditions(any(EntityTag.class))).thenAnswer(new Answer<ResponseBuilder>() {
+			public ResponseBuilder answer(InvocationOnMock invocation) {
+				EntityTag tag = (EntityTag) invocation.getArguments()[0];
+				return tag.equals(clientTag) ? Response.notModified() : null;
+			}
+		});
+		return request;
+	}
+
+}
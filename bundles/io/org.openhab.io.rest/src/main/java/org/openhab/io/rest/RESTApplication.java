@@ -23,6 +23,8 @@ import org.atmosphere.cpr.AtmosphereServlet;
 import org.openhab.core.events.EventPublisher;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.io.net.http.SecureHttpContext;
+import org.openhab.io.rest.internal.listeners.RegistryVersionTracker;
+import org.openhab.io.rest.internal.listeners.SitemapItemIndex;
 import org.openhab.io.rest.internal.resources.ItemResource;
 import org.openhab.io.rest.internal.resources.RootResource;
 import org.openhab.io.rest.internal.resources.SitemapResource;
@@ -69,6 +71,10 @@ public class RESTApplication extends Application {
 
 	static private ModelRepository modelRepository;
 
+	static private final RegistryVersionTracker versionTracker = new RegistryVersionTracker();
+
+	static private final SitemapItemIndex sitemapItemIndex = new SitemapItemIndex();
+
 	public void setHttpService(HttpService httpService) {
 		this.httpService = httpService;
 	}
@@ -91,9 +97,13 @@ public class RESTApplication extends Application {
 
 	public void setItemUIRegistry(ItemUIRegistry itemUIRegistry) {
 		RESTApplication.itemUIRegistry = itemUIRegistry;
+		versionTracker.setItemRegistry(itemUIRegistry);
+		sitemapItemIndex.setItemRegistry(itemUIRegistry);
 	}
 	
 	public void unsetItemUIRegistry(ItemRegistry itemUIRegistry) {
+		versionTracker.unsetItemRegistry(itemUIRegistry);
+		sitemapItemIndex.unsetItemRegistry(itemUIRegistry);
 		RESTApplication.itemUIRegistry = null;
 	}
 
@@ -103,9 +113,13 @@ public class RESTApplication extends Application {
 
 	public void setModelRepository(ModelRepository modelRepository) {
 		RESTApplication.modelRepository = modelRepository;
+		versionTracker.setModelRepository(modelRepository);
+		sitemapItemIndex.setModelRepository(modelRepository);
 	}
 	
 	public void unsetModelRepository(ModelRepository modelRepository) {
+		versionTracker.unsetModelRepository(modelRepository);
+		sitemapItemIndex.unsetModelRepository(modelRepository);
 		RESTApplication.modelRepository = null;
 	}
 
@@ -113,6 +127,21 @@ public class RESTApplication extends Application {
 		return modelRepository;
 	}
 
+	/**
+	 * @return a version number which changes whenever an item, an item state or
+	 * a model changes, used for the entity tags of the responses
+	 */
+	static public long getRegistryVersion() {
+		return versionTracker.getVersion();
+	}
+
+	/**
+	 * @return the index of the items shown on the sitemap pages
+	 */
+	static public SitemapItemIndex getSitemapItemIndex() {
+		return sitemapItemIndex;
+	}
+
 	public void setDiscoveryService(DiscoveryService discoveryService) {
 		this.discoveryService = discoveryService;
 	}
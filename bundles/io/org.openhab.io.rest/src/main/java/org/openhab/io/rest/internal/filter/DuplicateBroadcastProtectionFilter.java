@@ -9,6 +9,9 @@
 package org.openhab.io.rest.internal.filter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -26,7 +29,9 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * This Filter prevents duplicate broadcasts   
+ * This Filter prevents duplicate broadcasts.
+ * Response objects are shared by all connections of a broadcaster, so the serialized form
+ * used for the comparison is kept per response object instead of being rebuilt per connection.
  *  
  * @author Oliver Mazur
  * @since 1.0
@@ -37,6 +42,10 @@ public class DuplicateBroadcastProtectionFilter implements PerRequestBroadcastFi
 
 	private static final Logger logger = LoggerFactory.getLogger(DuplicateBroadcastProtectionFilter.class);
 	
+	private static final ObjectMapper mapper = new ObjectMapper();
+	
+	private final Map<Object, String> serializedResponses = Collections.synchronizedMap(new WeakHashMap<Object, String>());
+	
 	@Override
 	public BroadcastAction filter(String broadcasterId, Object originalMessage, Object message) {
 		return new BroadcastAction(message);
@@ -76,16 +85,29 @@ public class DuplicateBroadcastProtectionFilter implements PerRequestBroadcastFi
 				clientId, new CacheEntry(responseEntity));
 		// there was an existing cached entry, see if its the same
 		if (entry != null) {
-			ObjectMapper mapper = new ObjectMapper();
+			// the very same (shared) response object has already been sent
+			if (entry.getData() == responseEntity) {
+				return true;
+			}
 			// cached data
-			final String firedResponse = mapper.writeValueAsString(entry.getData());
+			final String firedResponse = serialize(entry.getData());
 			// new data
-			final String responseValue = mapper.writeValueAsString(responseEntity);
+			final String responseValue = serialize(responseEntity);
 			// the same ?
 			return responseValue.equals(firedResponse); 
 		}
 
 		return false;
 	}
+	
+	private String serialize(Object responseEntity) throws JsonGenerationException,
+			JsonMappingException, IOException {
+		String serialized = serializedResponses.get(responseEntity);
+		if (serialized == null) {
+			serialized = mapper.writeValueAsString(responseEntity);
+			serializedResponses.put(responseEntity, serialized);
+		}
+		return serialized;
+	}
 
 }
@@ -9,25 +9,20 @@
 package org.openhab.io.rest.internal.filter;
 
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.servlet.http.HttpServletRequest;
 
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.BroadcastFilter.BroadcastAction.ACTION;
 import org.atmosphere.cpr.PerRequestBroadcastFilter;
 import org.openhab.core.items.Item;
+import org.openhab.io.rest.internal.listeners.ResourceStateChangeListener;
 import org.openhab.io.rest.internal.resources.ResponseTypeHelper;
 import org.openhab.io.rest.internal.resources.beans.PageBean;
-import org.openhab.io.rest.internal.resources.beans.WidgetBean;
-import org.openhab.io.rest.internal.resources.beans.WidgetListBean;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 
 /**
- * This Filter filters out the updated widgets from the page and returns them to streaming and websocket connections   
+ * This Filter filters out the updated widgets from the page and returns them to streaming and websocket connections.
+ * The widgets are provided by the listener of the broadcaster, so that they are determined once for all connections.
  *  
  * @author Oliver Mazur
  * @since 1.0
@@ -35,7 +30,11 @@ import org.slf4j.LoggerFactory;
  */
 public class ResponseObjectFilter implements PerRequestBroadcastFilter {
 
-	private static final Logger logger = LoggerFactory.getLogger(ResponseObjectFilter.class);
+	private final ResourceStateChangeListener listener;
+	
+	public ResponseObjectFilter(ResourceStateChangeListener listener) {
+		this.listener = listener;
+	}
 	
 	@Override
 	public BroadcastAction filter(String broadcasterId, Object originalMessage, Object message) {
@@ -48,52 +47,11 @@ public class ResponseObjectFilter implements PerRequestBroadcastFilter {
 		
 		// websocket and HTTP streaming
 		if(ResponseTypeHelper.isStreamingTransport(request) && message instanceof PageBean && originalMessage instanceof Item) {
-			return new BroadcastAction(ACTION.CONTINUE,  getSingleResponseObject((PageBean)message, (Item)originalMessage, request)	);
+			return new BroadcastAction(ACTION.CONTINUE,  listener.getSingleResponseObject((Item)originalMessage, request));
 		}
 			
 		// pass message to next filter
 		return new BroadcastAction(ACTION.CONTINUE,  message);
 	}
-	
-	private Object getSingleResponseObject(PageBean pageBean, Item item, HttpServletRequest request) {
-		if(pageBean!=null) {
-	    	return new WidgetListBean( getItemsOnPage(pageBean.widgets, item));
-    	}
-		return null;
-	}
-	
-	private List<WidgetBean> getItemsOnPage(List<WidgetBean> widgets,
-			Item searchItem) {
-		List<WidgetBean> foundWidgets = new ArrayList<WidgetBean>();
-		try {
-			for (WidgetBean widget : widgets) {
-				if (widget.item != null
-						&& widget.item.name.equals(searchItem.getName())) {
-					foundWidgets.add(widget);
-				} else {
-					if (!widget.widgets.isEmpty()) {
-						List<WidgetBean> tmpWidgets = getItemsOnPage(
-								widget.widgets, searchItem);
-						if (!tmpWidgets.isEmpty()) {
-							foundWidgets.addAll(tmpWidgets);
-						}
-
-					}
-				}
-
-				if (widget.linkedPage != null
-						&& widget.linkedPage.widgets != null) {
-					List<WidgetBean> tmpWidgets = getItemsOnPage(
-							widget.linkedPage.widgets, searchItem);
-					if (!tmpWidgets.isEmpty()) {
-						foundWidgets.addAll(tmpWidgets);
-					}
-				}
-			}
-		} catch (Exception e) {
-			logger.error(e.getMessage(), e);
-		}
-		return foundWidgets;
-	}
 
 }
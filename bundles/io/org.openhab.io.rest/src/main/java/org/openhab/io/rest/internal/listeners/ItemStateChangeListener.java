@@ -80,7 +80,7 @@ public class ItemStateChangeListener extends ResourceStateChangeListener {
 	 * {@inheritDoc}
 	 */
 	@Override
-	protected Object getSingleResponseObject(Item item, HttpServletRequest request) {
+	public Object getSingleResponseObject(Item item, HttpServletRequest request) {
 		return getResponseObject(request);
 	}
 
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.listeners;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.openhab.io.rest.internal.resources.beans.ItemBean;
+import org.openhab.io.rest.internal.resources.beans.PageBean;
+import org.openhab.io.rest.internal.resources.beans.WidgetBean;
+import org.openhab.io.rest.internal.resources.beans.WidgetListBean;
+
+/**
+ * An immutable, versioned snapshot of a sitemap page as it is sent to the
+ * suspended clients of that page. A snapshot is built once per state change
+ * and shared by all clients, together with the list of widgets which changed
+ * compared to the previous snapshot.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+class PageSnapshot {
+
+	private final long version;
+
+	private final PageBean page;
+
+	private final WidgetListBean changedWidgets;
+
+	/**
+	 * Creates a new snapshot and computes the widgets which differ from
+	 * the previous snapshot of the same page.
+	 *
+	 * @param version the state version the page was built for
+	 * @param page the page content
+	 * @param previous the previous snapshot of the page or <code>null</code>
+	 */
+	PageSnapshot(long version, PageBean page, PageSnapshot previous) {
+		this.version = version;
+		this.page = page;
+		this.changedWidgets = previous != null ? diff(previous.page, page) : null;
+	}
+
+	long getVersion() {
+		return version;
+	}
+
+	PageBean getPage() {
+		return page;
+	}
+
+	/**
+	 * @return the widgets which have changed since the previous snapshot or
+	 * <code>null</code>, if there was no previous snapshot to compare with
+	 */
+	WidgetListBean getChangedWidgets() {
+		return changedWidgets;
+	}
+
+	private static WidgetListBean diff(PageBean oldPage, PageBean newPage) {
+		Map<String, WidgetBean> oldWidgets = new LinkedHashMap<String, WidgetBean>();
+		collectWidgets(oldPage.widgets, oldWidgets);
+		Map<String, WidgetBean> newWidgets = new LinkedHashMap<String, WidgetBean>();
+		collectWidgets(newPage.widgets, newWidgets);
+
+		List<WidgetBean> changed = new ArrayList<WidgetBean>();
+		for(Map.Entry<String, WidgetBean> entry : newWidgets.entrySet()) {
+			WidgetBean oldWidget = oldWidgets.get(entry.getKey());
+			if(oldWidget==null || isChanged(oldWidget, entry.getValue())) {
+				changed.add(entry.getValue());
+			}
+		}
+		return new WidgetListBean(changed);
+	}
+
+	private static void collectWidgets(List<WidgetBean> widgets, Map<String, WidgetBean> result) {
+		if(widgets==null) return;
+		for(WidgetBean widget : widgets) {
+			result.put(widget.widgetId, widget);
+			collectWidgets(widget.widgets, result);
+		}
+	}
+
+	private static boolean isChanged(WidgetBean oldWidget, WidgetBean newWidget) {
+		return !ObjectUtils.equals(oldWidget.type, newWidget.type)
+			|| !ObjectUtils.equals(oldWidget.label, newWidget.label)
+			|| !ObjectUtils.equals(oldWidget.icon, newWidget.icon)
+			|| !ObjectUtils.equals(oldWidget.labelcolor, newWidget.labelcolor)
+			|| !ObjectUtils.equals(oldWidget.valuecolor, newWidget.valuecolor)
+			|| isChanged(oldWidget.item, newWidget.item);
+	}
+
+	private static boolean isChanged(ItemBean oldItem, ItemBean newItem) {
+		if(oldItem==null || newItem==null) {
+			return oldItem!=newItem;
+		}
+		return !ObjectUtils.equals(oldItem.name, newItem.name)
+			|| !ObjectUtils.equals(oldItem.state, newItem.state);
+	}
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.listeners;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.ItemRegistryChangeListener;
+import org.openhab.core.items.StateChangeListener;
+import org.openhab.core.types.State;
+import org.openhab.model.core.EventType;
+import org.openhab.model.core.ModelRepository;
+import org.openhab.model.core.ModelRepositoryChangeListener;
+
+/**
+ * Counts the changes of the item registry, the item states and the models. As
+ * long as the version does not change, the responses of the REST resources
+ * do not change either, so that the version can be used as an entity tag and
+ * clients polling unchanged resources can be answered with
+ * <code>304 Not Modified</code>.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class RegistryVersionTracker implements ItemRegistryChangeListener, StateChangeListener,
+		ModelRepositoryChangeListener {
+
+	private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+	private ItemRegistry itemRegistry;
+
+	private ModelRepository modelRepository;
+
+	/**
+	 * @return the current version, which changes whenever an item, an item state
+	 * or a model changes
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	public void setItemRegistry(ItemRegistry itemRegistry) {
+		this.itemRegistry = itemRegistry;
+		itemRegistry.addItemRegistryChangeListener(this);
+		registerItems(itemRegistry.getItems());
+		version.incrementAndGet();
+	}
+
+	public void unsetItemRegistry(ItemRegistry itemRegistry) {
+		itemRegistry.removeItemRegistryChangeListener(this);
+		for (Item item : itemRegistry.getItems()) {
+			if (item instanceof GenericItem) {
+				((GenericItem) item).removeStateChangeListener(this);
+			}
+		}
+		this.itemRegistry = null;
+		version.incrementAndGet();
+	}
+
+	public void setModelRepository(ModelRepository modelRepository) {
+		this.modelRepository = modelRepository;
+		modelRepository.addModelRepositoryChangeListener(this);
+		version.incrementAndGet();
+	}
+
+	public void unsetModelRepository(ModelRepository modelRepository) {
+		if (this.modelRepository == modelRepository) {
+			modelRepository.removeModelRepositoryChangeListener(this);
+			this.modelRepository = null;
+		}
+		version.incrementAndGet();
+	}
+
+	private void registerItems(Collection<Item> items) {
+		for (Item item : items) {
+			if (item instanceof GenericItem) {
+				((GenericItem) item).addStateChangeListener(this);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void allItemsChanged(Collection<String> oldItemNames) {
+		ItemRegistry registry = this.itemRegistry;
+		if (registry != null) {
+			registerItems(registry.getItems());
+		}
+		version.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void itemAdded(Item item) {
+		if (item instanceof GenericItem) {
+			((GenericItem) item).addStateChangeListener(this);
+		}
+		version.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void itemRemoved(Item item) {
+		if (item instanceof GenericItem) {
+			((GenericItem) item).removeStateChangeListener(this);
+		}
+		version.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void stateChanged(Item item, State oldState, State newState) {
+		version.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void stateUpdated(Item item, State state) {
+		// an update with an unchanged state doesn't change any resource
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void modelChanged(String modelName, EventType type) {
+		version.incrementAndGet();
+	}
+
+}
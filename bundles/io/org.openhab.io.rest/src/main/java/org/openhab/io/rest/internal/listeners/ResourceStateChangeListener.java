@@ -16,6 +16,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -55,6 +56,7 @@ abstract public class ResourceStateChangeListener {
 	static ScheduledFuture<?> executorFuture;
 	
 	protected Item lastChange;
+	private final AtomicLong stateVersion = new AtomicLong();
 	private Set<String> relevantItems = null;
 	private StateChangeListener stateChangeListener;
 	protected GeneralBroadcaster broadcaster;
@@ -126,7 +128,7 @@ abstract public class ResourceStateChangeListener {
 		addBroadcastFilter(config, new PollingDelayFilter());
 		addBroadcastFilter(config, new SendPageUpdateFilter());
 		addBroadcastFilter(config, new DuplicateBroadcastProtectionFilter());
-		addBroadcastFilter(config, new ResponseObjectFilter());
+		addBroadcastFilter(config, new ResponseObjectFilter(this));
 				
 		stateChangeListener = new StateChangeListener() {
 			// don't react on update events
@@ -150,8 +152,7 @@ abstract public class ResourceStateChangeListener {
 			}
 			
 			public void stateChanged(final Item item, State oldState, State newState) {
-				lastChange = item;
-				broadcaster.broadcast(item);
+				itemStateChanged(item);
 //				Collection<AtmosphereResource> resources = broadcaster.getAtmosphereResources();
 //				if(!resources.isEmpty()) {
 //					for (AtmosphereResource resource : resources) {
@@ -169,6 +170,17 @@ abstract public class ResourceStateChangeListener {
 	}
 
 
+	/**
+	 * Broadcasts the state change of a relevant item to the suspended requests.
+	 * 
+	 * @param item the item whose state has changed
+	 */
+	protected void itemStateChanged(Item item) {
+		lastChange = item;
+		stateVersion.incrementAndGet();
+		broadcaster.broadcast(item);
+	}
+
 	private void addBroadcastFilter(BroadcasterConfig config,
 			BroadcastFilter filter) {
 		if (!config.addFilter(filter) && logger.isDebugEnabled()) {
@@ -176,6 +188,16 @@ abstract public class ResourceStateChangeListener {
 		}
 	}
 	
+	/**
+	 * Returns a counter which is incremented with every state change of a relevant item.
+	 * Response content built for the same version can be shared by all suspended requests.
+	 * 
+	 * @return the current state version
+	 */
+	protected long getStateVersion() {
+		return stateVersion.get();
+	}
+	
 	public void unregisterItems(){
 		unregisterStateChangeListenerOnRelevantItems();
 	}
@@ -246,7 +268,7 @@ abstract public class ResourceStateChangeListener {
 	 * @param request the HttpServletRequest
 	 * @return the response content
 	 */
-	abstract protected Object getSingleResponseObject(Item item, final HttpServletRequest request);
+	abstract public Object getSingleResponseObject(Item item, final HttpServletRequest request);
 	
 	static void StartCacheExecutor(){
 		if(executorFuture == null || executorFuture.isCancelled()){
@@ -0,0 +1,338 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.listeners;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.ItemRegistryChangeListener;
+import org.openhab.core.items.StateChangeListener;
+import org.openhab.core.types.State;
+import org.openhab.io.rest.RESTApplication;
+import org.openhab.io.rest.internal.resources.ItemResource;
+import org.openhab.model.core.EventType;
+import org.openhab.model.core.ModelRepository;
+import org.openhab.model.core.ModelRepositoryChangeListener;
+import org.openhab.model.sitemap.Frame;
+import org.openhab.model.sitemap.LinkableWidget;
+import org.openhab.model.sitemap.Sitemap;
+import org.openhab.model.sitemap.Widget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Keeps an index of the items shown on the pages of the sitemaps and dispatches
+ * the state changes of these items to the listeners of the pages.</p>
+ *
+ * <p>The items of a page are determined once after the sitemap has been loaded
+ * instead of walking the sitemap for every subscription. Only this index is
+ * registered as a listener at the items; a state change is passed on to the
+ * listeners of all pages showing the item, so the number of listeners at an item
+ * doesn't grow with the number of subscribed pages.</p>
+ *
+ * <p>The index is cleared whenever a sitemap or all items change. If a single
+ * item is added or removed, only the pages showing the item or one of its groups
+ * are collected again, as the pages of groups depend on the item model as well.</p>
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class SitemapItemIndex implements StateChangeListener, ItemRegistryChangeListener, ModelRepositoryChangeListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(SitemapItemIndex.class);
+
+	private static final String SITEMAP_FILEEXT = ".sitemap";
+
+	/** the names of the items shown on a page, by sitemap and page id */
+	private final Map<String, Set<String>> pageItems = new HashMap<String, Set<String>>();
+
+	/** the name of the item of the widget linking to a page, by sitemap and page id */
+	private final Map<String, String> pageWidgetItems = new HashMap<String, String>();
+
+	/** the page each listener subscribed to */
+	private final Map<ResourceStateChangeListener, String> subscriptions = new HashMap<ResourceStateChangeListener, String>();
+
+	/** the listeners of all pages showing an item, by item name */
+	private final Map<String, Set<ResourceStateChangeListener>> itemListeners = new HashMap<String, Set<ResourceStateChangeListener>>();
+
+	/** the items this index is registered at */
+	private final Set<GenericItem> registeredItems = new HashSet<GenericItem>();
+
+	private ItemRegistry itemRegistry;
+
+	private ModelRepository modelRepository;
+
+	public void setItemRegistry(ItemRegistry itemRegistry) {
+		this.itemRegistry = itemRegistry;
+		itemRegistry.addItemRegistryChangeListener(this);
+		clear();
+	}
+
+	public void unsetItemRegistry(ItemRegistry itemRegistry) {
+		itemRegistry.removeItemRegistryChangeListener(this);
+		this.itemRegistry = null;
+		clear();
+	}
+
+	public void setModelRepository(ModelRepository modelRepository) {
+		this.modelRepository = modelRepository;
+		modelRepository.addModelRepositoryChangeListener(this);
+		clear();
+	}
+
+	public void unsetModelRepository(ModelRepository modelRepository) {
+		if (this.modelRepository == modelRepository) {
+			modelRepository.removeModelRepositoryChangeListener(this);
+			this.modelRepository = null;
+		}
+		clear();
+	}
+
+	/**
+	 * Returns the names of all items shown on a page of a sitemap, including the
+	 * items of the frames on the page.
+	 *
+	 * @param sitemapName the name of the sitemap
+	 * @param pageId the id of the page
+	 * @return the item names, an empty set if the page doesn't exist
+	 */
+	public synchronized Set<String> getItemNames(String sitemapName, String pageId) {
+		String pageKey = sitemapName + "/" + pageId;
+		Set<String> itemNames = pageItems.get(pageKey);
+		if (itemNames == null) {
+			itemNames = Collections.unmodifiableSet(collectItemNames(sitemapName, pageId, pageKey));
+			pageItems.put(pageKey, itemNames);
+		}
+		return itemNames;
+	}
+
+	/**
+	 * Subscribes a listener to the state changes of all items on a page.
+	 *
+	 * @param sitemapName the name of the sitemap
+	 * @param pageId the id of the page
+	 * @param listener the listener of the page
+	 */
+	public synchronized void subscribe(String sitemapName, String pageId, ResourceStateChangeListener listener) {
+		unsubscribe(listener);
+		subscriptions.put(listener, sitemapName + "/" + pageId);
+		for (String itemName : getItemNames(sitemapName, pageId)) {
+			Set<ResourceStateChangeListener> listeners = itemListeners.get(itemName);
+			if (listeners == null) {
+				listeners = new HashSet<ResourceStateChangeListener>();
+				itemListeners.put(itemName, listeners);
+				registerAt(itemName);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * Removes the subscription of a listener.
+	 *
+	 * @param listener the listener of a page
+	 */
+	public synchronized void unsubscribe(ResourceStateChangeListener listener) {
+		if (subscriptions.remove(listener) == null) {
+			return;
+		}
+		for (Iterator<Map.Entry<String, Set<ResourceStateChangeListener>>> it = itemListeners.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, Set<ResourceStateChangeListener>> entry = it.next();
+			entry.getValue().remove(listener);
+			if (entry.getValue().isEmpty()) {
+				it.remove();
+				unregisterFrom(entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Clears the index and subscribes the existing listeners again, so that they
+	 * observe the items of the current sitemaps and items.
+	 */
+	public synchronized void clear() {
+		pageItems.clear();
+		pageWidgetItems.clear();
+		itemListeners.clear();
+		for (GenericItem item : registeredItems) {
+			item.removeStateChangeListener(this);
+		}
+		registeredItems.clear();
+
+		Map<ResourceStateChangeListener, String> oldSubscriptions = new HashMap<ResourceStateChangeListener, String>(subscriptions);
+		if (itemRegistry == null || modelRepository == null) {
+			// keep the subscriptions until the services are available again
+			return;
+		}
+		subscriptions.clear();
+		for (Map.Entry<ResourceStateChangeListener, String> subscription : oldSubscriptions.entrySet()) {
+			String[] page = subscription.getValue().split("/", 2);
+			subscribe(page[0], page[1], subscription.getKey());
+		}
+	}
+
+	/**
+	 * Collects the pages showing the added or removed item or one of its groups
+	 * again and subscribes their listeners again. This index is registered at
+	 * the current instance of the item.
+	 */
+	private synchronized void invalidate(Item item) {
+		Set<String> pageKeys = new HashSet<String>();
+		for (Map.Entry<String, Set<String>> page : pageItems.entrySet()) {
+			String widgetItem = pageWidgetItems.get(page.getKey());
+			if (page.getValue().contains(item.getName())
+					|| (widgetItem != null && item.getGroupNames().contains(widgetItem))) {
+				pageKeys.add(page.getKey());
+			}
+		}
+		for (String pageKey : pageKeys) {
+			pageItems.remove(pageKey);
+			pageWidgetItems.remove(pageKey);
+		}
+
+		unregisterFrom(item.getName());
+		if (itemListeners.containsKey(item.getName())) {
+			registerAt(item.getName());
+		}
+
+		Map<ResourceStateChangeListener, String> oldSubscriptions = new HashMap<ResourceStateChangeListener, String>(subscriptions);
+		for (Map.Entry<ResourceStateChangeListener, String> subscription : oldSubscriptions.entrySet()) {
+			if (pageKeys.contains(subscription.getValue())) {
+				String[] page = subscription.getValue().split("/", 2);
+				subscribe(page[0], page[1], subscription.getKey());
+			}
+		}
+	}
+
+	private void registerAt(String itemName) {
+		Item item = ItemResource.getItem(itemName);
+		if (item instanceof GenericItem) {
+			GenericItem genericItem = (GenericItem) item;
+			genericItem.addStateChangeListener(this);
+			registeredItems.add(genericItem);
+		}
+	}
+
+	private void unregisterFrom(String itemName) {
+		for (Iterator<GenericItem> it = registeredItems.iterator(); it.hasNext();) {
+			GenericItem item = it.next();
+			if (item.getName().equals(itemName)) {
+				item.removeStateChangeListener(this);
+				it.remove();
+			}
+		}
+	}
+
+	private Set<String> collectItemNames(String sitemapName, String pageId, String pageKey) {
+		ModelRepository repository = RESTApplication.getModelRepository();
+		if (repository == null) {
+			return new HashSet<String>();
+		}
+		Sitemap sitemap = (Sitemap) repository.getModel(sitemapName + SITEMAP_FILEEXT);
+		if (sitemap != null) {
+			List<Widget> children = null;
+			if (pageId.equals(sitemapName)) {
+				children = sitemap.getChildren();
+			} else {
+				Widget widget = RESTApplication.getItemUIRegistry().getWidget(sitemap, pageId);
+				if (widget instanceof LinkableWidget) {
+					children = RESTApplication.getItemUIRegistry().getChildren((LinkableWidget) widget);
+					if (widget.getItem() != null) {
+						pageWidgetItems.put(pageKey, widget.getItem());
+					}
+				}
+			}
+			if (children != null) {
+				Set<String> itemNames = getItemNamesOfWidgets(children);
+				logger.trace("Page '{}' of sitemap '{}' shows the items {}", new Object[] { pageId, sitemapName, itemNames });
+				return itemNames;
+			}
+		}
+		return new HashSet<String>();
+	}
+
+	private Set<String> getItemNamesOfWidgets(List<Widget> children) {
+		Set<String> itemNames = new HashSet<String>();
+		for (Widget child : children) {
+			String itemName = child.getItem();
+			if (itemName != null) {
+				itemNames.add(itemName);
+			}
+			if (child instanceof Frame) {
+				itemNames.addAll(getItemNamesOfWidgets(((Frame) child).getChildren()));
+			}
+		}
+		return itemNames;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void stateChanged(Item item, State oldState, State newState) {
+		Collection<ResourceStateChangeListener> listeners;
+		synchronized (this) {
+			Set<ResourceStateChangeListener> pageListeners = itemListeners.get(item.getName());
+			if (pageListeners == null) {
+				return;
+			}
+			listeners = new ArrayList<ResourceStateChangeListener>(pageListeners);
+		}
+		for (ResourceStateChangeListener listener : listeners) {
+			listener.itemStateChanged(item);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void stateUpdated(Item item, State state) {
+		// pages are only updated on state changes
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void allItemsChanged(Collection<String> oldItemNames) {
+		clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void itemAdded(Item item) {
+		invalidate(item);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void itemRemoved(Item item) {
+		invalidate(item);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void modelChanged(String modelName, EventType type) {
+		if (modelName.endsWith(SITEMAP_FILEEXT)) {
+			clear();
+		}
+	}
+
+}
@@ -10,15 +10,18 @@ package org.openhab.io.rest.internal.listeners;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.UriBuilder;
 
 import org.atmosphere.cpr.BroadcasterConfig;
 import org.openhab.core.items.Item;
+import org.openhab.core.items.StateChangeListener;
 import org.openhab.io.rest.RESTApplication;
 import org.openhab.io.rest.internal.cache.SingleMessageBroadcastCache;
 import org.openhab.io.rest.internal.resources.ResponseTypeHelper;
@@ -26,10 +29,7 @@ import org.openhab.io.rest.internal.resources.SitemapResource;
 import org.openhab.io.rest.internal.resources.beans.PageBean;
 import org.openhab.io.rest.internal.resources.beans.WidgetBean;
 import org.openhab.io.rest.internal.resources.beans.WidgetListBean;
-import org.openhab.model.sitemap.Frame;
-import org.openhab.model.sitemap.LinkableWidget;
 import org.openhab.model.sitemap.Sitemap;
-import org.openhab.model.sitemap.Widget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +37,13 @@ import org.slf4j.LoggerFactory;
  * This is the {@link ResourceStateChangeListener} implementation for sitemap REST requests.
  * Note: We only support suspended requests for page requests, not for complete sitemaps.
  * 
+ * The page content is built only once per state change and shared by all suspended
+ * requests of the page (see {@link PageSnapshot}), which also provides the widgets that
+ * have changed for streaming transports.
+ * 
+ * The items of the page are taken from the {@link SitemapItemIndex}, which also
+ * dispatches their state changes to this listener.
+ * 
  * @author Kai Kreuzer
  * @author Oliver Mazur
  * @author Dan Cunningham
@@ -47,6 +54,9 @@ public class SitemapStateChangeListener extends ResourceStateChangeListener {
 
 	private static final Logger logger = LoggerFactory.getLogger(SitemapStateChangeListener.class);
 	
+	/** the latest page snapshot per base uri, as the links in the page depend on it */
+	private final ConcurrentMap<String, PageSnapshot> snapshots = new ConcurrentHashMap<String, PageSnapshot>();
+	
 	@Override
 	public void configureCache(BroadcasterConfig config){
 		config.setBroadcasterCache(new SingleMessageBroadcastCache());
@@ -56,21 +66,22 @@ public class SitemapStateChangeListener extends ResourceStateChangeListener {
 	
 	@Override
 	protected Object getResponseObject(HttpServletRequest request) {
-		PageBean pageBean = getPageBean(request);
-		if(pageBean!=null) {
-			return pageBean;
+		PageSnapshot snapshot = getSnapshot(request);
+		if(snapshot!=null) {
+			return snapshot.getPage();
     	}
 		return null;
 	}
 		
 	@Override
-	protected Object getSingleResponseObject(Item item, HttpServletRequest request) {
-		PageBean pageBean = getPageBean(request);
-		WidgetListBean responseBeam ;
-		if(pageBean!=null) {
-			responseBeam = new WidgetListBean( getItemsOnPage(pageBean.widgets, item));
-			return responseBeam;
-	    	
+	public Object getSingleResponseObject(Item item, HttpServletRequest request) {
+		PageSnapshot snapshot = getSnapshot(request);
+		if(snapshot!=null) {
+			WidgetListBean changedWidgets = snapshot.getChangedWidgets();
+			if(changedWidgets!=null && !changedWidgets.entries.isEmpty()) {
+				return changedWidgets;
+			}
+			return new WidgetListBean(getItemsOnPage(snapshot.getPage().widgets, item));
     	}
 		return null;
 	}
@@ -78,80 +89,98 @@ public class SitemapStateChangeListener extends ResourceStateChangeListener {
 
 	@Override
 	protected Set<String> getRelevantItemNames(String pathInfo) {
+		String[] page = getPage(pathInfo);
+		if(page!=null) {
+			return RESTApplication.getSitemapItemIndex().getItemNames(page[0], page[1]);
+		}
+		return Collections.emptySet();
+	}
+
+	@Override
+	protected void registerStateChangeListenerOnRelevantItems(String pathInfo, StateChangeListener stateChangeListener) {
+		// the index is registered at the items and dispatches their changes to the pages
+		String[] page = getPage(pathInfo);
+		if(page!=null) {
+			RESTApplication.getSitemapItemIndex().subscribe(page[0], page[1], this);
+		}
+	}
 
-        // check, if it is a request for a page of a sitemap 
+	@Override
+	protected void unregisterStateChangeListenerOnRelevantItems() {
+		RESTApplication.getSitemapItemIndex().unsubscribe(this);
+	}
+
+	/**
+	 * Determines the sitemap and the page of a request.
+	 * 
+	 * @param pathInfo the pathInfo of the request
+	 * @return the name of the sitemap and the id of the page or <code>null</code>,
+	 * if the request is not a page request
+	 */
+	private String[] getPage(String pathInfo) {
         if (pathInfo.startsWith("/" + SitemapResource.PATH_SITEMAPS)) {
         	String[] pathSegments = pathInfo.substring(1).split("/");
-
             if(pathSegments.length>=3) {
-            	String sitemapName = pathSegments[1];
-            	String pageName = pathSegments[2];
-
-            	Sitemap sitemap = (Sitemap) RESTApplication.getModelRepository().getModel(sitemapName + ".sitemap");
-            	if(sitemap!=null) {
-            		List<Widget> children = null;
-            		if(pageName.equals(sitemapName)) {
-            			children = sitemap.getChildren();
-            		} else {            		
-	            		Widget widget = RESTApplication.getItemUIRegistry().getWidget(sitemap, pageName);
-	            		if(widget instanceof LinkableWidget) {
-	            			LinkableWidget page = (LinkableWidget) widget;
-	            			children = RESTApplication.getItemUIRegistry().getChildren(page);
-	            		}
-            		}
-            		if(children!=null) {
-	            		return getRelevantItemNamesForWidgets(children);
-            		}
-				}
+            	return new String[] { pathSegments[1], pathSegments[2] };
             }
         }
-        return new HashSet<String>();
-	}
-
-	private Set<String> getRelevantItemNamesForWidgets(List<Widget> children) {
-		Set<String> itemNames = new HashSet<String>();
-		for(Widget child : children) {
-			if (child instanceof Frame) {
-				Frame frame = (Frame) child;
-				String itemName = frame.getItem();
-				if(itemName!=null) {
-					itemNames.add(itemName);
-				}
-				itemNames.addAll(getRelevantItemNamesForWidgets(frame.getChildren()));
-			} else {
-				String itemName = child.getItem();
-				if(itemName!=null) {
-					itemNames.add(itemName);
-				}
-			}
-		}
-		return itemNames;
+        return null;
 	}
 	
-	private PageBean getPageBean(HttpServletRequest request){
+	/**
+	 * Returns the page snapshot for the current state version, building it if this
+	 * is the first request asking for it.
+	 * 
+	 * @param request the HttpServletRequest
+	 * @return the snapshot or <code>null</code>, if the page could not be built
+	 */
+	private PageSnapshot getSnapshot(HttpServletRequest request){
 		try {
 			String pathInfo = request.getPathInfo();
 			
 			String responseType = (new ResponseTypeHelper()).getResponseType(request);
 			if(responseType!=null) {
-				URI basePath = UriBuilder.fromUri(request.getScheme()+"://"+request.getServerName()+":"+request.getServerPort()+(request.getContextPath().equals("null")?"":request.getContextPath()) + RESTApplication.REST_SERVLET_ALIAS +"/").build();
-				if (pathInfo.startsWith("/" + SitemapResource.PATH_SITEMAPS)) {
-		        	String[] pathSegments = pathInfo.substring(1).split("/");
-		            if(pathSegments.length>=3) {
-		            	String sitemapName = pathSegments[1];
-		            	String pageId = pathSegments[2];
-		            	Sitemap sitemap = (Sitemap) RESTApplication.getModelRepository().getModel(sitemapName + ".sitemap");
-		            	if(sitemap!=null) {
-							return SitemapResource.getPageBean(sitemapName, pageId, basePath);
-		            	}
-		            }
-		        }
+				String basePath = request.getScheme()+"://"+request.getServerName()+":"+request.getServerPort()+(request.getContextPath().equals("null")?"":request.getContextPath()) + RESTApplication.REST_SERVLET_ALIAS +"/";
+				long version = getStateVersion();
+				PageSnapshot snapshot = snapshots.get(basePath);
+				if(snapshot!=null && snapshot.getVersion()==version) {
+					return snapshot;
+				}
+				// only one request builds the page, all others wait for and share the result
+				synchronized (snapshots) {
+					version = getStateVersion();
+					snapshot = snapshots.get(basePath);
+					if(snapshot!=null && snapshot.getVersion()==version) {
+						return snapshot;
+					}
+					PageBean pageBean = getPageBean(pathInfo, UriBuilder.fromUri(basePath).build());
+					if(pageBean==null) {
+						return null;
+					}
+					PageSnapshot newSnapshot = new PageSnapshot(version, pageBean, snapshot);
+					snapshots.put(basePath, newSnapshot);
+					return newSnapshot;
+				}
 			}
 		} catch (Exception e) {
 			return null;
 		}
 		return null;
-		
+	}
+	
+	private PageBean getPageBean(String pathInfo, URI basePath){
+		if (pathInfo.startsWith("/" + SitemapResource.PATH_SITEMAPS)) {
+        	String[] pathSegments = pathInfo.substring(1).split("/");
+            if(pathSegments.length>=3) {
+            	String sitemapName = pathSegments[1];
+            	String pageId = pathSegments[2];
+            	Sitemap sitemap = (Sitemap) RESTApplication.getModelRepository().getModel(sitemapName + ".sitemap");
+            	if(sitemap!=null) {
+					return SitemapResource.getPageBean(sitemapName, pageId, basePath);
+            	}
+            }
+        }
+		return null;
 	}
 	
 	private List <WidgetBean> getItemsOnPage(List<WidgetBean> widgets, Item searchItem){
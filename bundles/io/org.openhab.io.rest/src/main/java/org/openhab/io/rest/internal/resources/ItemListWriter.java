@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.rest.internal.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.openhab.core.items.Item;
+
+/**
+ * <p>Writes a list of items directly into the response stream instead of
+ * creating an {@link org.openhab.io.rest.internal.resources.beans.ItemListBean}
+ * with a bean for each item, which is then marshalled by reflection.</p>
+ *
+ * <p>The output is the same as the one of the JAXB marshalled beans: XML with
+ * an <code>items</code> root element and the mapped JSON notation of Jersey,
+ * i.e. <code>{"item":[{"type":...,"name":...,"state":...,"link":...},...]}</code>.
+ * As this notation renders a single element not as an array, lists with less
+ * than two items have to be written by JAXB, see {@link #isApplicable(Collection)}.</p>
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class ItemListWriter implements StreamingOutput {
+
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private static final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+
+	private final Collection<Item> items;
+
+	private final String responseType;
+
+	private final String callback;
+
+	private final String itemsUri;
+
+	/**
+	 * @param items the items to write
+	 * @param responseType the media type of the response, see {@link MediaTypeHelper}
+	 * @param callback the name of the JSONP callback function
+	 * @param uriPath the base URI of the REST API
+	 */
+	public ItemListWriter(Collection<Item> items, String responseType, String callback, String uriPath) {
+		this.items = items;
+		this.responseType = responseType;
+		this.callback = callback;
+		this.itemsUri = uriPath + (uriPath.endsWith("/") ? "" : "/") + ItemResource.PATH_ITEMS + "/";
+	}
+
+	/**
+	 * Checks whether the streaming output produces the same result as the
+	 * marshalled beans for the given items.
+	 *
+	 * @param items the items to write
+	 * @return true, if the items can be written by this class
+	 */
+	public static boolean isApplicable(Collection<Item> items) {
+		return items.size() > 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void write(OutputStream output) throws IOException, WebApplicationException {
+		if (MediaType.APPLICATION_XML.equals(responseType)) {
+			writeXml(output);
+		} else if (MediaTypeHelper.APPLICATION_X_JAVASCRIPT.equals(responseType)) {
+			output.write((callback + "(").getBytes("UTF-8"));
+			writeJson(output);
+			output.write(')');
+		} else {
+			writeJson(output);
+		}
+	}
+
+	private void writeJson(OutputStream output) throws IOException {
+		JsonGenerator generator = jsonFactory.createJsonGenerator(output, JsonEncoding.UTF8);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("item");
+		for (Item item : items) {
+			generator.writeStartObject();
+			generator.writeStringField("type", item.getClass().getSimpleName());
+			generator.writeStringField("name", item.getName());
+			generator.writeStringField("state", item.getState().toString());
+			generator.writeStringField("link", itemsUri + item.getName());
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+		generator.flush();
+	}
+
+	private void writeXml(OutputStream output) throws IOException {
+		output.write(XML_DECLARATION.getBytes("UTF-8"));
+		try {
+			XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(output, "UTF-8");
+			if (items.isEmpty()) {
+				// JAXB writes an empty list as an empty element
+				writer.writeEmptyElement("items");
+			} else {
+				writer.writeStartElement("items");
+				for (Item item : items) {
+					writer.writeStartElement("item");
+					writeXmlElement(writer, "type", item.getClass().getSimpleName());
+					writeXmlElement(writer, "name", item.getName());
+					writeXmlElement(writer, "state", item.getState().toString());
+					writeXmlElement(writer, "link", itemsUri + item.getName());
+					writer.writeEndElement();
+				}
+				writer.writeEndElement();
+			}
+			writer.writeEndDocument();
+			writer.flush();
+		} catch (XMLStreamException e) {
+			throw new IOException("Cannot write the item list: " + e.getMessage());
+		}
+	}
+
+	private static void writeXmlElement(XMLStreamWriter writer, String name, String value)
+			throws XMLStreamException {
+		writer.writeStartElement(name);
+		writer.writeCharacters(value);
+		writer.writeEndElement();
+	}
+
+}
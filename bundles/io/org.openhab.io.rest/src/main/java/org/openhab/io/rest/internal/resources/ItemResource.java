@@ -24,9 +24,12 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -77,6 +80,7 @@ public class ItemResource {
     public static final String PATH_ITEMS = "items";
     
 	@Context UriInfo uriInfo;
+	@Context Request request;
 	@GET
     @Produces( { MediaType.WILDCARD })
     public SuspendResponse<Response> getItems(
@@ -88,9 +92,21 @@ public class ItemResource {
 			if (logger.isDebugEnabled()) logger.debug("Received HTTP GET request at '{}' for media type '{}'.", uriInfo.getPath(), type);
 			final String responseType = MediaTypeHelper.getResponseMediaType(headers.getAcceptableMediaTypes(), type);
 			if(responseType!=null) {
-				final ItemListBean content = new ItemListBean(getItemBeans());
-		    	final Object responseObject = ResponseHelper.wrapContentIfNeccessary(callback, responseType, content); 
-		    	throw new WebApplicationException(Response.ok(responseObject, responseType).build());
+				// unchanged items are only confirmed by a 304 response
+				final EntityTag etag = ResponseHelper.createEntityTag(responseType, callback, uriInfo.getBaseUri());
+				ResponseBuilder notModified = request.evaluatePreconditions(etag);
+				if(notModified!=null) {
+					throw new WebApplicationException(notModified.tag(etag).build());
+				}
+				final Collection<Item> items = RESTApplication.getItemUIRegistry().getItems();
+				final Object responseObject;
+				if(ItemListWriter.isApplicable(items)) {
+					responseObject = new ItemListWriter(items, responseType, callback, uriInfo.getBaseUri().toASCIIString());
+				} else {
+					final ItemListBean content = new ItemListBean(getItemBeans(items));
+					responseObject = ResponseHelper.wrapContentIfNeccessary(callback, responseType, content);
+				}
+		    	throw new WebApplicationException(Response.ok(responseObject, responseType).tag(etag).build());
 			} else {
 				throw new WebApplicationException(Response.notAcceptable(null).build());
 			}
@@ -250,10 +266,9 @@ public class ItemResource {
         return null;
     }
 
-	private List<ItemBean> getItemBeans() {
+	private List<ItemBean> getItemBeans(Collection<Item> items) {
 		List<ItemBean> beans = new LinkedList<ItemBean>();
-		ItemUIRegistry registry = RESTApplication.getItemUIRegistry();
-		for(Item item : registry.getItems()) {
+		for(Item item : items) {
 			beans.add(createItemBean(item, false, uriInfo.getBaseUri().toASCIIString()));
 		}
 		return beans;
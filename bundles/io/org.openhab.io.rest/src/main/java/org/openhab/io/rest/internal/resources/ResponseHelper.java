@@ -8,6 +8,12 @@
  */
 package org.openhab.io.rest.internal.resources;
 
+import java.net.URI;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.openhab.io.rest.RESTApplication;
+
 import com.sun.jersey.api.json.JSONWithPadding;
 
 public class ResponseHelper {
@@ -19,5 +25,20 @@ public class ResponseHelper {
 		}
 		return content;
 	}
+
+	/**
+	 * Creates an entity tag for a response, which depends on the registry version
+	 * and all request parameters influencing the content of the response.
+	 * 
+	 * @param responseType the media type of the response
+	 * @param callback the name of the JSONP callback function
+	 * @param baseUri the base URI used for the links in the response
+	 * @return the entity tag
+	 */
+	public static EntityTag createEntityTag(String responseType, String callback, URI baseUri) {
+		int requestHash = (responseType + ";" + callback + ";" + baseUri).hashCode();
+		return new EntityTag(Long.toHexString(RESTApplication.getRegistryVersion())
+				+ "-" + Integer.toHexString(requestHash));
+	}
 	
 }
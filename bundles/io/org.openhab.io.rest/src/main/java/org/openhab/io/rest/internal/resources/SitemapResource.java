@@ -23,9 +23,12 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
@@ -96,6 +99,7 @@ public class SitemapResource {
 	public static final int DEFAULT_TIMEOUT_SECS = 300;
 	
 	@Context UriInfo uriInfo;
+	@Context Request request;
 	@Context Broadcaster sitemapBroadcaster;
 
 	@GET
@@ -148,11 +152,18 @@ public class SitemapResource {
 		if(TRANSPORT.UNDEFINED.equals(resource.transport())) {
 			final String responseType = MediaTypeHelper.getResponseMediaType(headers.getAcceptableMediaTypes(), type);
 			if(responseType!=null) {
+				// a page only changes with the sitemap or the states of its items
+				final EntityTag etag = ResponseHelper.createEntityTag(responseType, callback, uriInfo.getBaseUri());
+				ResponseBuilder notModified = request.evaluatePreconditions(etag);
+				if(notModified!=null) {
+					throw new WebApplicationException(notModified.tag(etag).build());
+				}
 				final PageBean content = getPageBean(sitemapname, pageId, uriInfo.getBaseUriBuilder().build());
 				final Object responseObject = ResponseHelper.wrapContentIfNeccessary(callback, responseType, content);
 		    	throw new WebApplicationException(
 		    			Response.ok(responseObject, responseType)
 		    			.header(ATMOS_TIMEOUT_HEADER, DEFAULT_TIMEOUT_SECS + "")
+		    			.tag(etag)
 		    			.build());
 			} else {
 				throw new WebApplicationException(Response.notAcceptable(null).build());
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.io.transport.cul;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.openhab.io.transport.cul.internal.CULSendQueue;
+
+/**
+ * provides Tests for the ordering and collapsing of the CUL send queue
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class CULSendQueueTest {
+
+	@Test
+	public void testControlCommandsFirst() throws Exception {
+		CULSendQueue queue = new CULSendQueue();
+		queue.add("F12340110");
+		queue.addControl("X21");
+
+		Assert.assertEquals("X21", queue.take().getCommand());
+		Assert.assertEquals("F12340110", queue.take().getCommand());
+	}
+
+	@Test
+	public void testSupersededCommandIsReplaced() throws Exception {
+		CULSendQueue queue = new CULSendQueue();
+		queue.add("F12340110");
+		queue.add("F12340210");
+		queue.add("F12340100");
+
+		Assert.assertEquals(2, queue.size());
+		Assert.assertEquals("F12340100", queue.take().getCommand());
+		Assert.assertEquals("F12340210", queue.take().getCommand());
+	}
+
+	@Test
+	public void testRelativeCommandsAreKept() throws Exception {
+		CULSendQueue queue = new CULSendQueue();
+		// dim up
+		queue.add("F12340113");
+		queue.add("F12340113");
+
+		Assert.assertEquals(2, queue.size());
+	}
+
+}
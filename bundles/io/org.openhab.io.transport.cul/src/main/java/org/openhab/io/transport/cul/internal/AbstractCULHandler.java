@@ -12,13 +12,15 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.net.SocketException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.openhab.io.transport.cul.CULCommunicationException;
 import org.openhab.io.transport.cul.CULDeviceException;
@@ -42,7 +44,31 @@ public abstract class AbstractCULHandler implements CULHandler,
 			.getLogger(AbstractCULHandler.class);
 
 	/**
-	 * Thread which sends all queued commands to the CUL.
+	 * Estimated transmit credit (in 10ms units) consumed by an RF command.
+	 */
+	private final static int ESTIMATED_CREDIT_PER_COMMAND = 25;
+
+	/**
+	 * Estimated transmit credit consumed by a MAX! command, which is sent with
+	 * a long preamble to wake up the receiver.
+	 */
+	private final static int ESTIMATED_CREDIT_PER_MAX_COMMAND = 100;
+
+	/**
+	 * Maximum time to wait for transmit credit before asking the CUL for a
+	 * fresh credit report.
+	 */
+	private final static long MAX_CREDIT_WAIT_MS = 10000;
+
+	/**
+	 * Maximum number of received messages waiting to be dispatched to the
+	 * listeners.
+	 */
+	private final static int RECEIVE_QUEUE_CAPACITY = 500;
+
+	/**
+	 * Thread which sends all queued commands to the CUL. RF commands are
+	 * delayed if the transmit credit of the CUL doesn't suffice.
 	 * 
 	 * @author Till Klocke
 	 * @since 1.4.0
@@ -52,68 +78,85 @@ public abstract class AbstractCULHandler implements CULHandler,
 
 		private final Logger logger = LoggerFactory.getLogger(SendThread.class);
 
+		public SendThread() {
+			super("CUL send " + deviceName);
+			setDaemon(true);
+		}
+
 		@Override
 		public void run() {
 			while (!isInterrupted()) {
-				String command = sendQueue.poll();
-				if (command != null) {
+				try {
+					CULSendQueue.Entry entry = sendQueue.take();
+					if (!entry.isControl()) {
+						waitForCredit(getEstimatedCredit(entry.getCommand()));
+					}
+					String command = entry.getCommand();
 					if (!command.endsWith("\r\n")) {
 						command = command + "\r\n";
 					}
-					try {
-						writeMessage(command);
-					} catch (CULCommunicationException e) {
-						logger.error("Error while writing command to CUL", e);
-					}
-				}
-				try {
-					Thread.sleep(10);
+					logger.debug("Command waited {}ms in send queue of {}",
+							System.currentTimeMillis() - entry.getEnqueueTime(),
+							deviceName);
+					writeMessage(command);
 				} catch (InterruptedException e) {
-					logger.debug("Error while sleeping in SendThread", e);
+					break;
+				} catch (CULCommunicationException e) {
+					logger.error("Error while writing command to CUL", e);
 				}
 			}
 		}
 	}
 
 	/**
-	 * Wrapper class wraps a CULListener and a received Strings and gets
-	 * executed by a executor in its own thread.
+	 * Wrapper class wraps the received String and notifies all listeners
+	 * about it. Messages are dispatched one after another in the order they
+	 * were received.
 	 * 
 	 * @author Till Klocke
 	 * @since 1.4.0
 	 * 
 	 */
-	private static class NotifyDataReceivedRunner implements Runnable {
+	private class NotifyDataReceivedRunner implements Runnable {
 
 		private String message;
-		private CULListener listener;
 
-		public NotifyDataReceivedRunner(CULListener listener, String message) {
+		public NotifyDataReceivedRunner(String message) {
 			this.message = message;
-			this.listener = listener;
 		}
 
 		@Override
 		public void run() {
-			listener.dataReceived(message);
+			for (CULListener listener : listeners) {
+				try {
+					listener.dataReceived(message);
+				} catch (RuntimeException e) {
+					log.error("Listener failed to process message '" + message
+							+ "' from " + deviceName, e);
+				}
+			}
 		}
 
 	}
 
 	/**
-	 * Executor to handle received messages. Every listern should be called in
-	 * its own thread.
+	 * Executor to handle received messages. A single thread notifies the
+	 * listeners, so that they get the messages in order.
 	 */
-	protected Executor receiveExecutor = Executors.newCachedThreadPool();
-	protected SendThread sendThread = new SendThread();
+	protected ExecutorService receiveExecutor;
+	protected SendThread sendThread;
 
 	protected String deviceName;
 	protected CULMode mode;
 
-	protected List<CULListener> listeners = new ArrayList<CULListener>();
+	protected List<CULListener> listeners = new CopyOnWriteArrayList<CULListener>();
 
-	protected Queue<String> sendQueue = new ConcurrentLinkedQueue<String>();
-	protected int credit10ms = 0;
+	protected CULSendQueue sendQueue = new CULSendQueue();
+	protected volatile int credit10ms = 0;
+	/**
+	 * Number of credit reports received, nothing is delayed before the first.
+	 */
+	private volatile int creditReports = 0;
 	protected BufferedReader br;
 	protected BufferedWriter bw;
 
@@ -122,6 +165,29 @@ public abstract class AbstractCULHandler implements CULHandler,
 		this.deviceName = deviceName;
 	}
 
+	private ExecutorService createReceiveExecutor() {
+		ThreadFactory threadFactory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "CUL receive " + deviceName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		RejectedExecutionHandler rejectedHandler = new RejectedExecutionHandler() {
+			@Override
+			public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+				if (!executor.isShutdown()) {
+					log.warn("Listeners of CUL " + deviceName
+							+ " can't keep up, dropping received message");
+				}
+			}
+		};
+		return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(RECEIVE_QUEUE_CAPACITY),
+				threadFactory, rejectedHandler);
+	}
+
 	@Override
 	public CULMode getCULMode() {
 		return mode;
@@ -151,13 +217,23 @@ public abstract class AbstractCULHandler implements CULHandler,
 
 	@Override
 	public void open() throws CULDeviceException {
+		// the threads of a closed handler are gone, start new ones
+		receiveExecutor = createReceiveExecutor();
 		openHardware();
+		sendThread = new SendThread();
 		sendThread.start();
 	}
 
 	@Override
 	public void close() {
-		sendThread.interrupt();
+		if (sendThread != null) {
+			sendThread.interrupt();
+			sendThread = null;
+		}
+		sendQueue.clear();
+		if (receiveExecutor != null) {
+			receiveExecutor.shutdown();
+		}
 		closeHardware();
 	}
 
@@ -180,10 +256,22 @@ public abstract class AbstractCULHandler implements CULHandler,
 		}
 	}
 
+	/**
+	 * Sends a control message, e.g. changing the RF mode, ahead of all queued
+	 * RF commands.
+	 */
 	@Override
 	public void sendWithoutCheck(String message)
 			throws CULCommunicationException {
-		sendQueue.add(message);
+		sendQueue.addControl(message);
+	}
+
+	/**
+	 * @return a human readable summary of the send queue state and the time
+	 *         commands waited in the queue
+	 */
+	public String getSendQueueStatistics() {
+		return sendQueue.getStatistics() + ", credit10ms=" + credit10ms;
 	}
 
 	/**
@@ -204,15 +292,13 @@ public abstract class AbstractCULHandler implements CULHandler,
 	}
 
 	/**
-	 * Notifies each CULListener about the received data in its own thread.
+	 * Notifies the CULListeners about the received data in the receive
+	 * thread.
 	 * 
 	 * @param data
 	 */
 	protected void notifyDataReceived(String data) {
-		for (final CULListener listener : listeners) {
-			receiveExecutor
-					.execute(new NotifyDataReceivedRunner(listener, data));
-		}
+		receiveExecutor.execute(new NotifyDataReceivedRunner(data));
 	}
 
 	protected void notifyError(Exception e) {
@@ -242,6 +328,8 @@ public abstract class AbstractCULHandler implements CULHandler,
 				return;
 			} else if ("LOVF".equals(data)) {
 				log.warn("(LOVF) Limit Overflow: Last message lost. You are using more than 1% transmitting time. Reduce the number of rf messages");
+				credit10ms = 0;
+				creditReports++;
 				return;
 			} else if (data.matches("^\\d+\\s+\\d+")) {
 				processCreditReport(data);
@@ -275,9 +363,54 @@ public abstract class AbstractCULHandler implements CULHandler,
 		// Credit report received
 		String[] report = data.split(" ");
 		credit10ms = Integer.parseInt(report[report.length - 1]);
+		creditReports++;
 		log.debug("credit10ms = " + credit10ms);
 	}
 
+	/**
+	 * Estimates the transmit credit an RF command consumes.
+	 * 
+	 * @param command
+	 * @return estimated credit in 10ms units
+	 */
+	protected int getEstimatedCredit(String command) {
+		if (command.startsWith("Zs")) {
+			return ESTIMATED_CREDIT_PER_MAX_COMMAND;
+		}
+		return ESTIMATED_CREDIT_PER_COMMAND;
+	}
+
+	/**
+	 * Delays the next RF transmission until the CUL has regained enough
+	 * transmit credit. The CUL earns 1% of the elapsed time as credit, i.e.
+	 * one 10ms unit per second. Nothing is delayed until the first credit
+	 * report has been received.
+	 * 
+	 * @param needed
+	 *            the credit needed for the next command
+	 * @throws InterruptedException
+	 */
+	private void waitForCredit(int needed) throws InterruptedException {
+		while (creditReports > 0 && credit10ms < needed) {
+			long waitMs = Math.min((needed - credit10ms) * 1000L,
+					MAX_CREDIT_WAIT_MS);
+			log.debug("Not enough transmit credit on " + deviceName + " ("
+					+ credit10ms + "), delaying next command by " + waitMs
+					+ "ms");
+			int reports = creditReports;
+			Thread.sleep(waitMs);
+			if (reports == creditReports) {
+				// no report while sleeping, estimate the credit earned
+				credit10ms += (int) (waitMs / 1000);
+			}
+			if (bw != null) {
+				requestCreditReport();
+			}
+		}
+		// account the credit until the next report corrects the estimate
+		credit10ms -= needed;
+	}
+
 	/**
 	 * get the remaining send time on channel as seen at the last send/receive
 	 * event.
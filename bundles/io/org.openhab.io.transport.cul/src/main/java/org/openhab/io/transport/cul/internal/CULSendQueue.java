@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.cul.internal;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Blocking queue for the commands sent to a CUL. Control commands (e.g.
+ * switching the RF mode) are sent before queued RF transmissions. An RF
+ * command which addresses the same device as a command still waiting in the
+ * queue replaces the waiting command, because sending the outdated command
+ * would only waste transmit credit.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class CULSendQueue {
+
+	/**
+	 * A command waiting to be sent.
+	 */
+	public static class Entry {
+
+		private String command;
+		private final String deviceAddress;
+		private final boolean control;
+		private final long enqueueTime;
+
+		private Entry(String command, String deviceAddress, boolean control) {
+			this.command = command;
+			this.deviceAddress = deviceAddress;
+			this.control = control;
+			this.enqueueTime = System.currentTimeMillis();
+		}
+
+		public String getCommand() {
+			return command;
+		}
+
+		/**
+		 * @return true if this command doesn't cause an RF transmission
+		 */
+		public boolean isControl() {
+			return control;
+		}
+
+		public long getEnqueueTime() {
+			return enqueueTime;
+		}
+	}
+
+	private final LinkedList<Entry> controlCommands = new LinkedList<Entry>();
+	private final LinkedList<Entry> rfCommands = new LinkedList<Entry>();
+	private final Map<String, Entry> waitingByAddress = new HashMap<String, Entry>();
+
+	private long sentCount = 0;
+	private long collapsedCount = 0;
+	private long lastLatency = 0;
+	private long maxLatency = 0;
+	private long totalLatency = 0;
+
+	/**
+	 * Adds a control command, which is sent before all queued RF commands.
+	 *
+	 * @param command
+	 */
+	public synchronized void addControl(String command) {
+		controlCommands.add(new Entry(command, null, true));
+		notifyAll();
+	}
+
+	/**
+	 * Adds a command causing an RF transmission. If a command for the same
+	 * device is still waiting, it is replaced by the new command and keeps its
+	 * position in the queue.
+	 *
+	 * @param command
+	 */
+	public synchronized void add(String command) {
+		String deviceAddress = getDeviceAddress(command);
+		if (deviceAddress != null) {
+			Entry waiting = waitingByAddress.get(deviceAddress);
+			if (waiting != null) {
+				waiting.command = command;
+				collapsedCount++;
+				return;
+			}
+		}
+		Entry entry = new Entry(command, deviceAddress, false);
+		if (deviceAddress != null) {
+			waitingByAddress.put(deviceAddress, entry);
+		}
+		rfCommands.add(entry);
+		notifyAll();
+	}
+
+	/**
+	 * Waits for the next command to send.
+	 *
+	 * @return the next command
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	public synchronized Entry take() throws InterruptedException {
+		while (controlCommands.isEmpty() && rfCommands.isEmpty()) {
+			wait();
+		}
+		Entry entry;
+		if (!controlCommands.isEmpty()) {
+			entry = controlCommands.removeFirst();
+		} else {
+			entry = rfCommands.removeFirst();
+			if (entry.deviceAddress != null) {
+				waitingByAddress.remove(entry.deviceAddress);
+			}
+		}
+		lastLatency = System.currentTimeMillis() - entry.enqueueTime;
+		maxLatency = Math.max(maxLatency, lastLatency);
+		totalLatency += lastLatency;
+		sentCount++;
+		return entry;
+	}
+
+	public synchronized int size() {
+		return controlCommands.size() + rfCommands.size();
+	}
+
+	public synchronized void clear() {
+		controlCommands.clear();
+		rfCommands.clear();
+		waitingByAddress.clear();
+	}
+
+	/**
+	 * @return the time the last command waited in the queue in ms
+	 */
+	public synchronized long getLastLatency() {
+		return lastLatency;
+	}
+
+	/**
+	 * @return a human readable summary of the queue statistics
+	 */
+	public synchronized String getStatistics() {
+		long avgLatency = sentCount > 0 ? totalLatency / sentCount : 0;
+		return "queued=" + size() + ", sent=" + sentCount + ", collapsed="
+				+ collapsedCount + ", latency last/avg/max=" + lastLatency
+				+ "/" + avgLatency + "/" + maxLatency + "ms";
+	}
+
+	/**
+	 * Determines the device addressed by a command, if a newer command for
+	 * that device makes the older one obsolete. This is only the case for
+	 * commands setting an absolute state, e.g. FS20 on/off/dim level, but not
+	 * for relative ones like dim up or toggle.
+	 *
+	 * @param command
+	 * @return the device address or null if the command must not be replaced
+	 */
+	protected String getDeviceAddress(String command) {
+		String cmd = command.trim();
+		if (cmd.length() == 9 && cmd.startsWith("F") && isHex(cmd, 1)) {
+			// FS20: F<housecode:4><address:2><command:2>
+			int fs20Command = Integer.parseInt(cmd.substring(7, 9), 16);
+			if (fs20Command <= 0x11) {
+				return cmd.substring(0, 7);
+			}
+		} else if (cmd.length() == 14 && cmd.startsWith("is")) {
+			// Intertechno: is<housecode:4><address:4><reserved:2><command:2>
+			return cmd.substring(0, 10);
+		}
+		return null;
+	}
+
+	private static boolean isHex(String s, int start) {
+		for (int i = start; i < s.length(); i++) {
+			if (Character.digit(s.charAt(i), 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
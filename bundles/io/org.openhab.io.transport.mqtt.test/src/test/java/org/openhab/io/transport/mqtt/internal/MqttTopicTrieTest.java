@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.io.transport.mqtt.MqttMessageConsumer;
+
+/**
+ * Testcases for the routing of topics to consumers by the {@link MqttTopicTrie}.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class MqttTopicTrieTest {
+
+	private MqttTopicTrie trie;
+
+	@Before
+	public void setUp() {
+		trie = new MqttTopicTrie();
+	}
+
+	@Test
+	public void testExactTopic() {
+		MqttMessageConsumer consumer = new TestConsumer("home/kitchen/temp");
+		trie.add(consumer.getTopic(), consumer);
+
+		assertMatches("home/kitchen/temp", consumer);
+		assertMatches("home/kitchen");
+		assertMatches("home/kitchen/temp/raw");
+		assertMatches("home/living/temp");
+	}
+
+	@Test
+	public void testSingleLevelWildcard() {
+		MqttMessageConsumer temps = new TestConsumer("home/+/temp");
+		MqttMessageConsumer rooms = new TestConsumer("home/+");
+		trie.add(temps.getTopic(), temps);
+		trie.add(rooms.getTopic(), rooms);
+
+		assertMatches("home/kitchen/temp", temps);
+		assertMatches("home/living/temp", temps);
+		assertMatches("home/kitchen", rooms);
+		// + matches exactly one level, which may be empty
+		assertMatches("home//temp", temps);
+		assertMatches("home/kitchen/cellar/temp");
+		assertMatches("home");
+	}
+
+	@Test
+	public void testMultiLevelWildcard() {
+		MqttMessageConsumer home = new TestConsumer("home/#");
+		MqttMessageConsumer all = new TestConsumer("#");
+		trie.add(home.getTopic(), home);
+		trie.add(all.getTopic(), all);
+
+		// # matches the parent level as well
+		assertMatches("home", home, all);
+		assertMatches("home/kitchen", home, all);
+		assertMatches("home/kitchen/temp/raw", home, all);
+		assertMatches("garden/temp", all);
+	}
+
+	@Test
+	public void testCombinedWildcards() {
+		MqttMessageConsumer exact = new TestConsumer("home/kitchen/temp");
+		MqttMessageConsumer single = new TestConsumer("home/+/temp");
+		MqttMessageConsumer multi = new TestConsumer("home/+/#");
+		trie.add(exact.getTopic(), exact);
+		trie.add(single.getTopic(), single);
+		trie.add(multi.getTopic(), multi);
+
+		assertMatches("home/kitchen/temp", exact, single, multi);
+		assertMatches("home/living/temp", single, multi);
+		assertMatches("home/living/light", multi);
+		assertMatches("home/living", multi);
+	}
+
+	@Test
+	public void testSubscribeAndUnsubscribe() {
+		MqttMessageConsumer first = new TestConsumer("home/+/temp");
+		MqttMessageConsumer second = new TestConsumer("home/+/temp");
+		MqttMessageConsumer multi = new TestConsumer("home/#");
+		trie.add(first.getTopic(), first);
+		trie.add(second.getTopic(), second);
+		trie.add(multi.getTopic(), multi);
+		assertMatches("home/kitchen/temp", first, second, multi);
+
+		trie.remove(first.getTopic(), first);
+		assertMatches("home/kitchen/temp", second, multi);
+
+		trie.remove(multi.getTopic(), multi);
+		assertMatches("home/kitchen/temp", second);
+		assertMatches("home/kitchen");
+
+		// removing an unknown subscription changes nothing
+		trie.remove("home/kitchen/temp", second);
+		trie.remove("garden/#", second);
+		assertMatches("home/kitchen/temp", second);
+
+		trie.remove(second.getTopic(), second);
+		assertMatches("home/kitchen/temp");
+
+		trie.add(first.getTopic(), first);
+		assertMatches("home/kitchen/temp", first);
+	}
+
+	@Test
+	public void testMatchedListIsNotAffectedBySubscriptionChanges() {
+		MqttMessageConsumer first = new TestConsumer("home/#");
+		MqttMessageConsumer second = new TestConsumer("home/#");
+		trie.add(first.getTopic(), first);
+
+		List<MqttMessageConsumer> matched = trie.match("home/kitchen");
+		trie.add(second.getTopic(), second);
+		trie.remove(first.getTopic(), first);
+
+		Assert.assertEquals(Arrays.asList(first), matched);
+		assertMatches("home/kitchen", second);
+	}
+
+	private void assertMatches(String topic, MqttMessageConsumer... expected) {
+		List<MqttMessageConsumer> matched = trie.match(topic);
+		Assert.assertEquals("consumers of " + topic, expected.length, matched.size());
+		Assert.assertEquals("consumers of " + topic, new HashSet<MqttMessageConsumer>(Arrays.asList(expected)),
+				new HashSet<MqttMessageConsumer>(matched));
+	}
+
+	private static class TestConsumer implements MqttMessageConsumer {
+
+		private String topic;
+
+		private TestConsumer(String topic) {
+			this.topic = topic;
+		}
+
+		@Override
+		public void processMessage(String topic, byte[] payload) {
+		}
+
+		@Override
+		public String getTopic() {
+			return topic;
+		}
+
+		@Override
+		public void setTopic(String topic) {
+			this.topic = topic;
+		}
+
+		@Override
+		public void setEventPublisher(EventPublisher eventPublisher) {
+		}
+	}
+}
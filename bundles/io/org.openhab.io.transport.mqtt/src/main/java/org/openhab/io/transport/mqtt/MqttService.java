@@ -8,6 +8,7 @@
  */
 package org.openhab.io.transport.mqtt;
 
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.concurrent.ConcurrentHashMap;
@@ -101,6 +102,10 @@ public class MqttService implements ManagedService {
 				conn.setLastWill(will);
 			} else if (property.equals("keepAlive")) {
 				conn.setKeepAliveInterval(Integer.parseInt(value));
+			} else if (property.equals("maxInFlight")) {
+				conn.setMaxInFlight(Integer.parseInt(value));
+			} else if (property.equals("outboundQueueSize")) {
+				conn.setOutboundQueueSize(Integer.parseInt(value));
 			} else {
 				logger.warn("Unrecognized property: {}", key);
 			}
@@ -157,6 +162,13 @@ public class MqttService implements ManagedService {
 		return conn;
 	}
 
+	/**
+	 * @return all known broker connections.
+	 */
+	public Collection<MqttBrokerConnection> getBrokerConnections() {
+		return brokerConnections.values();
+	}
+
 	/**
 	 * Register a new message consumer which can process messages received on
 	 * 
@@ -24,10 +24,8 @@ import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
-import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
-import org.eclipse.paho.client.mqttv3.MqttTopic;
 import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
 import org.openhab.io.transport.mqtt.MqttMessageConsumer;
 import org.openhab.io.transport.mqtt.MqttMessageProducer;
@@ -78,12 +76,18 @@ public class MqttBrokerConnection implements MqttCallback {
 
 	private List<MqttMessageConsumer> consumers = new CopyOnWriteArrayList<MqttMessageConsumer>();
 
+	private MqttTopicTrie subscriptions = new MqttTopicTrie();
+
 	private List<MqttMessageProducer> producers = new CopyOnWriteArrayList<MqttMessageProducer>();
 
 	private Timer reconnectTimer;
 
 	private int keepAliveInterval = 60;
 
+	private int maxInFlight = 10;
+
+	private MqttOutboundQueue outboundQueue;
+
 	/**
 	 * Create a new connection with the given name.
 	 * 
@@ -92,6 +96,7 @@ public class MqttBrokerConnection implements MqttCallback {
 	 */
 	public MqttBrokerConnection(String name) {
 		this.name = name;
+		this.outboundQueue = new MqttOutboundQueue(name);
 	}
 
 	/**
@@ -130,6 +135,8 @@ public class MqttBrokerConnection implements MqttCallback {
 		}
 
 		started = true;
+		outboundQueue.setMaxInFlight(async ? maxInFlight : 1);
+		outboundQueue.start(client);
 	}
 
 	/**
@@ -246,11 +253,11 @@ public class MqttBrokerConnection implements MqttCallback {
 	}
 
 	/**
-	 * Set whether messages should be sent synchronously (the message is sent
-	 * and the thread waits until delivery to the broker has completed) or
-	 * asynchronously (the message is sent and the sendign thread does not wait
-	 * for delivery completion). In the case of async, the sending thread
-	 * currently does not receive any feedback when delivery is completed.
+	 * Set whether messages should be sent synchronously (each message is only
+	 * sent after delivery of the previous one to the broker has completed) or
+	 * asynchronously (up to maxInFlight messages may await delivery
+	 * confirmation at the same time). In both cases the publishing thread
+	 * only queues the message and does not wait for the broker.
 	 * 
 	 * @param async
 	 */
@@ -258,6 +265,43 @@ public class MqttBrokerConnection implements MqttCallback {
 		this.async = async;
 	}
 
+	/**
+	 * Set the maximum number of messages which may be awaiting delivery
+	 * confirmation from the broker at the same time. Only used when
+	 * publishing asynchronously.
+	 * 
+	 * @param maxInFlight
+	 *            number of messages, default is 10.
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Set the maximum number of outbound messages kept while they cannot be
+	 * sent, e.g. during a short loss of the connection.
+	 * 
+	 * @param size
+	 *            number of messages, default is 1000.
+	 */
+	public void setOutboundQueueSize(int size) {
+		outboundQueue.setCapacity(size);
+	}
+
+	/**
+	 * @return statistics of the outbound message queue.
+	 */
+	public String getOutboundStatistics() {
+		return outboundQueue.getStatistics();
+	}
+
+	/**
+	 * @return true if the connection to the broker is active.
+	 */
+	public boolean isStarted() {
+		return started;
+	}
+
 	/**
 	 * Set client id to use when connecting to the broker. If none is specified,
 	 * a default is generated.
@@ -418,9 +462,9 @@ public class MqttBrokerConnection implements MqttCallback {
 			@Override
 			public void publish(String topic, byte[] payload) throws Exception {
 
-				if (!started) {
+				if (StringUtils.isEmpty(url)) {
 					logger.warn(
-							"Broker connection not started. Cannot publish message to topic '{}'",
+							"Broker connection not configured. Cannot publish message to topic '{}'",
 							topic);
 					return;
 				}
@@ -430,22 +474,9 @@ public class MqttBrokerConnection implements MqttCallback {
 				message.setQos(qos);
 				message.setRetained(retain);
 
-				// publish message asynchronously
-				MqttTopic mqttTopic = client.getTopic(topic);
-				MqttDeliveryToken deliveryToken = mqttTopic.publish(message);
-
-				logger.debug("Publishing message {} to topic '{}'",
-						deliveryToken.getMessageId(), topic);
-				if (!async) {
-					// wait for publish confirmation
-					deliveryToken.waitForCompletion(10000);
-					if (!deliveryToken.isComplete()) {
-						logger.error(
-								"Did not receive completion message within timeout limit whilst publishing to topic '{}'",
-								topic);
-					}
-				}
-
+				// queue the message, it is published by the sender thread of
+				// this connection as soon as the broker can accept it
+				outboundQueue.enqueue(topic, message);
 			}
 		});
 
@@ -459,6 +490,7 @@ public class MqttBrokerConnection implements MqttCallback {
 	 */
 	public synchronized void addConsumer(MqttMessageConsumer subscriber) {
 		consumers.add(subscriber);
+		subscriptions.add(subscriber.getTopic(), subscriber);
 		if (started) {
 			startConsumer(subscriber);
 		}
@@ -512,6 +544,7 @@ public class MqttBrokerConnection implements MqttCallback {
 			logger.error("Error unsubscribing topic from broker", e);
 		}
 		consumers.remove(subscriber);
+		subscriptions.remove(subscriber.getTopic(), subscriber);
 
 	}
 
@@ -528,6 +561,7 @@ public class MqttBrokerConnection implements MqttCallback {
 			logger.error("Error closing connection to broker", e);
 		}
 		started = false;
+		outboundQueue.stop();
 	}
 
 	@Override
@@ -544,6 +578,7 @@ public class MqttBrokerConnection implements MqttCallback {
 		}
 		
 		started = false;
+		outboundQueue.connectionLost();
 		logger.info(
 				"Starting connection helper to periodically try restore connection to broker '{}'",
 				name);
@@ -557,54 +592,20 @@ public class MqttBrokerConnection implements MqttCallback {
 	@Override
 	public void deliveryComplete(IMqttDeliveryToken token) {
 		logger.trace("Message with id {} delivered.", token.getMessageId());
+		outboundQueue.deliveryComplete(token);
 	}
 
 	@Override
 	public void messageArrived(String topic, MqttMessage message)
 			throws Exception {
 
-		logger.trace("Received message on topic '{}' : {}", topic, new String(
-				message.getPayload()));
-		for (MqttMessageConsumer consumer : consumers) {
-			if (isTopicMatch(topic, consumer.getTopic())) {
-				consumer.processMessage(topic, message.getPayload());
-			}
-		}
-	}
-
-	/**
-	 * Check if the topic on which a message was received matches provided
-	 * target topic. The matching will take into account the + and # wildcards.
-	 * 
-	 * @param source
-	 *            topic from received message
-	 * @param target
-	 *            topic as defined with possible wildcards.
-	 * @return true if both topics match.
-	 */
-	private boolean isTopicMatch(String source, String target) {
-		if (source.equals(target)) {
-			return true;
+		if (logger.isTraceEnabled()) {
+			logger.trace("Received message on topic '{}' : {}", topic,
+					new String(message.getPayload()));
 		}
-		if (target.indexOf('+') == -1 && target.indexOf('#') == -1) {
-			return false;
-		} else {
-
-			String regex = target;
-			regex = StringUtils.replace(regex, "+", "[^/]*");
-			regex = StringUtils.replace(regex, "#", ".*");
-			boolean result = source.matches(regex);
-			if (result) {
-				logger.trace("Topic match for '{}' and '{}' using regex {}",
-						source, target, regex);
-				return true;
-			} else {
-				logger.trace("No topic match for '{}' and '{}' using regex {}",
-						source, target, regex);
-				return false;
-			}
+		for (MqttMessageConsumer consumer : subscriptions.match(topic)) {
+			consumer.processMessage(topic, message.getPayload());
 		}
-
 	}
 
 	/**
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import org.eclipse.osgi.framework.console.CommandInterpreter;
+import org.eclipse.osgi.framework.console.CommandProvider;
+import org.openhab.io.transport.mqtt.MqttService;
+
+/**
+ * Command provider. Shows the state and outbound statistics of the MQTT broker
+ * connections on the osgi console.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class MqttCommandProvider implements CommandProvider {
+
+	private MqttService service;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getHelp() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("--- MQTT Commands---\n");
+		buffer.append("\tmqtt status - Show broker connections and outbound queue statistics\n");
+		return buffer.toString();
+	}
+
+	/**
+	 * MQTT command implementation.
+	 *
+	 * @param intp
+	 *            commandinterpreter
+	 *
+	 * @return null
+	 */
+	public Object _mqtt(CommandInterpreter intp) {
+
+		String cmd = intp.nextArgument();
+
+		if ("status".equals(cmd)) {
+			if (service == null) {
+				intp.println("MQTT service not available.");
+				return null;
+			}
+			for (MqttBrokerConnection conn : service.getBrokerConnections()) {
+				intp.println(conn.getName() + " (" + conn.getUrl() + ") "
+						+ (conn.isStarted() ? "connected" : "not connected"));
+				intp.println("\t" + conn.getOutboundStatistics());
+			}
+		} else {
+			intp.print(getHelp());
+		}
+
+		return null;
+	}
+
+	/**
+	 * MqttService loaded via DS.
+	 */
+	public void setMqttService(MqttService mqttService) {
+		this.service = mqttService;
+	}
+
+	/**
+	 * MqttService unloaded via DS.
+	 */
+	public void unsetMqttService(MqttService mqttService) {
+		this.service = null;
+	}
+}
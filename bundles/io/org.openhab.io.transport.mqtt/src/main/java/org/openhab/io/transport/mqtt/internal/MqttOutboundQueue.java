@@ -0,0 +1,453 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Outbound message queue for a single broker connection.
+ *
+ * Producers only enqueue messages, a dedicated sender thread hands them to the
+ * MQTT client while keeping at most a configured number of messages in flight.
+ * A slot in the window is released when the client reports delivery
+ * completion. Messages queued while the connection is down are kept (up to the
+ * queue capacity, oldest messages are dropped first) and sent as soon as the
+ * connection is restored. A retained message which is still waiting in the
+ * queue is replaced by a newer retained message for the same topic, as only
+ * the last state is of interest to the broker. A message which can't be
+ * published after {@link #MAX_SEND_ATTEMPTS} attempts is dropped.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class MqttOutboundQueue implements Runnable {
+
+	private static Logger logger = LoggerFactory
+			.getLogger(MqttOutboundQueue.class);
+
+	/** time after which an unconfirmed in-flight message is given up on */
+	private static final long IN_FLIGHT_TIMEOUT = 10000;
+
+	/** interval in which the sender re-checks the connection when idle */
+	private static final long IDLE_WAIT = 1000;
+
+	/** number of failed attempts after which a message is dropped */
+	private static final int MAX_SEND_ATTEMPTS = 5;
+
+	private final String name;
+
+	private final Object lock = new Object();
+
+	private final LinkedList<OutboundMessage> queue = new LinkedList<OutboundMessage>();
+
+	private final Map<String, OutboundMessage> pendingRetained = new HashMap<String, OutboundMessage>();
+
+	private final Map<IMqttDeliveryToken, OutboundMessage> inFlight = new IdentityHashMap<IMqttDeliveryToken, OutboundMessage>();
+
+	private final Set<IMqttDeliveryToken> earlyCompletions = Collections
+			.newSetFromMap(new IdentityHashMap<IMqttDeliveryToken, Boolean>());
+
+	private int reservedSlots = 0;
+
+	private int maxInFlight = 10;
+
+	private int capacity = 1000;
+
+	private MqttClient client;
+
+	private Thread sender;
+
+	private volatile boolean running;
+
+	private volatile boolean connected;
+
+	// statistics
+	private long publishedCount;
+
+	private long deliveredCount;
+
+	private long coalescedCount;
+
+	private long droppedCount;
+
+	private long failedCount;
+
+	private long timedOutCount;
+
+	private long totalLatency;
+
+	private long maxLatency;
+
+	private long lastLatency;
+
+	/**
+	 * Create a new outbound queue.
+	 *
+	 * @param name
+	 *            of the broker connection, used for logging.
+	 */
+	public MqttOutboundQueue(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Set the maximum number of messages which may be awaiting delivery
+	 * confirmation at the same time.
+	 *
+	 * @param maxInFlight
+	 *            window size, at least 1.
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		synchronized (lock) {
+			this.maxInFlight = Math.max(1, maxInFlight);
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Set the maximum number of messages kept in the queue while they cannot
+	 * be sent.
+	 *
+	 * @param capacity
+	 *            queue capacity, at least 1.
+	 */
+	public void setCapacity(int capacity) {
+		synchronized (lock) {
+			this.capacity = Math.max(1, capacity);
+		}
+	}
+
+	/**
+	 * Start sending queued messages using the given client.
+	 *
+	 * @param client
+	 *            connected MQTT client.
+	 */
+	public void start(MqttClient client) {
+		synchronized (lock) {
+			this.client = client;
+			this.connected = true;
+			// a sender which has been stopped but has not exited yet keeps running
+			running = true;
+			if (sender == null) {
+				sender = new Thread(this, "MQTT sender " + name);
+				sender.setDaemon(true);
+				sender.start();
+			}
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Stop the sender thread and discard all queued messages.
+	 */
+	public void stop() {
+		synchronized (lock) {
+			running = false;
+			connected = false;
+			if (!queue.isEmpty()) {
+				logger.warn(
+						"Discarding {} queued message(s) for broker '{}'",
+						queue.size(), name);
+				droppedCount += queue.size();
+			}
+			queue.clear();
+			pendingRetained.clear();
+			releaseInFlight();
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Suspend sending until {@link #start(MqttClient)} is called again. Queued
+	 * messages are kept, messages which were in flight are considered lost.
+	 */
+	public void connectionLost() {
+		synchronized (lock) {
+			connected = false;
+			if (!inFlight.isEmpty()) {
+				logger.warn(
+						"{} message(s) in flight to broker '{}' were not confirmed before the connection was lost",
+						inFlight.size(), name);
+			}
+			releaseInFlight();
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Add a message to the queue. This method never blocks on network I/O.
+	 *
+	 * @param topic
+	 *            to publish to.
+	 * @param message
+	 *            to publish.
+	 */
+	public void enqueue(String topic, MqttMessage message) {
+		synchronized (lock) {
+			if (message.isRetained()) {
+				OutboundMessage pending = pendingRetained.get(topic);
+				if (pending != null) {
+					// not sent yet, so the previous state is superseded
+					pending.message = message;
+					coalescedCount++;
+					return;
+				}
+			}
+
+			if (queue.size() >= capacity) {
+				OutboundMessage dropped = queue.removeFirst();
+				if (pendingRetained.get(dropped.topic) == dropped) {
+					pendingRetained.remove(dropped.topic);
+				}
+				droppedCount++;
+				logger.warn(
+						"Outbound queue for broker '{}' is full, dropping oldest message for topic '{}'",
+						name, dropped.topic);
+			}
+
+			OutboundMessage outbound = new OutboundMessage(topic, message);
+			queue.addLast(outbound);
+			if (message.isRetained()) {
+				pendingRetained.put(topic, outbound);
+			}
+			if (!connected) {
+				logger.debug(
+						"Broker connection '{}' not active, message for topic '{}' queued",
+						name, topic);
+			}
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Called by the client when delivery of a message has completed.
+	 *
+	 * @param token
+	 *            of the delivered message.
+	 */
+	public void deliveryComplete(IMqttDeliveryToken token) {
+		synchronized (lock) {
+			OutboundMessage delivered = inFlight.remove(token);
+			if (delivered != null) {
+				recordDelivery(delivered);
+			} else if (reservedSlots > inFlight.size()) {
+				// the confirmation overtook the registration of the token
+				earlyCompletions.add(token);
+			}
+			lock.notifyAll();
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				OutboundMessage outbound;
+				MqttClient currentClient;
+				synchronized (lock) {
+					try {
+						while (running
+								&& (!connected || queue.isEmpty() || reservedSlots >= maxInFlight)) {
+							lock.wait(IDLE_WAIT);
+							expireInFlight();
+						}
+					} catch (InterruptedException e) {
+						running = false;
+					}
+					if (!running) {
+						// decided while holding the lock, so start() knows whether to create a new sender
+						if (sender == Thread.currentThread()) {
+							sender = null;
+						}
+						return;
+					}
+					outbound = queue.removeFirst();
+					if (pendingRetained.get(outbound.topic) == outbound) {
+						pendingRetained.remove(outbound.topic);
+					}
+					outbound.sentAt = System.currentTimeMillis();
+					currentClient = client;
+					reservedSlots++;
+				}
+
+				send(currentClient, outbound);
+			}
+		} finally {
+			synchronized (lock) {
+				// the next start() creates a new sender, even if this one died unexpectedly
+				if (sender == Thread.currentThread()) {
+					sender = null;
+				}
+			}
+		}
+	}
+
+	private void send(MqttClient currentClient, OutboundMessage outbound) {
+		try {
+			MqttDeliveryToken token = currentClient.getTopic(outbound.topic)
+					.publish(outbound.message);
+			logger.debug("Publishing message {} to topic '{}'",
+					token.getMessageId(), outbound.topic);
+
+			synchronized (lock) {
+				publishedCount++;
+				if (earlyCompletions.remove(token)) {
+					recordDelivery(outbound);
+				} else {
+					inFlight.put(token, outbound);
+				}
+			}
+		} catch (MqttException e) {
+			logger.warn("Error publishing message to topic '{}' on broker '{}': {}",
+					new Object[] { outbound.topic, name, e.getMessage() });
+			synchronized (lock) {
+				reservedSlots--;
+				if (++outbound.attempts >= MAX_SEND_ATTEMPTS) {
+					failedCount++;
+					logger.error("Dropping message for topic '{}' on broker '{}' after {} failed attempts",
+							new Object[] { outbound.topic, name, outbound.attempts });
+					return;
+				}
+				// retry once the connection is back or a slot is freed
+				queue.addFirst(outbound);
+				if (outbound.message.isRetained() && !pendingRetained.containsKey(outbound.topic)) {
+					pendingRetained.put(outbound.topic, outbound);
+				}
+				try {
+					lock.wait(IDLE_WAIT);
+				} catch (InterruptedException ie) {
+					running = false;
+				}
+			}
+		} catch (RuntimeException e) {
+			// e.g. an invalid topic, which will never be accepted
+			logger.error("Dropping message for topic '{}' on broker '{}': {}",
+					new Object[] { outbound.topic, name, e.getMessage() });
+			synchronized (lock) {
+				reservedSlots--;
+				failedCount++;
+			}
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock.
+	 */
+	private void recordDelivery(OutboundMessage delivered) {
+		reservedSlots--;
+		deliveredCount++;
+		lastLatency = System.currentTimeMillis() - delivered.sentAt;
+		totalLatency += lastLatency;
+		if (lastLatency > maxLatency) {
+			maxLatency = lastLatency;
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock.
+	 */
+	private void expireInFlight() {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<IMqttDeliveryToken, OutboundMessage>> it = inFlight
+				.entrySet().iterator();
+		while (it.hasNext()) {
+			OutboundMessage outbound = it.next().getValue();
+			if (now - outbound.sentAt > IN_FLIGHT_TIMEOUT) {
+				logger.error(
+						"Did not receive completion message within timeout limit whilst publishing to topic '{}'",
+						outbound.topic);
+				it.remove();
+				reservedSlots--;
+				timedOutCount++;
+			}
+		}
+		if (reservedSlots == inFlight.size()) {
+			// late confirmations of expired messages
+			earlyCompletions.clear();
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock.
+	 */
+	private void releaseInFlight() {
+		reservedSlots -= inFlight.size();
+		inFlight.clear();
+		earlyCompletions.clear();
+	}
+
+	/**
+	 * @return number of messages waiting to be sent.
+	 */
+	public int getQueueSize() {
+		synchronized (lock) {
+			return queue.size();
+		}
+	}
+
+	/**
+	 * @return number of messages sent but not yet confirmed.
+	 */
+	public int getInFlightCount() {
+		synchronized (lock) {
+			return reservedSlots;
+		}
+	}
+
+	/**
+	 * @return human readable summary of the queue statistics.
+	 */
+	public String getStatistics() {
+		synchronized (lock) {
+			long average = deliveredCount == 0 ? 0 : totalLatency
+					/ deliveredCount;
+			return String
+					.format("queued=%d, inFlight=%d/%d, published=%d, delivered=%d, coalesced=%d, dropped=%d, failed=%d, timedOut=%d, latency(ms) last=%d avg=%d max=%d",
+							queue.size(), reservedSlots, maxInFlight,
+							publishedCount, deliveredCount, coalescedCount,
+							droppedCount, failedCount, timedOutCount, lastLatency, average,
+							maxLatency);
+		}
+	}
+
+	/**
+	 * A message waiting to be sent or awaiting delivery confirmation.
+	 */
+	private static class OutboundMessage {
+
+		private final String topic;
+
+		private MqttMessage message;
+
+		private long sentAt;
+
+		private int attempts;
+
+		private OutboundMessage(String topic, MqttMessage message) {
+			this.topic = topic;
+			this.message = message;
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openhab.io.transport.mqtt.MqttMessageConsumer;
+
+/**
+ * Topic trie used to route inbound messages to the consumers whose
+ * (possibly wildcarded) subscription topic matches. Every level of a
+ * subscription topic is stored as a node, with the + and # wildcards kept as
+ * dedicated children, so that finding all matching consumers for a received
+ * topic costs O(topic depth) instead of one regular expression per consumer.
+ *
+ * Modifications are synchronized; lookups are done against an immutable
+ * snapshot so that message delivery never blocks on a subscription change.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class MqttTopicTrie {
+
+	private static final String SINGLE_LEVEL_WILDCARD = "+";
+
+	private static final String MULTI_LEVEL_WILDCARD = "#";
+
+	private volatile Node root = new Node();
+
+	/**
+	 * Register a consumer for the given subscription topic.
+	 *
+	 * @param topic
+	 *            subscription topic, may contain + or # wildcards.
+	 * @param consumer
+	 *            to register.
+	 */
+	public synchronized void add(String topic, MqttMessageConsumer consumer) {
+		Node newRoot = root.copy();
+		Node node = newRoot;
+		for (String level : split(topic)) {
+			node = node.getOrCreateChild(level);
+		}
+		node.consumers.add(consumer);
+		root = newRoot;
+	}
+
+	/**
+	 * Unregister a consumer from the given subscription topic.
+	 *
+	 * @param topic
+	 *            subscription topic used when the consumer was added.
+	 * @param consumer
+	 *            to remove.
+	 */
+	public synchronized void remove(String topic, MqttMessageConsumer consumer) {
+		Node newRoot = root.copy();
+		removeFrom(newRoot, split(topic), 0, consumer);
+		root = newRoot;
+	}
+
+	/**
+	 * Find all consumers with a subscription matching the given topic.
+	 *
+	 * @param topic
+	 *            topic on which a message was received (without wildcards).
+	 * @return list of matching consumers, never null.
+	 */
+	public List<MqttMessageConsumer> match(String topic) {
+		List<MqttMessageConsumer> result = null;
+		String[] levels = split(topic);
+		result = collect(root, levels, 0, result);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return result;
+	}
+
+	private List<MqttMessageConsumer> collect(Node node, String[] levels,
+			int depth, List<MqttMessageConsumer> result) {
+
+		// a # matches the parent level and any number of child levels
+		Node multi = node.children.get(MULTI_LEVEL_WILDCARD);
+		if (multi != null) {
+			result = addAll(result, multi.consumers);
+		}
+
+		if (depth == levels.length) {
+			return addAll(result, node.consumers);
+		}
+
+		Node exact = node.children.get(levels[depth]);
+		if (exact != null) {
+			result = collect(exact, levels, depth + 1, result);
+		}
+		Node single = node.children.get(SINGLE_LEVEL_WILDCARD);
+		if (single != null) {
+			result = collect(single, levels, depth + 1, result);
+		}
+		return result;
+	}
+
+	private static List<MqttMessageConsumer> addAll(
+			List<MqttMessageConsumer> result, List<MqttMessageConsumer> consumers) {
+		if (consumers.isEmpty()) {
+			return result;
+		}
+		if (result == null) {
+			result = new ArrayList<MqttMessageConsumer>(consumers.size());
+		}
+		result.addAll(consumers);
+		return result;
+	}
+
+	private boolean removeFrom(Node node, String[] levels, int depth,
+			MqttMessageConsumer consumer) {
+		if (depth == levels.length) {
+			node.consumers.remove(consumer);
+		} else {
+			Node child = node.children.get(levels[depth]);
+			if (child != null) {
+				child = child.copy();
+				if (removeFrom(child, levels, depth + 1, consumer)) {
+					node.children.remove(levels[depth]);
+				} else {
+					node.children.put(levels[depth], child);
+				}
+			}
+		}
+		return node.consumers.isEmpty() && node.children.isEmpty();
+	}
+
+	private static String[] split(String topic) {
+		// keep empty levels, e.g. a leading / is a valid empty level
+		return topic.split("/", -1);
+	}
+
+	/**
+	 * A single topic level. Nodes are copied on write, so a node reachable
+	 * from a published root is never modified.
+	 */
+	private static class Node {
+
+		private final Map<String, Node> children = new HashMap<String, Node>();
+
+		private final List<MqttMessageConsumer> consumers = new ArrayList<MqttMessageConsumer>(1);
+
+		private Node copy() {
+			Node copy = new Node();
+			copy.children.putAll(children);
+			copy.consumers.addAll(consumers);
+			return copy;
+		}
+
+		private Node getOrCreateChild(String level) {
+			Node child = children.get(level);
+			child = (child == null) ? new Node() : child.copy();
+			children.put(level, child);
+			return child;
+		}
+	}
+
+}
@@ -32,7 +32,8 @@ public interface ModelRepository {
 	public EObject getModel(String name);
 
 	/**
-	 * Adds a model to the repository or refreshes it if it already exists
+	 * Adds a model to the repository or refreshes it if it already exists.
+	 * This method may be called concurrently for different models.
 	 * 
 	 * @param name the model name to add/refresh
 	 * @param inputStream an input stream with the model's content
@@ -10,15 +10,18 @@ package org.openhab.model.core.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.resource.XtextResourceSet;
@@ -33,6 +36,18 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
+/**
+ * Model repository which keeps all models in a single resource set.
+ * 
+ * Each model is parsed in its own resource set outside of the lock of the
+ * shared resource set, so that several models (e.g. all model files at
+ * startup) can be parsed concurrently. Only the parsed model is added to
+ * the shared resource set and linked, both while holding its lock, as
+ * linking is not thread-safe. A refreshed model replaces the previous one
+ * in the same step. Listeners are notified one at a time.
+ * 
+ * @author Kai Kreuzer
+ */
 public class ModelRepositoryImpl implements ModelRepository {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ModelRepositoryImpl.class);
@@ -40,6 +55,12 @@ public class ModelRepositoryImpl implements ModelRepository {
 	
 	private final ListenerList listeners = new ListenerList();
 
+	/** names of the models which are currently being loaded, guarded by the resource set */
+	private final Set<String> loadingModels = new HashSet<String>();
+
+	/** lock to notify the listeners about one change at a time */
+	private final Object notificationLock = new Object();
+
 	public ModelRepositoryImpl() {
 		XtextResourceSet xtextResourceSet = new SynchronizedXtextResourceSet();
 		xtextResourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL, Boolean.TRUE);
@@ -50,6 +71,9 @@ public class ModelRepositoryImpl implements ModelRepository {
 	
 	public EObject getModel(String name) {
 		synchronized (resourceSet) {
+			if (!awaitLoaded(name)) {
+				return null;
+			}
 	 		Resource resource = getResource(name);
 			if(resource!=null) {
 				if(resource.getContents().size()>0) {
@@ -68,57 +92,102 @@ public class ModelRepositoryImpl implements ModelRepository {
 	}
 
 	public boolean addOrRefreshModel(String name, InputStream inputStream) {
-		Resource resource = getResource(name);
-		if(resource==null) {
-			synchronized(resourceSet) {
-				// try again to retrieve the resource as it might have been created by now
-				resource = getResource(name);
-				if(resource==null) {
-					// seems to be a new file
-					resource = resourceSet.createResource(URI.createURI(name));
-					if(resource!=null) {
-						logger.info("Loading model '{}'", name);
-						try {
-							Map<String, String> options = new HashMap<String, String>();
-							options.put(XtextResource.OPTION_ENCODING, "UTF-8");
-							resource.load(inputStream, options);
-							notifyListeners(name, EventType.ADDED);
-							return true;
-						} catch (IOException e) {
-							logger.warn("Configuration model '" + name + "' cannot be parsed correctly!", e);
-							resourceSet.getResources().remove(resource);
-						}
+		long startTime = System.nanoTime();
+		synchronized (resourceSet) {
+			// the same model must not be loaded twice at the same time
+			if (!awaitLoaded(name)) {
+				return false;
+			}
+			loadingModels.add(name);
+		}
+
+		boolean loading = true;
+		try {
+			// parse the model on its own, without touching the shared resource set
+			Resource resource = new XtextResourceSet().createResource(URI.createURI(name));
+			if (resource == null) {
+				return false;
+			}
+			Map<String, String> options = new HashMap<String, String>();
+			options.put(XtextResource.OPTION_ENCODING, "UTF-8");
+			try {
+				resource.load(inputStream, options);
+			} catch (IOException e) {
+				logger.warn("Configuration model '" + name + "' cannot be parsed correctly!", e);
+				synchronized (resourceSet) {
+					Resource oldResource = getResource(name);
+					if (oldResource != null) {
+						resourceSet.getResources().remove(oldResource);
 					}
 				}
+				return false;
 			}
-		} else {
-			synchronized(resourceSet) {
-				resource.unload();
-				try {
+			long parseTime = System.nanoTime();
+
+			boolean isNew;
+			synchronized (resourceSet) {
+				Resource oldResource = getResource(name);
+				isNew = (oldResource == null);
+				if (isNew) {
+					logger.info("Loading model '{}'", name);
+				} else {
 					logger.info("Refreshing model '{}'", name);
-					resource.load(inputStream, Collections.EMPTY_MAP);
-					notifyListeners(name, EventType.MODIFIED);
-					return true;
-				} catch (IOException e) {
-					logger.warn("Configuration model '" + name + "' cannot be parsed correctly!", e);
+					resourceSet.getResources().remove(oldResource);
+					oldResource.unload();
+				}
+				// moves the resource from its own resource set to the shared one
+				resourceSet.getResources().add(resource);
+				try {
+					EcoreUtil.resolveAll(resource);
+				} catch (RuntimeException e) {
 					resourceSet.getResources().remove(resource);
+					throw e;
+				}
+				if (!resource.getErrors().isEmpty()) {
+					logger.warn("Configuration model '{}' has errors: {}", name, resource.getErrors());
+				}
+				// the listeners may access the model
+				finishedLoading(name);
+				loading = false;
+			}
+			long linkTime = System.nanoTime();
+
+			synchronized (notificationLock) {
+				notifyListeners(name, isNew ? EventType.ADDED : EventType.MODIFIED);
+			}
+			long notifyTime = System.nanoTime();
+
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded model '{}' in {}ms (parse: {}ms, link: {}ms, notify listeners: {}ms)",
+						new Object[] { name, toMillis(notifyTime - startTime), toMillis(parseTime - startTime),
+								toMillis(linkTime - parseTime), toMillis(notifyTime - linkTime) });
+			}
+			return true;
+		} finally {
+			if (loading) {
+				synchronized (resourceSet) {
+					finishedLoading(name);
 				}
 			}
 		}
-		return false;
 	}
 
 	public boolean removeModel(String name) {
-		Resource resource = getResource(name);
-		if(resource!=null) {
-			synchronized(resourceSet) {
+		synchronized (resourceSet) {
+			if (!awaitLoaded(name)) {
+				return false;
+			}
+		}
+		synchronized (notificationLock) {
+			Resource resource = getResource(name);
+			if (resource != null) {
 				// do not physically delete it, but remove it from the resource set
 				notifyListeners(name, EventType.REMOVED);
 				resourceSet.getResources().remove(resource);
 				return true;
+			} else {
+				return false;
 			}
-		} else {
-			return false;
 		}
 	}
 
@@ -153,6 +222,36 @@ public class ModelRepositoryImpl implements ModelRepository {
 		 return resourceSet.getResource(URI.createURI(name), false);
 	}
 
+	/**
+	 * Waits until the given model is not being loaded anymore. Must be called 
+	 * while holding the lock of the resource set.
+	 * 
+	 * @return false, if the thread has been interrupted while waiting
+	 */
+	private boolean awaitLoaded(String name) {
+		while (loadingModels.contains(name)) {
+			try {
+				resourceSet.wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Must be called while holding the lock of the resource set.
+	 */
+	private void finishedLoading(String name) {
+		loadingModels.remove(name);
+		resourceSet.notifyAll();
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
 	private void notifyListeners(String name, EventType type) {
 		for(Object listener : listeners.getListeners()) {
 			ModelRepositoryChangeListener changeListener = (ModelRepositoryChangeListener) listener;
@@ -8,15 +8,40 @@
  */
 package org.openhab.model.core.internal.folder;
 
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Dictionary;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.ArrayUtils;
@@ -30,11 +55,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class is able to observe multiple folders for changes. It checks the
- * last modified date in a configurable frequency and notifies the model repository
- * about every change, so that it can update itself.
+ * This class is able to observe multiple folders for changes and notifies the 
+ * model repository about every change, so that it can update itself.
+ * 
+ * Folders are watched through a {@link WatchService}. Several events for the same
+ * file within a short time (e.g. an editor saving a file in several steps) are 
+ * coalesced into a single refresh, and changed models are parsed on a small thread
+ * pool, so that a large model does not delay the others. If a folder cannot be 
+ * watched, the last modified dates of its files are checked in the configured
+ * frequency instead.
  * 
- * This logic is run as a separate thread, so that it can always detect changes.
+ * The polling logic is run as a separate thread, so that it can always detect changes.
  * 
  * @author Kai Kreuzer
  * @since 0.3.0
@@ -69,6 +100,24 @@ public class FolderObserver extends Thread implements ManagedService {
 	/* the model repository is provided as a service */
 	private ModelRepository modelRepo = null;
 	
+	/* the time in milliseconds to wait for further events of a file before it is refreshed */
+	private static final long EVENT_DELAY = 500;
+	
+	/* the number of threads used to parse the models */
+	private static final int LOADER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+	
+	/* the watch service for all folders with a refresh value, null if not available */
+	private WatchService watchService = null;
+	
+	/* map that lists the folder name of every registered watch key */
+	private final Map<WatchKey, String> watchedFolders = new ConcurrentHashMap<WatchKey, String>();
+	
+	/* map that stores the scheduled refresh of a file, so that further events can postpone it */
+	private final Map<String, ScheduledFuture<?>> pendingRefreshs = new HashMap<String, ScheduledFuture<?>>();
+	
+	/* the thread pool that parses the changed models */
+	private ScheduledExecutorService modelLoader = null;
+	
 	
 	public FolderObserver() {
 		super("FolderObserver");
@@ -82,12 +131,26 @@ public class FolderObserver extends Thread implements ManagedService {
 		this.modelRepo = null;
 	}
 
+	public void deactivate() {
+		folderRefreshMap.clear();
+		stopWatching();
+		synchronized (FolderObserver.this) {
+			notify();
+		}
+	}
+
 	@Override
 	public void run() {
 		while(!folderRefreshMap.isEmpty()) { // keep the thread running as long as there are folders to observe
+			boolean polling = false;
 			try {
 				for(String foldername : folderRefreshMap.keySet()) {
-					// if folder has been checked at least once and it is not time yet to refresh, skip
+					// if folder has been checked at least once and it is watched or it is 
+					// not time yet to refresh, skip
+					if( lastFileNames.get(foldername) != null  && isWatched(foldername)) {
+						continue;
+					}
+					polling = true;
 					if( lastFileNames.get(foldername) != null  && 
 							(refreshCount % folderRefreshMap.get(foldername) > 0)) {										
 						logger.debug("skipping refresh of folder '{}' folderRefreshMap={}",
@@ -107,7 +170,9 @@ public class FolderObserver extends Thread implements ManagedService {
 			try {
 				if(gcdRefresh <= 0) break;
 				synchronized(FolderObserver.this) {
-					wait(gcdRefresh * 1000L);
+					// if all folders are watched, sleep until the configuration changes
+					// or a folder cannot be watched any longer
+					wait(polling ? gcdRefresh * 1000L : 0);
 				}
 			} catch (InterruptedException e) {
 				break;
@@ -120,34 +185,30 @@ public class FolderObserver extends Thread implements ManagedService {
 		if(!folder.exists()) {
 			return;
 		}
-		String[] extensions = folderFileExtMap.get(foldername);
+		
+		// on the first check of a folder all its models are loaded, so parse them concurrently
+		boolean parallel = lastFileNames.get(foldername) == null;
+		long startTime = System.currentTimeMillis();
+		List<Future<?>> loads = new ArrayList<Future<?>>();
 		
 		// check current files and add or refresh them accordingly
-		Set<String> currentFileNames = new HashSet<String>();
+		Set<String> currentFileNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 		for(File file : folder.listFiles()) {
-			if(file.isDirectory()) continue;
-			if(!file.getName().contains(".")) continue;
-			if(file.getName().startsWith(".")) continue;
-			
-			// if there is an extension filter defined, continue if the file has a different extension
-			String fileExt = getExtension(file.getName());
-			if(extensions!=null && extensions.length>0 && !ArrayUtils.contains(extensions, fileExt)) continue;
+			if(!isModelFile(foldername, file)) continue;
 			
 			currentFileNames.add(file.getName());
-			Long timeLastCheck = lastCheckedMap.get(file.getName());
-			if(timeLastCheck==null) timeLastCheck = 0L;
-			if(FileUtils.isFileNewer(file, timeLastCheck)) {
-				if(modelRepo!=null) {
-					try {
-						if(modelRepo.addOrRefreshModel(file.getName(), FileUtils.openInputStream(file))) {
-							lastCheckedMap.put(file.getName(), new Date().getTime());							
-						}
-					} catch (IOException e) {
-						logger.warn("Cannot open file '"+ file.getAbsolutePath() + "' for reading.", e);
-					}
-				}
+			Future<?> load = parallel ? submitRefresh(file) : null;
+			if(load!=null) {
+				loads.add(load);
+			} else {
+				refreshModel(file);
 			}
 		}
+		awaitRefreshs(loads);
+		if(!loads.isEmpty()) {
+			logger.info("Loaded {} models of folder '{}' in {}ms", 
+				new Object[] { loads.size(), foldername, System.currentTimeMillis() - startTime });
+		}
 		
 		// check for files that have been deleted meanwhile
 		if (lastFileNames.get(foldername) != null) {
@@ -164,6 +225,269 @@ public class FolderObserver extends Thread implements ManagedService {
 		lastFileNames.put(foldername, currentFileNames);
 	}
 
+	/**
+	 * checks whether the given file is a model file that should be observed
+	 * @param foldername the configured folder the file belongs to
+	 * @param file the file to check
+	 * @return true, if the file passes the extension filter of the folder
+	 */
+	private boolean isModelFile(String foldername, File file) {
+		if(file.isDirectory()) return false;
+		if(!file.getName().contains(".")) return false;
+		if(file.getName().startsWith(".")) return false;
+		
+		// if there is an extension filter defined, skip the file if it has a different extension
+		String[] extensions = folderFileExtMap.get(foldername);
+		String fileExt = getExtension(file.getName());
+		if(extensions!=null && extensions.length>0 && !ArrayUtils.contains(extensions, fileExt)) return false;
+		
+		return true;
+	}
+	
+	/**
+	 * passes the given file to the model repository, if it has been modified since it was last loaded
+	 * @param file the model file to refresh
+	 */
+	private void refreshModel(File file) {
+		Long timeLastCheck = lastCheckedMap.get(file.getName());
+		if(timeLastCheck==null) timeLastCheck = 0L;
+		if(FileUtils.isFileNewer(file, timeLastCheck)) {
+			if(modelRepo!=null) {
+				try {
+					long checkTime = new Date().getTime();
+					if(modelRepo.addOrRefreshModel(file.getName(), FileUtils.openInputStream(file))) {
+						lastCheckedMap.put(file.getName(), checkTime);							
+					}
+				} catch (IOException e) {
+					logger.warn("Cannot open file '"+ file.getAbsolutePath() + "' for reading.", e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * submits the refresh of a model file to the thread pool
+	 * @param file the model file to refresh
+	 * @return the future of the refresh or null, if it could not be submitted
+	 */
+	private Future<?> submitRefresh(final File file) {
+		synchronized(pendingRefreshs) {
+			if(modelLoader==null) return null;
+			try {
+				return modelLoader.submit(new Runnable() {
+					public void run() {
+						refreshModel(file);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * waits until all given refreshs have been completed
+	 * @param loads the futures of the submitted refreshs
+	 */
+	private void awaitRefreshs(List<Future<?>> loads) {
+		for(Future<?> load : loads) {
+			try {
+				load.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				logger.error("An unexpected exception has occured", e.getCause());
+			} catch (CancellationException e) {
+				// the observer has been reconfigured meanwhile
+			}
+		}
+	}
+	
+	/**
+	 * refreshes or removes a single model file after a change has been reported by the watch service
+	 * @param foldername the configured folder the file belongs to
+	 * @param file the changed file
+	 */
+	private void refreshWatchedFile(String foldername, File file) {
+		Set<String> fileNames = lastFileNames.get(foldername);
+		if(file.exists()) {
+			if(!isModelFile(foldername, file)) return;
+			refreshModel(file);
+			if(fileNames!=null) {
+				fileNames.add(file.getName());
+			}
+		} else if(fileNames!=null && fileNames.remove(file.getName())) {
+			logger.info("File '{}' has been deleted", file.getName());
+			if (modelRepo != null) {
+				modelRepo.removeModel(file.getName());
+				lastCheckedMap.remove(file.getName());
+			}
+		}
+	}
+	
+	/**
+	 * schedules the refresh of a file; a refresh which is already scheduled for the same 
+	 * file is postponed, so that a burst of events results in a single refresh
+	 * @param foldername the configured folder the file belongs to
+	 * @param file the changed file
+	 */
+	private void scheduleRefresh(final String foldername, final File file) {
+		synchronized(pendingRefreshs) {
+			if(modelLoader==null) return;
+			final String key = file.getAbsolutePath();
+			ScheduledFuture<?> pending = pendingRefreshs.get(key);
+			if(pending!=null) {
+				pending.cancel(false);
+			}
+			pendingRefreshs.put(key, modelLoader.schedule(new Runnable() {
+				public void run() {
+					synchronized(pendingRefreshs) {
+						pendingRefreshs.remove(key);
+					}
+					try {
+						refreshWatchedFile(foldername, file);
+					} catch(Throwable e) {
+						logger.error("An unexpected exception has occured", e);
+					}
+				}
+			}, EVENT_DELAY, TimeUnit.MILLISECONDS));
+		}
+	}
+	
+	/**
+	 * registers the given folder at the watch service
+	 * @param foldername the folder to watch
+	 * @return true, if the folder is watched, false if it has to be polled
+	 */
+	private boolean watchFolder(String foldername) {
+		if(watchService==null) return false;
+		try {
+			Path path = getFolder(foldername).toPath();
+			WatchKey key = path.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+			watchedFolders.put(key, foldername);
+			logger.debug("Watching folder '{}' for changes", foldername);
+			return true;
+		} catch (IOException e) {
+			logger.warn("Cannot watch folder '{}', falling back to polling: {}", foldername, e.getMessage());
+			return false;
+		}
+	}
+	
+	private boolean isWatched(String foldername) {
+		return watchedFolders.containsValue(foldername);
+	}
+	
+	/**
+	 * creates the watch service and the thread pool used to load changed models
+	 */
+	private void startWatching() {
+		stopWatching();
+		synchronized(pendingRefreshs) {
+			modelLoader = Executors.newScheduledThreadPool(LOADER_THREADS, new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "FolderObserver-loader-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+		} catch (IOException e) {
+			logger.warn("WatchService could not be started, folders will be polled: {}", e.getMessage());
+			return;
+		}
+		final WatchService service = watchService;
+		Thread watcher = new Thread("FolderObserver-watcher") {
+			@Override
+			public void run() {
+				processEvents(service);
+			}
+		};
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+	
+	private void stopWatching() {
+		if(watchService!=null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				logger.debug("Error closing the WatchService", e);
+			}
+			watchService = null;
+		}
+		watchedFolders.clear();
+		synchronized(pendingRefreshs) {
+			pendingRefreshs.clear();
+			if(modelLoader!=null) {
+				modelLoader.shutdownNow();
+				modelLoader = null;
+			}
+		}
+	}
+	
+	/**
+	 * takes the events of the given watch service and schedules the refresh of the concerned files
+	 * until the watch service is closed
+	 * @param service the watch service to take the events from
+	 */
+	private void processEvents(WatchService service) {
+		while(true) {
+			WatchKey key;
+			try {
+				key = service.take();
+			} catch (InterruptedException e) {
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+			
+			String foldername = watchedFolders.get(key);
+			if(foldername==null) {
+				key.cancel();
+				continue;
+			}
+			
+			for(WatchEvent<?> event : key.pollEvents()) {
+				if(event.kind()==OVERFLOW) {
+					// events have been lost, so check the whole folder
+					logger.debug("Missed events for folder '{}', refreshing it", foldername);
+					scheduleRefresh(foldername);
+					continue;
+				}
+				Path fileName = (Path) event.context();
+				scheduleRefresh(foldername, new File(getFolder(foldername), fileName.toString()));
+			}
+			
+			if(!key.reset()) {
+				// the folder is not accessible anymore, so let the polling take over
+				logger.warn("Folder '{}' cannot be watched any longer, falling back to polling", foldername);
+				watchedFolders.remove(key);
+				synchronized (FolderObserver.this) {
+					notify();
+				}
+			}
+		}
+	}
+	
+	private void scheduleRefresh(final String foldername) {
+		synchronized(pendingRefreshs) {
+			if(modelLoader==null) return;
+			modelLoader.execute(new Runnable() {
+				public void run() {
+					try {
+						checkFolder(foldername);
+					} catch(Throwable e) {
+						logger.error("An unexpected exception has occured", e);
+					}
+				}
+			});
+		}
+	}
+
 	private String getExtension(String filename) {
 		String fileExt = filename.substring(filename.lastIndexOf(".") + 1);
 		return fileExt;
@@ -177,6 +501,7 @@ public class FolderObserver extends Thread implements ManagedService {
 			lastCheckedMap.clear();
 			folderFileExtMap.clear();
 			folderRefreshMap.clear();
+			startWatching();
 			
 			Enumeration keys = config.keys();
 			while (keys.hasMoreElements()) {
@@ -190,6 +515,7 @@ public class FolderObserver extends Thread implements ManagedService {
 					if (folder.exists() && folder.isDirectory()) {
 						folderFileExtMap.put(foldername, fileExts);
 						if (refreshValue > 0) {
+							watchFolder(foldername);
 							folderRefreshMap.put(foldername, refreshValue);
 							if(!this.isAlive()) {
 								// seems we have the first folder to observe, so let's start the thread
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.model.item.internal;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemFactory;
+import org.openhab.core.items.ItemProvider;
+import org.openhab.core.items.ItemsChangeListener;
+import org.openhab.core.items.ItemsUpdateListener;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.model.core.EventType;
+import org.openhab.model.core.ModelRepository;
+import org.openhab.model.core.ModelRepositoryChangeListener;
+import org.openhab.model.items.ItemModel;
+import org.openhab.model.items.ItemsFactory;
+import org.openhab.model.items.ModelBinding;
+import org.openhab.model.items.ModelNormalItem;
+
+/**
+ * Tests that reloading an .items model only replaces the items whose
+ * definition has changed.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+public class GenericItemProviderTest {
+
+	private static final String MODEL_NAME = "test.items";
+
+	private GenericItemProvider provider;
+
+	private TestModelRepository repository;
+
+	@Before
+	public void init() {
+		repository = new TestModelRepository();
+		provider = new GenericItemProvider();
+		provider.addItemFactory(new TestItemFactory());
+		provider.setModelRepository(repository);
+	}
+
+	@Test
+	public void testUnchangedItemsAreKept() {
+		ItemModel model = ItemsFactory.eINSTANCE.createItemModel();
+		model.getItems().add(createItem("Light", "Switch", "knx", "1/1/1"));
+		model.getItems().add(createItem("Temperature", "Number", "knx", "1/1/2"));
+		repository.models.put(MODEL_NAME, model);
+		provider.modelChanged(MODEL_NAME, EventType.ADDED);
+
+		Item light = getItem("Light");
+		Item temperature = getItem("Temperature");
+		Assert.assertNotNull(light);
+		Assert.assertNotNull(temperature);
+
+		// a changed label doesn't create a new instance
+		model = ItemsFactory.eINSTANCE.createItemModel();
+		ModelNormalItem modelItem = createItem("Light", "Switch", "knx", "1/1/1");
+		modelItem.setLabel("Light [%s]");
+		model.getItems().add(modelItem);
+		model.getItems().add(createItem("Temperature", "Number", "knx", "1/1/2"));
+		repository.models.put(MODEL_NAME, model);
+
+		RecordingListener listener = new RecordingListener();
+		provider.addItemChangeListener(listener);
+		provider.modelChanged(MODEL_NAME, EventType.MODIFIED);
+
+		Assert.assertSame(light, getItem("Light"));
+		Assert.assertSame(temperature, getItem("Temperature"));
+		Assert.assertTrue(listener.events.isEmpty());
+	}
+
+	@Test
+	public void testChangedItemsAreReplaced() {
+		ItemModel model = ItemsFactory.eINSTANCE.createItemModel();
+		model.getItems().add(createItem("Light", "Switch", "knx", "1/1/1"));
+		model.getItems().add(createItem("Temperature", "Number", "knx", "1/1/2"));
+		model.getItems().add(createItem("Obsolete", "Switch", "knx", "1/1/3"));
+		repository.models.put(MODEL_NAME, model);
+		provider.modelChanged(MODEL_NAME, EventType.ADDED);
+
+		Item light = getItem("Light");
+		Item temperature = getItem("Temperature");
+		Item obsolete = getItem("Obsolete");
+
+		// the binding of 'Temperature' changes, 'Obsolete' is removed and 'Humidity' is new
+		model = ItemsFactory.eINSTANCE.createItemModel();
+		model.getItems().add(createItem("Light", "Switch", "knx", "1/1/1"));
+		model.getItems().add(createItem("Temperature", "Number", "knx", "1/1/4"));
+		model.getItems().add(createItem("Humidity", "Number", "knx", "1/1/5"));
+		repository.models.put(MODEL_NAME, model);
+
+		RecordingUpdateListener updateListener = new RecordingUpdateListener();
+		RecordingListener listener = new RecordingListener();
+		provider.addItemChangeListener(updateListener);
+		provider.addItemChangeListener(listener);
+		provider.modelChanged(MODEL_NAME, EventType.MODIFIED);
+
+		Assert.assertSame(light, getItem("Light"));
+		Item newTemperature = getItem("Temperature");
+		Assert.assertNotNull(newTemperature);
+		Assert.assertNotSame(temperature, newTemperature);
+		Assert.assertNull(getItem("Obsolete"));
+		Item humidity = getItem("Humidity");
+		Assert.assertNotNull(humidity);
+
+		List<String> expected = new ArrayList<String>();
+		expected.add("removed " + System.identityHashCode(obsolete));
+		expected.add("updated " + System.identityHashCode(temperature) + " " + System.identityHashCode(newTemperature));
+		expected.add("added " + System.identityHashCode(humidity));
+		Assert.assertEquals(expected, updateListener.events);
+
+		// listeners which don't know about updates see a removal and an addition
+		expected = new ArrayList<String>();
+		expected.add("removed " + System.identityHashCode(obsolete));
+		expected.add("removed " + System.identityHashCode(temperature));
+		expected.add("added " + System.identityHashCode(newTemperature));
+		expected.add("added " + System.identityHashCode(humidity));
+		Assert.assertEquals(expected, listener.events);
+	}
+
+	@Test
+	public void testChangedTypeReplacesItem() {
+		ItemModel model = ItemsFactory.eINSTANCE.createItemModel();
+		model.getItems().add(createItem("Light", "Switch", "knx", "1/1/1"));
+		repository.models.put(MODEL_NAME, model);
+		provider.modelChanged(MODEL_NAME, EventType.ADDED);
+		Assert.assertTrue(getItem("Light") instanceof SwitchItem);
+
+		model = ItemsFactory.eINSTANCE.createItemModel();
+		model.getItems().add(createItem("Light", "Number", "knx", "1/1/1"));
+		repository.models.put(MODEL_NAME, model);
+		provider.modelChanged(MODEL_NAME, EventType.MODIFIED);
+		Assert.assertTrue(getItem("Light") instanceof NumberItem);
+	}
+
+	private ModelNormalItem createItem(String name, String type, String bindingType, String bindingConfig) {
+		ModelNormalItem modelItem = ItemsFactory.eINSTANCE.createModelNormalItem();
+		modelItem.setName(name);
+		modelItem.setType(type);
+		ModelBinding binding = ItemsFactory.eINSTANCE.createModelBinding();
+		binding.setType(bindingType);
+		binding.setConfiguration(bindingConfig);
+		modelItem.getBindings().add(binding);
+		return modelItem;
+	}
+
+	private Item getItem(String name) {
+		for (Item item : provider.getItems()) {
+			if (item.getName().equals(name)) {
+				return item;
+			}
+		}
+		return null;
+	}
+
+
+	private static class TestModelRepository implements ModelRepository {
+
+		private Map<String, EObject> models = new HashMap<String, EObject>();
+
+		public EObject getModel(String name) {
+			return models.get(name);
+		}
+
+		public boolean addOrRefreshModel(String name, InputStream inputStream) {
+			return false;
+		}
+
+		public boolean removeModel(String name) {
+			return models.remove(name) != null;
+		}
+
+		public Iterable<String> getAllModelNamesOfType(String modelType) {
+			List<String> names = new ArrayList<String>();
+			for (String name : models.keySet()) {
+				if (name.endsWith("." + modelType)) {
+					names.add(name);
+				}
+			}
+			return names;
+		}
+
+		public void addModelRepositoryChangeListener(ModelRepositoryChangeListener listener) {
+		}
+
+		public void removeModelRepositoryChangeListener(ModelRepositoryChangeListener listener) {
+		}
+	}
+
+	private static class TestItemFactory implements ItemFactory {
+
+		public GenericItem createItem(String itemTypeName, String itemName) {
+			if ("Switch".equals(itemTypeName)) {
+				return new SwitchItem(itemName);
+			} else if ("Number".equals(itemTypeName)) {
+				return new NumberItem(itemName);
+			}
+			return null;
+		}
+
+		public String[] getSupportedItemTypes() {
+			return new String[] { "Switch", "Number" };
+		}
+	}
+
+	private static class RecordingListener implements ItemsChangeListener {
+
+		protected List<String> events = new ArrayList<String>();
+
+		public void allItemsChanged(ItemProvider provider, Collection<String> oldItemNames) {
+			events.add("all");
+		}
+
+		public void itemAdded(ItemProvider provider, Item item) {
+			events.add("added " + System.identityHashCode(item));
+		}
+
+		public void itemRemoved(ItemProvider provider, Item item) {
+			events.add("removed " + System.identityHashCode(item));
+		}
+	}
+
+	private static class RecordingUpdateListener extends RecordingListener implements ItemsUpdateListener {
+
+		public void itemUpdated(ItemProvider provider, Item oldItem, Item item) {
+			events.add("updated " + System.identityHashCode(oldItem) + " " + System.identityHashCode(item));
+		}
+	}
+
+}
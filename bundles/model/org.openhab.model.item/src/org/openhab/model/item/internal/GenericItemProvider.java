@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +24,7 @@ import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemFactory;
 import org.openhab.core.items.ItemProvider;
 import org.openhab.core.items.ItemsChangeListener;
+import org.openhab.core.items.ItemsUpdateListener;
 import org.openhab.core.library.types.ArithmeticGroupFunction;
 import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
@@ -63,6 +65,9 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	
 	private Collection<ItemFactory> itemFactorys = new ArrayList<ItemFactory>();
 	
+	/** the items created per model, so that unchanged items survive a reload of their model */
+	private Map<String, Map<String, ItemEntry>> itemsPerModel = new HashMap<String, Map<String, ItemEntry>>();
+	
 	
 	public GenericItemProvider() {
 		// make sure that the DSL is correctly registered with EMF before we
@@ -89,6 +94,26 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	public void addItemFactory(ItemFactory factory) {
 		itemFactorys.add(factory);
 		dispatchBindingsPerItemType(null, factory.getSupportedItemTypes());
+		
+		// items which could not be created before might be supported now
+		List<Item> addedItems = new ArrayList<Item>();
+		synchronized (itemsPerModel) {
+			for (Map<String, ItemEntry> entries : itemsPerModel.values()) {
+				for (ItemEntry entry : entries.values()) {
+					if (entry.item == null) {
+						entry.item = createItem(entry.modelItem);
+						if (entry.item != null) {
+							addedItems.add(entry.item);
+						}
+					}
+				}
+			}
+		}
+		for (Item item : addedItems) {
+			for (ItemsChangeListener listener : listeners) {
+				listener.itemAdded(this, item);
+			}
+		}
 	}
 	
 	/**
@@ -124,52 +149,96 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	public Collection<Item> getItems() {
 		List<Item> items = new ArrayList<Item>();
 		for (String name : modelRepository.getAllModelNamesOfType("items")) {
-			items.addAll(getItemsFromModel(name));
+			for (ItemEntry entry : getItemEntries(name).values()) {
+				if (entry.item != null) {
+					items.add(entry.item);
+				}
+			}
 		}
 		return items;
 	}
 	
-	private Collection<Item> getItemsFromModel(String modelName) {
+	/**
+	 * Returns the items of the given model. Items are only created once per
+	 * model and are reused until the model changes.
+	 */
+	private Map<String, ItemEntry> getItemEntries(String modelName) {
+		synchronized (itemsPerModel) {
+			Map<String, ItemEntry> entries = itemsPerModel.get(modelName);
+			if (entries == null) {
+				entries = createItemEntries(modelName, new HashMap<String, ItemEntry>());
+				itemsPerModel.put(modelName, entries);
+			}
+			return entries;
+		}
+	}
+	
+	/**
+	 * Creates the items of the given model. Items whose definition did not change
+	 * compared to {@code oldEntries} are taken over instead of being recreated.
+	 */
+	private Map<String, ItemEntry> createItemEntries(String modelName, Map<String, ItemEntry> oldEntries) {
 		logger.debug("Read items from model '{}'", modelName);
 		
-		List<Item> items = new ArrayList<Item>();
+		Map<String, ItemEntry> entries = new LinkedHashMap<String, ItemEntry>();
 		if (modelRepository != null) {
 			ItemModel model = (ItemModel) modelRepository.getModel(modelName);
 			if (model != null) {
 				for(ModelItem modelItem : model.getItems()) {
-					Item item = createItemFromModelItem(modelItem);
-					if (item != null) {
-						for (String groupName : modelItem.getGroups()) {
-							item.getGroupNames().add(groupName);
-						}
-						items.add(item);
+					String signature = getSignature(modelItem);
+					ItemEntry oldEntry = oldEntries.get(modelItem.getName());
+					if (oldEntry != null && oldEntry.item != null && oldEntry.signature.equals(signature)) {
+						entries.put(modelItem.getName(), new ItemEntry(modelItem, signature, oldEntry.item));
+					} else {
+						entries.put(modelItem.getName(), new ItemEntry(modelItem, signature, createItem(modelItem)));
 					}
 				}
 			}
 		}
-		return items;
+		return entries;
+	}
+	
+	private Item createItem(ModelItem modelItem) {
+		Item item = createItemFromModelItem(modelItem);
+		if (item != null) {
+			for (String groupName : modelItem.getGroups()) {
+				item.getGroupNames().add(groupName);
+			}
+		}
+		return item;
+	}
+	
+	/**
+	 * Builds a string of everything that makes up an item instance, i.e. its type, 
+	 * group function, group memberships and bindings. Label and icon are not part 
+	 * of it as they are read from the model directly.
+	 */
+	private String getSignature(ModelItem modelItem) {
+		StringBuilder signature = new StringBuilder();
+		signature.append(modelItem.getClass().getSimpleName()).append('|').append(modelItem.getType());
+		if (modelItem instanceof ModelGroupItem) {
+			ModelGroupItem modelGroupItem = (ModelGroupItem) modelItem;
+			signature.append('|').append(modelGroupItem.getFunction()).append(modelGroupItem.getArgs());
+		}
+		signature.append('|').append(modelItem.getGroups());
+		for (ModelBinding binding : modelItem.getBindings()) {
+			signature.append('|').append(binding.getType()).append('=').append(binding.getConfiguration());
+		}
+		return signature.toString();
 	}
 
-	private void processBindingConfigsFromModel(String modelName) {
+	private void processBindingConfigsFromModel(String modelName, Map<String, ItemEntry> entries) {
 		logger.debug("Processing binding configs for items from model '{}'", modelName);
 		
-		if (modelRepository != null) {
-			ItemModel model = (ItemModel) modelRepository.getModel(modelName);
-			if (model == null) {
-				return;
-			}
-
-			// clear the old binding configuration
-			for (BindingConfigReader reader : bindingConfigReaders.values()) {
-				reader.removeConfigurations(modelName);
-			}
+		// clear the old binding configuration
+		for (BindingConfigReader reader : bindingConfigReaders.values()) {
+			reader.removeConfigurations(modelName);
+		}
 
-			// create items and read new binding configuration
-			for (ModelItem modelItem : model.getItems()) {
-				Item item = createItemFromModelItem(modelItem);
-				if (item != null) {
-					internalDispatchBindings(modelName, item, modelItem.getBindings());
-				}
+		// read new binding configuration
+		for (ItemEntry entry : entries.values()) {
+			if (entry.item != null) {
+				internalDispatchBindings(modelName, entry.item, entry.modelItem.getBindings());
 			}
 		}
 	}
@@ -380,17 +449,68 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * Dispatches all binding configs and
-	 * fires all {@link ItemsChangeListener}s if {@code modelName} ends with "items".
+	 * Dispatches all binding configs and notifies all {@link ItemsChangeListener}s 
+	 * about the items that have been added, removed or changed if {@code modelName}
+	 * ends with "items". Items which did not change keep their instance and state.
 	 */
 	@Override
 	public void modelChanged(String modelName, EventType type) {
 		if (modelName.endsWith("items")) {
+			
+			Map<String, ItemEntry> oldEntries;
+			Map<String, ItemEntry> newEntries;
+			synchronized (itemsPerModel) {
+				oldEntries = itemsPerModel.remove(modelName);
+				if (oldEntries == null) {
+					oldEntries = new HashMap<String, ItemEntry>();
+				}
+				if (type == EventType.REMOVED) {
+					newEntries = new HashMap<String, ItemEntry>();
+				} else {
+					newEntries = createItemEntries(modelName, oldEntries);
+					itemsPerModel.put(modelName, newEntries);
+				}
+			}
 
-			processBindingConfigsFromModel(modelName);
+			processBindingConfigsFromModel(modelName, newEntries);
+			
+			List<Item> addedItems = new ArrayList<Item>();
+			List<Item> removedItems = new ArrayList<Item>();
+			Map<Item, Item> updatedItems = new LinkedHashMap<Item, Item>();
+			for (ItemEntry oldEntry : oldEntries.values()) {
+				if (oldEntry.item != null) {
+					ItemEntry newEntry = newEntries.get(oldEntry.modelItem.getName());
+					if (newEntry == null || newEntry.item == null) {
+						removedItems.add(oldEntry.item);
+					} else if (newEntry.item != oldEntry.item) {
+						updatedItems.put(oldEntry.item, newEntry.item);
+					}
+				}
+			}
+			for (ItemEntry newEntry : newEntries.values()) {
+				ItemEntry oldEntry = oldEntries.get(newEntry.modelItem.getName());
+				if (newEntry.item != null && (oldEntry == null || oldEntry.item == null)) {
+					addedItems.add(newEntry.item);
+				}
+			}
+			logger.debug("Model '{}' changed: {} items added, {} removed, {} updated", 
+				new Object[] { modelName, addedItems.size(), removedItems.size(), updatedItems.size() });
 			
 			for (ItemsChangeListener listener : listeners) {
-			 	listener.allItemsChanged(this, null);
+				for (Item item : removedItems) {
+					listener.itemRemoved(this, item);
+				}
+				for (Map.Entry<Item, Item> update : updatedItems.entrySet()) {
+					if (listener instanceof ItemsUpdateListener) {
+						((ItemsUpdateListener) listener).itemUpdated(this, update.getKey(), update.getValue());
+					} else {
+						listener.itemRemoved(this, update.getKey());
+						listener.itemAdded(this, update.getValue());
+					}
+				}
+				for (Item item : addedItems) {
+					listener.itemAdded(this, item);
+				}
 			}
 		}
 	}
@@ -420,4 +540,23 @@ public class GenericItemProvider implements ItemProvider, ModelRepositoryChangeL
 		return null;
 	}
 
+	/**
+	 * An item together with the model definition it has been created from.
+	 */
+	private static class ItemEntry {
+		
+		private final ModelItem modelItem;
+		
+		private final String signature;
+		
+		/** the created item or null, if no {@link ItemFactory} supports its type (yet) */
+		private Item item;
+		
+		private ItemEntry(ModelItem modelItem, String signature, Item item) {
+			this.modelItem = modelItem;
+			this.signature = signature;
+			this.item = item;
+		}
+	}
+
 }
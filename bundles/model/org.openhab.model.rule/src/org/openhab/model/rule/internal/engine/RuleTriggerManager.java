@@ -26,6 +26,7 @@ import java.util.Set;
 
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.openhab.core.items.Item;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.Type;
@@ -46,7 +47,6 @@ import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -91,7 +91,7 @@ public class RuleTriggerManager {
 	
 	public RuleTriggerManager() {
 		 try {
-			scheduler = StdSchedulerFactory.getDefaultScheduler();
+			scheduler = NamedSchedulerFactory.getScheduler(NamedSchedulerFactory.RULES);
 		} catch (SchedulerException e) {
             logger.error("initializing scheduler throws exception", e);
 		}
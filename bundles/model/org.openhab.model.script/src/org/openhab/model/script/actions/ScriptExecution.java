@@ -8,9 +8,6 @@
  */
 package org.openhab.model.script.actions;
 
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.TriggerBuilder.newTrigger;
-
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.xtext.xbase.XExpression;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure0;
@@ -21,15 +18,7 @@ import org.openhab.core.scriptengine.ScriptEngine;
 import org.openhab.core.scriptengine.ScriptExecutionException;
 import org.openhab.model.core.ModelRepository;
 import org.openhab.model.script.internal.ScriptActivator;
-import org.openhab.model.script.internal.actions.TimerExecutionJob;
 import org.openhab.model.script.internal.actions.TimerImpl;
-import org.quartz.JobDataMap;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * The static methods of this class are made available as functions in the scripts.
@@ -42,8 +31,6 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings("restriction")
 public class ScriptExecution {
 
-	private static final Logger logger = LoggerFactory.getLogger(ScriptExecution.class);
-
 	/**
 	 * Calls a script which must be located in the configurations/scripts folder.
 	 * 
@@ -86,10 +73,12 @@ public class ScriptExecution {
 	 * @return a handle to the created timer, so that it can be canceled or rescheduled
 	 * @throws ScriptExecutionException if an error occurs during the execution
 	 */
-	public static Timer createTimer(AbstractInstant instant, Procedure0 closure) {
-		JobDataMap dataMap = new JobDataMap();
-		dataMap.put("procedure", closure);
-		return makeTimer(instant, closure.toString(), dataMap);
+	public static Timer createTimer(AbstractInstant instant, final Procedure0 closure) {
+		return makeTimer(instant, closure.toString(), new Runnable() {
+			public void run() {
+				closure.apply();
+			}
+		});
 	}
 	
 	/**
@@ -102,37 +91,28 @@ public class ScriptExecution {
 	 * @return a handle to the created timer, so that it can be canceled or rescheduled
 	 * @throws ScriptExecutionException if an error occurs during the execution
 	 */
-	public static Timer createTimerWithArgument(AbstractInstant instant, Object arg1, Procedure1<Object> closure) {
-		JobDataMap dataMap = new JobDataMap();
-		dataMap.put("procedure1", closure);
-		dataMap.put("argument1", arg1);
-		return makeTimer(instant, closure.toString(), dataMap);
+	public static Timer createTimerWithArgument(AbstractInstant instant, final Object arg1, final Procedure1<Object> closure) {
+		return makeTimer(instant, closure.toString(), new Runnable() {
+			public void run() {
+				closure.apply(arg1);
+			}
+		});
 	}
 	
 	/**
 	 * helper function to create the timer
 	 * @param instant the point in time when the code should be executed
-	 * @param closure string for job id
-	 * @param dataMap job data map, preconfigured with arguments
+	 * @param closure string for the timer name
+	 * @param code the code to execute, calling the closure with its arguments
 	 * @return
 	 */
 	
-	private static Timer makeTimer(AbstractInstant instant, String closure, JobDataMap dataMap) {
-		JobKey jobKey = new JobKey(instant.toString() + ": " + closure.toString());
-        Trigger trigger = newTrigger().startAt(instant.toDate()).build();
-		Timer timer = new TimerImpl(jobKey, trigger.getKey(), instant);
-		dataMap.put("timer", timer);
-		try {
-	        JobDetail job = newJob(TimerExecutionJob.class)
-	            .withIdentity(jobKey)
-	            .usingJobData(dataMap)
-	            .build();	
-	        TimerImpl.scheduler.scheduleJob(job, trigger);
-			logger.debug("Scheduled code for execution at {}", instant.toString());
+	private static Timer makeTimer(AbstractInstant instant, String closure, Runnable code) {
+		TimerImpl timer = new TimerImpl(instant.toString() + ": " + closure, code);
+		if(timer.schedule(instant)) {
 			return timer;
-		} catch(SchedulerException e) {
-			logger.error("Failed to schedule code for execution.", e);
+		} else {
 			return null;
-		}		
+		}
 	}
 }
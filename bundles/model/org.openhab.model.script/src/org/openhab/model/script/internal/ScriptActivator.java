@@ -13,6 +13,7 @@ import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.scriptengine.ScriptEngine;
 import org.openhab.core.scriptengine.action.ActionService;
 import org.openhab.model.core.ModelRepository;
+import org.openhab.model.script.internal.actions.TimerImpl;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.util.tracker.ServiceTracker;
@@ -49,12 +50,16 @@ public class ScriptActivator implements BundleActivator {
 
 		scriptEngineTracker = new ServiceTracker<ScriptEngine, ScriptEngine>(bc, ScriptEngine.class, null);
 		scriptEngineTracker.open();
+		
+		TimerImpl.startWheel();
 	}
 
 	/**
 	 * Called whenever the OSGi framework stops our bundle
 	 */
 	public void stop(BundleContext bc) throws Exception {
+		TimerImpl.stopWheel();
+		
 		itemRegistryTracker.close();
 		eventPublisherTracker.close();
 		modelRepositoryTracker.close();
@@ -8,103 +8,133 @@
  */
 package org.openhab.model.script.internal.actions;
 
-import static org.quartz.TriggerBuilder.newTrigger;
+import java.util.concurrent.TimeUnit;
 
-import org.joda.time.DateTime;
 import org.joda.time.base.AbstractInstant;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
+import org.openhab.core.scheduler.TimerWheel;
+import org.openhab.core.scheduler.TimerWheel.Timeout;
 import org.openhab.model.script.actions.Timer;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.TriggerKey;
-import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This is an implementation of the {@link Timer} interface using the Quartz
- * library for scheduling.
- * 
+ * This is an implementation of the {@link Timer} interface using a
+ * {@link TimerWheel} for scheduling. Scheduling, cancelling and rescheduling
+ * are O(1) operations and the timer code is executed by the dedicated threads
+ * of the wheel, so that it cannot delay other scheduled jobs.
+ *
  * @author Kai Kreuzer
  * @since 1.0.0
  *
  */
-public class TimerImpl implements Timer {
+public class TimerImpl implements Timer, Runnable {
 
 	private static final Logger logger = LoggerFactory.getLogger(TimerImpl.class);
 
-	// the scheduler used for timer events
-	public static Scheduler scheduler;
+	/** the default number of threads executing the code of expired timers */
+	public static final int DEFAULT_THREADS = 5;
+
+	// the timer wheel used for timer events
+	public static TimerWheel wheel;
+
+	private final String name;
+	private final Runnable code;
+
+	private Timeout timeout;
+	private volatile boolean cancelled = false;
+	private volatile boolean running = false;
+	private volatile boolean terminated = false;
 
-	static {
-		 try {
-			scheduler = StdSchedulerFactory.getDefaultScheduler();
-		} catch (SchedulerException e) {
-	     logger.error("initializing scheduler throws exception", e);
+	/**
+	 * Creates a new timer, which is not scheduled yet.
+	 *
+	 * @param name the name of the timer, used for logging
+	 * @param code the code to execute when the timer expires
+	 */
+	public TimerImpl(String name, Runnable code) {
+		this.name = name;
+		this.code = code;
+	}
+
+	/**
+	 * Starts the timer wheel for script timers.
+	 */
+	public static synchronized void startWheel() {
+		if(wheel==null) {
+			wheel = new TimerWheel(NamedSchedulerFactory.SCRIPT_TIMERS, 
+					NamedSchedulerFactory.getThreadCount(NamedSchedulerFactory.SCRIPT_TIMERS, DEFAULT_THREADS));
 		}
 	}
-	
-	private JobKey jobKey;
-	private TriggerKey triggerKey;
-	private AbstractInstant startTime;
-
-	private boolean cancelled = false;
-	private boolean terminated = false;
-	
-	public TimerImpl(JobKey jobKey, TriggerKey triggerKey, AbstractInstant startTime) {
-		this.jobKey = jobKey;
-		this.triggerKey = triggerKey;
-		this.startTime = startTime;
+
+	/**
+	 * Stops the timer wheel for script timers, all pending timers are discarded.
+	 */
+	public static synchronized void stopWheel() {
+		if(wheel!=null) {
+			wheel.shutdown();
+			wheel = null;
+		}
 	}
-	
-	public boolean cancel() {
-		try {
-			boolean result = scheduler.deleteJob(jobKey);
-			if(result) {
-				cancelled = true;
-			}
-		} catch (SchedulerException e) {
-			logger.warn("An error occured while cancelling the job '{}': {}", new String[] { jobKey.toString(), e.getMessage() });
+
+	/**
+	 * Schedules the code of this timer for execution at the given point in time.
+	 *
+	 * @param instant the point in time when the code should be executed
+	 * @return true, if the timer has been scheduled
+	 */
+	public synchronized boolean schedule(AbstractInstant instant) {
+		TimerWheel currentWheel = wheel;
+		if(currentWheel==null) {
+			logger.error("Failed to schedule code for execution, the timer service is not running.");
+			return false;
+		}
+		if(timeout!=null) {
+			timeout.cancel();
+		}
+		long delay = instant.getMillis() - System.currentTimeMillis();
+		timeout = currentWheel.schedule(this, delay, TimeUnit.MILLISECONDS);
+		logger.debug("Scheduled code for execution at {}", instant.toString());
+		return true;
+	}
+
+	public synchronized boolean cancel() {
+		if(timeout!=null && timeout.cancel()) {
+			cancelled = true;
 		}
 		return cancelled;
 	}
-	
+
 	public boolean reschedule(AbstractInstant newTime) {
-		try {
-	        Trigger trigger = newTrigger().startAt(newTime.toDate()).build();
-			scheduler.rescheduleJob(triggerKey, trigger);
-			this.triggerKey = trigger.getKey();
+		if(schedule(newTime)) {
 			this.cancelled = false;
 			this.terminated = false;
 			return true;
-		} catch (SchedulerException e) {
-			logger.warn("An error occured while rescheduling the job '{}': {}", new String[] { jobKey.toString(), e.getMessage() });
-			return false;
 		}
+		return false;
 	}
-	
+
 	public boolean isRunning() {
-		try {
-			for(JobExecutionContext context : scheduler.getCurrentlyExecutingJobs()) {
-				if(context.getJobDetail().getKey().equals(jobKey)) {
-					return true;
-				}
-			}
-			return false;
-		} catch (SchedulerException e) {
-			// fallback implementation
-			logger.debug("An error occured getting currently running jobs: {}", e.getMessage());
-			return DateTime.now().isAfter(startTime) && !terminated;
-		}
+		return running;
 	}
 
 	public boolean hasTerminated() {
 		return terminated;
 	}
-	
-	public void setTerminated(boolean terminated) {
-		this.terminated = terminated;
+
+	/**
+	 * Executes the code of this timer; called by the timer wheel.
+	 */
+	public void run() {
+		logger.debug("Executing timer '{}'", name);
+		running = true;
+		try {
+			code.run();
+		} catch (Exception e) {
+			logger.error("Error during the execution of timer '" + name + "': " + e.getMessage(), e);
+		} finally {
+			running = false;
+			terminated = true;
+		}
 	}
 }
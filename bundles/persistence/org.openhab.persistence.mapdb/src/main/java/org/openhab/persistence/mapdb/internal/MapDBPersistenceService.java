@@ -34,6 +34,7 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
+import org.openhab.core.scheduler.NamedSchedulerFactory;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.osgi.framework.BundleContext;
@@ -46,7 +47,6 @@ import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.SimpleTrigger;
-import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -183,7 +183,7 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
 	 */
 	private void scheduleJob() {
 		try {
-			Scheduler sched = StdSchedulerFactory.getDefaultScheduler();
+			Scheduler sched = NamedSchedulerFactory.getScheduler(NamedSchedulerFactory.PERSISTENCE_SERVICES);
 
 			// schedule commit-job
 			JobDetail job = newJob(CommitJob.class).withIdentity(
@@ -208,7 +208,7 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
 	 */
 	private void cancelAllJobs() {
 		try {
-			Scheduler sched = StdSchedulerFactory.getDefaultScheduler();
+			Scheduler sched = NamedSchedulerFactory.getScheduler(NamedSchedulerFactory.PERSISTENCE_SERVICES);
 			Set<JobKey> jobKeys = sched
 					.getJobKeys(jobGroupEquals(SCHEDULER_GROUP));
 			if (jobKeys.size() > 0) {
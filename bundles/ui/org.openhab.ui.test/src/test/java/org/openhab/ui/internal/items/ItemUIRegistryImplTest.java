@@ -284,6 +284,33 @@ public class ItemUIRegistryImplTest {
 		assertEquals("Label [State]", label);
 	}
 	
+	@Test
+	public void getLabel_labelWithTextAfterValue() throws ItemNotFoundException {
+		String testLabel = "Label [%s] more text";
+		Widget w = mock(Widget.class);
+		Item item = mock(Item.class);
+		when(w.getLabel()).thenReturn(testLabel);
+		when(w.getItem()).thenReturn("Item");
+		when(registry.getItem("Item")).thenReturn(item);
+		when(item.getState()).thenReturn(OnOffType.ON);
+		assertEquals("Label [ON] more text", uiRegistry.getLabel(w));
+		when(item.getState()).thenReturn(OnOffType.OFF);
+		assertEquals("Label [OFF] more text", uiRegistry.getLabel(w));
+	}
+
+	@Test
+	public void getLabel_labelWithFunctionValueForUndefinedState() throws ItemNotFoundException {
+		String testLabel = "Label [MAP(de.map):%.1f]";
+		Widget w = mock(Widget.class);
+		Item item = mock(Item.class);
+		when(w.getLabel()).thenReturn(testLabel);
+		when(w.getItem()).thenReturn("Item");
+		when(registry.getItem("Item")).thenReturn(item);
+		when(item.getState()).thenReturn(UnDefType.UNDEF);
+		String label = uiRegistry.getLabel(w);
+		assertEquals("Label [-]", label);
+	}
+
 	@Test
 	public void getLabel_groupLabelWithValue() throws ItemNotFoundException {
 		String testLabel = "Label [%d]";
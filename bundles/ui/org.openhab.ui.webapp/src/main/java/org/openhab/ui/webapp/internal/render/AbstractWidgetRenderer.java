@@ -12,8 +12,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.Enumeration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -50,11 +51,22 @@ abstract public class AbstractWidgetRenderer implements WidgetRenderer {
 	/* the snippet location inside this bundle */
 	protected static final String SNIPPET_LOCATION = "snippets/";
 
-	/* a local cache so we do not have to read the snippets over and over again from the bundle */
-	protected static final Map<String, String> snippetCache = new HashMap<String, String>();
+	/* a local cache so we do not have to read and parse the snippets over and over again from the bundle */
+	protected static final Map<String, Snippet> snippetCache = new ConcurrentHashMap<String, Snippet>();
 	
 	protected boolean useSnippetCache = true;
 
+	/* the script which makes the page refresh images, used with the refresh attribute */
+	protected static final String SET_REFRESH = "<script type=\"text/javascript\">imagesToRefreshOnPage=1</script>";
+
+	private static final String VALUE_START = "<span style=\"";
+
+	private static final String VALUE_START_END = "\">";
+
+	private static final String VALUE_STYLE = "%valuestyle%";
+
+	private static final String VALUE_END = "</span>";
+
 	public void setItemUIRegistry(ItemUIRegistry itemUIRegistry) {
 		this.itemUIRegistry = itemUIRegistry;
 	}
@@ -69,6 +81,9 @@ abstract public class AbstractWidgetRenderer implements WidgetRenderer {
 
 	protected void activate(ComponentContext context) {
 		useSnippetCache = !Boolean.valueOf(System.getProperty("disableHtmlCache", "false"));
+		if (useSnippetCache) {
+			loadSnippets();
+		}
 	}
 
 	protected void deactivate(ComponentContext context) {
@@ -81,20 +96,28 @@ abstract public class AbstractWidgetRenderer implements WidgetRenderer {
 	 * @return the html snippet to be used in the UI (including placeholders for variables)
 	 * @throws RenderException if snippet could not be read 
 	 */
-	protected synchronized String getSnippet(String elementType) throws RenderException {
+	protected String getSnippet(String elementType) throws RenderException {
+		Snippet snippet = getCompiledSnippet(elementType);
+		return snippet != null ? snippet.getText() : null;
+	}
+
+	/**
+	 * This method provides the parsed html snippet for a given elementType of the sitemap model.
+	 * 
+	 * @param elementType the name of the model type (e.g. "Group" or "Switch")
+	 * @return the parsed html snippet or <code>null</code>, if it could not be read
+	 * @throws RenderException if there is no snippet for the element type 
+	 */
+	protected Snippet getCompiledSnippet(String elementType) throws RenderException {
 		elementType = elementType.toLowerCase();
-		String snippet = snippetCache.get(elementType);
+		Snippet snippet = snippetCache.get(elementType);
 		if(snippet==null) {
 			String snippetLocation = SNIPPET_LOCATION + elementType + SNIPPET_EXT;
 			URL entry = WebAppActivator.getContext().getBundle().getEntry(snippetLocation);
 			if(entry!=null) {
-				try {
-					snippet = IOUtils.toString(entry.openStream());
-					if (useSnippetCache) {
-						snippetCache.put(elementType, snippet);	
-					}
-				} catch (IOException e) {
-					logger.warn("Cannot load snippet for element type '{}'", elementType, e);
+				snippet = loadSnippet(elementType, entry);
+				if (snippet != null && useSnippetCache) {
+					snippetCache.put(elementType, snippet);	
 				}
 			} else {
 				throw new RenderException("Cannot find a snippet for element type '" + elementType + "'");
@@ -102,6 +125,48 @@ abstract public class AbstractWidgetRenderer implements WidgetRenderer {
 		}
 		return snippet;
 	}
+
+	/**
+	 * Reads and parses all snippets of this bundle, so that they are ready when
+	 * the first page is rendered.
+	 */
+	private void loadSnippets() {
+		if (!snippetCache.isEmpty() || WebAppActivator.getContext() == null) {
+			return;
+		}
+		Enumeration<?> entries = WebAppActivator.getContext().getBundle().findEntries(SNIPPET_LOCATION, "*" + SNIPPET_EXT, false);
+		while (entries != null && entries.hasMoreElements()) {
+			URL entry = (URL) entries.nextElement();
+			String fileName = entry.getPath().substring(entry.getPath().lastIndexOf('/') + 1);
+			String elementType = fileName.substring(0, fileName.length() - SNIPPET_EXT.length());
+			Snippet snippet = loadSnippet(elementType, entry);
+			if (snippet != null) {
+				snippetCache.put(elementType, snippet);
+			}
+		}
+		logger.debug("Loaded {} html snippets", snippetCache.size());
+	}
+
+	private Snippet loadSnippet(String elementType, URL entry) {
+		try {
+			return new Snippet(elementType, IOUtils.toString(entry.openStream()));
+		} catch (IOException e) {
+			logger.warn("Cannot load snippet for element type '{}'", elementType, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Defines, whether the html code of a widget may be reused as long as the states
+	 * of the items it refers to do not change. Renderers which produce different code
+	 * on each request (e.g. with a timestamp) must return false.
+	 * 
+	 * @param w the widget
+	 * @return true, if the rendered html code may be cached
+	 */
+	public boolean isCacheable(Widget w) {
+		return useSnippetCache;
+	}
  
 	/**
 	 * Retrieves the label for a widget and formats it for the WebApp.Net framework
@@ -110,13 +175,48 @@ abstract public class AbstractWidgetRenderer implements WidgetRenderer {
 	 * @return the label to use for the widget
 	 */
 	public String getLabel(Widget w) {
+		return getLabel(w, VALUE_STYLE);
+	}
+
+	/**
+	 * Retrieves the label for a widget and formats it for the WebApp.Net framework
+	 * 
+	 * @param w the widget to retrieve the label for
+	 * @param valueStyle the style of the value span
+	 * @return the label to use for the widget
+	 */
+	protected String getLabel(Widget w, String valueStyle) {
 
 		String label = itemUIRegistry.getLabel(w);
 		
 		// insert the span between the left and right side of the label, if state section exists 
-		label = label.replaceAll("\\[", "<span style=\"%valuestyle%\">").replaceAll("\\]", "</span>");
+		if (label.indexOf('[') < 0 && label.indexOf(']') < 0) {
+			return label;
+		}
+		StringBuilder sb = new StringBuilder(label.length() + valueStyle.length() + VALUE_START.length() + VALUE_END.length());
+		for (int i = 0; i < label.length(); i++) {
+			char c = label.charAt(i);
+			if (c == '[') {
+				sb.append(VALUE_START).append(valueStyle).append(VALUE_START_END);
+			} else if (c == ']') {
+				sb.append(VALUE_END);
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
 
-		return label;
+	/**
+	 * Creates the attributes of an image which reloads itself periodically.
+	 * 
+	 * @param id the id of the widget
+	 * @param url the url of the image
+	 * @param refresh the refresh interval in milliseconds
+	 * @return the attributes to insert into the img tag
+	 */
+	protected String getRefreshAttribute(String id, String url, int refresh) {
+		return "id=\"" + id + "\" onload=\"setTimeout('reloadImage(\\'" + url + "\\', \\'" + id + "\\')', " + refresh + ")\"";
 	}
 
 	/**
@@ -145,18 +245,27 @@ abstract public class AbstractWidgetRenderer implements WidgetRenderer {
 	 * @return The updated snippet
 	 */
 	protected String processColor(Widget w, String snippet) {
-		String style = "";
-		String color = itemUIRegistry.getLabelColor(w);
-		if(color != null)
-			style = "color:"+ color;
-		snippet = StringUtils.replace(snippet, "%labelstyle%", style);
-
-		style = "";
-		color = itemUIRegistry.getValueColor(w);
-		if(color != null)
-			style = "color:"+ color;
-		snippet = StringUtils.replace(snippet, "%valuestyle%", style);
+		snippet = StringUtils.replace(snippet, "%labelstyle%", getLabelStyle(w));
+		snippet = StringUtils.replace(snippet, "%valuestyle%", getValueStyle(w));
 		
 		return snippet;
 	}
+
+	/**
+	 * @param w the widget
+	 * @return the style for the labelcolor of the widget, an empty string if there is none
+	 */
+	protected String getLabelStyle(Widget w) {
+		String color = itemUIRegistry.getLabelColor(w);
+		return color != null ? "color:" + color : "";
+	}
+
+	/**
+	 * @param w the widget
+	 * @return the style for the valuecolor of the widget, an empty string if there is none
+	 */
+	protected String getValueStyle(Widget w) {
+		String color = itemUIRegistry.getValueColor(w);
+		return color != null ? "color:" + color : "";
+	}
 }
@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -58,21 +57,21 @@ public class ChartRenderer extends AbstractWidgetRenderer {
 			if(chart.getService() != null)
 				url += "&service=" + chart.getService();
 			
-			String snippet = getSnippet("image");			
+			Snippet snippet = getCompiledSnippet("image");			
 
+			String widgetId = itemUIRegistry.getWidgetId(w);
+			String setRefresh = "";
+			String refresh = "";
 			if(chart.getRefresh()>0) {
-				snippet = StringUtils.replace(snippet, "%setrefresh%", "<script type=\"text/javascript\">imagesToRefreshOnPage=1</script>");
-				snippet = StringUtils.replace(snippet, "%refresh%", "id=\"%id%\" onload=\"setTimeout('reloadImage(\\'%url%\\', \\'%id%\\')', " + chart.getRefresh() + ")\"");
-			} else {
-				snippet = StringUtils.replace(snippet, "%setrefresh%", "");
-				snippet = StringUtils.replace(snippet, "%refresh%", "");
+				setRefresh = SET_REFRESH;
+				refresh = getRefreshAttribute(widgetId, url, chart.getRefresh());
 			}
 
-			snippet = StringUtils.replace(snippet, "%id%", itemUIRegistry.getWidgetId(w));
-			snippet = StringUtils.replace(snippet, "%url%", url);
-			snippet = StringUtils.replace(snippet, "%refresh%", Integer.toString(chart.getRefresh()));
-			
-			sb.append(snippet);
+			snippet.render(sb,
+				"setrefresh", setRefresh,
+				"refresh", refresh,
+				"id", widgetId,
+				"url", url);
 		} catch (ItemNotFoundException e) {
 			logger.warn("Chart cannot be rendered as item '{}' does not exist.", chart.getItem());
 		}
@@ -9,7 +9,6 @@
 package org.openhab.ui.webapp.internal.render;
 
 import org.apache.commons.lang.StringEscapeUtils;
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Frame;
 import org.openhab.model.sitemap.Widget;
@@ -36,14 +35,11 @@ public class FrameRenderer extends AbstractWidgetRenderer {
 	 * {@inheritDoc}
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
-		String snippet = getSnippet("frame");
-
-		snippet = StringUtils.replace(snippet, "%label%", StringEscapeUtils.escapeHtml(getLabel(w)));
-
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		String valueStyle = getValueStyle(w);
+		getCompiledSnippet("frame").render(sb,
+			"label", StringEscapeUtils.escapeHtml(getLabel(w, valueStyle)),
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return ((Frame)w).getChildren();
 	}
 }
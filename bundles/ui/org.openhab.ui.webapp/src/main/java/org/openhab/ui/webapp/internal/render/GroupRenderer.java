@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Group;
 import org.openhab.model.sitemap.Widget;
@@ -36,16 +35,13 @@ public class GroupRenderer extends AbstractWidgetRenderer {
 	 * {@inheritDoc}
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
-		String snippet = getSnippet("group");
-
-		snippet = StringUtils.replace(snippet, "%id%", itemUIRegistry.getWidgetId(w));
-		snippet = StringUtils.replace(snippet, "%icon%", escapeURLPath(itemUIRegistry.getIcon(w)));
-		snippet = StringUtils.replace(snippet, "%label%", getLabel(w));
-
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		String valueStyle = getValueStyle(w);
+		getCompiledSnippet("group").render(sb,
+			"id", itemUIRegistry.getWidgetId(w),
+			"icon", escapeURLPath(itemUIRegistry.getIcon(w)),
+			"label", getLabel(w, valueStyle),
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
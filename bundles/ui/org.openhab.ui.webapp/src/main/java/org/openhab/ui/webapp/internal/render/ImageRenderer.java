@@ -10,7 +10,6 @@ package org.openhab.ui.webapp.internal.render;
 
 import java.util.Date;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Image;
 import org.openhab.model.sitemap.Widget;
@@ -39,26 +38,33 @@ public class ImageRenderer extends AbstractWidgetRenderer {
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
 		Image image = (Image) w;
-		String snippet = (image.getChildren().size() > 0) ? 
-				getSnippet("image_link") : getSnippet("image");			
+		Snippet snippet = (image.getChildren().size() > 0) ? 
+				getCompiledSnippet("image_link") : getCompiledSnippet("image");			
 
-		if(image.getRefresh()>0) {
-			snippet = StringUtils.replace(snippet, "%setrefresh%", "<script type=\"text/javascript\">imagesToRefreshOnPage=1</script>");
-			snippet = StringUtils.replace(snippet, "%refresh%", "id=\"%id%\" onload=\"setTimeout('reloadImage(\\'%url%\\', \\'%id%\\')', " + image.getRefresh() + ")\"");
-		} else {
-			snippet = StringUtils.replace(snippet, "%setrefresh%", "");
-			snippet = StringUtils.replace(snippet, "%refresh%", "");
-		}
-		
 		String widgetId = itemUIRegistry.getWidgetId(w);
-		snippet = StringUtils.replace(snippet, "%id%", widgetId);
-		
 		String sitemap = w.eResource().getURI().path();
-		
 		String url = "proxy?sitemap=" + sitemap + "&widgetId=" + widgetId + "&t=" + (new Date()).getTime();
-		snippet = StringUtils.replace(snippet, "%url%", url);
+
+		String setRefresh = "";
+		String refresh = "";
+		if(image.getRefresh()>0) {
+			setRefresh = SET_REFRESH;
+			refresh = getRefreshAttribute(widgetId, url, image.getRefresh());
+		}
 		
-		sb.append(snippet);
+		snippet.render(sb,
+			"setrefresh", setRefresh,
+			"refresh", refresh,
+			"id", widgetId,
+			"url", url);
 		return null;
 	}
+
+	/**
+	 * The url of the image contains a timestamp, so the html code must not be reused.
+	 */
+	@Override
+	public boolean isCacheable(Widget w) {
+		return false;
+	}
 }
@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.List;
 import org.openhab.model.sitemap.Widget;
@@ -35,22 +34,20 @@ public class ListRenderer extends AbstractWidgetRenderer {
 	 * {@inheritDoc}
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
-		String snippet = getSnippet("list");
-		snippet = snippet.replaceAll("%label%", getLabel(w));
-		
-		String rowSnippet = getSnippet("list_row");
+		Snippet rowSnippet = getCompiledSnippet("list_row");
 		String state = itemUIRegistry.getState(w).toString();
 		String[] rowContents = state.split(((List) w).getSeparator());
 		StringBuilder rowSB = new StringBuilder();
 		for(String row : rowContents) {
-			rowSB.append(StringUtils.replace(rowSnippet, "%title%", row));
+			rowSnippet.render(rowSB, "title", row);
 		}
-		snippet = StringUtils.replace(snippet, "%rows%", rowSB.toString());
 
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		String valueStyle = getValueStyle(w);
+		getCompiledSnippet("list").render(sb,
+			"label", getLabel(w, valueStyle),
+			"rows", rowSB.toString(),
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
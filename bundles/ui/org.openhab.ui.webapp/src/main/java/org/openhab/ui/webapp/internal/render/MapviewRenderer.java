@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.core.library.types.PointType;
 import org.openhab.core.types.State;
@@ -39,29 +38,30 @@ public class MapviewRenderer extends AbstractWidgetRenderer {
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
 		Mapview mapview = (Mapview) w;
-		String snippet = getSnippet("mapview");
+		Snippet snippet = getCompiledSnippet("mapview");
 		
+		int height = mapview.getHeight();
+		if(height==0) {
+			height = 4;	// set default height to something viewable
+		}
+		height = height * 36;
+
 		State state = itemUIRegistry.getState(mapview);
 		if(state instanceof PointType) {
 			PointType pointState = (PointType) state;
 			double latitude = pointState.getLatitude().doubleValue();
 			double longitude = pointState.getLongitude().doubleValue();
-			snippet = StringUtils.replace(snippet, "%lat%", Double.toString(latitude));
-			snippet = StringUtils.replace(snippet, "%lon%", Double.toString(longitude));
-			snippet = StringUtils.replace(snippet, "%lonminus%", Double.toString(longitude-0.01));
-			snippet = StringUtils.replace(snippet, "%lonplus%", Double.toString(longitude+0.01));
-			snippet = StringUtils.replace(snippet, "%latminus%", Double.toString(latitude-0.01));
-			snippet = StringUtils.replace(snippet, "%latplus%", Double.toString(latitude+0.01));
+			snippet.render(sb,
+				"lat", Double.toString(latitude),
+				"lon", Double.toString(longitude),
+				"lonminus", Double.toString(longitude-0.01),
+				"lonplus", Double.toString(longitude+0.01),
+				"latminus", Double.toString(latitude-0.01),
+				"latplus", Double.toString(latitude+0.01),
+				"height", Integer.toString(height));
+		} else {
+			snippet.render(sb, "height", Integer.toString(height));
 		}
-		
-		int height = mapview.getHeight();
-		if(height==0) {
-			height = 4;	// set default height to something viewable
-		}
-		height = height * 36;
-		snippet = StringUtils.replace(snippet, "%height%", Integer.toString(height));
-		
-		sb.append(snippet);
 		return null;
 	}
 }
@@ -9,18 +9,26 @@
 package org.openhab.ui.webapp.internal.render;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
-import org.apache.commons.lang.StringEscapeUtils;
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistryChangeListener;
+import org.openhab.core.types.State;
+import org.openhab.model.sitemap.ColorArray;
 import org.openhab.model.sitemap.Frame;
 import org.openhab.model.sitemap.Sitemap;
+import org.openhab.model.sitemap.VisibilityRule;
 import org.openhab.model.sitemap.Widget;
 import org.openhab.ui.webapp.internal.servlet.WebAppServlet;
 import org.openhab.ui.webapp.render.RenderException;
 import org.openhab.ui.webapp.render.WidgetRenderer;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,7 +37,10 @@ import org.slf4j.LoggerFactory;
  * is the main entry point for HTML code construction.
  * 
  * It provides the HTML header and skeleton and delegates the rendering of
- * widgets on the page to the dedicated widget renderers.
+ * widgets on the page to the dedicated widget renderers. The whole page is
+ * rendered into a single string builder. The html code of widgets without
+ * children is kept and reused as long as the states of the items the widget
+ * refers to do not change.
  * 
  * @author Kai Kreuzer
  * @since 0.6.0
@@ -39,14 +50,56 @@ public class PageRenderer extends AbstractWidgetRenderer {
 
 	private final static Logger logger = LoggerFactory.getLogger(PageRenderer.class);
 
+	private static final String CHILDREN = "%children%";
+
 	List<WidgetRenderer> widgetRenderers = new ArrayList<WidgetRenderer>();
 
+	/* the html code of the widgets, which is valid as long as the item states do not change */
+	private final Map<Widget, RenderedWidget> renderedWidgets = new WeakHashMap<Widget, RenderedWidget>();
+
+	private final ItemRegistryChangeListener registryChangeListener = new ItemRegistryChangeListener() {
+		public void allItemsChanged(Collection<String> oldItemNames) {
+			clearRenderedWidgets();
+		}
+		public void itemAdded(Item item) {
+			clearRenderedWidgets();
+		}
+		public void itemRemoved(Item item) {
+			clearRenderedWidgets();
+		}
+	};
+
 	public void addWidgetRenderer(WidgetRenderer widgetRenderer) {
 		widgetRenderers.add(widgetRenderer);
+		clearRenderedWidgets();
 	}
 
 	public void removeWidgetRenderer(WidgetRenderer widgetRenderer) {
 		widgetRenderers.remove(widgetRenderer);
+		clearRenderedWidgets();
+	}
+
+	@Override
+	protected void activate(ComponentContext context) {
+		super.activate(context);
+		if(itemUIRegistry!=null) {
+			itemUIRegistry.addItemRegistryChangeListener(registryChangeListener);
+		}
+	}
+
+	@Override
+	protected void deactivate(ComponentContext context) {
+		if(itemUIRegistry!=null) {
+			itemUIRegistry.removeItemRegistryChangeListener(registryChangeListener);
+		}
+		clearRenderedWidgets();
+		super.deactivate(context);
+	}
+
+	private void clearRenderedWidgets() {
+		synchronized (renderedWidgets) {
+			renderedWidgets.clear();
+		}
 	}
 
 	/**
@@ -62,8 +115,7 @@ public class PageRenderer extends AbstractWidgetRenderer {
 	 */
 	public StringBuilder processPage(String id, String sitemap, String label, EList<Widget> children, boolean async) throws RenderException {
 		
-		String snippet = getSnippet(async ? "layer" : "main");
-		snippet = snippet.replaceAll("%id%", id);
+		Snippet snippet = getCompiledSnippet(async ? "layer" : "main");
 
 		// if the label contains a value span, we remove this span as
 		// the title of a page/layer cannot deal with this
@@ -73,73 +125,72 @@ public class PageRenderer extends AbstractWidgetRenderer {
 		if(label.contains("[") && label.endsWith("]")) {
 			label = label.replace("[", "").replace("]", "");
 		}
-		snippet = StringUtils.replace(snippet, "%label%", label);
-		snippet = StringUtils.replace(snippet, "%servletname%", WebAppServlet.SERVLET_NAME);
-		snippet = StringUtils.replace(snippet, "%sitemap%", sitemap);
 
-		String[] parts = snippet.split("%children%");
+		StringBuilder sb = new StringBuilder(snippet.getText().length() + 256 * children.size());
+		snippet.render(sb,
+			"id", id,
+			"label", label,
+			"servletname", WebAppServlet.SERVLET_NAME,
+			"sitemap", sitemap);
 
-		StringBuilder pre_children = new StringBuilder(parts[0]);
-		StringBuilder post_children = new StringBuilder(parts[1]);
-		
-		if(parts.length==2) {
-			processChildren(pre_children, post_children, children);
-		} else if(parts.length > 2){
+		int childrenIndex = sb.indexOf(CHILDREN);
+		if(childrenIndex < 0) {
+			return sb;
+		}
+		int nextChildrenIndex = sb.indexOf(CHILDREN, childrenIndex + CHILDREN.length());
+		if(nextChildrenIndex < 0) {
+			String post = sb.substring(childrenIndex + CHILDREN.length());
+			sb.setLength(childrenIndex);
+			processChildren(sb, children);
+			sb.append(post);
+		} else {
 			logger.error("Snippet '{}' contains multiple %children% sections, but only one is allowed!", async ? "layer" : "main");
+			sb.delete(childrenIndex, childrenIndex + CHILDREN.length());
+			sb.setLength(nextChildrenIndex - CHILDREN.length());
 		}
-		return pre_children.append(post_children);
+		return sb;
 	}
 
-	private void processChildren(StringBuilder sb_pre, StringBuilder sb_post,
-			EList<Widget> children) throws RenderException {
+	private void processChildren(StringBuilder sb, EList<Widget> children) throws RenderException {
 		
 		// put a single frame around all children widgets, if there are no explicit frames 
 		if(!children.isEmpty()) {
 			EObject firstChild = children.get(0);
 			EObject parent = firstChild.eContainer();
 			if(!(firstChild instanceof Frame || parent instanceof Frame || parent instanceof Sitemap || parent instanceof List)) {
-				String frameSnippet = getSnippet("frame");
-				frameSnippet = StringUtils.replace(frameSnippet, "%label%", "");
-				
-				String[] parts = frameSnippet.split("%children%");
-				if(parts.length>1) {
-					sb_pre.append(parts[0]);
-				}
-				if(parts.length>2) {
-					sb_post.insert(0, parts[1]);
-				} 
-				if(parts.length > 2){
-					logger.error("Snippet 'frame' contains multiple %children% sections, but only one is allowed!");
+				String frameCode = getCompiledSnippet("frame").render("label", "");
+				int childrenIndex = frameCode.indexOf(CHILDREN);
+				if(childrenIndex >= 0) {
+					sb.append(frameCode, 0, childrenIndex);
+					if(frameCode.indexOf(CHILDREN, childrenIndex + CHILDREN.length()) >= 0) {
+						logger.error("Snippet 'frame' contains multiple %children% sections, but only one is allowed!");
+					}
 				}
 			}
 		}
 
 		for(Widget w : children) {
-			StringBuilder new_pre = new StringBuilder();
-			StringBuilder new_post = new StringBuilder();
-			StringBuilder widgetSB = new StringBuilder();
-			EList<Widget> nextChildren = renderWidget(w, widgetSB);
+			int widgetStart = sb.length();
+			EList<Widget> nextChildren = renderWidget(w, sb);
 			if(nextChildren!=null) {
-				String[] parts = widgetSB.toString().split("%children%");
-				// no %children% placeholder found or at the end
-				if(parts.length==1) {
-					new_pre.append(widgetSB);
-				}
-				// %children% section found 
-				if(parts.length>1) {
-					new_pre.append(parts[0]);
-					new_post.insert(0, parts[1]);
-				} 
-				// multiple %children% sections found -> log an error and ignore all code starting from the second occurance
-				if(parts.length > 2){
-					String widgetType = w.eClass().getInstanceTypeName().substring(w.eClass().getInstanceTypeName().lastIndexOf(".")+1);
-					logger.error("Snippet for widget '{}' contains multiple %children% sections, but only one is allowed!", widgetType);
+				String post = "";
+				int childrenIndex = sb.indexOf(CHILDREN, widgetStart);
+				// %children% section found, the children are rendered in its place
+				if(childrenIndex >= 0) {
+					int postStart = childrenIndex + CHILDREN.length();
+					int postEnd = sb.indexOf(CHILDREN, postStart);
+					// multiple %children% sections found -> log an error and ignore all code starting from the second occurance
+					if(postEnd >= 0) {
+						String widgetType = w.eClass().getInstanceTypeName().substring(w.eClass().getInstanceTypeName().lastIndexOf(".")+1);
+						logger.error("Snippet for widget '{}' contains multiple %children% sections, but only one is allowed!", widgetType);
+					} else {
+						postEnd = sb.length();
+					}
+					post = sb.substring(postStart, postEnd);
+					sb.setLength(childrenIndex);
 				}
-				processChildren(new_pre, new_post, nextChildren);
-				sb_pre.append(new_pre);
-				sb_pre.append(new_post);
-			} else {
-				sb_pre.append(widgetSB);
+				processChildren(sb, nextChildren);
+				sb.append(post);
 			}
 		}
 		
@@ -155,16 +206,120 @@ public class PageRenderer extends AbstractWidgetRenderer {
 
 		for(WidgetRenderer renderer : widgetRenderers) {
 			if(renderer.canRender(w)) {
+				if(renderer instanceof AbstractWidgetRenderer && ((AbstractWidgetRenderer) renderer).isCacheable(w)) {
+					return renderCachedWidget(renderer, w, sb);
+				}
 				return renderer.renderWidget(w, sb);
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Appends the html code of the widget rendered before, if the states of all items
+	 * the widget refers to are unchanged. Otherwise the widget is rendered and its
+	 * html code is kept, if it has no children to render.
+	 */
+	private EList<Widget> renderCachedWidget(WidgetRenderer renderer, Widget w, StringBuilder sb) throws RenderException {
+		RenderedWidget rendered;
+		synchronized (renderedWidgets) {
+			rendered = renderedWidgets.get(w);
+		}
+		String[] itemNames = rendered!=null ? rendered.itemNames : getItemNames(w);
+		State[] states = getStates(itemNames);
+		if(rendered!=null && rendered.isRenderedFor(states)) {
+			sb.append(rendered.html);
+			return null;
+		}
+
+		int widgetStart = sb.length();
+		EList<Widget> children = renderer.renderWidget(w, sb);
+		if(children==null) {
+			rendered = new RenderedWidget(itemNames, states, sb.substring(widgetStart));
+			synchronized (renderedWidgets) {
+				renderedWidgets.put(w, rendered);
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * @return the names of all items whose state determines the html code of the widget
+	 */
+	private String[] getItemNames(Widget w) {
+		List<String> itemNames = new ArrayList<String>();
+		if(w.getItem()!=null) {
+			itemNames.add(w.getItem());
+		}
+		for(VisibilityRule rule : w.getVisibility()) {
+			if(rule.getItem()!=null) {
+				itemNames.add(rule.getItem());
+			}
+		}
+		for(ColorArray color : w.getLabelColor()) {
+			if(color.getItem()!=null) {
+				itemNames.add(color.getItem());
+			}
+		}
+		for(ColorArray color : w.getValueColor()) {
+			if(color.getItem()!=null) {
+				itemNames.add(color.getItem());
+			}
+		}
+		return itemNames.toArray(new String[itemNames.size()]);
+	}
+
+	private State[] getStates(String[] itemNames) {
+		State[] states = new State[itemNames.length];
+		for(int i = 0; i < itemNames.length; i++) {
+			try {
+				states[i] = itemUIRegistry.getItem(itemNames[i]).getState();
+			} catch (ItemNotFoundException e) {
+				states[i] = null;
+			}
+		}
+		return states;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	public boolean canRender(Widget w) {
 		return false;		
 	}
+
+	/**
+	 * The html code of a widget together with the item states it was rendered for.
+	 */
+	private static class RenderedWidget {
+
+		private final String[] itemNames;
+
+		private final State[] states;
+
+		private final String html;
+
+		private RenderedWidget(String[] itemNames, State[] states, String html) {
+			this.itemNames = itemNames;
+			this.states = states;
+			this.html = html;
+		}
+
+		/**
+		 * Checks whether the widget was rendered for the given states. Every state update
+		 * sets a new state object, so the states are compared by identity, i.e. the state
+		 * objects serve as version of the item state.
+		 */
+		private boolean isRenderedFor(State[] currentStates) {
+			if(states.length != currentStates.length) {
+				return false;
+			}
+			for(int i = 0; i < states.length; i++) {
+				if(states[i] != currentStates[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
 }
@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Mapping;
 import org.openhab.model.sitemap.Selection;
@@ -36,33 +35,26 @@ public class SelectionRenderer extends AbstractWidgetRenderer {
 	 * {@inheritDoc}
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
-		String snippet = getSnippet("selection");
-
-		snippet = StringUtils.replace(snippet, "%icon%", escapeURLPath(itemUIRegistry.getIcon(w)));
-		snippet = StringUtils.replace(snippet, "%label_header%", getLabel(w));
-		
 		String state = itemUIRegistry.getState(w).toString();
 		Selection selection = (Selection) w;
 		
+		Snippet rowSnippet = getCompiledSnippet("selection_row");
 		StringBuilder rowSB = new StringBuilder();
 		for(Mapping mapping : selection.getMappings()) {
-			String rowSnippet = getSnippet("selection_row");
-			rowSnippet = StringUtils.replace(rowSnippet, "%item%", w.getItem()!=null ? w.getItem() : "");
-			rowSnippet = StringUtils.replace(rowSnippet, "%cmd%", mapping.getCmd()!=null ? mapping.getCmd() : "");
-			rowSnippet = StringUtils.replace(rowSnippet, "%label%", mapping.getLabel()!=null ? mapping.getLabel() : "");
-			if(state.equals(mapping.getCmd())) {
-				rowSnippet = StringUtils.replace(rowSnippet, "%checked%", "checked=\"true\"");
-			} else {
-				rowSnippet = StringUtils.replace(rowSnippet, "%checked%", "");
-			}
-			rowSB.append(rowSnippet);
+			rowSnippet.render(rowSB,
+				"item", w.getItem()!=null ? w.getItem() : "",
+				"cmd", mapping.getCmd()!=null ? mapping.getCmd() : "",
+				"label", mapping.getLabel()!=null ? mapping.getLabel() : "",
+				"checked", state.equals(mapping.getCmd()) ? "checked=\"true\"" : "");
 		}
-		snippet = StringUtils.replace(snippet, "%rows%", rowSB.toString());
 		
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		String valueStyle = getValueStyle(w);
+		getCompiledSnippet("selection").render(sb,
+			"icon", escapeURLPath(itemUIRegistry.getIcon(w)),
+			"label_header", getLabel(w, valueStyle),
+			"rows", rowSB.toString(),
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
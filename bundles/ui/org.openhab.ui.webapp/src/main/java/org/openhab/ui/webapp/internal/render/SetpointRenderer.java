@@ -11,7 +11,6 @@ package org.openhab.ui.webapp.internal.render;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.types.State;
@@ -79,24 +78,23 @@ public class SetpointRenderer extends AbstractWidgetRenderer {
 		}
 		
 		String snippetName = "setpoint";
-		String snippet = getSnippet(snippetName);
+		Snippet snippet = getCompiledSnippet(snippetName);
 
-		snippet = StringUtils.replace(snippet, "%id%", itemUIRegistry.getWidgetId(w));
-		snippet = StringUtils.replace(snippet, "%icon%", escapeURLPath(itemUIRegistry.getIcon(w)));
-		snippet = StringUtils.replace(snippet, "%item%", w.getItem());
-		snippet = StringUtils.replace(snippet, "%state%", state.toString());
-		snippet = StringUtils.replace(snippet, "%newlowerstate%", newLowerState);
-		snippet = StringUtils.replace(snippet, "%newhigherstate%", newHigherState);
-		snippet = StringUtils.replace(snippet, "%label%", getLabel(w));
-		snippet = StringUtils.replace(snippet, "%servletname%", WebAppServlet.SERVLET_NAME);
-		snippet = StringUtils.replace(snippet, "%minValue%", minValue.toString());
-		snippet = StringUtils.replace(snippet, "%maxValue%", maxValue.toString());
-		snippet = StringUtils.replace(snippet, "%step%", step.toString());
-		
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		String valueStyle = getValueStyle(w);
+		snippet.render(sb,
+			"id", itemUIRegistry.getWidgetId(w),
+			"icon", escapeURLPath(itemUIRegistry.getIcon(w)),
+			"item", w.getItem(),
+			"state", state.toString(),
+			"newlowerstate", newLowerState,
+			"newhigherstate", newHigherState,
+			"label", getLabel(w, valueStyle),
+			"servletname", WebAppServlet.SERVLET_NAME,
+			"minValue", minValue.toString(),
+			"maxValue", maxValue.toString(),
+			"step", step.toString(),
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Slider;
 import org.openhab.model.sitemap.Widget;
@@ -44,24 +43,23 @@ public class SliderRenderer extends AbstractWidgetRenderer {
 		
 		String snippetName = "slider";
 
-		String snippet = getSnippet(snippetName);
+		Snippet snippet = getCompiledSnippet(snippetName);
 
 		// set the default send-update frequency to 200ms  
 		String frequency = s.getFrequency()==0 ? "200" : Integer.toString(s.getFrequency());
 
-		snippet = StringUtils.replace(snippet, "%id%", itemUIRegistry.getWidgetId(s));
-		snippet = StringUtils.replace(snippet, "%icon%", escapeURLPath(itemUIRegistry.getIcon(s)));
-		snippet = StringUtils.replace(snippet, "%item%", w.getItem());
-		snippet = StringUtils.replace(snippet, "%label%", getLabel(s));
-		snippet = StringUtils.replace(snippet, "%state%", itemUIRegistry.getState(s).toString());
-		snippet = StringUtils.replace(snippet, "%frequency%", frequency);
-		snippet = StringUtils.replace(snippet, "%switch%", s.isSwitchEnabled() ? "1" : "0");
-		snippet = StringUtils.replace(snippet, "%servletname%", WebAppServlet.SERVLET_NAME);
-
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		String valueStyle = getValueStyle(w);
+		snippet.render(sb,
+			"id", itemUIRegistry.getWidgetId(s),
+			"icon", escapeURLPath(itemUIRegistry.getIcon(s)),
+			"item", w.getItem(),
+			"label", getLabel(s, valueStyle),
+			"state", itemUIRegistry.getState(s).toString(),
+			"frequency", frequency,
+			"switch", s.isSwitchEnabled() ? "1" : "0",
+			"servletname", WebAppServlet.SERVLET_NAME,
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.webapp.internal.render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An html snippet split into its static text segments and the placeholders
+ * (e.g. <code>%label%</code>) between them. The snippet is parsed once, so
+ * that rendering a widget only appends the segments and values to a string
+ * builder instead of searching and copying the whole snippet for every
+ * placeholder.
+ *
+ * @author agent
+ * @since 1.8.0
+ *
+ */
+public class Snippet {
+
+	private final String name;
+
+	private final String text;
+
+	/* the static text segments; there is always one segment more than placeholders */
+	private final String[] segments;
+
+	/* the names of the placeholders without the enclosing '%' */
+	private final String[] placeholders;
+
+	/**
+	 * Parses the given snippet text. Placeholders consist of letters and
+	 * underscores enclosed in '%', any other '%' is kept as text.
+	 *
+	 * @param name the name of the snippet (e.g. "switch")
+	 * @param text the html code of the snippet
+	 */
+	public Snippet(String name, String text) {
+		this.name = name;
+		this.text = text;
+
+		List<String> segmentList = new ArrayList<String>();
+		List<String> placeholderList = new ArrayList<String>();
+		int segmentStart = 0;
+		int pos = text.indexOf('%');
+		while (pos >= 0) {
+			int end = pos + 1;
+			while (end < text.length() && isPlaceholderChar(text.charAt(end))) {
+				end++;
+			}
+			if (end > pos + 1 && end < text.length() && text.charAt(end) == '%') {
+				segmentList.add(text.substring(segmentStart, pos));
+				placeholderList.add(text.substring(pos + 1, end));
+				segmentStart = end + 1;
+				pos = text.indexOf('%', segmentStart);
+			} else {
+				pos = text.indexOf('%', pos + 1);
+			}
+		}
+		segmentList.add(text.substring(segmentStart));
+
+		this.segments = segmentList.toArray(new String[segmentList.size()]);
+		this.placeholders = placeholderList.toArray(new String[placeholderList.size()]);
+	}
+
+	private static boolean isPlaceholderChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the unparsed html code of the snippet
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Appends the snippet to a string builder and fills in the placeholders.
+	 * Placeholders without a value (e.g. <code>%children%</code>) are kept
+	 * unchanged.
+	 *
+	 * @param sb the string builder to append to
+	 * @param values alternating placeholder names (without '%') and their values
+	 */
+	public void render(StringBuilder sb, String... values) {
+		for (int i = 0; i < placeholders.length; i++) {
+			sb.append(segments[i]);
+			String value = getValue(placeholders[i], values);
+			if (value != null) {
+				sb.append(value);
+			} else {
+				sb.append('%').append(placeholders[i]).append('%');
+			}
+		}
+		sb.append(segments[placeholders.length]);
+	}
+
+	/**
+	 * Renders the snippet into a new string.
+	 *
+	 * @param values alternating placeholder names (without '%') and their values
+	 * @return the html code
+	 * @see #render(StringBuilder, String...)
+	 */
+	public String render(String... values) {
+		StringBuilder sb = new StringBuilder(text.length() + 64);
+		render(sb, values);
+		return sb.toString();
+	}
+
+	private static String getValue(String placeholder, String[] values) {
+		for (int i = 0; i + 1 < values.length; i += 2) {
+			if (placeholder.equals(values[i])) {
+				return values[i + 1];
+			}
+		}
+		return null;
+	}
+
+}
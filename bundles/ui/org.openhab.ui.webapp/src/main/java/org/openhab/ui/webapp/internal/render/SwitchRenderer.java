@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -71,46 +70,50 @@ public class SwitchRenderer extends AbstractWidgetRenderer {
 			snippetName = "switch";
 		}
 
-		String snippet = getSnippet(snippetName);
+		Snippet snippet = getCompiledSnippet(snippetName);
 
-		snippet = StringUtils.replace(snippet, "%id%", itemUIRegistry.getWidgetId(w));
-		snippet = StringUtils.replace(snippet, "%icon%", escapeURLPath(itemUIRegistry.getIcon(w)));
-		snippet = StringUtils.replace(snippet, "%item%", w.getItem());
-		snippet = StringUtils.replace(snippet, "%label%", getLabel(w));
-		snippet = StringUtils.replace(snippet, "%servletname%", WebAppServlet.SERVLET_NAME);
-		
+		String labelStyle = getLabelStyle(w);
+		String valueStyle = getValueStyle(w);
 		State state = itemUIRegistry.getState(w);
 		
+		String checked = null;
+		String buttons = null;
 		if(s.getMappings().size()==0) {
 			if(state instanceof PercentType) {
 				state = ((PercentType) state).intValue() > 0 ? OnOffType.ON : OnOffType.OFF;
 			}
-			if(state.equals(OnOffType.ON)) {
-				snippet = snippet.replaceAll("%checked%", "checked=true");
-			} else {
-				snippet = snippet.replaceAll("%checked%", "");
-			}
+			checked = state.equals(OnOffType.ON) ? "checked=true" : "";
 		} else {
-			StringBuilder buttons = new StringBuilder();
+			Snippet buttonSnippet = getCompiledSnippet("button");
+			String[] renderedButtons = new String[s.getMappings().size()];
+			int i = renderedButtons.length;
 			for(Mapping mapping : s.getMappings()) {
-				String button = getSnippet("button");
-				button = StringUtils.replace(button, "%item%",w.getItem());
-				button = StringUtils.replace(button, "%cmd%", mapping.getCmd());
-				button = StringUtils.replace(button, "%label%", mapping.getLabel());
-				if(s.getMappings().size()>1 && state.toString().equals(mapping.getCmd())) {
-					button = StringUtils.replace(button, "%type%", "Warn"); // button with red color
-				} else {
-					button = StringUtils.replace(button, "%type%", "Action"); // button with blue color
-				}
-				buttons.insert(0, button);
+				// button with red color for the current state, otherwise with blue color
+				String type = s.getMappings().size()>1 && state.toString().equals(mapping.getCmd()) ? "Warn" : "Action";
+				renderedButtons[--i] = buttonSnippet.render(
+					"item", w.getItem(),
+					"cmd", mapping.getCmd(),
+					"label", mapping.getLabel(),
+					"type", type,
+					"labelstyle", labelStyle);
+			}
+			StringBuilder buttonsSB = new StringBuilder();
+			for(String button : renderedButtons) {
+				buttonsSB.append(button);
 			}
-			snippet = StringUtils.replace(snippet, "%buttons%", buttons.toString());
+			buttons = buttonsSB.toString();
 		}
 		
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		snippet.render(sb,
+			"id", itemUIRegistry.getWidgetId(w),
+			"icon", escapeURLPath(itemUIRegistry.getIcon(w)),
+			"item", w.getItem(),
+			"label", getLabel(w, valueStyle),
+			"servletname", WebAppServlet.SERVLET_NAME,
+			"checked", checked,
+			"buttons", buttons,
+			"labelstyle", labelStyle,
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
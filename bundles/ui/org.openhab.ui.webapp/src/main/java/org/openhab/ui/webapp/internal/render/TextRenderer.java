@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Text;
 import org.openhab.model.sitemap.Widget;
@@ -37,17 +36,16 @@ public class TextRenderer extends AbstractWidgetRenderer {
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
 		Text text = (Text) w;
-		String snippet = (text.getChildren().size() > 0) ? 
-			getSnippet("text_link") : getSnippet("text");			
+		String valueStyle = getValueStyle(w);
+		Snippet snippet = (text.getChildren().size() > 0) ? 
+			getCompiledSnippet("text_link") : getCompiledSnippet("text");			
 			
-		snippet = StringUtils.replace(snippet, "%id%", itemUIRegistry.getWidgetId(w));
-		snippet = StringUtils.replace(snippet, "%icon%", escapeURLPath(itemUIRegistry.getIcon(w)));
-		snippet = StringUtils.replace(snippet, "%label%", getLabel(w));
-
-		// Process the color tags
-		snippet = processColor(w, snippet);
-
-		sb.append(snippet);
+		snippet.render(sb,
+			"id", itemUIRegistry.getWidgetId(w),
+			"icon", escapeURLPath(itemUIRegistry.getIcon(w)),
+			"label", getLabel(w, valueStyle),
+			"labelstyle", getLabelStyle(w),
+			"valuestyle", valueStyle);
 		return null;
 	}
 }
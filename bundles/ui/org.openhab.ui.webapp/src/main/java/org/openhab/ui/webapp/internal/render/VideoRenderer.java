@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Video;
 import org.openhab.model.sitemap.Widget;
@@ -37,22 +36,22 @@ public class VideoRenderer extends AbstractWidgetRenderer {
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
 		Video videoWidget = (Video) w;
-		String snippet = null;
+		Snippet snippet = null;
 		
 		String widgetId = itemUIRegistry.getWidgetId(w);		
 		String sitemap = w.eResource().getURI().path();
 		
 		if(videoWidget.getEncoding() !=null && videoWidget.getEncoding().contains("mjpeg")) {
 			// we handle mjpeg streams as an html image as browser can usually handle this
-			snippet = getSnippet("image");
-			snippet = StringUtils.replace(snippet, "%setrefresh%", "");
-			snippet = StringUtils.replace(snippet, "%refresh%", "");
+			snippet = getCompiledSnippet("image");
 		} else {
-			snippet = getSnippet("video");			
+			snippet = getCompiledSnippet("video");			
 		}
 		String url = "proxy?sitemap=" + sitemap + "&widgetId=" + widgetId;
-		snippet = StringUtils.replace(snippet, "%url%", url);
-		sb.append(snippet);
+		snippet.render(sb,
+			"setrefresh", "",
+			"refresh", "",
+			"url", url);
 		return null;
 	}
 }
@@ -8,7 +8,6 @@
  */
 package org.openhab.ui.webapp.internal.render;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.util.EList;
 import org.openhab.model.sitemap.Webview;
 import org.openhab.model.sitemap.Widget;
@@ -37,17 +36,16 @@ public class WebviewRenderer extends AbstractWidgetRenderer {
 	 */
 	public EList<Widget> renderWidget(Widget w, StringBuilder sb) throws RenderException {
 		Webview webview = (Webview) w;
-		String snippet = getSnippet("webview");			
+		Snippet snippet = getCompiledSnippet("webview");			
 
 		int height = webview.getHeight();
 		if(height==0) {
 			height = 1;
 		}
 		
-		snippet = StringUtils.replace(snippet, "%url%", webview.getUrl());
-		snippet = StringUtils.replace(snippet, "%height%", Integer.toString(height*36));
-		
-		sb.append(snippet);
+		snippet.render(sb,
+			"url", webview.getUrl(),
+			"height", Integer.toString(height*36));
 		return null;
 	}
 }
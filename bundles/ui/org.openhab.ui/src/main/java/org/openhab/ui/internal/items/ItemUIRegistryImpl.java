@@ -15,6 +15,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,10 +39,15 @@ import org.openhab.core.library.items.StringItem;
 import org.openhab.core.library.items.SwitchItem;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.IncreaseDecreaseType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.StopMoveType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationHelper;
-import org.openhab.core.transform.TransformationService;
 import org.openhab.core.types.State;
 import org.openhab.core.types.Type;
 import org.openhab.core.types.UnDefType;
@@ -52,7 +59,6 @@ import org.openhab.model.sitemap.SitemapFactory;
 import org.openhab.model.sitemap.Slider;
 import org.openhab.model.sitemap.VisibilityRule;
 import org.openhab.model.sitemap.Widget;
-import org.openhab.ui.internal.UIActivator;
 import org.openhab.ui.items.ItemUIProvider;
 import org.openhab.ui.items.ItemUIRegistry;
 import org.slf4j.Logger;
@@ -86,6 +92,12 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 	/* RegEx to identify format patterns. See java.util.Formatter#formatSpecifier (without the '%' at the very end). */
 	protected static final String IDENTIFY_FORMAT_PATTERN_PATTERN = "%(\\d+\\$)?([-#+ 0,(\\<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z])";
 
+	/* the maximum number of cached label templates; the cache is emptied if it grows beyond */
+	protected static final int MAX_LABEL_TEMPLATES = 2000;
+
+	/* labels split into their parts, keyed by the label string of the model */
+	protected final ConcurrentMap<String, LabelTemplate> labelTemplates = new ConcurrentHashMap<String, LabelTemplate>();
+
 	protected Set<ItemUIProvider> itemUIProviders = new HashSet<ItemUIProvider>();
 
 	protected ItemRegistry itemRegistry;
@@ -240,16 +252,21 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 	}
 
 	private String formatLabel(Item item, String itemName, String label) {
+		if (label == null) {
+			return null;
+		}
+		LabelTemplate template = getLabelTemplate(label);
+		if (!template.hasValue()) {
+			return label;
+		}
+
+		String value = template.getValuePattern();
+		boolean transform = template.hasTransformation();
 		// now insert the value, if the state is a string or decimal value and
 		// there is some formatting pattern defined in the label
 		// (i.e. it contains at least a %)
-		if (itemName != null && label.contains("[")) {
-
-			int indexOpenBracket = label.indexOf("[");
-			int indexCloseBracket = label.indexOf("]");
-
+		if (itemName != null) {
 			State state = null;
-			String formatPattern = label.substring(indexOpenBracket + 1, indexCloseBracket);
 			// TODO: TEE: we should find a more generic solution here! When
 			// using indexes in formatString this 'contains' will fail again
 			// and will cause an
@@ -258,7 +275,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 			// String
 			// as %d (number).
 			if (item != null) {
-				if (label.contains("%d")) {
+				if (template.isNumberRequested()) {
 					// a number is requested
 					state = item.getState();
 					if (!(state instanceof DecimalType)) {
@@ -270,7 +287,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 			}
 
 			if (state == null || state instanceof UnDefType) {
-				formatPattern = formatUndefined(formatPattern);
+				value = getUndefinedValue(template);
 			} else if (state instanceof Type) {
 				// The following exception handling has been added to work
 				// around a Java bug with formatting
@@ -280,22 +297,65 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 				// This also handles IllegalFormatConverionException, which is a
 				// subclass of IllegalArgument.
 				try {
-					formatPattern = ((Type) state).format(formatPattern);
+					value = format((Type) state, template.getValuePattern());
 				} catch (IllegalArgumentException e) {
 					logger.warn("Exception while formatting value '{}' of item {} with format '{}': {}", state,
-							itemName, formatPattern, e);
-					formatPattern = new String("Err");
+							itemName, template.getValuePattern(), e);
+					value = "Err";
+					transform = false;
 				}
 			}
-
-			label = label.substring(0, indexOpenBracket + 1) + formatPattern + label.substring(indexCloseBracket);
 		}
 
-		label = transform(label);
+		if (transform) {
+			value = transform(template.getTransformationType(), template.getTransformationArgument(), value);
+		}
+		label = template.render(value);
+		if (template.hasLegacyTransformation()) {
+			label = transform(label);
+		}
 
 		return label;
 	}
 
+	/**
+	 * Returns the template for the given label, splitting the label only the first
+	 * time it is seen, i.e. once after the sitemap or item model has been loaded.
+	 */
+	private LabelTemplate getLabelTemplate(String label) {
+		LabelTemplate template = labelTemplates.get(label);
+		if (template == null) {
+			if (labelTemplates.size() >= MAX_LABEL_TEMPLATES) {
+				labelTemplates.clear();
+			}
+			template = new LabelTemplate(label);
+			labelTemplates.put(label, template);
+		}
+		return template;
+	}
+
+	private String getUndefinedValue(LabelTemplate template) {
+		String undefinedValue = template.undefinedValue;
+		if (undefinedValue == null) {
+			undefinedValue = formatUndefined(template.getValuePattern());
+			template.undefinedValue = undefinedValue;
+		}
+		return undefinedValue;
+	}
+
+	/*
+	 * formats the state with the given pattern. The plain pattern "%s" does not need
+	 * a Formatter for the types which format their string representation.
+	 */
+	private String format(Type state, String pattern) {
+		if ("%s".equals(pattern) && (state instanceof StringType || state instanceof OnOffType
+				|| state instanceof OpenClosedType || state instanceof UpDownType
+				|| state instanceof StopMoveType || state instanceof IncreaseDecreaseType)) {
+			return String.valueOf(state.toString());
+		}
+		return state.format(pattern);
+	}
+
 	private String getLabelFromWidget(Widget w) {
 		String label = null;
 		if (w.getLabel() != null) {
@@ -335,11 +395,26 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 		}
 	}
 	
+	/*
+	 * executes the transformation of the given type on the formatted value of a label.
+	 * If the transformation fails or is unavailable, the value is returned untransformed.
+	 */
+	private String transform(String type, String pattern, String value) {
+		try {
+			return TransformationHelper.transform(type, pattern, value);
+		} catch (TransformationException e) {
+			logger.error("transformation throws exception [transformation="
+					+ type + "(" + pattern + "), value=" + value + "]", e);
+		}
+		return value;
+	}
+
 	/*
 	 * check if there is a status value being displayed on the right side of the
 	 * label (the right side is signified by being enclosed in square brackets [].
 	 * If so, check if the value starts with the call to a transformation service 
 	 * (e.g. "[MAP(en.map):%s]") and execute the transformation in this case.
+	 * This is only needed for labels whose transformation contains format specifiers.
 	 */
 	private String transform(String label) {
 		if(label.contains("[") && label.endsWith("]")) {
@@ -348,20 +423,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 				String type = matcher.group(1);
 				String pattern = matcher.group(2);
 				String value = matcher.group(3);
-				TransformationService transformation = 
-					TransformationHelper.getTransformationService(UIActivator.getContext(), type);
-				if(transformation!=null) {
-					try {
-						label = label.substring(0, label.indexOf("[")+1) + transformation.transform(pattern, value) + "]";
-					} catch (TransformationException e) {
-						logger.error("transformation throws exception [transformation="
-								+ transformation + ", value=" + value + "]", e);
-						label = label.substring(0, label.indexOf("[")+1) + value + "]";
-					}
-				} else {
-					logger.warn("couldn't transform value in label because transformationService of type '{}' is unavailable", type);
-					label = label.substring(0, label.indexOf("[")+1) + value + "]";
-				}
+				label = label.substring(0, label.indexOf("[")+1) + transform(type, pattern, value) + "]";
 			}
 		}
 		return label;
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2015, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.internal.items;
+
+/**
+ * A label of the sitemap or item model split into its parts once, so that
+ * labels can be rendered without searching and splitting the label string
+ * again on every request. A label like <code>Temperature [MAP(temp.map):%s]</code>
+ * consists of the text up to the opening bracket, the format pattern
+ * <code>%s</code>, an optional transformation (type <code>MAP</code> with the
+ * argument <code>temp.map</code>) and the text from the closing bracket on.
+ *
+ * @author agent
+ * @since 1.8.0
+ */
+class LabelTemplate {
+
+	private final String label;
+
+	private final boolean hasValue;
+
+	private final String prefix;
+
+	private final String suffix;
+
+	private final String valuePattern;
+
+	private final boolean numberRequested;
+
+	private final String transformationType;
+
+	private final String transformationArgument;
+
+	private final boolean legacyTransformation;
+
+	/* the value pattern formatted for an undefined state, computed on first use */
+	volatile String undefinedValue;
+
+	LabelTemplate(String label) {
+		this.label = label;
+		int indexOpenBracket = label.indexOf('[');
+		int indexCloseBracket = label.indexOf(']');
+		this.hasValue = indexOpenBracket >= 0 && indexCloseBracket > indexOpenBracket;
+		if (!hasValue) {
+			this.prefix = label;
+			this.suffix = "";
+			this.valuePattern = null;
+			this.numberRequested = false;
+			this.transformationType = null;
+			this.transformationArgument = null;
+			this.legacyTransformation = false;
+			return;
+		}
+		this.prefix = label.substring(0, indexOpenBracket + 1);
+		this.suffix = label.substring(indexCloseBracket);
+		this.numberRequested = label.contains("%d");
+
+		// a transformation is only applied if the value is at the very end of the label,
+		// the pattern looks like TYPE(argument):pattern
+		String formatPattern = label.substring(indexOpenBracket + 1, indexCloseBracket);
+		int indexOpenParenthesis = formatPattern.indexOf('(');
+		int indexArgumentEnd = formatPattern.lastIndexOf("):");
+		if (label.endsWith("]") && suffix.length() == 1 && indexOpenParenthesis >= 0
+				&& indexArgumentEnd >= indexOpenParenthesis) {
+			String type = formatPattern.substring(0, indexOpenParenthesis);
+			String argument = formatPattern.substring(indexOpenParenthesis + 1, indexArgumentEnd);
+			if (type.indexOf('%') < 0 && argument.indexOf('%') < 0) {
+				this.transformationType = type;
+				this.transformationArgument = argument;
+				this.valuePattern = formatPattern.substring(indexArgumentEnd + 2);
+				this.legacyTransformation = false;
+			} else {
+				// the transformation itself contains format specifiers, so it can only be
+				// determined after formatting the whole pattern
+				this.transformationType = null;
+				this.transformationArgument = null;
+				this.valuePattern = formatPattern;
+				this.legacyTransformation = true;
+			}
+		} else {
+			this.transformationType = null;
+			this.transformationArgument = null;
+			this.valuePattern = formatPattern;
+			this.legacyTransformation = false;
+		}
+	}
+
+	/**
+	 * @return the label this template was created from
+	 */
+	String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return true, if the label contains a value section in square brackets
+	 */
+	boolean hasValue() {
+		return hasValue;
+	}
+
+	/**
+	 * @return the format pattern of the value without a transformation prefix
+	 */
+	String getValuePattern() {
+		return valuePattern;
+	}
+
+	/**
+	 * @return true, if the label requests a number (i.e. it contains <code>%d</code>)
+	 */
+	boolean isNumberRequested() {
+		return numberRequested;
+	}
+
+	/**
+	 * @return true, if the value has to be transformed after formatting
+	 */
+	boolean hasTransformation() {
+		return transformationType != null;
+	}
+
+	String getTransformationType() {
+		return transformationType;
+	}
+
+	String getTransformationArgument() {
+		return transformationArgument;
+	}
+
+	/**
+	 * @return true, if the transformation could not be determined in advance
+	 * and the formatted label has to be searched for it
+	 */
+	boolean hasLegacyTransformation() {
+		return legacyTransformation;
+	}
+
+	/**
+	 * Renders the label with the given value between the brackets.
+	 *
+	 * @param value the formatted (and transformed) value
+	 * @return the label
+	 */
+	String render(String value) {
+		if (!hasValue) {
+			return label;
+		}
+		return new StringBuilder(prefix.length() + value.length() + suffix.length())
+			.append(prefix).append(value).append(suffix).toString();
+	}
+
+}